@@ -0,0 +1,83 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.AjusteurTexel;
+import cstjean.mobile.dames.Evaluation;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.Xorshift;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link AjusteurTexel}.
+ */
+public class TestAjusteurTexel {
+
+    /**
+     * Remplit un ajusteur de positions aléatoires dont le résultat suit l’avantage en pions.
+     *
+     * @param ajusteur   l’ajusteur
+     * @param evaluation l’évaluation qui fournit les caractéristiques
+     * @param nombre     le nombre de positions
+     */
+    private void remplir(AjusteurTexel ajusteur, Evaluation evaluation, int nombre) {
+        Xorshift hasard = new Xorshift(31);
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        int[] valeurs = new int[Evaluation.NB_CARACTERISTIQUES];
+        Position position = Position.initiale();
+        for (int i = 0; i < nombre; i++) {
+            int n = GenerateurCoups.generer(position, coups);
+            position = n == 0 || i % 60 == 0 ? Position.initiale() : position.appliquer(coups[hasard.suivant(n)]);
+            evaluation.caracteristiques(position, valeurs);
+            ajusteur.ajouter(position, Integer.signum(valeurs[Evaluation.PIONS]));
+        }
+    }
+
+    /**
+     * Vérifie le gradient par différences finies et l’égalité entre calcul parallèle et séquentiel.
+     */
+    @Test
+    public void testGradient() {
+        Evaluation evaluation = new Evaluation();
+        AjusteurTexel parallele = new AjusteurTexel(evaluation);
+        AjusteurTexel sequentiel = new AjusteurTexel(evaluation, new ForkJoinPool(1));
+        remplir(parallele, evaluation, 30000);
+        remplir(sequentiel, evaluation, 30000);
+        assertEquals(30000, parallele.getNombre());
+
+        double[] poids = {100, 300, 5, 8, 4, -3};
+        double[] gradient = new double[Evaluation.NB_CARACTERISTIQUES];
+        double perte = parallele.perte(poids, gradient);
+        assertEquals(sequentiel.perte(poids, null), perte, 1e-12);
+
+        for (int k = 0; k < poids.length; k++) {
+            double[] decale = poids.clone();
+            decale[k] += 1e-3;
+            double difference = (parallele.perte(decale, null) - perte) / 1e-3;
+            assertEquals(difference, gradient[k], 1e-6 + Math.abs(gradient[k]) * 1e-2);
+        }
+    }
+
+    /**
+     * Vérifie que l’ajustement diminue la perte.
+     */
+    @Test
+    public void testAjuster() {
+        Evaluation depart = new Evaluation(Geometrie.DIX, new int[] {10, 10, 10, 10, 10, 10});
+        AjusteurTexel ajusteur = new AjusteurTexel(depart);
+        remplir(ajusteur, depart, 20000);
+        ajusteur.ajusterEchelle();
+        assertTrue(ajusteur.getEchelle() > 0.1 && ajusteur.getEchelle() < 10);
+        double[] initiaux = {10, 10, 10, 10, 10, 10};
+        double avant = ajusteur.perte(initiaux, null);
+        Evaluation ajustee = ajusteur.ajuster(200, 2.0);
+        double[] apres = new double[Evaluation.NB_CARACTERISTIQUES];
+        for (int k = 0; k < apres.length; k++) {
+            apres[k] = ajustee.getPoids()[k];
+        }
+        assertTrue(ajusteur.perte(apres, null) < avant);
+        assertTrue(ajustee.getPoids()[Evaluation.PIONS] > 10);
+    }
+}
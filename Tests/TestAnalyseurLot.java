@@ -0,0 +1,148 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.AnalyseurLot;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.Xorshift;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link AnalyseurLot}.
+ */
+public class TestAnalyseurLot {
+
+    /**
+     * Abonné de test qui accumule les analyses reçues.
+     */
+    private static class Abonne implements Flow.Subscriber<AnalyseurLot.Analyse> {
+
+        /** Les analyses reçues, par identifiant. */
+        private final Map<Long, AnalyseurLot.Analyse> recues = new ConcurrentHashMap<>();
+
+        /** Signale la fin de la publication. */
+        private final CountDownLatch fin = new CountDownLatch(1);
+
+        /** L’erreur reçue, le cas échéant. */
+        private volatile Throwable erreur;
+
+        @Override
+        public void onSubscribe(Flow.Subscription abonnement) {
+            abonnement.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(AnalyseurLot.Analyse analyse) {
+            recues.put(analyse.getId(), analyse);
+        }
+
+        @Override
+        public void onError(Throwable erreur) {
+            this.erreur = erreur;
+            fin.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            fin.countDown();
+        }
+    }
+
+    /**
+     * Crée les positions successives de parties aléatoires.
+     *
+     * @param nombre le nombre de positions
+     * @param graine la graine du hasard
+     * @return les positions
+     */
+    private static List<Position> positions(int nombre, long graine) {
+        Xorshift hasard = new Xorshift(graine);
+        int[] possibles = new int[GenerateurCoups.COUPS_MAX];
+        List<Position> positions = new ArrayList<>();
+        Position position = Position.initiale();
+        while (positions.size() < nombre) {
+            int n = GenerateurCoups.generer(position, possibles);
+            if (n == 0) {
+                position = Position.initiale();
+                continue;
+            }
+            positions.add(position);
+            position = position.appliquer(possibles[hasard.suivant(n)]);
+        }
+        return positions;
+    }
+
+    /**
+     * Vérifie que chaque position soumise est analysée et que les coups classés sont légaux et triés.
+     *
+     * @throws InterruptedException si l’attente est interrompue
+     */
+    @Test
+    public void testAnalyser() throws InterruptedException {
+        List<Position> positions = positions(60, 3);
+        Abonne abonne = new Abonne();
+        try (AnalyseurLot analyseur = new AnalyseurLot(4, 1 << 20, 4, Long.MAX_VALUE, 3)) {
+            analyseur.subscribe(abonne);
+            analyseur.soumettre(0, positions);
+            analyseur.soumettre(100, "W:W31-50:B1-20");
+            Damier damier = new Damier();
+            positions.get(7).copierDans(damier);
+            analyseur.soumettre(101, damier);
+            assertThrows(IllegalArgumentException.class, () -> analyseur.soumettre(102, "W:W0"));
+        }
+        assertTrue(abonne.fin.await(10, TimeUnit.SECONDS));
+        assertNull(abonne.erreur);
+        assertEquals(62, abonne.recues.size());
+
+        int[] possibles = new int[GenerateurCoups.COUPS_MAX];
+        for (int i = 0; i < positions.size(); i++) {
+            AnalyseurLot.Analyse analyse = abonne.recues.get((long) i);
+            assertEquals(positions.get(i), analyse.getPosition());
+            assertEquals(4, analyse.getProfondeur());
+            int n = GenerateurCoups.generer(positions.get(i), possibles);
+            int[] coups = analyse.getCoups();
+            int[] scores = analyse.getScores();
+            assertEquals(Math.min(3, n), coups.length);
+            for (int j = 0; j < coups.length; j++) {
+                boolean legal = false;
+                for (int k = 0; k < n; k++) {
+                    legal |= possibles[k] == coups[j];
+                }
+                assertTrue(legal);
+                assertTrue(j == 0 || scores[j - 1] >= scores[j]);
+            }
+        }
+        assertEquals(Position.initiale(), abonne.recues.get(100L).getPosition());
+        assertEquals(positions.get(7), abonne.recues.get(101L).getPosition());
+    }
+
+    /**
+     * Vérifie que le budget de nœuds limite la profondeur atteinte.
+     *
+     * @throws InterruptedException si l’attente est interrompue
+     */
+    @Test
+    public void testBudgetNoeuds() throws InterruptedException {
+        Abonne abonne = new Abonne();
+        try (AnalyseurLot analyseur = new AnalyseurLot(2, 1 << 16, 30, 5_000, 2)) {
+            analyseur.subscribe(abonne);
+            analyseur.soumettre(1, Position.initiale());
+        }
+        assertTrue(abonne.fin.await(10, TimeUnit.SECONDS));
+        AnalyseurLot.Analyse analyse = abonne.recues.get(1L);
+        assertTrue(analyse.getProfondeur() > 0);
+        assertTrue(analyse.getProfondeur() < 30);
+        assertEquals(2, analyse.getCoups().length);
+        assertTrue(analyse.getNoeuds() <= 5_000);
+    }
+}
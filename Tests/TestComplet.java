@@ -15,6 +15,32 @@ import org.junit.runners.Suite;
     TestDame.class,
     TestDamier.class,
     TestDeplacementPion.class,
-    TestPion.class
+    TestPion.class,
+    TestRenduDamier.class,
+    TestDiffuseurDeplacements.class,
+    TestPosition.class,
+    TestDetecteurNulle.class,
+    TestGeometrie.class,
+    TestMoteurMcts.class,
+    TestMoteurPartiesAleatoires.class,
+    TestEvaluation.class,
+    TestEvaluationNnue.class,
+    TestRechercheAlphaBeta.class,
+    TestEchantillons.class,
+    TestAjusteurTexel.class,
+    TestJournalCoups.class,
+    TestSolveurPreuve.class,
+    TestMagasinPositions.class,
+    TestIndexPositions.class,
+    TestExplorateurOuvertures.class,
+    TestJournalParties.class,
+    TestMoteurHub.class,
+    TestGestionTemps.class,
+    TestTableTransposition.class,
+    TestAnalyseurLot.class,
+    TestHistogrammeLatence.class,
+    TestSalleParties.class,
+    TestHarnaisCharge.class,
+    TestDifferentiel.class
 })
 public class TestComplet {}
\ No newline at end of file
@@ -1,11 +1,20 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
+import cstjean.mobile.dames.Coup;
 import cstjean.mobile.dames.Dame;
 import cstjean.mobile.dames.Damier;
 import cstjean.mobile.dames.DeplacementPion;
+import cstjean.mobile.dames.GenerateurCoups;
 import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.ResultatCoup;
+import cstjean.mobile.dames.StatutCoup;
+import cstjean.mobile.dames.Xorshift;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Test;
 
 /**
@@ -261,29 +270,45 @@ public class TestDamier {
     @Test
     public void testDameDamier() {
         Damier damier = new Damier();
-        DeplacementPion dp = new DeplacementPion(damier);
         Dame dameBlanc = new Dame(Pion.Couleur.Blanc);
         damier.ajouterPion(32, dameBlanc);
         assertEquals(dameBlanc, damier.recupererPion(32));
-        assertEquals(38, damier.capture(32, 43, dp));
-        assertEquals(37, damier.capture(32, 41, dp));
-        assertEquals(27, damier.capture(32, 21, dp));
-        assertEquals(28, damier.capture(32, 23, dp));
+        assertEquals(38, damier.capture(32, 43));
+        assertEquals(37, damier.capture(32, 41));
+        assertEquals(27, damier.capture(32, 21));
+        assertEquals(28, damier.capture(32, 23));
+        assertEquals(10, damier.capture(32, 5));
+        assertEquals(-1, damier.capture(32, 33));
     }
 
     @Test
     public void testPionNoirCapture() {
         Damier damier = new Damier();
-        DeplacementPion dp = new DeplacementPion(damier);
         Pion noir = new Pion(Pion.Couleur.Noir);
         Pion blanc = new Pion();
         damier.ajouterPion(28, blanc);
         damier.ajouterPion(23, noir);
-        assertEquals(28, damier.capture(23, 32, dp));
-        assertEquals(29, damier.capture(23, 34, dp));
-        assertEquals(22, damier.capture(28, 17, dp));
-        assertEquals(-1, damier.capture(28, 38, dp));
+        assertEquals(28, damier.capture(23, 32));
+        assertEquals(29, damier.capture(23, 34));
+        assertEquals(22, damier.capture(28, 17));
+        assertEquals(-1, damier.capture(28, 38));
+        assertEquals(-1, damier.capture(28, 22));
+        assertEquals(-1, damier.capture(23, 24));
+        assertEquals(-1, damier.capture(23, 51));
+        assertEquals(-1, damier.capture(0, 6));
+        assertEquals(-1, damier.capture(-7, 12));
+        assertEquals(-1, damier.capture(51, 40));
+        assertEquals(-1, damier.capture(1, 12));
+    }
 
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testCaptureDeplacementPion() {
+        Damier damier = new Damier();
+        damier.ajouterPion(23, new Pion(Pion.Couleur.Noir));
+        DeplacementPion dp = new DeplacementPion(damier);
+        assertEquals(28, damier.capture(23, 32, dp));
+        assertEquals(-1, damier.capture(60, 32, dp));
     }
 
     @Test
@@ -295,4 +320,99 @@ public class TestDamier {
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testJouerStatuts() {
+        Damier damier = new Damier();
+        damier.ajouterPion(32, new Pion());
+        damier.ajouterPion(28, new Pion(Pion.Couleur.Noir));
+        damier.ajouterPion(10, new Pion(Pion.Couleur.Noir));
+
+        assertEquals(StatutCoup.AucunePiece, ResultatCoup.statut(damier.jouer(60, 1)));
+        assertEquals(StatutCoup.AucunePiece, ResultatCoup.statut(damier.jouer(31, 27)));
+        assertEquals(StatutCoup.MauvaisCamp, ResultatCoup.statut(damier.jouer(28, 33)));
+        assertEquals(StatutCoup.DestinationIllegale, ResultatCoup.statut(damier.jouer(32, 37)));
+        assertEquals(StatutCoup.DestinationIllegale, ResultatCoup.statut(damier.jouer(32, 99)));
+
+        damier.setPriseObligatoire(true);
+        assertTrue(damier.isPriseObligatoire());
+        assertEquals(StatutCoup.PriseObligatoire, ResultatCoup.statut(damier.jouer(32, 27)));
+        assertEquals(Pion.Couleur.Blanc, damier.getJoueurCourant());
+
+        int resultat = damier.jouer(32, 23);
+        assertTrue(ResultatCoup.estAccepte(resultat));
+        int coup = ResultatCoup.coup(resultat);
+        assertEquals(32, Coup.depart(coup));
+        assertEquals(23, Coup.arrivee(coup));
+        assertEquals(28, Coup.prise(coup));
+        assertEquals(Coup.PIECE_PION_NOIR, Coup.piecePrise(coup));
+        assertNull(damier.recupererPion(28));
+        assertEquals(Pion.Couleur.Noir, damier.getJoueurCourant());
+    }
+
+    @Test
+    public void testJouerPartieTerminee() {
+        Damier damier = new Damier();
+        // Pion blanc en 1 : aucune case vers l’avant.
+        damier.ajouterPion(1, new Pion());
+        damier.ajouterPion(50, new Pion(Pion.Couleur.Noir));
+        assertTrue(damier.estPartieTerminee());
+        assertEquals(StatutCoup.PartieTerminee, ResultatCoup.statut(damier.jouer(1, 6)));
+    }
+
+    @Test
+    public void testObservateurEnEchec() {
+        Damier damier = new Damier();
+        damier.initialiser();
+        List<Integer> recus = new ArrayList<>();
+        List<Throwable> erreurs = new ArrayList<>();
+        damier.ajouterObservateur((d, coup) -> {
+            throw new IllegalStateException("observateur en panne");
+        });
+        damier.ajouterObservateur((d, coup) -> recus.add(coup));
+        Thread fil = Thread.currentThread();
+        Thread.UncaughtExceptionHandler precedent = fil.getUncaughtExceptionHandler();
+        fil.setUncaughtExceptionHandler((t, e) -> erreurs.add(e));
+        try {
+            int resultat = damier.jouer(32, 28);
+            assertTrue(ResultatCoup.estAccepte(resultat));
+            assertEquals(List.of(ResultatCoup.coup(resultat)), recus);
+            assertEquals(1, erreurs.size());
+            assertTrue(erreurs.get(0) instanceof IllegalStateException);
+            assertEquals(Pion.Couleur.Noir, damier.getJoueurCourant());
+        } finally {
+            fil.setUncaughtExceptionHandler(precedent);
+        }
+    }
+
+    @Test
+    public void testJouerConcordeAvecDeplacementPion() {
+        Xorshift hasard = new Xorshift(17);
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        Position position = Position.initiale();
+        for (int demiCoup = 0; demiCoup < 150; demiCoup++) {
+            Damier reference = position.versDamier();
+            DeplacementPion dp = new DeplacementPion(reference);
+            for (int depart = 1; depart <= 50; depart++) {
+                Pion pion = reference.recupererPion(depart);
+                if (pion == null || pion.getCouleur() != position.getTrait()) {
+                    continue;
+                }
+                List<Integer> possibles = dp.getToutesLesPossibilites(depart);
+                for (int arrivee = 1; arrivee <= 50; arrivee++) {
+                    int resultat = position.versDamier().jouer(depart, arrivee);
+                    assertEquals(depart + "-" + arrivee, possibles.contains(arrivee),
+                            ResultatCoup.estAccepte(resultat));
+                }
+            }
+            int n = GenerateurCoups.generer(position, coups);
+            if (n == 0) {
+                break;
+            }
+            int coup = coups[hasard.suivant(n)];
+            Damier damier = position.versDamier();
+            assertEquals(coup, ResultatCoup.coup(damier.jouer(Coup.depart(coup), Coup.arrivee(coup))));
+            position = position.appliquer(coup);
+            assertEquals(position, Position.depuis(damier));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Dame;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.DetecteurNulle;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link DetecteurNulle}
+ * et son intégration dans {@link Damier}.
+ *
+ * <p>
+ * Vérifie la triple répétition, la règle des 25 coups, les finales réduites
+ * et la cohérence du hachage incrémental du damier.
+ * </p>
+ */
+public class TestDetecteurNulle {
+
+    /**
+     * Crée un damier où seules deux dames peuvent aller et venir,
+     * entourées de pions qui ne bougent pas.
+     *
+     * @return le damier préparé
+     */
+    private Damier damierDeDames() {
+        Damier damier = new Damier();
+        damier.ajouterPion(46, new Dame(Pion.Couleur.Blanc));
+        damier.ajouterPion(5, new Dame(Pion.Couleur.Noir));
+        damier.ajouterPion(31, new Pion(Pion.Couleur.Blanc));
+        damier.ajouterPion(32, new Pion(Pion.Couleur.Blanc));
+        damier.ajouterPion(18, new Pion(Pion.Couleur.Noir));
+        damier.ajouterPion(19, new Pion(Pion.Couleur.Noir));
+        return damier;
+    }
+
+    @Test
+    public void testTripleRepetition() {
+        Damier damier = damierDeDames();
+        for (int i = 0; i < 7; i++) {
+            if (i % 4 == 0) {
+                damier.deplacer(46, 41);
+            } else if (i % 4 == 1) {
+                damier.deplacer(5, 10);
+            } else if (i % 4 == 2) {
+                damier.deplacer(41, 46);
+            } else {
+                damier.deplacer(10, 5);
+            }
+            assertFalse(damier.estPartieNulle());
+        }
+        damier.deplacer(10, 5);
+        assertEquals(DetecteurNulle.Motif.Repetition, damier.getMotifNulle());
+    }
+
+    @Test
+    public void testCoupDePionEfface() {
+        Damier damier = damierDeDames();
+        damier.deplacer(46, 41);
+        damier.deplacer(5, 10);
+        damier.deplacer(41, 46);
+        damier.deplacer(10, 5);
+        damier.deplacer(31, 26);
+        damier.deplacer(5, 10);
+        damier.deplacer(46, 41);
+        damier.deplacer(10, 5);
+        damier.deplacer(41, 46);
+        assertFalse(damier.estPartieNulle());
+    }
+
+    @Test
+    public void testHachageIncremental() {
+        Damier damier = new Damier();
+        damier.initialiser();
+        damier.deplacer(32, 28);
+        damier.deplacer(19, 23);
+        damier.deplacer(28, 19);
+        assertEquals(Position.depuis(damier).getHachage(), damier.getHachage());
+        assertEquals(39, damier.grandeur());
+    }
+
+    @Test
+    public void testVingtCinqCoups() {
+        DetecteurNulle detecteur = new DetecteurNulle();
+        for (int i = 1; i < DetecteurNulle.DEMI_COUPS_DAMES; i++) {
+            assertEquals(DetecteurNulle.Motif.Aucun, detecteur.enregistrer(i, false, 3, 1, 3, 1));
+        }
+        assertEquals(DetecteurNulle.Motif.VingtCinqCoups, detecteur.enregistrer(-1, false, 3, 1, 3, 1));
+        assertEquals(DetecteurNulle.Motif.Aucun, detecteur.enregistrer(-2, true, 2, 1, 3, 1));
+        assertEquals(0, detecteur.getDemiCoupsDames());
+    }
+
+    @Test
+    public void testFinaleReduite() {
+        DetecteurNulle detecteur = new DetecteurNulle();
+        for (int i = 0; i <= DetecteurNulle.DEMI_COUPS_FINALE_COURTE - 1; i++) {
+            assertEquals(DetecteurNulle.Motif.Aucun, detecteur.enregistrer(i + 1, false, 0, 2, 0, 1));
+        }
+        assertEquals(DetecteurNulle.Motif.FinaleReduite, detecteur.enregistrer(100, false, 0, 2, 0, 1));
+
+        detecteur.reinitialiser(0L);
+        for (int i = 0; i < DetecteurNulle.DEMI_COUPS_FINALE_LONGUE; i++) {
+            assertEquals(DetecteurNulle.Motif.Aucun, detecteur.enregistrer(i + 1, false, 0, 1, 2, 1));
+        }
+        assertTrue(detecteur.getDemiCoupsFinale() > 0);
+    }
+}
@@ -0,0 +1,385 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.DeplacementPion;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.ObservateurDeplacement;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.Xorshift;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test différentiel aléatoire : le moteur de règles de référence ({@link DeplacementPion},
+ * {@link Damier#deplacer(int, int)} et {@link Damier#capture(int, int)}) contre
+ * le moteur rapide ({@link GenerateurCoups} et {@link Position#appliquer(int)}).
+ * Le chemin {@link Damier#jouer(int, int)}, tiré des mêmes tables que le moteur rapide,
+ * ne sert pas de référence.
+ *
+ * <p>
+ * Des parties aléatoires fournissent des positions atteignables ; pour chacune, les deux moteurs
+ * doivent donner les mêmes coups légaux, et chaque coup doit mener à la même position. Une divergence
+ * est réduite à une position minimale, en retirant des pièces tant qu’elle persiste, avant d’échouer.
+ * </p>
+ *
+ * <p>
+ * La durée de chaque géométrie se règle par {@code -Ddifferentiel.ms=60000} pour servir de garde
+ * avant d’accepter une optimisation du chemin des coups ; chaque processeur explore ses propres parties.
+ * </p>
+ */
+public class TestDifferentiel {
+
+    /** Durée du test de chaque géométrie, en millisecondes. */
+    private static final long DUREE = Long.getLong("differentiel.ms", 1000);
+
+    /** Longueur maximale d’une partie aléatoire, en demi-coups. */
+    private static final int DEMI_COUPS_MAX = 200;
+
+    /** Taille, en mots, d’un ensemble de déplacements indexé par {@code depart × 128 + arrivee}. */
+    private static final int MOTS = (Long.SIZE + 1) * 128 / Long.SIZE;
+
+    /** Flux qui absorbe l’affichage de {@link Damier#deplacer(int, int)}. */
+    private static final PrintStream MUET = new PrintStream(OutputStream.nullOutputStream());
+
+    /** La sortie standard, rétablie après chaque test. */
+    private PrintStream sortie;
+
+    /**
+     * Moteur de règles comparé à la référence.
+     */
+    interface MoteurRapide {
+
+        /**
+         * Génère les coups légaux.
+         *
+         * @param position la position
+         * @param coups    reçoit les coups, codés selon {@link Coup}
+         * @return le nombre de coups
+         */
+        int generer(Position position, int[] coups);
+
+        /**
+         * Joue un coup.
+         *
+         * @param position la position
+         * @param coup     un coup légal
+         * @return la position suivante
+         */
+        Position appliquer(Position position, int coup);
+    }
+
+    /**
+     * Rend muet l’affichage du damier de référence, pour tous les fils d’exploration.
+     */
+    @Before
+    public void setUp() {
+        sortie = System.out;
+        System.setOut(MUET);
+    }
+
+    /**
+     * Rétablit la sortie standard.
+     */
+    @After
+    public void tearDown() {
+        System.setOut(sortie);
+    }
+
+    /** Le moteur rapide actuel ; un nouveau générateur se branche ici. */
+    private static final MoteurRapide ACTUEL = new MoteurRapide() {
+        @Override
+        public int generer(Position position, int[] coups) {
+            return GenerateurCoups.generer(position, coups);
+        }
+
+        @Override
+        public Position appliquer(Position position, int coup) {
+            return position.appliquer(coup);
+        }
+    };
+
+    /**
+     * Compare les moteurs sur des parties aléatoires 10 × 10.
+     */
+    @Test
+    public void testDix() {
+        assertTrue(explorerEnParallele(Geometrie.DIX, ACTUEL, 1) > 0);
+    }
+
+    /**
+     * Compare les moteurs sur des parties aléatoires 8 × 8.
+     */
+    @Test
+    public void testHuit() {
+        assertTrue(explorerEnParallele(Geometrie.HUIT, ACTUEL, 2) > 0);
+    }
+
+    /**
+     * Vérifie qu’un moteur fautif est détecté et que sa divergence est réduite.
+     */
+    @Test
+    public void testDetection() {
+        // Un moteur qui oublie la promotion des pions blancs
+        MoteurRapide fautif = new MoteurRapide() {
+            @Override
+            public int generer(Position position, int[] coups) {
+                return GenerateurCoups.generer(position, coups);
+            }
+
+            @Override
+            public Position appliquer(Position position, int coup) {
+                Position suivante = position.appliquer(coup);
+                if (!Coup.estPromotion(coup) || position.getTrait() != Pion.Couleur.Blanc) {
+                    return suivante;
+                }
+                long bit = 1L << (Coup.arrivee(coup) - 1);
+                return Position.depuisMasques(position.getGeometrie(), suivante.getBlancs(), suivante.getNoirs(),
+                        suivante.getDames() & ~bit, suivante.getTrait());
+            }
+        };
+        Position position = Position.depuisFen("W:W7,31:B1,40,K50");
+        Damier damier = new Damier(Geometrie.DIX);
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        assertNull(comparer(position, damier, ACTUEL, coups));
+        assertTrue(comparer(position, damier, fautif, coups).contains("7-"));
+
+        Position minimale = reduire(position, p -> comparer(p, damier, fautif, coups) != null);
+        assertEquals(1, Long.bitCount(minimale.getBlancs() | minimale.getNoirs()));
+        assertEquals(1L << 6, minimale.getBlancs());
+    }
+
+    /**
+     * Vérifie la réduction d’une position selon un critère quelconque.
+     */
+    @Test
+    public void testReduction() {
+        Position position = Position.depuisFen("W:WK4,31,32,33,34:B1,2,3,K46");
+        Predicate<Position> critere = p -> (p.getBlancs() & p.getDames()) != 0 && (p.getNoirs() & ~p.getDames()) != 0;
+        Position minimale = reduire(position, critere);
+        assertTrue(critere.test(minimale));
+        assertEquals(2, Long.bitCount(minimale.getBlancs() | minimale.getNoirs()));
+        assertEquals(minimale, reduire(minimale, critere));
+    }
+
+    /**
+     * Lance une exploration par processeur, chacune avec sa propre graine.
+     *
+     * @param geometrie la géométrie du damier
+     * @param moteur    le moteur comparé à la référence
+     * @param graine    la graine de base
+     * @return le nombre total de positions comparées
+     */
+    private static long explorerEnParallele(Geometrie geometrie, MoteurRapide moteur, long graine) {
+        int fils = Runtime.getRuntime().availableProcessors();
+        return IntStream.range(0, fils).parallel()
+                .mapToLong(i -> explorer(geometrie, moteur, graine * fils + i))
+                .sum();
+    }
+
+    /**
+     * Joue des parties aléatoires jusqu’à l’échéance et compare les moteurs à chaque position.
+     *
+     * @param geometrie la géométrie du damier
+     * @param moteur    le moteur comparé à la référence
+     * @param graine    la graine du hasard
+     * @return le nombre de positions comparées
+     */
+    private static long explorer(Geometrie geometrie, MoteurRapide moteur, long graine) {
+        Xorshift hasard = new Xorshift(graine);
+        Damier damier = new Damier(geometrie);
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        long fin = System.nanoTime() + DUREE * 1_000_000L;
+        long positions = 0;
+        while (System.nanoTime() < fin) {
+            Position position = Position.initiale(geometrie);
+            for (int ply = 0; ply < DEMI_COUPS_MAX; ply++) {
+                String divergence = comparer(position, damier, moteur, coups);
+                if (divergence != null) {
+                    Position minimale = reduire(position, p -> comparer(p, damier, moteur, coups) != null);
+                    fail(divergence + " dans " + position.versFen() + "\nposition minimale " + minimale.versFen()
+                            + " : " + comparer(minimale, damier, moteur, coups));
+                }
+                positions++;
+                int n = moteur.generer(position, coups);
+                if (n == 0) {
+                    break;
+                }
+                position = moteur.appliquer(position, coups[hasard.suivant(n)]);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Compare les deux moteurs sur une position.
+     *
+     * @param position la position
+     * @param damier   le damier de référence, réutilisé
+     * @param moteur   le moteur comparé
+     * @param coups    tableau de travail pour les coups
+     * @return la description de la première divergence, ou {@code null}
+     */
+    private static String comparer(Position position, Damier damier, MoteurRapide moteur, int[] coups) {
+        Geometrie geometrie = position.getGeometrie();
+        position.copierDans(damier);
+        DeplacementPion dp = new DeplacementPion(damier);
+        int[] joue = new int[1];
+        ObservateurDeplacement observateur = (d, c) -> joue[0] = c;
+        long[] attendus = new long[MOTS];
+        for (int depart = 1; depart <= geometrie.getNbCases(); depart++) {
+            Pion pion = damier.recupererPion(depart);
+            if (pion != null && pion.getCouleur() == position.getTrait()) {
+                for (int arrivee : dp.getToutesLesPossibilites(depart)) {
+                    ajouter(attendus, depart, arrivee);
+                }
+            }
+        }
+
+        int n = moteur.generer(position, coups);
+        long[] obtenus = new long[MOTS];
+        for (int i = 0; i < n; i++) {
+            if (!ajouter(obtenus, Coup.depart(coups[i]), Coup.arrivee(coups[i]))) {
+                return "coup en double " + Coup.notation(coups[i]);
+            }
+        }
+        if (!Arrays.equals(attendus, obtenus)) {
+            return "coups légaux différents :" + differences(attendus, obtenus);
+        }
+
+        for (int i = 0; i < n; i++) {
+            int coup = coups[i];
+            int depart = Coup.depart(coup);
+            int arrivee = Coup.arrivee(coup);
+            int videe = caseVidee(geometrie, depart, arrivee);
+            if (videe != 0 && damier.capture(depart, arrivee) != videe) {
+                return "capture " + Coup.notation(coup) + " : case " + damier.capture(depart, arrivee)
+                        + " au lieu de " + videe;
+            }
+            joue[0] = 0;
+            damier.ajouterObservateur(observateur);
+            damier.deplacer(depart, arrivee);
+            damier.retirerObservateur(observateur);
+            if (joue[0] == 0) {
+                return "coup " + Coup.notation(coup) + " refusé par la référence";
+            }
+            if (joue[0] != coup) {
+                return "coup " + Coup.notation(coup) + " codé " + joue[0] + " au lieu de " + coup;
+            }
+            Position reference = Position.depuis(damier);
+            Position suivante = moteur.appliquer(position, coup);
+            if (!reference.equals(suivante)) {
+                return "après " + Coup.notation(coup) + " : " + suivante.versFen() + " au lieu de "
+                        + reference.versFen();
+            }
+            // Rétablit seulement les cases touchées, bien moins coûteux qu’une copie complète
+            for (int touchee : new int[] {depart, arrivee, videe}) {
+                if (touchee != 0) {
+                    damier.ajouterPion(touchee, Coup.creerPiece(position.piece(touchee)));
+                }
+            }
+            damier.setJoueurCourant(position.getTrait());
+        }
+        return null;
+    }
+
+    /**
+     * Ajoute un déplacement à un ensemble de bits indexé par {@code depart × 128 + arrivee}.
+     *
+     * @param ensemble l’ensemble, de {@link #MOTS} mots
+     * @param depart   la case de départ
+     * @param arrivee  la case d’arrivée
+     * @return vrai si le déplacement n’y était pas déjà
+     */
+    private static boolean ajouter(long[] ensemble, int depart, int arrivee) {
+        int cle = depart << 7 | arrivee;
+        long avant = ensemble[cle >>> 6];
+        ensemble[cle >>> 6] = avant | 1L << cle;
+        return ensemble[cle >>> 6] != avant;
+    }
+
+    /**
+     * Décrit les déplacements présents dans un seul des deux ensembles.
+     *
+     * @param attendus les déplacements de la référence
+     * @param obtenus  ceux du moteur comparé
+     * @return la description
+     */
+    private static String differences(long[] attendus, long[] obtenus) {
+        StringBuilder texte = new StringBuilder();
+        for (int mot = 0; mot < MOTS; mot++) {
+            for (long manquants = attendus[mot] & ~obtenus[mot]; manquants != 0; manquants &= manquants - 1) {
+                int cle = mot << 6 | Long.numberOfTrailingZeros(manquants);
+                texte.append(" manquant ").append(cle >>> 7).append('-').append(cle & 127);
+            }
+            for (long enTrop = obtenus[mot] & ~attendus[mot]; enTrop != 0; enTrop &= enTrop - 1) {
+                int cle = mot << 6 | Long.numberOfTrailingZeros(enTrop);
+                texte.append(" en trop ").append(cle >>> 7).append('-').append(cle & 127);
+            }
+        }
+        return texte.toString();
+    }
+
+    /**
+     * Retourne la case vidée par un déplacement de plus d’une rangée, calculée sur les rayons :
+     * celle qui précède l’arrivée sur la diagonale du départ.
+     *
+     * @param geometrie la géométrie du damier
+     * @param depart    la case de départ
+     * @param arrivee   la case d’arrivée
+     * @return la case vidée, ou {@code 0} pour un déplacement d’une seule rangée
+     */
+    private static int caseVidee(Geometrie geometrie, int depart, int arrivee) {
+        for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+            for (int distance = 2; geometrie.caseSurRayon(depart, direction, distance) != 0; distance++) {
+                if (geometrie.caseSurRayon(depart, direction, distance) == arrivee) {
+                    return geometrie.caseSurRayon(depart, direction, distance - 1);
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Réduit une position tant qu’un critère reste vrai : retire des pièces une à une, puis change
+     * les dames en pions, jusqu’à ce qu’aucune simplification ne le conserve.
+     *
+     * @param position la position, qui satisfait le critère
+     * @param critere  le critère à conserver, par exemple une divergence entre moteurs
+     * @return une position minimale qui satisfait le critère
+     */
+    private static Position reduire(Position position, Predicate<Position> critere) {
+        Position courante = position;
+        boolean reduite = true;
+        while (reduite) {
+            reduite = false;
+            long occupees = courante.getBlancs() | courante.getNoirs();
+            for (long reste = occupees; reste != 0; reste &= reste - 1) {
+                long bit = Long.lowestOneBit(reste);
+                Position sans = Position.depuisMasques(courante.getGeometrie(), courante.getBlancs() & ~bit,
+                        courante.getNoirs() & ~bit, courante.getDames() & ~bit, courante.getTrait());
+                Position pion = Position.depuisMasques(courante.getGeometrie(), courante.getBlancs(),
+                        courante.getNoirs(), courante.getDames() & ~bit, courante.getTrait());
+                if (critere.test(sans)) {
+                    courante = sans;
+                    reduite = true;
+                } else if ((courante.getDames() & bit) != 0 && critere.test(pion)) {
+                    courante = pion;
+                    reduite = true;
+                }
+            }
+        }
+        return courante;
+    }
+}
@@ -0,0 +1,146 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Dame;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.DiffuseurDeplacements;
+import cstjean.mobile.dames.EvenementDeplacement;
+import cstjean.mobile.dames.Pion;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link DiffuseurDeplacements}.
+ *
+ * <p>
+ * Vérifie qu’un spectateur qui applique les événements delta reçus
+ * reconstruit exactement le damier de la partie observée.
+ * </p>
+ */
+public class TestDiffuseurDeplacements {
+
+    /**
+     * Spectateur de test qui accumule les événements reçus.
+     */
+    private static class Spectateur implements Flow.Subscriber<List<EvenementDeplacement>> {
+        /** Les événements reçus, dans l’ordre. */
+        private final List<EvenementDeplacement> recus = new ArrayList<>();
+
+        /** Nombre de lots reçus. */
+        private int lots;
+
+        /** Signale la fin de la diffusion. */
+        private final CountDownLatch fin = new CountDownLatch(1);
+
+        @Override
+        public void onSubscribe(Flow.Subscription abonnement) {
+            abonnement.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<EvenementDeplacement> lot) {
+            lots++;
+            recus.addAll(lot);
+        }
+
+        @Override
+        public void onError(Throwable erreur) {
+            fin.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            fin.countDown();
+        }
+    }
+
+    @Test
+    public void testSpectateurReconstruitLaPartie() throws InterruptedException {
+        Damier damier = new Damier();
+        damier.initialiser();
+        Damier copie = new Damier();
+        copie.initialiser();
+
+        DiffuseurDeplacements diffuseur = new DiffuseurDeplacements(2, ForkJoinPool.commonPool(), 16);
+        Spectateur spectateur = new Spectateur();
+        diffuseur.subscribe(spectateur);
+        damier.ajouterObservateur(diffuseur);
+
+        damier.deplacer(32, 28);
+        damier.deplacer(19, 23);
+        damier.deplacer(28, 19);
+        damier.deplacer(20, 24);
+        diffuseur.close();
+        assertTrue(spectateur.fin.await(5, TimeUnit.SECONDS));
+
+        assertEquals(4, spectateur.recus.size());
+        assertEquals(2, spectateur.lots);
+        EvenementDeplacement prise = spectateur.recus.get(2);
+        assertEquals(28, prise.getDepart());
+        assertEquals(19, prise.getArrivee());
+        assertEquals(23, prise.getPrise());
+        assertEquals(Coup.PIECE_PION_NOIR, Coup.piecePrise(prise.getCoup()));
+        assertFalse(prise.estPromotion());
+        assertEquals(Pion.Couleur.Noir, prise.getProchainJoueur());
+
+        for (int i = 0; i < spectateur.recus.size(); i++) {
+            assertEquals(i, spectateur.recus.get(i).getSequence());
+            spectateur.recus.get(i).appliquer(copie);
+        }
+        for (int i = 1; i <= 50; i++) {
+            Pion attendu = damier.recupererPion(i);
+            Pion obtenu = copie.recupererPion(i);
+            assertEquals(Coup.codePiece(attendu), Coup.codePiece(obtenu));
+        }
+        assertEquals(damier.getJoueurCourant(), copie.getJoueurCourant());
+    }
+
+    @Test
+    public void testPromotion() {
+        Damier damier = new Damier();
+        damier.ajouterPion(9, new Pion(Pion.Couleur.Blanc));
+        List<Integer> coups = new ArrayList<>();
+        damier.ajouterObservateur((d, coup) -> coups.add(coup));
+        damier.deplacer(9, 3);
+        assertEquals(1, coups.size());
+        assertTrue(Coup.estPromotion(coups.get(0)));
+        assertEquals("9-3", Coup.notation(coups.get(0)));
+    }
+
+    @Test
+    public void testSpectateurReconnaitLaNulle() {
+        Damier damier = new Damier();
+        Damier copie = new Damier();
+        for (Damier d : List.of(damier, copie)) {
+            d.ajouterPion(46, new Dame(Pion.Couleur.Blanc));
+            d.ajouterPion(5, new Dame(Pion.Couleur.Noir));
+            d.setJoueurCourant(Pion.Couleur.Blanc);
+        }
+        List<EvenementDeplacement> evenements = new ArrayList<>();
+        damier.ajouterObservateur((d, coup) ->
+                evenements.add(new EvenementDeplacement(evenements.size(), coup, d.getJoueurCourant())));
+        int[][] navette = {{46, 41}, {5, 10}, {41, 46}, {10, 5}};
+        for (int i = 0; !damier.estPartieNulle(); i++) {
+            damier.jouer(navette[i % 4][0], navette[i % 4][1]);
+        }
+
+        for (EvenementDeplacement evenement : evenements) {
+            assertFalse(copie.estPartieNulle());
+            evenement.appliquer(copie);
+        }
+        assertTrue(copie.estPartieNulle());
+        assertEquals(damier.getHachage(), copie.getHachage());
+        // Un événement désynchronisé (aucune pièce en 1) est signalé plutôt qu’appliqué.
+        EvenementDeplacement perdu = new EvenementDeplacement(evenements.size(),
+                Coup.encoder(1, 6, 0, Coup.PIECE_AUCUNE, false), Pion.Couleur.Noir);
+        assertThrows(IllegalStateException.class, () -> perdu.appliquer(copie));
+    }
+}
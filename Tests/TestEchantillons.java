@@ -0,0 +1,137 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.EcrivainEchantillons;
+import cstjean.mobile.dames.Evaluation;
+import cstjean.mobile.dames.GenerateurEntrainement;
+import cstjean.mobile.dames.LecteurEchantillons;
+import cstjean.mobile.dames.PartieArchivee;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour les classes {@link EcrivainEchantillons}, {@link LecteurEchantillons}
+ * et {@link GenerateurEntrainement}.
+ */
+public class TestEchantillons {
+
+    /** Dossier temporaire des tranches. */
+    private Path dossier;
+
+    /**
+     * Crée le dossier temporaire.
+     *
+     * @throws IOException si le dossier ne peut être créé
+     */
+    @Before
+    public void setUp() throws IOException {
+        dossier = Files.createTempDirectory("echantillons");
+    }
+
+    /**
+     * Supprime le dossier temporaire.
+     *
+     * @throws IOException si un fichier ne peut être supprimé
+     */
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> fichiers = Files.walk(dossier)) {
+            for (Path f : fichiers.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(f);
+            }
+        }
+    }
+
+    /**
+     * Vérifie l’écriture en tranches, la relecture et le mélange.
+     *
+     * @throws IOException si un fichier ne peut être lu ou écrit
+     */
+    @Test
+    public void testEcritureLecture() throws IOException {
+        Position initiale = Position.initiale();
+        long taille = EcrivainEchantillons.TAILLE_ENTETE + 40L * EcrivainEchantillons.TAILLE_ENREGISTREMENT;
+        try (EcrivainEchantillons ecrivain = new EcrivainEchantillons(dossier, "test", taille)) {
+            for (int i = 0; i < 100; i++) {
+                ecrivain.ecrire(initiale, i - 50, i % 3 - 1, i);
+            }
+            assertEquals(3, ecrivain.getTranches().size());
+            assertEquals(100, ecrivain.getTotal());
+        }
+        assertEquals(taille, Files.size(dossier.resolve("test-00000.bin")));
+
+        try (LecteurEchantillons lecteur = LecteurEchantillons.ouvrir(dossier, "test")) {
+            assertEquals(100, lecteur.getNombre());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i - 50, lecteur.getScore(i));
+                assertEquals(i % 3 - 1, lecteur.getResultat(i));
+                assertEquals(i, lecteur.getDemiCoup(i));
+                assertEquals(Pion.Couleur.Blanc, lecteur.getTrait(i));
+            }
+            assertEquals(initiale, lecteur.getPosition(77));
+
+            lecteur.melanger(42);
+            boolean[] vus = new boolean[100];
+            int deplaces = 0;
+            for (int rang = 0; rang < 100; rang++) {
+                int indice = (int) lecteur.indiceMelange(rang);
+                assertTrue(!vus[indice]);
+                vus[indice] = true;
+                if (indice != rang) {
+                    deplaces++;
+                }
+            }
+            assertTrue(deplaces > 50);
+        }
+    }
+
+    /**
+     * Vérifie la génération de parties et l’étiquetage des positions.
+     *
+     * @throws IOException si un fichier ne peut être lu ou écrit
+     */
+    @Test
+    public void testGenerateur() throws IOException {
+        GenerateurEntrainement generateur = new GenerateurEntrainement(new Evaluation(), 2, 1.0, 0, 7);
+        PartieArchivee partie = generateur.jouerPartie(1);
+        assertEquals(1, partie.getId());
+        assertTrue(partie.getNombreCoups() > GenerateurEntrainement.OUVERTURE_ALEATOIRE);
+        Position finale = partie.positionApres(partie.getNombreCoups());
+
+        long ecrites;
+        try (EcrivainEchantillons ecrivain = new EcrivainEchantillons(dossier, "partie", 1 << 20)) {
+            ecrites = generateur.echantillonner(partie, ecrivain);
+        }
+        assertEquals(partie.getNombreCoups() + 1, ecrites);
+        try (LecteurEchantillons lecteur = LecteurEchantillons.ouvrir(dossier, "partie")) {
+            assertEquals(ecrites, lecteur.getNombre());
+            assertEquals(Position.initiale(), lecteur.getPosition(0));
+            assertEquals(finale, lecteur.getPosition(ecrites - 1));
+            assertEquals(partie.getResultat(), lecteur.getResultat(0));
+        }
+    }
+
+    /**
+     * Vérifie le refus d’une profondeur nulle et la garde d’un lecteur vide.
+     *
+     * @throws IOException si un fichier ne peut être lu
+     */
+    @Test
+    public void testCasLimites() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new GenerateurEntrainement(new Evaluation(), 0, 1.0, 0, 7));
+        try (LecteurEchantillons lecteur = new LecteurEchantillons(List.of())) {
+            assertEquals(0, lecteur.getNombre());
+            assertThrows(IndexOutOfBoundsException.class, () -> lecteur.indiceMelange(0));
+        }
+    }
+}
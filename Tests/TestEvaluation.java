@@ -0,0 +1,108 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Evaluation;
+import cstjean.mobile.dames.EvaluationLot;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.Xorshift;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour les classes {@link Evaluation} et {@link EvaluationLot}.
+ */
+public class TestEvaluation {
+
+    /**
+     * Produit des positions variées en jouant des coups aléatoires depuis la position initiale.
+     *
+     * @param nombre le nombre de positions
+     * @return les positions
+     */
+    private Position[] positionsAleatoires(int nombre) {
+        Position[] positions = new Position[nombre];
+        Xorshift hasard = new Xorshift(2024);
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        Position courante = Position.initiale();
+        for (int i = 0; i < nombre; i++) {
+            int n = GenerateurCoups.generer(courante, coups);
+            courante = n == 0 ? Position.initiale() : courante.appliquer(coups[hasard.suivant(n)]);
+            positions[i] = courante;
+        }
+        return positions;
+    }
+
+    /**
+     * Vérifie les scores de positions simples.
+     */
+    @Test
+    public void testEvaluer() {
+        Evaluation evaluation = new Evaluation();
+        assertEquals(0, evaluation.evaluer(Position.initiale()));
+
+        // Une dame blanche en 46 contre un pion noir en 5, tous deux au bord ; seul le pion garde sa rangée.
+        Position position = Position.depuisMasques(1L << 45, 1L << 4, 1L << 45, Pion.Couleur.Blanc);
+        int[] caracteristiques = new int[Evaluation.NB_CARACTERISTIQUES];
+        evaluation.caracteristiques(position, caracteristiques);
+        assertArrayEquals(new int[] {-1, 1, 0, 0, -1, 0}, caracteristiques);
+        int score = -100 + 300 - 4;
+        assertEquals(score, evaluation.evaluer(position));
+        assertEquals(-score, evaluation.evaluer(Position.depuisMasques(1L << 45, 1L << 4, 1L << 45,
+                Pion.Couleur.Noir)));
+    }
+
+    /**
+     * Vérifie que le lot, vectoriel ou scalaire, reproduit l’évaluation d’une seule position.
+     */
+    @Test
+    public void testLotIdentique() {
+        Evaluation evaluation = new Evaluation();
+        Position[] positions = positionsAleatoires(1003);
+        EvaluationLot lot = new EvaluationLot(evaluation, positions.length);
+        for (Position position : positions) {
+            lot.ajouter(position);
+        }
+        int[] attendus = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            attendus[i] = evaluation.evaluer(positions[i]);
+        }
+
+        int[] resultats = new int[positions.length];
+        lot.setVectoriel(false);
+        lot.evaluer(resultats);
+        assertArrayEquals(attendus, resultats);
+
+        lot.setVectoriel(true);
+        assertEquals(EvaluationLot.estVectorielDisponible(), lot.isVectoriel());
+        lot.evaluer(resultats);
+        assertArrayEquals(attendus, resultats);
+
+        lot.vider();
+        assertEquals(0, lot.getNombre());
+    }
+
+    /**
+     * Vérifie les contrôles de géométrie et de capacité.
+     */
+    @Test
+    public void testLimites() {
+        EvaluationLot lot = new EvaluationLot(new Evaluation(), 1);
+        lot.ajouter(Position.initiale());
+        try {
+            lot.ajouter(Position.initiale());
+            assertTrue(false);
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("plein"));
+        }
+        EvaluationLot huit = new EvaluationLot(new Evaluation(), 1);
+        try {
+            huit.ajouter(Position.initiale(Geometrie.HUIT));
+            assertTrue(false);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("Géométrie"));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.EvaluationNnue;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.ReseauNnue;
+import cstjean.mobile.dames.Xorshift;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour les classes {@link ReseauNnue} et {@link EvaluationNnue}.
+ */
+public class TestEvaluationNnue {
+
+    /**
+     * Vérifie qu’un réseau écrit puis relu est identique, et que les fichiers invalides sont refusés.
+     *
+     * @throws IOException si le fichier temporaire ne peut être écrit
+     */
+    @Test
+    public void testFichier() throws IOException {
+        ReseauNnue reseau = ReseauNnue.aleatoire(Geometrie.DIX, 64, 3);
+        Path fichier = Files.createTempFile("reseau", ".nnue");
+        try {
+            reseau.ecrire(fichier);
+            assertEquals(5 * 4 + 2 * (64 + 4 * 50 * 64 + 2 * 64) + 4, Files.size(fichier));
+            assertEquals(reseau, ReseauNnue.charger(fichier));
+
+            Files.write(fichier, new byte[] {1, 2, 3});
+            try {
+                ReseauNnue.charger(fichier);
+                assertTrue(false);
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("invalide"));
+            }
+        } finally {
+            Files.delete(fichier);
+        }
+    }
+
+    /**
+     * Vérifie que les mises à jour incrémentales donnent les mêmes accumulateurs
+     * qu’un recalcul complet, et qu’annuler les coups restaure l’état initial.
+     */
+    @Test
+    public void testIncremental() {
+        ReseauNnue reseau = ReseauNnue.aleatoire(Geometrie.DIX, 64, 11);
+        EvaluationNnue incremental = new EvaluationNnue(reseau);
+        EvaluationNnue complet = new EvaluationNnue(reseau);
+        Position position = Position.initiale();
+        incremental.initialiser(position);
+        short[] blancDepart = incremental.getAccumulateur(Pion.Couleur.Blanc);
+        int scoreDepart = incremental.evaluer();
+
+        Xorshift hasard = new Xorshift(9);
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        int[] joues = new int[120];
+        int nombreJoues = 0;
+        while (nombreJoues < joues.length) {
+            int n = GenerateurCoups.generer(position, coups);
+            if (n == 0) {
+                break;
+            }
+            int coup = coups[hasard.suivant(n)];
+            joues[nombreJoues++] = coup;
+            position = position.appliquer(coup);
+            incremental.jouer(coup);
+            complet.initialiser(position);
+            assertArrayEquals(complet.getAccumulateur(Pion.Couleur.Blanc),
+                    incremental.getAccumulateur(Pion.Couleur.Blanc));
+            assertArrayEquals(complet.getAccumulateur(Pion.Couleur.Noir),
+                    incremental.getAccumulateur(Pion.Couleur.Noir));
+            assertEquals(complet.evaluer(), incremental.evaluer());
+        }
+        while (nombreJoues > 0) {
+            incremental.annuler(joues[--nombreJoues]);
+        }
+        assertArrayEquals(blancDepart, incremental.getAccumulateur(Pion.Couleur.Blanc));
+        assertEquals(scoreDepart, incremental.evaluer());
+        assertEquals(Pion.Couleur.Blanc, incremental.getTrait());
+    }
+
+    /**
+     * Vérifie que les chemins vectoriel et scalaire concordent, et que Damier et Position
+     * donnent la même évaluation ; la position initiale est symétrique.
+     */
+    @Test
+    public void testScalaireEtSymetrie() {
+        ReseauNnue reseau = ReseauNnue.aleatoire(Geometrie.DIX, 96, 5);
+        EvaluationNnue vectoriel = new EvaluationNnue(reseau);
+        EvaluationNnue scalaire = new EvaluationNnue(reseau);
+        scalaire.setVectoriel(false);
+
+        Damier damier = new Damier();
+        damier.initialiser();
+        vectoriel.initialiser(damier);
+        scalaire.initialiser(Position.initiale());
+        assertEquals(scalaire.evaluer(), vectoriel.evaluer());
+        assertArrayEquals(vectoriel.getAccumulateur(Pion.Couleur.Blanc),
+                vectoriel.getAccumulateur(Pion.Couleur.Noir));
+
+        Position position = Position.initiale().appliquer(premierCoup(Position.initiale()));
+        vectoriel.initialiser(position);
+        scalaire.initialiser(position);
+        assertEquals(scalaire.evaluer(), vectoriel.evaluer());
+        assertArrayEquals(scalaire.getAccumulateur(Pion.Couleur.Noir), vectoriel.getAccumulateur(Pion.Couleur.Noir));
+    }
+
+    /**
+     * Retourne le premier coup généré dans une position.
+     *
+     * @param position la position
+     * @return le coup
+     */
+    private int premierCoup(Position position) {
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        GenerateurCoups.generer(position, coups);
+        return coups[0];
+    }
+}
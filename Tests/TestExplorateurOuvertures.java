@@ -0,0 +1,150 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.ExplorateurOuvertures;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.PartieArchivee;
+import cstjean.mobile.dames.Position;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link ExplorateurOuvertures}.
+ */
+public class TestExplorateurOuvertures {
+
+    /** Premier coup des blancs : 32-28. */
+    private static final int C32_28 = Coup.encoder(32, 28, 0, Coup.PIECE_AUCUNE, false);
+
+    /** Autre premier coup des blancs : 31-27. */
+    private static final int C31_27 = Coup.encoder(31, 27, 0, Coup.PIECE_AUCUNE, false);
+
+    /** Réponse des noirs : 19-23. */
+    private static final int C19_23 = Coup.encoder(19, 23, 0, Coup.PIECE_AUCUNE, false);
+
+    /** Autre réponse des noirs : 18-22. */
+    private static final int C18_22 = Coup.encoder(18, 22, 0, Coup.PIECE_AUCUNE, false);
+
+    /** Fichier temporaire des ouvertures. */
+    private Path fichier;
+
+    /**
+     * Crée le fichier temporaire.
+     *
+     * @throws IOException si le fichier ne peut être créé
+     */
+    @Before
+    public void setUp() throws IOException {
+        fichier = Files.createTempFile("ouvertures", ".bin");
+    }
+
+    /**
+     * Supprime le fichier temporaire.
+     *
+     * @throws IOException si le fichier ne peut être supprimé
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(fichier);
+    }
+
+    /**
+     * Vérifie les statistiques des suites, leur ordre, l’élagage des suites rares et le cache.
+     *
+     * @throws IOException si le fichier ne peut être lu ou écrit
+     */
+    @Test
+    public void testExplorer() throws IOException {
+        List<PartieArchivee> parties = List.of(
+                new PartieArchivee(1, Geometrie.DIX, new int[] {C32_28, C19_23}, PartieArchivee.VICTOIRE_BLANCS,
+                        1800, 2000),
+                new PartieArchivee(2, Geometrie.DIX, new int[] {C32_28, C19_23}, PartieArchivee.NULLE,
+                        2200, PartieArchivee.ELO_INCONNU),
+                new PartieArchivee(3, Geometrie.DIX, new int[] {C32_28, C18_22}, PartieArchivee.VICTOIRE_NOIRS),
+                new PartieArchivee(4, Geometrie.DIX, new int[] {C31_27, C19_23}, PartieArchivee.VICTOIRE_NOIRS));
+        ExplorateurOuvertures.construire(parties, fichier, 10, 2);
+
+        try (ExplorateurOuvertures explorateur = ExplorateurOuvertures.ouvrir(fichier, 8)) {
+            // Seules les suites jouées au moins deux fois sont gardées.
+            assertEquals(2, explorateur.getNombrePositions());
+            Damier damier = new Damier();
+            Position.initiale().copierDans(damier);
+            List<ExplorateurOuvertures.Suite> suites = explorateur.explorer(damier);
+            assertEquals(1, suites.size());
+            ExplorateurOuvertures.Suite suite = suites.get(0);
+            assertEquals(C32_28, suite.getCoup());
+            assertEquals(3, suite.getParties());
+            assertEquals(100.0 / 3, suite.getPourcentageGains(), 1e-9);
+            assertEquals(100.0 / 3, suite.getPourcentageNulles(), 1e-9);
+            assertEquals(100.0 / 3, suite.getPourcentagePertes(), 1e-9);
+            assertEquals((1900 + 2200) / 2, suite.getEloMoyen());
+
+            damier.jouer(32, 28);
+            List<ExplorateurOuvertures.Suite> reponses = explorateur.explorer(damier);
+            assertEquals(1, reponses.size());
+            assertEquals(C19_23, reponses.get(0).getCoup());
+            // Du point de vue des noirs, qui jouent 19-23 : une défaite et une nulle.
+            assertEquals(0.0, reponses.get(0).getPourcentageGains(), 1e-9);
+            assertEquals(50.0, reponses.get(0).getPourcentagePertes(), 1e-9);
+
+            assertSame(reponses, explorateur.explorer(damier));
+            assertEquals(1, explorateur.getTrouvees());
+            assertEquals(2, explorateur.getManquees());
+
+            assertTrue(explorateur.explorer(Position.initiale().appliquer(C31_27)).isEmpty());
+        }
+    }
+
+    /**
+     * Vérifie la limite de profondeur et l’éviction du cache.
+     *
+     * @throws IOException si le fichier ne peut être lu ou écrit
+     */
+    @Test
+    public void testProfondeurEtCache() throws IOException {
+        List<PartieArchivee> parties = List.of(
+                new PartieArchivee(1, Geometrie.DIX, new int[] {C32_28, C19_23}, PartieArchivee.NULLE),
+                new PartieArchivee(2, Geometrie.DIX, new int[] {C31_27, C18_22}, PartieArchivee.NULLE));
+        ExplorateurOuvertures.construire(parties, fichier, 1, 1);
+        try (ExplorateurOuvertures explorateur = ExplorateurOuvertures.ouvrir(fichier, 1)) {
+            assertEquals(1, explorateur.getNombrePositions());
+            Position initiale = Position.initiale();
+            List<ExplorateurOuvertures.Suite> suites = explorateur.explorer(initiale);
+            assertEquals(2, suites.size());
+            assertEquals(PartieArchivee.ELO_INCONNU, suites.get(0).getEloMoyen());
+            assertTrue(explorateur.explorer(initiale.appliquer(C32_28)).isEmpty());
+            // La capacité d’une seule position a évincé la position initiale.
+            explorateur.explorer(initiale);
+            assertEquals(0, explorateur.getTrouvees());
+            assertEquals(3, explorateur.getManquees());
+        }
+    }
+
+    /**
+     * Vérifie qu’une partie corrompue n’est comptée que jusqu’à son premier coup illégal.
+     *
+     * @throws IOException si le fichier ne peut être lu ou écrit
+     */
+    @Test
+    public void testCoupIllegal() throws IOException {
+        // 32-28 rejoué par les noirs est illégal : ni ce coup ni la suite 18-22 ne sont comptés.
+        List<PartieArchivee> parties = List.of(
+                new PartieArchivee(1, Geometrie.DIX, new int[] {C32_28, C32_28, C18_22}, PartieArchivee.NULLE),
+                new PartieArchivee(2, Geometrie.DIX, new int[] {C31_27, C19_23}, PartieArchivee.NULLE));
+        ExplorateurOuvertures.construire(parties, fichier, 10, 1);
+        try (ExplorateurOuvertures explorateur = ExplorateurOuvertures.ouvrir(fichier, 4)) {
+            assertEquals(2, explorateur.getNombrePositions());
+            assertEquals(2, explorateur.explorer(Position.initiale()).size());
+            assertTrue(explorateur.explorer(Position.initiale().appliquer(C32_28)).isEmpty());
+            assertEquals(C19_23, explorateur.explorer(Position.initiale().appliquer(C31_27)).get(0).getCoup());
+        }
+    }
+}
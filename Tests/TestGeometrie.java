@@ -0,0 +1,118 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Dame;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.DamierAfficher;
+import cstjean.mobile.dames.DeplacementPion;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link Geometrie}.
+ *
+ * <p>
+ * Vérifie les tables précalculées des trois variantes (8 × 8, 10 × 10 et 12 × 12)
+ * ainsi que le fonctionnement de {@link Damier} et {@link DeplacementPion}
+ * sur les damiers autres que 10 × 10.
+ * </p>
+ */
+public class TestGeometrie {
+
+    @Test
+    public void testTables() {
+        assertEquals(32, Geometrie.HUIT.getNbCases());
+        assertEquals(50, Geometrie.DIX.getNbCases());
+        assertEquals(72, Geometrie.DOUZE.getNbCases());
+        assertEquals(12, Geometrie.HUIT.getPionsDepart());
+        assertEquals(20, Geometrie.DIX.getPionsDepart());
+        assertEquals(30, Geometrie.DOUZE.getPionsDepart());
+        assertEquals(Geometrie.DOUZE, Geometrie.pourTaille(12));
+        assertThrows(IllegalArgumentException.class, () -> Geometrie.pourTaille(9));
+
+        Geometrie dix = Geometrie.DIX;
+        assertEquals(28, dix.voisin(32, Geometrie.HAUT_DROITE));
+        assertEquals(27, dix.voisin(32, Geometrie.HAUT_GAUCHE));
+        assertEquals(0, dix.voisin(46, Geometrie.BAS_GAUCHE));
+        assertEquals(5, dix.caseSurRayon(46, Geometrie.HAUT_DROITE, 9));
+        assertEquals(9, dix.longueurRayon(46, Geometrie.HAUT_DROITE));
+        assertEquals(-1, dix.position(0, 0));
+        assertTrue(dix.estPromotion(3, Pion.Couleur.Blanc));
+        assertFalse(dix.estPromotion(3, Pion.Couleur.Noir));
+        assertTrue(dix.estPromotion(48, Pion.Couleur.Noir));
+    }
+
+    @Test
+    public void testDamierHuit() {
+        Damier damier = new Damier(Geometrie.HUIT);
+        damier.initialiser();
+        assertEquals(24, damier.grandeur());
+        assertEquals(Position.initiale(Geometrie.HUIT), Position.depuis(damier));
+        String texte = new DamierAfficher().afficher(damier);
+        assertEquals(8 * 9, texte.length());
+
+        damier.deplacer(22, 18);
+        assertNull(damier.recupererPion(22));
+        assertEquals(Pion.Couleur.Noir, damier.getJoueurCourant());
+    }
+
+    @Test
+    public void testDamierDouze() {
+        Damier damier = new Damier(Geometrie.DOUZE);
+        damier.initialiser();
+        assertEquals(60, damier.grandeur());
+        assertThrows(IllegalArgumentException.class, () -> Position.depuis(damier));
+
+        DeplacementPion dp = new DeplacementPion(damier);
+        assertTrue(dp.getToutesLesPossibilites(44).contains(37));
+        assertTrue(dp.getToutesLesPossibilites(44).contains(38));
+
+        Damier vide = new Damier(Geometrie.DOUZE);
+        vide.ajouterPion(8, new Pion(Pion.Couleur.Blanc));
+        vide.deplacer(8, 2);
+        assertTrue(vide.recupererPion(2) instanceof Dame);
+    }
+
+    @Test
+    public void testTrajets() {
+        Geometrie dix = Geometrie.DIX;
+        assertEquals(Geometrie.BAS_DROITE, dix.direction(32, 43));
+        assertEquals(2, dix.distance(32, 43));
+        assertEquals(38, dix.casePrise(32, 43));
+        assertEquals(9, dix.distance(46, 5));
+        assertEquals(10, dix.casePrise(46, 5));
+        assertEquals(0, dix.casePrise(32, 28));
+        assertEquals(1, dix.distance(32, 28));
+        assertEquals(-1, dix.direction(32, 33));
+        assertEquals(0, dix.distance(32, 33));
+        assertEquals(0, dix.casePrise(32, 32));
+
+        for (Geometrie geometrie : new Geometrie[] {Geometrie.HUIT, Geometrie.DIX, Geometrie.DOUZE}) {
+            for (int depart = 1; depart <= geometrie.getNbCases(); depart++) {
+                int alignees = 0;
+                for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+                    for (int distance = 1; distance <= geometrie.longueurRayon(depart, direction); distance++) {
+                        int arrivee = geometrie.caseSurRayon(depart, direction, distance);
+                        assertEquals(direction, geometrie.direction(depart, arrivee));
+                        assertEquals(distance, geometrie.distance(depart, arrivee));
+                        int prise = distance == 1 ? 0 : geometrie.caseSurRayon(depart, direction, distance - 1);
+                        assertEquals(prise, geometrie.casePrise(depart, arrivee));
+                        alignees++;
+                    }
+                }
+                int autres = 0;
+                for (int arrivee = 1; arrivee <= geometrie.getNbCases(); arrivee++) {
+                    if (geometrie.distance(depart, arrivee) == 0) {
+                        autres++;
+                    }
+                }
+                assertEquals(geometrie.getNbCases() - alignees, autres);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.GestionTemps;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link GestionTemps}.
+ */
+public class TestGestionTemps {
+
+    /** Une seconde, en nanosecondes. */
+    private static final long SECONDE = 1_000_000_000L;
+
+    /**
+     * Vérifie la répartition de la pendule et de l’incrément.
+     */
+    @Test
+    public void testPendule() {
+        GestionTemps gestion = GestionTemps.pendule(60 * SECONDE + GestionTemps.MARGE, SECONDE, 0);
+        gestion.demarrer(1000, 20);
+        long part = 60 * SECONDE / GestionTemps.COUPS_RESTANTS_DEFAUT + SECONDE;
+        assertEquals(part, gestion.getLimiteSouple());
+        assertEquals(1000 + 4 * part, gestion.getEcheance());
+
+        // Dernier coup avant le contrôle : tout le temps disponible, sans compter l’incrément.
+        gestion = GestionTemps.pendule(10 * SECONDE + GestionTemps.MARGE, SECONDE, 1);
+        gestion.demarrer(0, 20);
+        assertEquals(10 * SECONDE, gestion.getLimiteSouple());
+        assertEquals(10 * SECONDE, gestion.getEcheance());
+
+        // Peu de temps restant : jamais plus que la part maximale d’un coup.
+        gestion = GestionTemps.pendule(SECONDE + GestionTemps.MARGE, 2 * SECONDE, 0);
+        gestion.demarrer(0, 20);
+        assertEquals(SECONDE * 4 / 10, gestion.getLimiteSouple());
+        assertEquals(SECONDE * 4 / 10, gestion.getEcheance());
+        gestion = GestionTemps.pendule(10 * SECONDE + GestionTemps.MARGE, 0, 2);
+        gestion.demarrer(0, 20);
+        assertEquals(4 * SECONDE, gestion.getEcheance());
+    }
+
+    /**
+     * Vérifie l’allongement sur les changements du meilleur coup, borné par la limite ferme.
+     */
+    @Test
+    public void testInstabilite() {
+        GestionTemps gestion = GestionTemps.pendule(30 * SECONDE + GestionTemps.MARGE, 0, 0);
+        gestion.demarrer(0, 20);
+        long part = SECONDE;
+        assertFalse(gestion.iterationTerminee(part / 2, 1));
+        assertTrue(gestion.iterationTerminee(part * 6 / 10, 1));
+
+        gestion.demarrer(0, 20);
+        assertFalse(gestion.iterationTerminee(part / 2, 1));
+        assertFalse(gestion.iterationTerminee(part * 6 / 10, 2));
+        assertEquals(2 * part, gestion.getLimiteSouple());
+        assertFalse(gestion.iterationTerminee(part, 3));
+        assertEquals(part * 5 / 2, gestion.getLimiteSouple());
+        for (int i = 4; i < 10; i++) {
+            gestion.iterationTerminee(part, i);
+        }
+        assertTrue(gestion.getLimiteSouple() > 2 * part);
+        assertTrue(gestion.getLimiteSouple() <= gestion.getEcheance());
+        // L’instabilité s’estompe quand le meilleur coup se stabilise.
+        for (int i = 0; i < 10; i++) {
+            gestion.iterationTerminee(part, 9);
+        }
+        assertTrue(gestion.getLimiteSouple() < part * 101 / 100);
+        assertTrue(gestion.iterationTerminee(part, 9));
+    }
+
+    /**
+     * Vérifie l’arrêt immédiat sur un coup forcé, sauf si le temps n’est pas compté.
+     */
+    @Test
+    public void testCoupForce() {
+        GestionTemps gestion = GestionTemps.pendule(30 * SECONDE, 0, 0);
+        gestion.demarrer(0, 1);
+        assertTrue(gestion.iterationTerminee(1, 5));
+
+        GestionTemps infini = GestionTemps.infini();
+        infini.demarrer(0, 1);
+        assertFalse(infini.iterationTerminee(Long.MAX_VALUE / 2, 5));
+        assertEquals(Long.MAX_VALUE, infini.getEcheance());
+    }
+
+    /**
+     * Vérifie la durée fixe par coup, qui ne s’allonge pas.
+     */
+    @Test
+    public void testFixe() {
+        GestionTemps gestion = GestionTemps.fixe(SECONDE + GestionTemps.MARGE);
+        gestion.demarrer(5, 20);
+        assertEquals(5 + SECONDE, gestion.getEcheance());
+        assertFalse(gestion.iterationTerminee(SECONDE / 2, 1));
+        assertFalse(gestion.iterationTerminee(SECONDE / 2, 2));
+        assertEquals(SECONDE, gestion.getLimiteSouple());
+        assertTrue(gestion.iterationTerminee(SECONDE + 5, 2));
+    }
+}
@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.HarnaisCharge;
+import cstjean.mobile.dames.SalleParties;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link HarnaisCharge}.
+ */
+public class TestHarnaisCharge {
+
+    /** Fichier temporaire du rapport. */
+    private Path fichier;
+
+    /**
+     * Crée le fichier temporaire.
+     *
+     * @throws IOException si le fichier ne peut être créé
+     */
+    @Before
+    public void setUp() throws IOException {
+        fichier = Files.createTempFile("charge", ".txt");
+    }
+
+    /**
+     * Supprime le fichier temporaire.
+     *
+     * @throws IOException si le fichier ne peut être supprimé
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(fichier);
+    }
+
+    /**
+     * Vérifie une courte mesure à plusieurs clients.
+     *
+     * @throws InterruptedException si la mesure est interrompue
+     */
+    @Test
+    public void testExecuter() throws InterruptedException {
+        SalleParties salle = new SalleParties();
+        HarnaisCharge.Rapport rapport = new HarnaisCharge(4, 200_000_000L, 1).executer(salle);
+        assertEquals(4, rapport.get("clients"), 0);
+        assertEquals(0, rapport.get("refuses"), 0);
+        assertTrue(rapport.get("parties") >= 4);
+        assertTrue(rapport.get("terminees") <= rapport.get("parties"));
+        assertEquals(0, salle.getNombreParties());
+        for (String op : HarnaisCharge.OPERATIONS) {
+            assertTrue(rapport.get(op + ".nombre") > 0);
+            assertTrue(rapport.get(op + ".debit") > 0);
+            assertTrue(rapport.get(op + ".p50") <= rapport.get(op + ".p99"));
+            assertTrue(rapport.get(op + ".p99") <= rapport.get(op + ".p999"));
+            assertTrue(rapport.get(op + ".p999") <= rapport.get(op + ".max"));
+        }
+        assertTrue(rapport.get("coups.nombre") >= rapport.get("jouer.nombre"));
+        assertTrue(Double.isNaN(rapport.get("inconnue")));
+    }
+
+    /**
+     * Vérifie l’écriture, la relecture et la comparaison des rapports en ligne de commande.
+     *
+     * @throws Exception si la mesure échoue
+     */
+    @Test
+    public void testLancer() throws Exception {
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        PrintStream sortie = new PrintStream(octets, true, StandardCharsets.UTF_8);
+        HarnaisCharge.Rapport avant = HarnaisCharge.lancer(new String[] {"--clients", "2", "--secondes", "0.1",
+            "--echauffement", "0", "--sortie", fichier.toString()}, sortie);
+        HarnaisCharge.Rapport relu = HarnaisCharge.Rapport.lire(fichier);
+        for (String cle : new String[] {"parties", "jouer.p99", "coups.debit"}) {
+            assertEquals(avant.get(cle), relu.get(cle), 0);
+        }
+        assertTrue(octets.toString(StandardCharsets.UTF_8).contains("jouer.p99"));
+
+        octets.reset();
+        HarnaisCharge.lancer(new String[] {"--clients", "2", "--secondes", "0.1", "--echauffement", "0",
+            "--reference", fichier.toString()}, sortie);
+        String comparaison = octets.toString(StandardCharsets.UTF_8);
+        assertTrue(comparaison.startsWith("mesure"));
+        assertTrue(comparaison.contains("%"));
+
+        try {
+            HarnaisCharge.lancer(new String[] {"--clients"}, sortie);
+            assertTrue(false);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("--clients"));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.HistogrammeLatence;
+import cstjean.mobile.dames.Xorshift;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link HistogrammeLatence}.
+ */
+public class TestHistogrammeLatence {
+
+    /**
+     * Vérifie un histogramme vide.
+     */
+    @Test
+    public void testVide() {
+        HistogrammeLatence h = new HistogrammeLatence();
+        assertEquals(0, h.getNombre());
+        assertEquals(0, h.percentile(99));
+        assertEquals(0, h.getMin());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getMoyenne(), 0);
+    }
+
+    /**
+     * Vérifie que les petites valeurs sont comptées exactement.
+     */
+    @Test
+    public void testPetitesValeurs() {
+        HistogrammeLatence h = new HistogrammeLatence();
+        for (int v = 1; v <= 100; v++) {
+            h.enregistrer(v);
+        }
+        assertEquals(100, h.getNombre());
+        assertEquals(1, h.getMin());
+        assertEquals(100, h.getMax());
+        assertEquals(50.5, h.getMoyenne(), 1e-9);
+        assertEquals(1, h.percentile(0));
+        assertEquals(50, h.percentile(50));
+        assertEquals(99, h.percentile(99));
+        assertEquals(100, h.percentile(100));
+    }
+
+    /**
+     * Vérifie l’erreur relative des grandes valeurs.
+     */
+    @Test
+    public void testPrecision() {
+        Xorshift hasard = new Xorshift(7);
+        for (int i = 0; i < 10000; i++) {
+            long v = 1L + hasard.suivant(Integer.MAX_VALUE) * (long) (1 + hasard.suivant(1000));
+            HistogrammeLatence h = new HistogrammeLatence();
+            h.enregistrer(0);
+            h.enregistrer(v);
+            h.enregistrer(Long.MAX_VALUE);
+            long estime = h.percentile(50);
+            assertTrue(v + " -> " + estime, estime >= v && estime - v <= v / 64);
+        }
+    }
+
+    /**
+     * Vérifie les percentiles d’une distribution connue.
+     */
+    @Test
+    public void testPercentiles() {
+        HistogrammeLatence h = new HistogrammeLatence();
+        for (int v = 1; v <= 100000; v++) {
+            h.enregistrer(v * 1000L);
+        }
+        assertEquals(50_000_000, h.percentile(50), 50_000_000 / 64.0);
+        assertEquals(99_000_000, h.percentile(99), 99_000_000 / 64.0);
+        assertEquals(99_900_000, h.percentile(99.9), 99_900_000 / 64.0);
+        assertEquals(100_000_000, h.percentile(100));
+        assertEquals(1000, h.getMin());
+    }
+
+    /**
+     * Vérifie la fusion de deux histogrammes.
+     */
+    @Test
+    public void testFusion() {
+        HistogrammeLatence a = new HistogrammeLatence();
+        HistogrammeLatence b = new HistogrammeLatence();
+        HistogrammeLatence tout = new HistogrammeLatence();
+        Xorshift hasard = new Xorshift(3);
+        for (int i = 0; i < 5000; i++) {
+            long v = hasard.suivant(1_000_000);
+            (i % 2 == 0 ? a : b).enregistrer(v);
+            tout.enregistrer(v);
+        }
+        a.fusionner(b);
+        assertEquals(tout.getNombre(), a.getNombre());
+        assertEquals(tout.getMin(), a.getMin());
+        assertEquals(tout.getMax(), a.getMax());
+        assertEquals(tout.getMoyenne(), a.getMoyenne(), 1e-9);
+        for (double p : new double[] {1, 50, 90, 99, 99.9}) {
+            assertEquals(tout.percentile(p), a.percentile(p));
+        }
+    }
+}
@@ -0,0 +1,290 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.EcrivainIndex;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.IndexPositions;
+import cstjean.mobile.dames.PartieArchivee;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.Xorshift;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour les classes {@link IndexPositions} et {@link EcrivainIndex}.
+ */
+public class TestIndexPositions {
+
+    /** Dossier temporaire des index. */
+    private Path dossier;
+
+    /**
+     * Crée le dossier temporaire.
+     *
+     * @throws IOException si le dossier ne peut être créé
+     */
+    @Before
+    public void setUp() throws IOException {
+        dossier = Files.createTempDirectory("index");
+    }
+
+    /**
+     * Supprime le dossier temporaire.
+     *
+     * @throws IOException si un fichier ne peut être supprimé
+     */
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> fichiers = Files.walk(dossier)) {
+            for (Path f : fichiers.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(f);
+            }
+        }
+    }
+
+    /**
+     * Crée des parties aléatoires, d’identifiants décroissants.
+     *
+     * @param nombre le nombre de parties
+     * @param graine la graine du hasard
+     * @return les parties
+     */
+    private static List<PartieArchivee> parties(int nombre, long graine) {
+        Xorshift hasard = new Xorshift(graine);
+        int[] possibles = new int[GenerateurCoups.COUPS_MAX];
+        List<PartieArchivee> parties = new ArrayList<>();
+        for (int p = 0; p < nombre; p++) {
+            Position position = Position.initiale();
+            int[] coups = new int[30];
+            int joues = 0;
+            while (joues < coups.length) {
+                int n = GenerateurCoups.generer(position, possibles);
+                if (n == 0) {
+                    break;
+                }
+                coups[joues] = possibles[hasard.suivant(n)];
+                position = position.appliquer(coups[joues++]);
+            }
+            parties.add(new PartieArchivee(1000 - p, Geometrie.DIX, Arrays.copyOf(coups, joues), 0));
+        }
+        return parties;
+    }
+
+    /**
+     * Calcule les occurrences attendues en rejouant les parties sur des positions.
+     *
+     * @param parties les parties
+     * @return les occurrences de chaque hachage
+     */
+    private static Map<Long, List<Long>> attendues(List<PartieArchivee> parties) {
+        Map<Long, List<Long>> resultat = new HashMap<>();
+        for (PartieArchivee partie : parties) {
+            for (int i = 0; i <= partie.getNombreCoups(); i++) {
+                resultat.computeIfAbsent(partie.positionApres(i).getHachage(), h -> new ArrayList<>())
+                        .add(IndexPositions.occurrence(partie.getId(), i));
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Vérifie qu’un index contient exactement les occurrences attendues.
+     *
+     * @param index     l’index
+     * @param attendues les occurrences attendues
+     */
+    private static void verifier(IndexPositions index, Map<Long, List<Long>> attendues) {
+        assertEquals(attendues.size(), index.getNombreCles());
+        for (Map.Entry<Long, List<Long>> entree : attendues.entrySet()) {
+            long[] voulues = entree.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            assertArrayEquals(voulues, index.rechercher(entree.getKey()));
+            assertEquals(voulues.length, index.compter(entree.getKey()));
+        }
+    }
+
+    /**
+     * Vérifie la construction parallèle et la recherche.
+     *
+     * @throws Exception si un fichier ne peut être écrit
+     */
+    @Test
+    public void testConstruireRechercher() throws Exception {
+        List<PartieArchivee> parties = parties(40, 7);
+        try (IndexPositions index = IndexPositions.construire(parties, dossier.resolve("index.idx"), 3)) {
+            verifier(index, attendues(parties));
+            long[] initiale = index.rechercher(Position.initiale().getHachage());
+            assertEquals(40, initiale.length);
+            assertEquals(961, IndexPositions.partie(initiale[0]));
+            assertEquals(0, IndexPositions.demiCoup(initiale[0]));
+
+            Damier damier = new Damier();
+            parties.get(5).positionApres(12).copierDans(damier);
+            long[] occurrences = index.rechercher(damier);
+            assertTrue(occurrences.length >= 1);
+            boolean trouvee = false;
+            for (long occurrence : occurrences) {
+                trouvee |= occurrence == IndexPositions.occurrence(995, 12);
+            }
+            assertTrue(trouvee);
+
+            assertEquals(0, index.rechercher(0x1234_5678_9abc_def0L).length);
+            assertEquals(0, index.compter(0x1234_5678_9abc_def0L));
+        }
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            assertEquals(1, fichiers.count());
+        }
+    }
+
+    /**
+     * Vérifie la fusion de segments construits séparément.
+     *
+     * @throws IOException si un fichier ne peut être lu ou écrit
+     */
+    @Test
+    public void testFusionner() throws IOException {
+        List<PartieArchivee> parties = parties(30, 11);
+        Path premier = dossier.resolve("a.idx");
+        Path second = dossier.resolve("b.idx");
+        Path fusion = dossier.resolve("fusion.idx");
+        IndexPositions.ecrireSegment(parties.subList(0, 20), premier);
+        IndexPositions.ecrireSegment(parties.subList(20, 30), second);
+        try (IndexPositions index = IndexPositions.ouvrir(premier)) {
+            verifier(index, attendues(parties.subList(0, 20)));
+        }
+        IndexPositions.fusionner(List.of(second, premier), fusion);
+        try (IndexPositions index = IndexPositions.ouvrir(fusion)) {
+            verifier(index, attendues(parties));
+        }
+    }
+
+    /**
+     * Vérifie que les occurrences codées gardent l’ordre des parties puis des coups.
+     */
+    @Test
+    public void testOccurrence() {
+        long occurrence = IndexPositions.occurrence(123_456_789_012L, 321);
+        assertEquals(123_456_789_012L, IndexPositions.partie(occurrence));
+        assertEquals(321, IndexPositions.demiCoup(occurrence));
+        assertTrue(IndexPositions.occurrence(5, 65_535) < IndexPositions.occurrence(6, 0));
+        assertEquals(IndexPositions.PARTIE_MAX,
+                IndexPositions.partie(IndexPositions.occurrence(IndexPositions.PARTIE_MAX, 0)));
+
+        assertThrows(IllegalArgumentException.class, () -> IndexPositions.occurrence(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> IndexPositions.occurrence(1L << 48, 0));
+        assertThrows(IllegalArgumentException.class, () -> IndexPositions.occurrence(1, 65_536));
+        assertThrows(IllegalArgumentException.class, () -> IndexPositions.occurrence(1, -1));
+        List<PartieArchivee> negative = List.of(new PartieArchivee(-3, Geometrie.DIX, new int[0], 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> IndexPositions.ecrireSegment(negative, dossier.resolve("negatif.idx")));
+    }
+
+    /**
+     * Vérifie qu’un index existant peut recevoir un nouveau segment en étant lui-même la destination.
+     *
+     * @throws IOException si un fichier ne peut être lu ou écrit
+     */
+    @Test
+    public void testFusionnerSurSoi() throws IOException {
+        List<PartieArchivee> anciennes = parties(20, 5);
+        List<PartieArchivee> recentes = parties(10, 6).stream()
+                .map(p -> new PartieArchivee(p.getId() + 5000, p.getGeometrie(), p.getCoups(), p.getResultat()))
+                .toList();
+        Path index = dossier.resolve("index.idx");
+        Path segment = dossier.resolve("recent.idx");
+        IndexPositions.ecrireSegment(anciennes, index);
+        IndexPositions.ecrireSegment(recentes, segment);
+        IndexPositions.fusionner(List.of(index, segment), index);
+        List<PartieArchivee> toutes = new ArrayList<>(anciennes);
+        toutes.addAll(recentes);
+        try (IndexPositions fusion = IndexPositions.ouvrir(index)) {
+            verifier(fusion, attendues(toutes));
+        }
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            assertEquals(2, fichiers.count());
+        }
+    }
+
+    /**
+     * Vérifie qu’un fichier corrompu est refusé.
+     *
+     * @throws IOException si le fichier ne peut être écrit
+     */
+    @Test
+    public void testFichierInvalide() throws IOException {
+        Path fichier = dossier.resolve("vide.idx");
+        Files.write(fichier, new byte[64]);
+        try {
+            IndexPositions.ouvrir(fichier).close();
+            assertTrue(false);
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("invalide"));
+        }
+    }
+
+    /**
+     * Vérifie qu’une partie archivée qui continue au-delà d’une nulle réclamable est indexée jusqu’au bout.
+     *
+     * @throws IOException si un fichier ne peut être écrit
+     */
+    @Test
+    public void testAuDelaDeLaNulle() throws IOException {
+        PartieArchivee partie = partieAuDelaDeLaNulle();
+        Path segment = dossier.resolve("nulle.idx");
+        IndexPositions.ecrireSegment(List.of(partie), segment);
+        try (IndexPositions index = IndexPositions.ouvrir(segment)) {
+            verifier(index, attendues(List.of(partie)));
+            long derniere = partie.positionApres(partie.getNombreCoups()).getHachage();
+            assertTrue(Arrays.stream(index.rechercher(derniere))
+                    .anyMatch(o -> IndexPositions.demiCoup(o) == partie.getNombreCoups()));
+        }
+    }
+
+    /**
+     * Cherche une partie aléatoire dont le {@link Damier} déclare la nulle avant le dernier coup.
+     *
+     * @return la partie
+     */
+    private static PartieArchivee partieAuDelaDeLaNulle() {
+        int[] possibles = new int[GenerateurCoups.COUPS_MAX];
+        for (long graine = 1; ; graine++) {
+            Xorshift hasard = new Xorshift(graine);
+            Position position = Position.initiale();
+            Damier damier = position.versDamier();
+            int[] coups = new int[1000];
+            int joues = 0;
+            int nulle = -1;
+            while (joues < coups.length) {
+                int n = GenerateurCoups.generer(position, possibles);
+                if (n == 0) {
+                    break;
+                }
+                coups[joues] = possibles[hasard.suivant(n)];
+                position = position.appliquer(coups[joues]);
+                damier.jouer(Coup.depart(coups[joues]), Coup.arrivee(coups[joues]));
+                joues++;
+                if (nulle < 0 && damier.estPartieNulle()) {
+                    nulle = joues;
+                }
+            }
+            if (nulle >= 0 && nulle < joues - 1) {
+                return new PartieArchivee(graine, Geometrie.DIX, Arrays.copyOf(coups, joues), PartieArchivee.NULLE);
+            }
+        }
+    }
+}
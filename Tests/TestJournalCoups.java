@@ -0,0 +1,102 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.JournalCoups;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.Xorshift;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link JournalCoups}.
+ */
+public class TestJournalCoups {
+
+    /**
+     * Joue une partie aléatoire dans un journal et retourne toutes les positions traversées.
+     *
+     * @param journal le journal
+     * @param coups   le nombre maximal de demi-coups
+     * @return les positions, de la position de départ à la position finale
+     */
+    private List<Position> jouer(JournalCoups journal, int coups) {
+        List<Position> positions = new ArrayList<>();
+        Position position = journal.getDepart();
+        positions.add(position);
+        Xorshift hasard = new Xorshift(5);
+        int[] tampon = new int[GenerateurCoups.COUPS_MAX];
+        for (int i = 0; i < coups; i++) {
+            int n = GenerateurCoups.generer(position, tampon);
+            if (n == 0) {
+                break;
+            }
+            int coup = tampon[hasard.suivant(n)];
+            journal.ajouter(coup);
+            position = position.appliquer(coup);
+            positions.add(position);
+        }
+        return positions;
+    }
+
+    /**
+     * Vérifie l’accès direct à chaque demi-coup et la reprise de coups.
+     */
+    @Test
+    public void testAccesEtTroncature() {
+        JournalCoups journal = new JournalCoups(Position.initiale(), 7);
+        List<Position> positions = jouer(journal, 100);
+        assertEquals(positions.size() - 1, journal.getNombreCoups());
+        for (int i = 0; i < positions.size(); i++) {
+            assertEquals(positions.get(i), journal.positionA(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> journal.positionA(positions.size()));
+
+        assertEquals(positions.get(30), journal.tronquer(30));
+        assertEquals(30, journal.getNombreCoups());
+        Damier damier = new Damier();
+        journal.restaurer(12, damier);
+        assertEquals(positions.get(12), Position.depuis(damier));
+    }
+
+    /**
+     * Vérifie la sérialisation aller-retour dans un tampon.
+     */
+    @Test
+    public void testSerialisation() {
+        JournalCoups journal = new JournalCoups(Position.initiale(), 10);
+        List<Position> positions = jouer(journal, 80);
+        ByteBuffer tampon = ByteBuffer.allocate(journal.tailleSerialisee()).order(ByteOrder.LITTLE_ENDIAN);
+        journal.ecrire(tampon);
+        assertEquals(0, tampon.remaining());
+        tampon.flip();
+        JournalCoups lu = JournalCoups.lire(tampon);
+        assertEquals(journal.getNombreCoups(), lu.getNombreCoups());
+        assertEquals(10, lu.getIntervalle());
+        assertEquals(positions.get(positions.size() - 1), lu.getCourante());
+        assertEquals(positions.get(33), lu.positionA(33));
+
+        assertThrows(IllegalArgumentException.class, () -> JournalCoups.lire(ByteBuffer.allocate(8)));
+    }
+
+    /**
+     * Vérifie que le journal suit un damier comme observateur.
+     */
+    @Test
+    public void testObservateur() {
+        Damier damier = new Damier();
+        damier.initialiser();
+        JournalCoups journal = new JournalCoups(Position.depuis(damier));
+        damier.ajouterObservateur(journal);
+        damier.jouer(32, 28);
+        damier.jouer(19, 23);
+        assertEquals(2, journal.getNombreCoups());
+        assertEquals(28, Coup.arrivee(journal.getCoup(0)));
+        assertEquals(Position.depuis(damier), journal.getCourante());
+    }
+}
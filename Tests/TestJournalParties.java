@@ -0,0 +1,256 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.JournalParties;
+import cstjean.mobile.dames.ObservateurDeplacement;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.ResultatCoup;
+import cstjean.mobile.dames.Xorshift;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link JournalParties}.
+ */
+public class TestJournalParties {
+
+    /** Dossier temporaire du journal. */
+    private Path dossier;
+
+    /**
+     * Crée le dossier temporaire.
+     *
+     * @throws IOException si le dossier ne peut être créé
+     */
+    @Before
+    public void setUp() throws IOException {
+        dossier = Files.createTempDirectory("journal");
+    }
+
+    /**
+     * Supprime le dossier temporaire.
+     *
+     * @throws IOException si un fichier ne peut être supprimé
+     */
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> fichiers = Files.walk(dossier)) {
+            for (Path f : fichiers.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(f);
+            }
+        }
+    }
+
+    /**
+     * Joue des coups aléatoires sur un damier.
+     *
+     * @param damier le damier
+     * @param coups  le nombre maximal de coups
+     * @param hasard le générateur aléatoire
+     */
+    private static void jouer(Damier damier, int coups, Xorshift hasard) {
+        int[] possibles = new int[GenerateurCoups.COUPS_MAX];
+        for (int i = 0; i < coups && !damier.estPartieTerminee(); i++) {
+            int n = GenerateurCoups.generer(Position.depuis(damier), possibles);
+            int coup = possibles[hasard.suivant(n)];
+            assertTrue(ResultatCoup.estAccepte(damier.jouer(Coup.depart(coup), Coup.arrivee(coup))));
+        }
+    }
+
+    /**
+     * Vérifie la reconstruction des parties en cours après fermeture.
+     *
+     * @throws Exception si le journal ne peut être lu ou écrit
+     */
+    @Test
+    public void testRejouer() throws Exception {
+        Damier premier = new Damier();
+        Damier second = new Damier();
+        Damier troisieme = new Damier(Geometrie.HUIT);
+        try (JournalParties journal = new JournalParties(dossier, "live", 3)) {
+            Position.initiale().copierDans(premier);
+            Position.initiale().copierDans(second);
+            Position.initiale(Geometrie.HUIT).copierDans(troisieme);
+            journal.commencer(1, Geometrie.DIX);
+            journal.commencer(2, Geometrie.DIX);
+            journal.commencer(3, Geometrie.HUIT);
+            premier.ajouterObservateur(journal.observateur(1));
+            second.ajouterObservateur(journal.observateur(2));
+            troisieme.ajouterObservateur(journal.observateur(3));
+            Xorshift hasard = new Xorshift(3);
+            jouer(premier, 40, hasard);
+            jouer(second, 10, hasard);
+            jouer(troisieme, 25, hasard);
+            journal.terminer(2);
+        }
+
+        Map<Long, Damier> parties = JournalParties.rejouer(dossier, "live", 2);
+        assertEquals(2, parties.size());
+        assertFalse(parties.containsKey(2L));
+        assertEquals(Position.depuis(premier), Position.depuis(parties.get(1L)));
+        assertEquals(Position.depuis(troisieme), Position.depuis(parties.get(3L)));
+        assertEquals(premier.getHachage(), parties.get(1L).getHachage());
+    }
+
+    /**
+     * Vérifie qu’une écriture interrompue est retirée à la réouverture, et que le journal reste utilisable.
+     *
+     * @throws Exception si le journal ne peut être lu ou écrit
+     */
+    @Test
+    public void testEcritureInterrompue() throws Exception {
+        Damier damier = new Damier();
+        Position.initiale().copierDans(damier);
+        try (JournalParties journal = new JournalParties(dossier, "live", 1)) {
+            journal.commencer(7, Geometrie.DIX);
+            ObservateurDeplacement observateur = journal.observateur(7);
+            damier.ajouterObservateur(observateur);
+            damier.jouer(32, 28);
+            damier.retirerObservateur(observateur);
+        }
+        Path tranche = dossier.resolve("live-00000.jrn");
+        long taille = Files.size(tranche);
+        assertEquals(JournalParties.TAILLE_ENTETE + 2L * JournalParties.TAILLE_ENREGISTREMENT, taille);
+        // Un enregistrement complet mais corrompu, suivi d’un morceau d’enregistrement.
+        Files.write(tranche, new byte[JournalParties.TAILLE_ENREGISTREMENT + 5], StandardOpenOption.APPEND);
+
+        assertEquals(Position.depuis(damier), Position.depuis(JournalParties.rejouer(dossier, "live", 1).get(7L)));
+        try (JournalParties journal = new JournalParties(dossier, "live", 1)) {
+            assertEquals(taille, Files.size(tranche));
+            journal.enregistrer(7, Coup.encoder(19, 23, 0, Coup.PIECE_AUCUNE, false));
+        }
+        damier.jouer(19, 23);
+        assertEquals(Position.depuis(damier), Position.depuis(JournalParties.rejouer(dossier, "live", 1).get(7L)));
+
+        try {
+            new JournalParties(dossier, "live", 2).close();
+            assertTrue(false);
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("invalide"));
+        }
+    }
+
+    /**
+     * Vérifie que des sessions concurrentes écrivent toutes leurs parties, synchronisations groupées.
+     *
+     * @throws Exception si le journal ne peut être lu ou écrit
+     */
+    @Test
+    public void testSessionsConcurrentes() throws Exception {
+        int sessions = 8;
+        List<Damier> damiers = new ArrayList<>();
+        List<Thread> fils = new ArrayList<>();
+        long synchronisations;
+        try (JournalParties journal = new JournalParties(dossier, "live", 2)) {
+            for (int s = 0; s < sessions; s++) {
+                Damier damier = new Damier();
+                Position.initiale().copierDans(damier);
+                damier.ajouterObservateur(journal.observateur(100 + s));
+                damiers.add(damier);
+                journal.commencer(100 + s, Geometrie.DIX);
+                Xorshift hasard = new Xorshift(s);
+                fils.add(new Thread(() -> jouer(damier, 60, hasard)));
+            }
+            for (Thread f : fils) {
+                f.start();
+            }
+            for (Thread f : fils) {
+                f.join();
+            }
+            synchronisations = journal.getSynchronisations();
+        }
+        Map<Long, Damier> parties = JournalParties.rejouer(dossier, "live", 2);
+        assertEquals(sessions, parties.size());
+        for (int s = 0; s < sessions; s++) {
+            assertEquals(Position.depuis(damiers.get(s)), Position.depuis(parties.get(100L + s)));
+        }
+        long enregistrements = 0;
+        for (int t = 0; t < 2; t++) {
+            enregistrements += (Files.size(dossier.resolve(String.format("live-%05d.jrn", t)))
+                    - JournalParties.TAILLE_ENTETE) / JournalParties.TAILLE_ENREGISTREMENT;
+        }
+        assertTrue(synchronisations > 0);
+        assertTrue(synchronisations <= enregistrements);
+    }
+
+    /**
+     * Vérifie qu’une partie qui continue au-delà d’une nulle réclamable est reconstruite jusqu’au dernier coup.
+     *
+     * @throws Exception si le journal ne peut être lu ou écrit
+     */
+    @Test
+    public void testRejouerAuDelaDeLaNulle() throws Exception {
+        int[] possibles = new int[GenerateurCoups.COUPS_MAX];
+        Xorshift hasard = new Xorshift(5);
+        Position position;
+        boolean nulleDepassee;
+        try (JournalParties journal = new JournalParties(dossier, "live", 1)) {
+            do {
+                journal.commencer(1, Geometrie.DIX);
+                position = Position.initiale();
+                Damier damier = position.versDamier();
+                nulleDepassee = false;
+                for (int i = 0; i < 1000; i++) {
+                    int n = GenerateurCoups.generer(position, possibles);
+                    if (n == 0) {
+                        break;
+                    }
+                    int coup = possibles[hasard.suivant(n)];
+                    nulleDepassee = damier.estPartieNulle();
+                    journal.enregistrer(1, coup);
+                    position = position.appliquer(coup);
+                    damier.jouer(Coup.depart(coup), Coup.arrivee(coup));
+                }
+            } while (!nulleDepassee);
+        }
+        assertEquals(position, Position.depuis(JournalParties.rejouer(dossier, "live", 1).get(1L)));
+    }
+
+    /**
+     * Vérifie qu’un échec d’écriture d’un observateur n’interrompt pas le damier et est relancé ensuite.
+     *
+     * @throws Exception si le journal ne peut être ouvert
+     */
+    @Test
+    public void testObservateurEnEchec() throws Exception {
+        JournalParties journal = new JournalParties(dossier, "live", 1);
+        journal.commencer(1, Geometrie.DIX);
+        journal.close();
+        Damier damier = new Damier();
+        Position.initiale().copierDans(damier);
+        damier.ajouterObservateur(journal.observateur(1));
+        assertTrue(ResultatCoup.estAccepte(damier.jouer(32, 28)));
+        assertThrows(IOException.class, () -> journal.terminer(1));
+        assertThrows(IOException.class, journal::close);
+    }
+
+    /**
+     * Vérifie qu’une partie qui ne pourrait être rejouée est refusée dès son début.
+     *
+     * @throws Exception si le journal ne peut être lu ou écrit
+     */
+    @Test
+    public void testGeometrieTropGrande() throws Exception {
+        try (JournalParties journal = new JournalParties(dossier, "live", 1)) {
+            assertThrows(IllegalArgumentException.class, () -> journal.commencer(1, Geometrie.DOUZE));
+            journal.commencer(2, Geometrie.HUIT);
+        }
+        assertEquals(1, JournalParties.rejouer(dossier, "live", 1).size());
+    }
+}
@@ -0,0 +1,211 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.MagasinPositions;
+import cstjean.mobile.dames.PartieArchivee;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link MagasinPositions}.
+ */
+public class TestMagasinPositions {
+
+    /** Fichier temporaire du magasin. */
+    private Path fichier;
+
+    /**
+     * Crée le fichier temporaire.
+     *
+     * @throws IOException si le fichier ne peut être créé
+     */
+    @Before
+    public void setUp() throws IOException {
+        fichier = Files.createTempFile("magasin", ".bin");
+    }
+
+    /**
+     * Supprime le fichier temporaire.
+     *
+     * @throws IOException si le fichier ne peut être supprimé
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(fichier);
+    }
+
+    /**
+     * Vérifie l’ajout et la relecture, à cheval sur plusieurs blocs.
+     */
+    @Test
+    public void testAjoutLecture() {
+        int nombre = MagasinPositions.ENREGISTREMENTS_PAR_BLOC * 2 + 10;
+        try (MagasinPositions magasin = new MagasinPositions(Geometrie.DIX)) {
+            for (int i = 0; i < nombre; i++) {
+                magasin.ajouter(i, ~i, i & 0xff, i % 2 == 0, i / 7, i % 300, i % 3 - 1);
+            }
+            assertEquals(nombre, magasin.getNombre());
+            for (int i = 0; i < nombre; i += 997) {
+                assertEquals(i, magasin.getBlancs(i));
+                assertEquals(~i, magasin.getNoirs(i));
+                assertEquals(i & 0xff, magasin.getDames(i));
+                assertEquals(i / 7, magasin.getPartie(i));
+                assertEquals(i % 300, magasin.getDemiCoup(i));
+                assertEquals(i % 2 == 0 ? Pion.Couleur.Blanc : Pion.Couleur.Noir, magasin.getTrait(i));
+                assertEquals(i % 3 - 1, magasin.getResultat(i));
+            }
+
+            long debut = MagasinPositions.ENREGISTREMENTS_PAR_BLOC - 3;
+            long[] blancs = new long[6];
+            long[] noirs = new long[6];
+            long[] dames = new long[6];
+            magasin.lireMasques(debut, blancs, noirs, dames, 6);
+            for (int i = 0; i < 6; i++) {
+                assertEquals(debut + i, blancs[i]);
+                assertEquals(~(debut + i), noirs[i]);
+            }
+
+            try (Arena arene = Arena.ofConfined()) {
+                MemorySegment copie = arene.allocate(6L * MagasinPositions.TAILLE_ENREGISTREMENT);
+                magasin.copierVers(debut, 6, copie, 0);
+                for (int i = 0; i < 6; i++) {
+                    assertEquals(debut + i, copie.get(ValueLayout.JAVA_LONG_UNALIGNED,
+                            (long) i * MagasinPositions.TAILLE_ENREGISTREMENT));
+                }
+            }
+
+            try {
+                magasin.getBlancs(nombre);
+                assertTrue(false);
+            } catch (IndexOutOfBoundsException e) {
+                assertTrue(e.getMessage().contains("hors du magasin"));
+            }
+        }
+    }
+
+    /**
+     * Vérifie l’enregistrement d’une partie, puis sa réouverture par projection en mémoire.
+     *
+     * @throws IOException si le fichier ne peut être lu ou écrit
+     */
+    @Test
+    public void testEnregistrerOuvrir() throws IOException {
+        Position position = Position.initiale();
+        int[] coups = new int[4];
+        for (int i = 0; i < coups.length; i++) {
+            int[] possibles = new int[GenerateurCoups.COUPS_MAX];
+            GenerateurCoups.generer(position, possibles);
+            coups[i] = possibles[0];
+            position = position.appliquer(coups[i]);
+        }
+        PartieArchivee partie = new PartieArchivee(42, Geometrie.DIX, coups, PartieArchivee.NULLE);
+
+        try (MagasinPositions magasin = new MagasinPositions(Geometrie.DIX)) {
+            magasin.ajouter(Position.initiale(), 1, 0, PartieArchivee.VICTOIRE_BLANCS);
+            assertEquals(1, magasin.ajouterPartie(partie));
+            magasin.enregistrer(fichier);
+        }
+        assertEquals(MagasinPositions.TAILLE_ENTETE + 6L * MagasinPositions.TAILLE_ENREGISTREMENT,
+                Files.size(fichier));
+
+        try (MagasinPositions relu = MagasinPositions.ouvrir(fichier)) {
+            assertTrue(relu.estLectureSeule());
+            assertEquals(Geometrie.DIX, relu.getGeometrie());
+            assertEquals(6, relu.getNombre());
+            assertEquals(Position.initiale(), relu.getPosition(0));
+            assertEquals(PartieArchivee.VICTOIRE_BLANCS, relu.getResultat(0));
+            for (int i = 0; i <= coups.length; i++) {
+                assertEquals(partie.positionApres(i), relu.getPosition(i + 1));
+                assertEquals(42, relu.getPartie(i + 1));
+                assertEquals(i, relu.getDemiCoup(i + 1));
+            }
+            long[] blancs = new long[2];
+            relu.lireMasques(4, blancs, new long[2], new long[2], 2);
+            assertArrayEquals(new long[] {relu.getBlancs(4), relu.getBlancs(5)}, blancs);
+            try {
+                relu.ajouter(Position.initiale(), 0, 0, 0);
+                assertTrue(false);
+            } catch (IllegalStateException e) {
+                assertTrue(e.getMessage().contains("lecture seule"));
+            }
+        }
+    }
+
+    /**
+     * Vérifie qu’un fichier corrompu est refusé.
+     *
+     * @throws IOException si le fichier ne peut être écrit
+     */
+    @Test
+    public void testFichierInvalide() throws IOException {
+        Files.write(fichier, new byte[MagasinPositions.TAILLE_ENTETE]);
+        try {
+            MagasinPositions.ouvrir(fichier).close();
+            assertTrue(false);
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("invalide"));
+        }
+    }
+
+    /**
+     * Vérifie le refus des identifiants et des longueurs de partie qui ne tiennent pas dans un enregistrement.
+     */
+    @Test
+    public void testHorsLimites() {
+        try (MagasinPositions magasin = new MagasinPositions(Geometrie.DIX)) {
+            PartieArchivee grandId = new PartieArchivee(1L << 32, Geometrie.DIX, new int[0], PartieArchivee.NULLE);
+            assertThrows(IllegalArgumentException.class, () -> magasin.ajouterPartie(grandId));
+            PartieArchivee longue = new PartieArchivee(1, Geometrie.DIX, new int[MagasinPositions.DEMI_COUP_MAX + 1],
+                    PartieArchivee.NULLE);
+            assertThrows(IllegalArgumentException.class, () -> magasin.ajouterPartie(longue));
+            assertThrows(IllegalArgumentException.class, () -> magasin.ajouter(Position.initiale(), 1,
+                    MagasinPositions.DEMI_COUP_MAX + 1, 0));
+            assertEquals(0, magasin.getNombre());
+
+            magasin.ajouter(Position.initiale(), 1, MagasinPositions.DEMI_COUP_MAX, 0);
+            assertEquals(MagasinPositions.DEMI_COUP_MAX, magasin.getDemiCoup(0));
+        }
+    }
+
+    /**
+     * Vérifie qu’un magasin projeté peut s’enregistrer sur son propre fichier sans corrompre sa projection.
+     *
+     * @throws IOException si le fichier ne peut être lu ou écrit
+     */
+    @Test
+    public void testEnregistrerSurSoi() throws IOException {
+        try (MagasinPositions magasin = new MagasinPositions(Geometrie.DIX)) {
+            for (int i = 0; i < 3; i++) {
+                magasin.ajouter(Position.initiale(), i, i, 0);
+            }
+            magasin.enregistrer(fichier);
+        }
+        try (MagasinPositions relu = MagasinPositions.ouvrir(fichier)) {
+            relu.enregistrer(fichier);
+            assertEquals(2, relu.getPartie(2));
+            assertEquals(Position.initiale(), relu.getPosition(2));
+        }
+        try (MagasinPositions relu = MagasinPositions.ouvrir(fichier)) {
+            assertEquals(3, relu.getNombre());
+            assertEquals(2, relu.getDemiCoup(2));
+        }
+        try (Stream<Path> fichiers = Files.list(fichier.toAbsolutePath().getParent())) {
+            assertTrue(fichiers.noneMatch(f -> f.getFileName().toString().endsWith(".tmp")
+                    && f.getFileName().toString().startsWith(fichier.getFileName().toString())));
+        }
+    }
+}
@@ -0,0 +1,246 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.MoteurHub;
+import cstjean.mobile.dames.Position;
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.Writer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link MoteurHub}.
+ */
+public class TestMoteurHub {
+
+    /** Les lignes envoyées par le moteur. */
+    private final BlockingQueue<String> reponses = new LinkedBlockingQueue<>();
+
+    /** Les commandes envoyées au moteur. */
+    private PipedWriter commandes;
+
+    /** Le fil d’entrées-sorties du moteur. */
+    private Thread fil;
+
+    /**
+     * Démarre le moteur sur des tubes.
+     *
+     * @throws IOException si les tubes ne peuvent être connectés
+     */
+    @Before
+    public void setUp() throws IOException {
+        commandes = new PipedWriter();
+        PipedReader entree = new PipedReader(commandes);
+        Writer sortie = new Writer() {
+            private final StringBuilder ligne = new StringBuilder();
+
+            @Override
+            public void write(char[] texte, int debut, int longueur) {
+                for (int i = debut; i < debut + longueur; i++) {
+                    if (texte[i] == '\n') {
+                        reponses.add(ligne.toString());
+                        ligne.setLength(0);
+                    } else {
+                        ligne.append(texte[i]);
+                    }
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        MoteurHub moteur = new MoteurHub(entree, sortie);
+        fil = new Thread(() -> {
+            try {
+                moteur.executer();
+            } catch (IOException e) {
+                reponses.add("exception " + e.getMessage());
+            }
+        });
+        fil.start();
+    }
+
+    /**
+     * Quitte le moteur et vérifie que son fil se termine.
+     *
+     * @throws Exception si le moteur ne répond pas
+     */
+    @After
+    public void tearDown() throws Exception {
+        envoyer("quit");
+        fil.join(10_000);
+        assertTrue(!fil.isAlive());
+    }
+
+    /**
+     * Envoie une commande au moteur.
+     *
+     * @param commande la commande
+     * @throws IOException si le tube est rompu
+     */
+    private void envoyer(String commande) throws IOException {
+        commandes.write(commande + "\n");
+        commandes.flush();
+    }
+
+    /**
+     * Attend la prochaine réponse qui commence par un préfixe, en ignorant les autres.
+     *
+     * @param prefixe le début de la réponse attendue
+     * @return la réponse
+     * @throws InterruptedException si l’attente est interrompue
+     */
+    private String attendre(String prefixe) throws InterruptedException {
+        while (true) {
+            String ligne = reponses.poll(10, TimeUnit.SECONDS);
+            assertNotNull("Aucune réponse " + prefixe, ligne);
+            if (ligne.startsWith(prefixe)) {
+                return ligne;
+            }
+        }
+    }
+
+    /**
+     * Vérifie la poignée de main, la réflexion à profondeur fixe et les positions.
+     *
+     * @throws Exception si le moteur ne répond pas
+     */
+    @Test
+    public void testReflechir() throws Exception {
+        envoyer("hub");
+        assertEquals("id name=" + MoteurHub.NOM + " version=" + MoteurHub.VERSION, attendre("id"));
+        assertEquals("wait", attendre("wait"));
+        envoyer("init");
+        attendre("ready");
+        envoyer("ping");
+        attendre("pong");
+
+        envoyer("level depth=3");
+        envoyer("pos moves=\"32-28 19-23\"");
+        envoyer("go think");
+        // La seule prise rapporte un pion à un demi-coup ; la prise est notée avec la case prise.
+        assertTrue(attendre("info").matches("info depth=1 score=\\d+ .* pv=\"28x19x23\""));
+        attendre("info depth=2 ");
+        String derniere = attendre("info depth=3 ");
+        String[] variante = derniere.substring(derniere.indexOf("pv=\"") + 4, derniere.length() - 1).split(" ");
+        assertEquals("done move=" + variante[0] + " ponder=" + variante[1], attendre("done"));
+
+        envoyer("pos moves=\"32-26\"");
+        assertEquals("error illegal move 32-26", attendre("error"));
+        envoyer("pos pos=Xeee");
+        assertTrue(attendre("error").startsWith("error invalid position"));
+        envoyer("bogus");
+        assertEquals("error unknown command bogus", attendre("error"));
+        assertNull(reponses.poll());
+    }
+
+    /**
+     * Vérifie qu’une analyse sans fin répond dès l’arrêt demandé.
+     *
+     * @throws Exception si le moteur ne répond pas
+     */
+    @Test
+    public void testArreter() throws Exception {
+        envoyer("level infinite");
+        envoyer("go analyze");
+        attendre("info depth=2 ");
+        envoyer("go think");
+        assertEquals("error search in progress", attendre("error"));
+        envoyer("stop");
+        assertTrue(attendre("done").startsWith("done move="));
+    }
+
+    /**
+     * Vérifie que la réflexion sur le temps adverse ne répond qu’après confirmation.
+     *
+     * @throws Exception si le moteur ne répond pas
+     */
+    @Test
+    public void testPonderation() throws Exception {
+        envoyer("level depth=2");
+        envoyer("go ponder");
+        attendre("info depth=2 ");
+        assertNull(reponses.poll(200, TimeUnit.MILLISECONDS));
+        envoyer("ponder-hit");
+        assertTrue(attendre("done").startsWith("done move="));
+    }
+
+    /**
+     * Vérifie que la pendule limite la réflexion et qu’un coup forcé est joué sans attendre.
+     *
+     * @throws Exception si le moteur ne répond pas
+     */
+    @Test
+    public void testPendule() throws Exception {
+        envoyer("level time=2");
+        long depart = System.nanoTime();
+        envoyer("go think");
+        attendre("done move=");
+        assertTrue(System.nanoTime() - depart < 1_000_000_000L);
+
+        // Le seul pion blanc, sur la case 46, n’a qu’un coup.
+        envoyer("level time=600");
+        envoyer("pos pos=W" + "b" + "e".repeat(44) + "w" + "e".repeat(4));
+        depart = System.nanoTime();
+        envoyer("go think");
+        assertTrue(attendre("info").startsWith("info depth=1 "));
+        assertEquals("done move=46-41", attendre("done"));
+        assertTrue(System.nanoTime() - depart < 1_000_000_000L);
+    }
+
+    /**
+     * Vérifie qu’un coup est joué même si le budget de nœuds interrompt la première itération.
+     *
+     * @throws Exception si le moteur ne répond pas
+     */
+    @Test
+    public void testBudgetMinimal() throws Exception {
+        envoyer("level nodes=1");
+        envoyer("go think");
+        assertTrue(attendre("done").startsWith("done move="));
+    }
+
+    /**
+     * Vérifie qu’un niveau invalide laisse le niveau précédent en vigueur.
+     *
+     * @throws Exception si le moteur ne répond pas
+     */
+    @Test
+    public void testNiveauInvalide() throws Exception {
+        envoyer("level depth=2");
+        envoyer("level depth=7 nodes=abc");
+        assertTrue(attendre("error").startsWith("error invalid level"));
+        envoyer("go think");
+        String ligne = attendre("info");
+        while (!ligne.startsWith("done")) {
+            assertTrue(ligne, ligne.startsWith("info depth=1 ") || ligne.startsWith("info depth=2 "));
+            ligne = attendre("");
+        }
+    }
+
+    /**
+     * Vérifie la lecture et l’écriture des positions du protocole.
+     */
+    @Test
+    public void testPosition() {
+        Position initiale = Position.initiale();
+        String texte = MoteurHub.ecrirePosition(initiale);
+        assertEquals("W" + "b".repeat(20) + "e".repeat(10) + "w".repeat(20), texte);
+        assertEquals(initiale, MoteurHub.lirePosition(texte));
+        assertNull(MoteurHub.lirePosition("X" + texte.substring(1)));
+        assertNull(MoteurHub.lirePosition(texte + "e"));
+    }
+}
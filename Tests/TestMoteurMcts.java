@@ -0,0 +1,131 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Dame;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.DeplacementPion;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.MoteurMcts;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour les classes {@link GenerateurCoups} et {@link MoteurMcts}.
+ *
+ * <p>
+ * Vérifie que le générateur sur masques produit les mêmes coups que {@link DeplacementPion},
+ * puis que le moteur MCTS trouve un coup gagnant évident, en un ou plusieurs fils.
+ * </p>
+ */
+public class TestMoteurMcts {
+
+    /**
+     * Retourne les coups (départ × 100 + arrivée) de {@link DeplacementPion} pour le joueur courant.
+     *
+     * @param damier le damier
+     * @return l’ensemble des coups de référence
+     */
+    private Set<Integer> coupsReference(Damier damier) {
+        Set<Integer> resultat = new HashSet<>();
+        DeplacementPion dp = new DeplacementPion(damier);
+        for (int i = 1; i <= 50; i++) {
+            Pion pion = damier.recupererPion(i);
+            if (pion != null && pion.getCouleur() == damier.getJoueurCourant()) {
+                for (int arrivee : dp.getToutesLesPossibilites(i)) {
+                    resultat.add(i * 100 + arrivee);
+                }
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Retourne les coups (départ × 100 + arrivée) de {@link GenerateurCoups}.
+     *
+     * @param position la position
+     * @return l’ensemble des coups générés
+     */
+    private Set<Integer> coupsGeneres(Position position) {
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        int nombre = GenerateurCoups.generer(position, coups);
+        Set<Integer> resultat = new HashSet<>();
+        for (int i = 0; i < nombre; i++) {
+            assertTrue(resultat.add(Coup.depart(coups[i]) * 100 + Coup.arrivee(coups[i])));
+        }
+        return resultat;
+    }
+
+    @Test
+    public void testGenerateurCommeReference() {
+        Damier damier = new Damier();
+        damier.initialiser();
+        assertEquals(coupsReference(damier), coupsGeneres(Position.depuis(damier)));
+
+        Damier dames = new Damier();
+        dames.ajouterPion(28, new Dame(Pion.Couleur.Blanc));
+        dames.ajouterPion(23, new Pion(Pion.Couleur.Noir));
+        dames.ajouterPion(22, new Pion(Pion.Couleur.Blanc));
+        dames.ajouterPion(33, new Pion(Pion.Couleur.Noir));
+        dames.ajouterPion(32, new Pion(Pion.Couleur.Noir));
+        assertEquals(coupsReference(dames), coupsGeneres(Position.depuis(dames)));
+
+        Damier bloquee = new Damier();
+        bloquee.ajouterPion(28, new Dame(Pion.Couleur.Blanc));
+        bloquee.ajouterPion(22, new Pion(Pion.Couleur.Noir));
+        bloquee.ajouterPion(23, new Pion(Pion.Couleur.Noir));
+        bloquee.ajouterPion(32, new Pion(Pion.Couleur.Noir));
+        bloquee.ajouterPion(33, new Pion(Pion.Couleur.Noir));
+        assertEquals(coupsReference(bloquee), coupsGeneres(Position.depuis(bloquee)));
+    }
+
+    @Test
+    public void testPriseGagnante() {
+        Damier damier = new Damier();
+        damier.ajouterPion(28, new Pion(Pion.Couleur.Blanc));
+        damier.ajouterPion(37, new Pion(Pion.Couleur.Blanc));
+        damier.ajouterPion(23, new Pion(Pion.Couleur.Noir));
+        MoteurMcts moteur = new MoteurMcts(Position.depuis(damier));
+        int coup = moteur.chercherIterations(3000);
+        assertEquals(28, Coup.depart(coup));
+        assertEquals(19, Coup.arrivee(coup));
+        assertTrue(moteur.getValeur() > 0.9);
+    }
+
+    @Test
+    public void testParalleleEtReutilisation() throws InterruptedException {
+        MoteurMcts moteur = new MoteurMcts(Position.initiale(), MoteurMcts.Selection.Puct, 1.5);
+        int coup = moteur.chercher(200, 4);
+        assertNotEquals(0, coup);
+        assertTrue(coupsGeneres(Position.initiale()).contains(Coup.depart(coup) * 100 + Coup.arrivee(coup)));
+        int visites = moteur.getVisites();
+        assertTrue(visites > 0);
+
+        moteur.avancer(coup);
+        assertEquals(Position.initiale().appliquer(coup), moteur.getPosition());
+        assertTrue(moteur.getVisites() > 0);
+    }
+
+    /**
+     * Vérifie qu’une attente interrompue arrête la recherche et termine ses fils avant de rendre la main.
+     */
+    @Test
+    public void testInterruption() {
+        MoteurMcts moteur = new MoteurMcts(Position.initiale());
+        Thread.currentThread().interrupt();
+        try {
+            moteur.chercher(60_000, 2);
+            assertTrue(false);
+        } catch (InterruptedException e) {
+            assertFalse(Thread.currentThread().isInterrupted());
+        }
+        for (Thread fil : Thread.getAllStackTraces().keySet()) {
+            assertFalse(fil.getName().startsWith("mcts-"));
+        }
+    }
+}
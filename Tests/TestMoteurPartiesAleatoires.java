@@ -0,0 +1,79 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.MoteurPartiesAleatoires;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.Xorshift;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour les classes {@link Xorshift} et {@link MoteurPartiesAleatoires}.
+ */
+public class TestMoteurPartiesAleatoires {
+
+    /**
+     * Vérifie que le générateur est déterministe et reste dans ses bornes.
+     */
+    @Test
+    public void testXorshift() {
+        Xorshift a = new Xorshift(42);
+        Xorshift b = new Xorshift(42);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(a.suivant(), b.suivant());
+        }
+        assertNotEquals(new Xorshift(1).suivant(), new Xorshift(2).suivant());
+
+        int[] comptes = new int[7];
+        for (int i = 0; i < 70000; i++) {
+            int valeur = a.suivant(7);
+            assertTrue(valeur >= 0 && valeur < 7);
+            comptes[valeur]++;
+        }
+        for (int compte : comptes) {
+            assertTrue(compte > 9000 && compte < 11000);
+        }
+    }
+
+    /**
+     * Vérifie qu’un camp sans coup perd immédiatement.
+     */
+    @Test
+    public void testFinImmediate() {
+        MoteurPartiesAleatoires moteur = new MoteurPartiesAleatoires(7);
+        // Pion blanc seul en 1 : aucune case vers l’avant, les blancs perdent.
+        Position bloque = Position.depuisMasques(1L, 1L << 49, 0L, Pion.Couleur.Blanc);
+        assertEquals(MoteurPartiesAleatoires.VICTOIRE_NOIRS, moteur.jouer(bloque));
+        // Noirs sans pièce au trait : les blancs gagnent.
+        Position sansNoirs = Position.depuisMasques(1L << 30, 0L, 0L, Pion.Couleur.Noir);
+        assertEquals(MoteurPartiesAleatoires.VICTOIRE_BLANCS, moteur.jouer(sansNoirs));
+        assertEquals(1, moteur.getVictoiresBlanches());
+        assertEquals(1, moteur.getVictoiresNoires());
+        assertEquals(0, moteur.getDemiCoupsJoues());
+    }
+
+    /**
+     * Vérifie les statistiques et le déterminisme d’une série de parties depuis la position initiale.
+     */
+    @Test
+    public void testSerie() {
+        Position initiale = Position.initiale();
+        MoteurPartiesAleatoires premier = new MoteurPartiesAleatoires(123);
+        MoteurPartiesAleatoires second = new MoteurPartiesAleatoires(123);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(premier.jouer(initiale), second.jouer(initiale));
+        }
+        assertEquals(200, premier.getVictoiresBlanches() + premier.getVictoiresNoires() + premier.getNulles());
+        assertEquals(premier.getDemiCoupsJoues(), second.getDemiCoupsJoues());
+        assertTrue(premier.getDemiCoupsJoues() > 200);
+
+        premier.reinitialiserStatistiques();
+        assertEquals(0, premier.getNulles() + premier.getVictoiresBlanches() + premier.getVictoiresNoires());
+
+        // Une limite d’un demi-coup rend toute partie nulle.
+        MoteurPartiesAleatoires court = new MoteurPartiesAleatoires(5, 1);
+        assertEquals(0.5, court.estimer(initiale, 10), 1e-9);
+        assertEquals(10, court.getNulles());
+    }
+}
@@ -0,0 +1,140 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Dame;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.Evaluation;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.Xorshift;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link Position}.
+ *
+ * <p>
+ * Vérifie la conversion sans perte entre {@link Damier} et {@link Position},
+ * l’application d’un coup et la mise à jour incrémentale du hachage.
+ * </p>
+ */
+public class TestPosition {
+
+    @Test
+    public void testInitialeCommeDamier() {
+        Damier damier = new Damier();
+        damier.initialiser();
+        Position position = Position.depuis(damier);
+        assertEquals(Position.initiale(), position);
+        assertEquals(40, position.grandeur());
+        assertEquals(Coup.PIECE_PION_NOIR, position.piece(1));
+        assertEquals(Coup.PIECE_AUCUNE, position.piece(25));
+        assertEquals(Coup.PIECE_PION_BLANC, position.piece(50));
+    }
+
+    @Test
+    public void testAllerRetourDamier() {
+        Damier damier = new Damier();
+        damier.ajouterPion(3, new Dame(Pion.Couleur.Blanc));
+        damier.ajouterPion(27, new Pion(Pion.Couleur.Noir));
+        damier.ajouterPion(48, new Dame(Pion.Couleur.Noir));
+        damier.setJoueurCourant(Pion.Couleur.Noir);
+
+        Position position = Position.depuis(damier);
+        Damier copie = position.versDamier();
+        for (int i = 1; i <= 50; i++) {
+            assertEquals(Coup.codePiece(damier.recupererPion(i)), Coup.codePiece(copie.recupererPion(i)));
+        }
+        assertEquals(Pion.Couleur.Noir, copie.getJoueurCourant());
+        assertEquals(position, Position.depuis(copie));
+    }
+
+    @Test
+    public void testAppliquerCommeDeplacer() {
+        Damier damier = new Damier();
+        damier.initialiser();
+        List<Integer> coups = new ArrayList<>();
+        damier.ajouterObservateur((d, coup) -> coups.add(coup));
+
+        Position position = Position.initiale();
+        Position depart = position;
+        int[][] deplacements = {{32, 28}, {19, 23}, {28, 19}, {14, 23}};
+        for (int[] deplacement : deplacements) {
+            damier.deplacer(deplacement[0], deplacement[1]);
+            position = position.appliquer(coups.get(coups.size() - 1));
+            Position attendue = Position.depuis(damier);
+            assertEquals(attendue, position);
+            assertEquals(attendue.getHachage(), position.getHachage());
+        }
+        assertEquals(Position.initiale(), depart);
+        assertNotEquals(depart.getHachage(), position.getHachage());
+    }
+
+    @Test
+    public void testMasquesIncoherents() {
+        assertThrows(IllegalArgumentException.class,
+            () -> Position.depuisMasques(1L, 1L, 0L, Pion.Couleur.Blanc));
+    }
+
+    @Test
+    public void testTableSymetrique() {
+        for (Geometrie geometrie : new Geometrie[] {Geometrie.HUIT, Geometrie.DIX, Geometrie.DOUZE}) {
+            for (int s = 1; s <= geometrie.getNbCases(); s++) {
+                assertEquals(geometrie.getNbCases() + 1 - s, geometrie.symetrique(s));
+            }
+        }
+    }
+
+    @Test
+    public void testCanonique() {
+        Evaluation evaluation = new Evaluation();
+        Xorshift hasard = new Xorshift(8);
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        int[] coupsJumelle = new int[GenerateurCoups.COUPS_MAX];
+        Damier damier = new Damier();
+        damier.initialiser();
+        Position position = Position.depuis(damier);
+        for (int i = 0; i < 120; i++) {
+            Position jumelle = position.symetrique();
+            assertEquals(position, jumelle.symetrique());
+            assertEquals(position.getHachageCanonique(), jumelle.getHachageCanonique());
+            assertEquals(position.canonique(), jumelle.canonique());
+            assertTrue(position.canonique().estCanonique());
+            assertEquals(position.getHachageCanonique(), damier.getHachageCanonique());
+            assertEquals(evaluation.evaluer(position), evaluation.evaluer(jumelle));
+            int n = GenerateurCoups.generer(position, coups);
+            assertEquals(n, GenerateurCoups.generer(jumelle, coupsJumelle));
+            if (n == 0) {
+                break;
+            }
+            int coup = coups[hasard.suivant(n)];
+            damier.jouer(Coup.depart(coup), Coup.arrivee(coup));
+            position = position.appliquer(coup);
+        }
+    }
+
+    @Test
+    public void testFen() {
+        assertEquals(Position.initiale(), Position.depuisFen("W:W31-50:B1-20"));
+        assertEquals(Position.initiale(), Position.depuisFen("\"W:B1-20:W31-50.\""));
+        Position dames = Position.depuisFen("B:WK4,31,32:BK46,1-2");
+        assertEquals(Pion.Couleur.Noir, dames.getTrait());
+        assertEquals(Coup.PIECE_DAME_BLANCHE, dames.piece(4));
+        assertEquals(Coup.PIECE_DAME_NOIRE, dames.piece(46));
+        assertEquals(Coup.PIECE_PION_NOIR, dames.piece(2));
+        assertEquals("B:WK4,31,32:B1,2,K46", dames.versFen());
+        assertEquals(dames, Position.depuisFen(dames.versFen()));
+        assertEquals(Position.initiale(Geometrie.HUIT),
+                Position.depuisFen(Geometrie.HUIT, Position.initiale(Geometrie.HUIT).versFen()));
+        assertThrows(IllegalArgumentException.class, () -> Position.depuisFen("X:W31"));
+        assertThrows(IllegalArgumentException.class, () -> Position.depuisFen("W:W51"));
+        assertThrows(IllegalArgumentException.class, () -> Position.depuisFen("W:W1-a"));
+        assertThrows(IllegalArgumentException.class, () -> Position.depuisFen("W:W1:B1"));
+    }
+}
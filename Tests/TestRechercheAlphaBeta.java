@@ -0,0 +1,94 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Evaluation;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.RechercheAlphaBeta;
+import cstjean.mobile.dames.Xorshift;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link RechercheAlphaBeta}.
+ */
+public class TestRechercheAlphaBeta {
+
+    /**
+     * Vérifie que la recherche trouve la prise gagnante et la note comme une victoire.
+     */
+    @Test
+    public void testVictoireImmediate() {
+        // Pion blanc en 23, pion noir seul en 18 : la prise 23x12 laisse les noirs sans pièce.
+        Position position = Position.depuisMasques(1L << 22, 1L << 17, 0L, Pion.Couleur.Blanc);
+        RechercheAlphaBeta recherche = new RechercheAlphaBeta(new Evaluation());
+        int score = recherche.chercher(position, 4);
+        assertEquals(RechercheAlphaBeta.VICTOIRE - 1, score);
+        assertEquals(23, Coup.depart(recherche.getMeilleurCoup()));
+        assertEquals(18, Coup.prise(recherche.getMeilleurCoup()));
+        assertEquals(1, recherche.getProfondeurAtteinte());
+    }
+
+    /**
+     * Vérifie la recherche sur la position initiale : score nul par symétrie à profondeur paire.
+     */
+    @Test
+    public void testInitiale() {
+        RechercheAlphaBeta recherche = new RechercheAlphaBeta(new Evaluation());
+        int score = recherche.chercher(Position.initiale(), 4);
+        assertTrue(Math.abs(score) < 100);
+        assertTrue(recherche.getMeilleurCoup() != 0);
+        assertEquals(4, recherche.getProfondeurAtteinte());
+        assertTrue(recherche.getNoeuds() > 100);
+    }
+
+    /**
+     * Vérifie qu’un joueur sans coup est perdant.
+     */
+    @Test
+    public void testSansCoup() {
+        Position bloque = Position.depuisMasques(1L, 1L << 49, 0L, Pion.Couleur.Blanc);
+        RechercheAlphaBeta recherche = new RechercheAlphaBeta(new Evaluation());
+        assertEquals(-RechercheAlphaBeta.VICTOIRE, recherche.chercher(bloque, 3));
+        assertEquals(0, recherche.getMeilleurCoup());
+    }
+
+    /**
+     * Vérifie que les meilleurs coups et leurs scores sont ceux d’une recherche de chaque coup séparément.
+     */
+    @Test
+    public void testMeilleurs() {
+        Evaluation evaluation = new Evaluation();
+        RechercheAlphaBeta recherche = new RechercheAlphaBeta(evaluation);
+        RechercheAlphaBeta temoin = new RechercheAlphaBeta(evaluation);
+        Xorshift hasard = new Xorshift(5);
+        int[] possibles = new int[GenerateurCoups.COUPS_MAX];
+        Position position = Position.initiale();
+        for (int essai = 0; essai < 6; essai++) {
+            int[] meilleurs = new int[3];
+            int[] scores = new int[3];
+            int nombre = recherche.chercherMeilleurs(position, 3, meilleurs, scores);
+            int n = GenerateurCoups.generer(position, possibles);
+            assertEquals(Math.min(3, n), nombre);
+            assertEquals(3, recherche.getProfondeurAtteinte());
+            assertEquals(meilleurs[0], recherche.getMeilleurCoup());
+            for (int i = 0; i < n; i++) {
+                int score = -temoin.chercher(position.appliquer(possibles[i]), 2);
+                int rang = -1;
+                for (int j = 0; j < nombre; j++) {
+                    rang = meilleurs[j] == possibles[i] ? j : rang;
+                }
+                if (rang >= 0) {
+                    assertEquals(score, scores[rang]);
+                } else {
+                    assertTrue(score <= scores[nombre - 1]);
+                }
+            }
+            for (int j = 1; j < nombre; j++) {
+                assertTrue(scores[j - 1] >= scores[j]);
+            }
+            position = position.appliquer(possibles[hasard.suivant(n)]);
+        }
+    }
+}
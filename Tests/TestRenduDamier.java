@@ -0,0 +1,74 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Dame;
+import cstjean.mobile.dames.Damier;
+import cstjean.mobile.dames.DamierAfficher;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.RenduDamier;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link RenduDamier}.
+ *
+ * <p>
+ * Vérifie que le rendu incrémental produit le même texte que
+ * {@link DamierAfficher}, qu’il ne corrige que les cases touchées
+ * par un déplacement et que les variantes ANSI et Unicode
+ * conservent une mise en page fixe.
+ * </p>
+ */
+public class TestRenduDamier {
+
+    @Test
+    public void testSynchroniserIdentiqueAfficher() throws IOException {
+        Damier damier = new Damier();
+        damier.initialiser();
+        RenduDamier rendu = new RenduDamier(RenduDamier.Style.Texte);
+        rendu.synchroniser(damier);
+
+        StringBuilder sortie = new StringBuilder();
+        rendu.ecrire(sortie);
+        assertEquals(new DamierAfficher().afficher(damier), sortie.toString());
+    }
+
+    @Test
+    public void testAppliquerDeplacementAvecPrise() throws IOException {
+        Damier damier = new Damier();
+        damier.ajouterPion(22, new Pion(Pion.Couleur.Blanc));
+        damier.ajouterPion(18, new Pion(Pion.Couleur.Noir));
+        RenduDamier rendu = new RenduDamier(RenduDamier.Style.Texte);
+        rendu.synchroniser(damier);
+
+        damier.deplacer(22, 13);
+        rendu.appliquerDeplacement(damier, 22, 13);
+
+        StringWriter sortie = new StringWriter();
+        rendu.ecrire(sortie);
+        assertEquals(new DamierAfficher().afficher(damier), sortie.toString());
+    }
+
+    @Test
+    public void testUnicode() {
+        Damier damier = new Damier();
+        damier.ajouterPion(1, new Dame(Pion.Couleur.Noir));
+        damier.ajouterPion(2, new Pion(Pion.Couleur.Blanc));
+        RenduDamier rendu = new RenduDamier(RenduDamier.Style.Unicode);
+        rendu.synchroniser(damier);
+        assertTrue(rendu.toString().startsWith("-⛃-⛀-"));
+    }
+
+    @Test
+    public void testAnsiLongueurFixe() {
+        Damier damier = new Damier();
+        RenduDamier rendu = new RenduDamier(RenduDamier.Style.Ansi);
+        int longueur = rendu.toString().length();
+        damier.initialiser();
+        rendu.synchroniser(damier);
+        assertEquals(longueur, rendu.toString().length());
+        assertTrue(rendu.toString().contains("\u001b[42;30m P "));
+        assertTrue(rendu.toString().contains("\u001b[42;37m p "));
+    }
+}
@@ -0,0 +1,75 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Geometrie;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.ResultatCoup;
+import cstjean.mobile.dames.SalleParties;
+import cstjean.mobile.dames.StatutCoup;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link SalleParties}.
+ */
+public class TestSalleParties {
+
+    /**
+     * Vérifie l’ouverture et la fermeture des parties.
+     */
+    @Test
+    public void testCreerFermer() {
+        SalleParties salle = new SalleParties();
+        long a = salle.creer();
+        long b = salle.creer();
+        assertTrue(a != b);
+        assertEquals(2, salle.getNombreParties());
+        assertEquals(Position.initiale(Geometrie.DIX), salle.consulter(a));
+        assertTrue(salle.fermer(a));
+        assertFalse(salle.fermer(a));
+        assertEquals(1, salle.getNombreParties());
+        assertThrows(IllegalArgumentException.class, () -> salle.consulter(a));
+        assertThrows(IllegalArgumentException.class, () -> salle.jouer(a, 32, 28));
+        assertThrows(IllegalArgumentException.class, () -> salle.coupsLegaux(a, new int[GenerateurCoups.COUPS_MAX]));
+    }
+
+    /**
+     * Vérifie les coups légaux et les coups joués.
+     */
+    @Test
+    public void testJouer() {
+        SalleParties salle = new SalleParties();
+        long id = salle.creer();
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        assertEquals(9, salle.coupsLegaux(id, coups));
+
+        int refuse = salle.jouer(id, 32, 26);
+        assertEquals(StatutCoup.DestinationIllegale, ResultatCoup.statut(refuse));
+        assertEquals(Position.initiale(Geometrie.DIX), salle.consulter(id));
+
+        int coup = coups[0];
+        assertTrue(ResultatCoup.estAccepte(salle.jouer(id, Coup.depart(coup), Coup.arrivee(coup))));
+        assertEquals(Position.initiale(Geometrie.DIX).appliquer(coup), salle.consulter(id));
+        assertEquals(9, salle.coupsLegaux(id, coups));
+    }
+
+    /**
+     * Vérifie qu’une partie terminée n’a plus de coups légaux.
+     */
+    @Test
+    public void testPartieTerminee() {
+        SalleParties salle = new SalleParties();
+        long id = salle.creer();
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        int n = salle.coupsLegaux(id, coups);
+        for (int ply = 0; ply < 400 && n > 0; ply++) {
+            int coup = coups[0];
+            assertTrue(ResultatCoup.estAccepte(salle.jouer(id, Coup.depart(coup), Coup.arrivee(coup))));
+            n = salle.coupsLegaux(id, coups);
+        }
+        assertEquals(0, n);
+    }
+}
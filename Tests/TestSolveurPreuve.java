@@ -0,0 +1,151 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.GenerateurCoups;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.SolveurPreuve;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link SolveurPreuve}.
+ */
+public class TestSolveurPreuve {
+
+    /** Pions blancs en 20 et 22 contre un pion noir en 7 : gain en trois demi-coups. */
+    private static final Position GAIN_EN_TROIS =
+            Position.depuisMasques((1L << 19) | (1L << 21), 1L << 6, 0L, Pion.Couleur.Blanc);
+
+    /**
+     * Vérifie la profondeur de chaque feuille de l’arbre de solution.
+     *
+     * @param noeud      le nœud
+     * @param profondeur la profondeur du nœud
+     * @param attendue   la profondeur attendue des feuilles
+     */
+    private void verifierFeuilles(SolveurPreuve.NoeudSolution noeud, int profondeur, int attendue) {
+        if (noeud.getSuites().isEmpty()) {
+            assertEquals(attendue, profondeur);
+        }
+        if (profondeur % 2 == 0 && !noeud.getSuites().isEmpty()) {
+            assertEquals(1, noeud.getSuites().size());
+        }
+        for (SolveurPreuve.NoeudSolution suite : noeud.getSuites()) {
+            verifierFeuilles(suite, profondeur + 1, attendue);
+        }
+    }
+
+    /**
+     * Vérifie qu’un arbre de solution est complet selon les règles : un coup légal de l’attaquant
+     * à chacun de ses tours, toutes les défenses légales, et un défenseur sans coup à chaque feuille.
+     *
+     * @param position      la position du nœud
+     * @param noeud         le nœud
+     * @param ply           la distance à la racine
+     * @param profondeurMax la limite de demi-coups
+     */
+    private void verifierArbre(Position position, SolveurPreuve.NoeudSolution noeud, int ply, int profondeurMax) {
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        int nombre = GenerateurCoups.generer(position, coups);
+        if (noeud.getSuites().isEmpty()) {
+            assertEquals(1, ply % 2);
+            assertEquals(0, nombre);
+            return;
+        }
+        assertTrue(ply < profondeurMax);
+        int[] legaux = Arrays.copyOf(coups, nombre);
+        Arrays.sort(legaux);
+        int[] joues = noeud.getSuites().stream().mapToInt(SolveurPreuve.NoeudSolution::getCoup).sorted().toArray();
+        if (ply % 2 == 0) {
+            assertEquals(1, joues.length);
+            assertTrue(Arrays.binarySearch(legaux, joues[0]) >= 0);
+        } else {
+            assertArrayEquals(legaux, joues);
+        }
+        for (SolveurPreuve.NoeudSolution suite : noeud.getSuites()) {
+            verifierArbre(position.appliquer(suite.getCoup()), suite, ply + 1, profondeurMax);
+        }
+    }
+
+    /**
+     * Vérifie une prise gagnante immédiate.
+     */
+    @Test
+    public void testGainImmediat() {
+        Position position = Position.depuisMasques(1L << 22, 1L << 17, 0L, Pion.Couleur.Blanc);
+        SolveurPreuve.ResultatPreuve resultat = new SolveurPreuve(5, 100_000, 1 << 16).resoudre(position);
+        assertEquals(SolveurPreuve.Verdict.Prouve, resultat.getVerdict());
+        SolveurPreuve.NoeudSolution racine = resultat.getSolution();
+        assertEquals(1, racine.getSuites().size());
+        assertEquals(18, Coup.prise(racine.getSuites().get(0).getCoup()));
+        assertEquals(2, racine.taille());
+    }
+
+    /**
+     * Vérifie un gain en trois demi-coups, son arbre complet et sa réfutation sous une limite trop courte.
+     */
+    @Test
+    public void testGainEnTrois() {
+        SolveurPreuve.ResultatPreuve resultat = new SolveurPreuve(3, 100_000, 1 << 16).resoudre(GAIN_EN_TROIS);
+        assertEquals(SolveurPreuve.Verdict.Prouve, resultat.getVerdict());
+        verifierFeuilles(resultat.getSolution(), 0, 3);
+        verifierArbre(GAIN_EN_TROIS, resultat.getSolution(), 0, 3);
+        assertTrue(resultat.getSolution().toString().lines().count() >= 3);
+
+        SolveurPreuve.ResultatPreuve court = new SolveurPreuve(2, 100_000, 1 << 16).resoudre(GAIN_EN_TROIS);
+        assertEquals(SolveurPreuve.Verdict.Refute, court.getVerdict());
+        assertNull(court.getSolution());
+    }
+
+    /**
+     * Vérifie l’arrêt sur budget de nœuds, avec une table minuscule.
+     */
+    @Test
+    public void testBudget() {
+        SolveurPreuve.ResultatPreuve resultat = new SolveurPreuve(40, 500, 64).resoudre(Position.initiale());
+        assertEquals(SolveurPreuve.Verdict.Inconnu, resultat.getVerdict());
+        assertTrue(resultat.getNoeuds() <= 520);
+    }
+
+    /**
+     * Vérifie qu’avec une table minuscule, qui force l’éviction des enfants prouvés, une preuve
+     * n’est rendue qu’avec un arbre complet ; sinon le verdict est inconnu.
+     */
+    @Test
+    public void testEvictions() {
+        int prouves = 0;
+        int inconnus = 0;
+        for (int budget = 1; budget < 3000; budget += 7) {
+            SolveurPreuve.ResultatPreuve resultat = new SolveurPreuve(7, budget, 64).resoudre(GAIN_EN_TROIS);
+            if (resultat.getVerdict() == SolveurPreuve.Verdict.Prouve) {
+                verifierArbre(GAIN_EN_TROIS, resultat.getSolution(), 0, 7);
+                prouves++;
+            } else {
+                assertEquals(SolveurPreuve.Verdict.Inconnu, resultat.getVerdict());
+                assertNull(resultat.getSolution());
+                inconnus++;
+            }
+        }
+        assertTrue(prouves > 0);
+        assertTrue(inconnus > 0);
+    }
+
+    /**
+     * Vérifie la résolution parallèle d’une liste de problèmes.
+     *
+     * @throws InterruptedException si l’attente est interrompue
+     */
+    @Test
+    public void testResoudreTous() throws InterruptedException {
+        List<Position> problemes = List.of(GAIN_EN_TROIS, Position.initiale(), GAIN_EN_TROIS.symetrique());
+        List<SolveurPreuve.ResultatPreuve> resultats = SolveurPreuve.resoudreTous(problemes, 3, 200_000, 1 << 16, 2);
+        assertEquals(SolveurPreuve.Verdict.Prouve, resultats.get(0).getVerdict());
+        assertEquals(SolveurPreuve.Verdict.Refute, resultats.get(1).getVerdict());
+        assertEquals(SolveurPreuve.Verdict.Prouve, resultats.get(2).getVerdict());
+    }
+}
@@ -0,0 +1,72 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cstjean.mobile.dames.Coup;
+import cstjean.mobile.dames.Evaluation;
+import cstjean.mobile.dames.Pion;
+import cstjean.mobile.dames.Position;
+import cstjean.mobile.dames.RechercheAlphaBeta;
+import cstjean.mobile.dames.TableTransposition;
+import org.junit.Test;
+
+/**
+ * Classe de test unitaire pour la classe {@link TableTransposition}.
+ */
+public class TestTableTransposition {
+
+    /**
+     * Vérifie le codage des entrées et la politique de remplacement.
+     */
+    @Test
+    public void testStockerSonder() {
+        TableTransposition table = new TableTransposition(1 << 10);
+        assertEquals(64, table.getCapacite());
+        int coup = Coup.encoder(28, 19, 23, Coup.PIECE_PION_NOIR, false);
+        long hachage = 0x1234_5678_9abc_def0L;
+        assertEquals(TableTransposition.ABSENTE, table.sonder(hachage));
+
+        table.stocker(hachage, -RechercheAlphaBeta.VICTOIRE + 3, TableTransposition.SUPERIEURE, 5, coup);
+        long entree = table.sonder(hachage);
+        assertEquals(coup, TableTransposition.coup(entree));
+        assertEquals(5, TableTransposition.profondeur(entree));
+        assertEquals(TableTransposition.SUPERIEURE, TableTransposition.borne(entree));
+        assertEquals(-RechercheAlphaBeta.VICTOIRE + 3, TableTransposition.score(entree));
+
+        // Une recherche moins profonde de la même position ne remplace pas l’entrée.
+        table.stocker(hachage, 12, TableTransposition.EXACTE, 4, 0);
+        assertEquals(5, TableTransposition.profondeur(table.sonder(hachage)));
+        table.stocker(hachage, 12, TableTransposition.EXACTE, 5, 0);
+        assertEquals(12, TableTransposition.score(table.sonder(hachage)));
+
+        // Une autre position de même indice remplace l’entrée ; l’ancienne devient absente.
+        long autre = hachage + 64;
+        table.stocker(autre, RechercheAlphaBeta.VICTOIRE, TableTransposition.INFERIEURE, 127, 0);
+        assertEquals(TableTransposition.ABSENTE, table.sonder(hachage));
+        assertEquals(RechercheAlphaBeta.VICTOIRE, TableTransposition.score(table.sonder(autre)));
+        assertEquals(127, TableTransposition.profondeur(table.sonder(autre)));
+        table.vider();
+        assertEquals(TableTransposition.ABSENTE, table.sonder(autre));
+    }
+
+    /**
+     * Vérifie que la table réduit le travail, et qu’une victoire reste comptée depuis la racine.
+     */
+    @Test
+    public void testRecherche() {
+        Evaluation evaluation = new Evaluation();
+        RechercheAlphaBeta sans = new RechercheAlphaBeta(evaluation);
+        RechercheAlphaBeta avec = new RechercheAlphaBeta(evaluation);
+        TableTransposition table = new TableTransposition(1 << 20);
+        avec.setTable(table);
+        Position initiale = Position.initiale();
+        sans.chercher(initiale, 6);
+        avec.chercher(initiale, 6);
+        assertTrue(avec.getNoeuds() < sans.getNoeuds());
+        long premiere = avec.getNoeuds();
+        avec.chercher(initiale, 6);
+        assertTrue(avec.getNoeuds() < premiere);
+
+        Position victoire = Position.depuisMasques(1L << 22, 1L << 17, 0L, Pion.Couleur.Blanc);
+        assertEquals(RechercheAlphaBeta.VICTOIRE - 1, avec.chercher(victoire, 4));
+    }
+}
@@ -0,0 +1,72 @@
+package cstjean.mobile.dames;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Chemin SIMD de {@link EvaluationLot}, compilé à part avec le module {@code jdk.incubator.vector}.
+ *
+ * <p>
+ * Cette classe n’est chargée, par {@link ApiVectorielle}, que si le module est présent ;
+ * sans lui, {@link EvaluationLot} reste sur sa boucle scalaire. Chaque lot a sa propre instance,
+ * dont le tampon de conversion est réutilisé d’un appel à l’autre.
+ * </p>
+ */
+final class EvaluationVectorielle implements EvaluationLot.CheminSimd {
+
+    /** La forme de vecteur préférée de la machine. */
+    private static final VectorSpecies<Long> ESPECE = LongVector.SPECIES_PREFERRED;
+
+    /** Les scores d’un bloc, avant leur conversion en {@code int}. */
+    private final long[] tampon = new long[ESPECE.length()];
+
+    /**
+     * Construit le chemin SIMD d’un lot.
+     */
+    EvaluationVectorielle() {
+    }
+
+    @Override
+    public int evaluer(Evaluation evaluation, long[] blancs, long[] noirs, long[] dames, long[] signes,
+                       int nombre, int[] resultats) {
+        int borne = ESPECE.loopBound(nombre);
+        int largeur = ESPECE.length();
+        for (int i = 0; i < borne; i += largeur) {
+            LongVector b = LongVector.fromArray(ESPECE, blancs, i);
+            LongVector n = LongVector.fromArray(ESPECE, noirs, i);
+            LongVector d = LongVector.fromArray(ESPECE, dames, i);
+            LongVector pionsBlancs = b.and(d.not());
+            LongVector pionsNoirs = n.and(d.not());
+            LongVector damesBlanches = b.and(d);
+            LongVector damesNoires = n.and(d);
+            LongVector score = LongVector.zero(ESPECE);
+            for (int k = 0; k < Evaluation.NB_CARACTERISTIQUES; k++) {
+                LongVector typeBlanc;
+                LongVector typeNoir;
+                switch (Evaluation.cible(k)) {
+                    case Evaluation.CIBLE_PIONS -> {
+                        typeBlanc = pionsBlancs;
+                        typeNoir = pionsNoirs;
+                    }
+                    case Evaluation.CIBLE_DAMES -> {
+                        typeBlanc = damesBlanches;
+                        typeNoir = damesNoires;
+                    }
+                    default -> {
+                        typeBlanc = b;
+                        typeNoir = n;
+                    }
+                }
+                LongVector compte = typeBlanc.and(evaluation.masqueBlanc(k)).lanewise(VectorOperators.BIT_COUNT)
+                        .sub(typeNoir.and(evaluation.masqueNoir(k)).lanewise(VectorOperators.BIT_COUNT));
+                score = score.add(compte.mul(evaluation.poids(k)));
+            }
+            score.mul(LongVector.fromArray(ESPECE, signes, i)).intoArray(tampon, 0);
+            for (int voie = 0; voie < largeur; voie++) {
+                resultats[i + voie] = (int) tampon[voie];
+            }
+        }
+        return borne;
+    }
+}
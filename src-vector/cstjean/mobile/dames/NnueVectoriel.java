@@ -0,0 +1,58 @@
+package cstjean.mobile.dames;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Chemin SIMD de {@link EvaluationNnue}, compilé à part avec le module {@code jdk.incubator.vector}.
+ *
+ * <p>
+ * Cette classe n’est chargée, par {@link ApiVectorielle}, que si le module est présent.
+ * Elle est sans état : une seule instance sert à tous les évaluateurs.
+ * </p>
+ */
+final class NnueVectoriel implements EvaluationNnue.CheminSimd {
+
+    /** La forme de vecteur préférée pour les entiers de 16 bits. */
+    private static final VectorSpecies<Short> ESPECE = ShortVector.SPECIES_PREFERRED;
+
+    /**
+     * Construit le chemin SIMD.
+     */
+    NnueVectoriel() {
+    }
+
+    @Override
+    public int largeur() {
+        return ESPECE.length();
+    }
+
+    @Override
+    public int modifier(short[] accumulateur, short[] poids, int rangee, int signe) {
+        int borne = ESPECE.loopBound(accumulateur.length);
+        for (int i = 0; i < borne; i += ESPECE.length()) {
+            ShortVector a = ShortVector.fromArray(ESPECE, accumulateur, i);
+            ShortVector p = ShortVector.fromArray(ESPECE, poids, rangee + i);
+            (signe > 0 ? a.add(p) : a.sub(p)).intoArray(accumulateur, i);
+        }
+        return borne;
+    }
+
+    @Override
+    public long produit(short[] accumulateur, short[] sortie, int decalage, int borne) {
+        IntVector somme = null;
+        for (int i = 0; i < borne; i += ESPECE.length()) {
+            ShortVector activation = ShortVector.fromArray(ESPECE, accumulateur, i)
+                    .max((short) 0).min((short) ReseauNnue.ACTIVATION_MAX);
+            ShortVector poids = ShortVector.fromArray(ESPECE, sortie, decalage + i);
+            for (int partie = 0; partie < 2; partie++) {
+                IntVector a = (IntVector) activation.convert(VectorOperators.S2I, partie);
+                IntVector p = (IntVector) poids.convert(VectorOperators.S2I, partie);
+                somme = somme == null ? a.mul(p) : somme.add(a.mul(p));
+            }
+        }
+        return somme == null ? 0 : somme.reduceLanesToLong(VectorOperators.ADD);
+    }
+}
@@ -1,4 +1,31 @@
+import cstjean.mobile.dames.HarnaisCharge;
+import cstjean.mobile.dames.MoteurHub;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
+/**
+ * Point d’entrée : le moteur, piloté par une interface graphique sur l’entrée et la sortie standard,
+ * ou le générateur de charge avec l’argument {@code charge}.
+ */
 public class Main {
-    public static void main(String[] args) {}
-}
\ No newline at end of file
+
+    /**
+     * Lance le frontal du protocole Hub jusqu’à la commande {@code quit}, ou, si le premier argument
+     * est {@code charge}, le {@link HarnaisCharge} avec les arguments suivants.
+     *
+     * @param args {@code charge} suivi des options du harnais, ou rien
+     * @throws IOException          si l’entrée standard ou un rapport ne peut être lu
+     * @throws InterruptedException si la mesure de charge est interrompue
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("charge")) {
+            HarnaisCharge.lancer(Arrays.copyOfRange(args, 1, args.length), System.out);
+            return;
+        }
+        new MoteurHub(new InputStreamReader(System.in, StandardCharsets.UTF_8),
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8)).executer();
+    }
+}
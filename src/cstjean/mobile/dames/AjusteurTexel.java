@@ -0,0 +1,298 @@
+package cstjean.mobile.dames;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ajuste les poids d’une {@link Evaluation} aux résultats de parties (méthode de Texel).
+ *
+ * <p>
+ * Chaque position est réduite à ses {@link Evaluation#NB_CARACTERISTIQUES} caractéristiques et
+ * au résultat de sa partie, rangés dans des tableaux primitifs. La perte est l’écart quadratique
+ * moyen entre le résultat ({@code 1}, {@code 0.5} ou {@code 0} pour les blancs) et la sigmoïde
+ * {@code 1 / (1 + 10^(-k × score / 400))} du score linéaire. La perte et son gradient sont
+ * calculés par un découpage fork-join des positions, les sommes partielles étant
+ * réduites en remontant ; les poids suivent une descente de gradient de type Adam.
+ * </p>
+ */
+public class AjusteurTexel {
+
+    /** Nombre de positions en dessous duquel une tâche n’est plus découpée. */
+    private static final int SEUIL = 8192;
+
+    /** Facteur de la sigmoïde : {@code ln(10) / 400}. */
+    private static final double LN10_SUR_400 = Math.log(10) / 400;
+
+    /** Nombre de caractéristiques. */
+    private static final int NB = Evaluation.NB_CARACTERISTIQUES;
+
+    /** Nombre maximal de positions, borné par la taille du tableau des caractéristiques. */
+    private static final int CAPACITE_MAX = Integer.MAX_VALUE / NB;
+
+    /** L’évaluation de départ, qui fournit la géométrie et les poids initiaux. */
+    private final Evaluation depart;
+
+    /** Le bassin de fils de calcul. */
+    private final ForkJoinPool bassin;
+
+    /** Caractéristiques de toutes les positions, {@link #NB} par position. */
+    private short[] caracteristiques;
+
+    /** Résultat de chaque position : {@code 0}, {@code 1} ou {@code 2} demi-points pour les blancs. */
+    private byte[] resultats;
+
+    /** Tampon des caractéristiques d’une position en cours d’ajout. */
+    private final int[] valeurs = new int[NB];
+
+    /** Nombre de positions chargées. */
+    private int nombre;
+
+    /** Facteur d’échelle de la sigmoïde. */
+    private double echelle = 1.0;
+
+    /**
+     * Construit un ajusteur qui calcule sur le bassin commun.
+     *
+     * @param depart l’évaluation de départ
+     */
+    public AjusteurTexel(Evaluation depart) {
+        this(depart, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construit un ajusteur.
+     *
+     * @param depart l’évaluation de départ
+     * @param bassin le bassin de fils de calcul
+     */
+    public AjusteurTexel(Evaluation depart, ForkJoinPool bassin) {
+        this.depart = depart;
+        this.bassin = bassin;
+        this.caracteristiques = new short[1024 * NB];
+        this.resultats = new byte[1024];
+    }
+
+    /**
+     * Ajoute une position et le résultat de sa partie.
+     *
+     * @param position la position
+     * @param resultat le résultat, du point de vue des blancs ({@code 1}, {@code 0} ou {@code -1})
+     * @throws IllegalStateException si l’ajusteur contient déjà le nombre maximal de positions
+     */
+    public void ajouter(Position position, int resultat) {
+        if (nombre == resultats.length) {
+            if (nombre >= CAPACITE_MAX) {
+                throw new IllegalStateException("Capacité de l’ajusteur atteinte : " + nombre + " positions");
+            }
+            int capacite = Math.min(CAPACITE_MAX, nombre * 2);
+            caracteristiques = Arrays.copyOf(caracteristiques, Math.multiplyExact(capacite, NB));
+            resultats = Arrays.copyOf(resultats, capacite);
+        }
+        depart.caracteristiques(position, valeurs);
+        for (int k = 0; k < NB; k++) {
+            caracteristiques[nombre * NB + k] = (short) valeurs[k];
+        }
+        resultats[nombre++] = (byte) (Integer.signum(resultat) + 1);
+    }
+
+    /**
+     * Ajoute toutes les positions d’un jeu d’échantillons.
+     *
+     * @param lecteur le lecteur d’échantillons
+     * @throws IllegalArgumentException si le jeu dépasse la capacité de l’ajusteur
+     */
+    public void charger(LecteurEchantillons lecteur) {
+        if (nombre + lecteur.getNombre() > CAPACITE_MAX) {
+            throw new IllegalArgumentException("Trop de positions : " + lecteur.getNombre());
+        }
+        for (long i = 0; i < lecteur.getNombre(); i++) {
+            ajouter(lecteur.getPosition(i), lecteur.getResultat(i));
+        }
+    }
+
+    /**
+     * Retourne le nombre de positions chargées.
+     *
+     * @return le nombre de positions
+     */
+    public int getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Retourne le facteur d’échelle de la sigmoïde.
+     *
+     * @return le facteur {@code k}
+     */
+    public double getEchelle() {
+        return echelle;
+    }
+
+    /**
+     * Calcule la perte moyenne et, si demandé, son gradient.
+     *
+     * @param poids    les poids évalués
+     * @param gradient le tableau qui reçoit le gradient moyen, ou {@code null}
+     * @return la perte moyenne
+     */
+    public double perte(double[] poids, double[] gradient) {
+        if (nombre == 0) {
+            return 0;
+        }
+        double[] somme = bassin.invoke(new Tache(poids, echelle, gradient != null, 0, nombre));
+        if (gradient != null) {
+            for (int k = 0; k < NB; k++) {
+                gradient[k] = somme[k + 1] / nombre;
+            }
+        }
+        return somme[0] / nombre;
+    }
+
+    /**
+     * Choisit le facteur d’échelle qui minimise la perte avec les poids de départ,
+     * par recherche du nombre d’or entre 0.1 et 10.
+     *
+     * @return le facteur retenu
+     */
+    public double ajusterEchelle() {
+        double[] poids = versDouble(depart.getPoids());
+        double or = (Math.sqrt(5) - 1) / 2;
+        double a = 0.1;
+        double b = 10;
+        for (int i = 0; i < 40; i++) {
+            double c = b - or * (b - a);
+            double d = a + or * (b - a);
+            echelle = c;
+            double perteC = perte(poids, null);
+            echelle = d;
+            double perteD = perte(poids, null);
+            if (perteC < perteD) {
+                b = d;
+            } else {
+                a = c;
+            }
+        }
+        echelle = (a + b) / 2;
+        return echelle;
+    }
+
+    /**
+     * Ajuste les poids par descente de gradient (Adam) à partir des poids de départ.
+     *
+     * @param iterations le nombre d’itérations
+     * @param pas        le pas d’apprentissage, en unités de poids
+     * @return la nouvelle évaluation, aux poids arrondis
+     */
+    public Evaluation ajuster(int iterations, double pas) {
+        double[] poids = versDouble(depart.getPoids());
+        double[] gradient = new double[NB];
+        double[] moment = new double[NB];
+        double[] variance = new double[NB];
+        double beta1 = 0.9;
+        double beta2 = 0.999;
+        for (int t = 1; t <= iterations; t++) {
+            perte(poids, gradient);
+            for (int k = 0; k < NB; k++) {
+                moment[k] = beta1 * moment[k] + (1 - beta1) * gradient[k];
+                variance[k] = beta2 * variance[k] + (1 - beta2) * gradient[k] * gradient[k];
+                double m = moment[k] / (1 - Math.pow(beta1, t));
+                double v = variance[k] / (1 - Math.pow(beta2, t));
+                poids[k] -= pas * m / (Math.sqrt(v) + 1e-12);
+            }
+        }
+        int[] arrondis = new int[NB];
+        for (int k = 0; k < NB; k++) {
+            arrondis[k] = (int) Math.round(poids[k]);
+        }
+        return new Evaluation(depart.getGeometrie(), arrondis);
+    }
+
+    /**
+     * Convertit des poids entiers en réels.
+     *
+     * @param poids les poids entiers
+     * @return les poids réels
+     */
+    private static double[] versDouble(int[] poids) {
+        double[] resultat = new double[poids.length];
+        for (int k = 0; k < poids.length; k++) {
+            resultat[k] = poids[k];
+        }
+        return resultat;
+    }
+
+    /**
+     * Tâche fork-join calculant la somme des pertes et des gradients d’un intervalle de positions.
+     * Le résultat contient la perte à l’indice 0 puis le gradient de chaque poids.
+     */
+    @SuppressWarnings("serial")
+    private final class Tache extends RecursiveTask<double[]> {
+
+        /** Les poids évalués. */
+        private final double[] poids;
+
+        /** Le facteur d’échelle de la sigmoïde. */
+        private final double k;
+
+        /** Vrai si le gradient est demandé. */
+        private final boolean avecGradient;
+
+        /** Première position de l’intervalle. */
+        private final int debut;
+
+        /** Fin exclue de l’intervalle. */
+        private final int fin;
+
+        /**
+         * Construit une tâche.
+         *
+         * @param poids        les poids évalués
+         * @param k            le facteur d’échelle
+         * @param avecGradient vrai si le gradient est demandé
+         * @param debut        la première position
+         * @param fin          la fin exclue
+         */
+        Tache(double[] poids, double k, boolean avecGradient, int debut, int fin) {
+            this.poids = poids;
+            this.k = k;
+            this.avecGradient = avecGradient;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (fin - debut > SEUIL) {
+                int milieu = (debut + fin) >>> 1;
+                Tache gauche = new Tache(poids, k, avecGradient, debut, milieu);
+                gauche.fork();
+                double[] droite = new Tache(poids, k, avecGradient, milieu, fin).compute();
+                double[] somme = gauche.join();
+                for (int i = 0; i < somme.length; i++) {
+                    somme[i] += droite[i];
+                }
+                return somme;
+            }
+            double[] somme = new double[NB + 1];
+            double facteur = k * LN10_SUR_400;
+            for (int i = debut; i < fin; i++) {
+                int base = i * NB;
+                double score = 0;
+                for (int c = 0; c < NB; c++) {
+                    score += poids[c] * caracteristiques[base + c];
+                }
+                double s = 1 / (1 + Math.exp(-facteur * score));
+                double ecart = resultats[i] * 0.5 - s;
+                somme[0] += ecart * ecart;
+                if (avecGradient) {
+                    double derivee = -2 * ecart * s * (1 - s) * facteur;
+                    for (int c = 0; c < NB; c++) {
+                        somme[c + 1] += derivee * caracteristiques[base + c];
+                    }
+                }
+            }
+            return somme;
+        }
+    }
+}
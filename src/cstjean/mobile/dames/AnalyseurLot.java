@@ -0,0 +1,314 @@
+package cstjean.mobile.dames;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service d’analyse en lot : les meilleurs coups et leur score pour des milliers de positions.
+ *
+ * <p>
+ * Les positions, données par un {@link Damier}, une {@link Position} ou une notation FEN, sont
+ * réparties sur un {@link ForkJoinPool} dont les fils se volent le travail : un lot est découpé
+ * récursivement, si bien qu’un fil libre reprend la moitié restante du lot d’un autre.
+ * Chaque fil garde sa propre {@link RechercheAlphaBeta}, mais toutes partagent une
+ * {@link TableTransposition} : les positions proches d’une même partie profitent du travail
+ * déjà fait sur leurs voisines.
+ * </p>
+ *
+ * <p>
+ * Chaque analyse est publiée par {@link java.util.concurrent.Flow} dès qu’elle est terminée,
+ * dans l’ordre d’achèvement plutôt que de soumission ; un abonné lent freine les fils d’analyse
+ * plutôt que de perdre des résultats. {@link #close()} attend les analyses en cours puis termine
+ * la publication.
+ * </p>
+ */
+public class AnalyseurLot implements Flow.Publisher<AnalyseurLot.Analyse>, AutoCloseable {
+
+    /** Nombre de positions en dessous duquel un lot n’est plus découpé. */
+    private static final int SEUIL = 4;
+
+    /** Les fils d’analyse. */
+    private final ForkJoinPool bassin;
+
+    /** L’éditeur des analyses terminées. */
+    private final SubmissionPublisher<Analyse> editeur;
+
+    /** La table partagée par toutes les recherches. */
+    private final TableTransposition table;
+
+    /** La recherche propre à chaque fil. */
+    private final ThreadLocal<RechercheAlphaBeta> recherches;
+
+    /** Profondeur des analyses. */
+    private final int profondeur;
+
+    /** Nombre de coups classés par position. */
+    private final int nombreCoups;
+
+    /** Nombre total de nœuds visités. */
+    private final LongAdder noeuds = new LongAdder();
+
+    /**
+     * Construit un service d’analyse.
+     *
+     * @param parallelisme le nombre de fils d’analyse
+     * @param octetsTable  le budget de mémoire de la table partagée, en octets
+     * @param profondeur   la profondeur des analyses, en demi-coups
+     * @param noeudsMax    le budget de nœuds de chaque position, ou {@link Long#MAX_VALUE}
+     * @param nombreCoups  le nombre de meilleurs coups rendus par position
+     */
+    public AnalyseurLot(int parallelisme, long octetsTable, int profondeur, long noeudsMax, int nombreCoups) {
+        if (nombreCoups < 1) {
+            throw new IllegalArgumentException("nombreCoups doit être positif : " + nombreCoups);
+        }
+        Evaluation evaluation = new Evaluation();
+        this.table = new TableTransposition(octetsTable);
+        this.profondeur = profondeur;
+        this.nombreCoups = nombreCoups;
+        this.recherches = ThreadLocal.withInitial(() -> {
+            RechercheAlphaBeta recherche = new RechercheAlphaBeta(evaluation);
+            recherche.setTable(table);
+            recherche.setNoeudsMax(noeudsMax);
+            return recherche;
+        });
+        this.bassin = new ForkJoinPool(parallelisme);
+        this.editeur = new SubmissionPublisher<>();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Analyse> abonne) {
+        editeur.subscribe(abonne);
+    }
+
+    /**
+     * Soumet une position d’un damier.
+     *
+     * @param id     l’identifiant rendu avec l’analyse
+     * @param damier le damier, copié avant le retour
+     */
+    public void soumettre(long id, Damier damier) {
+        soumettre(id, Position.depuis(damier));
+    }
+
+    /**
+     * Soumet une position 10 × 10 en notation FEN.
+     *
+     * @param id  l’identifiant rendu avec l’analyse
+     * @param fen la notation
+     * @throws IllegalArgumentException si la notation est invalide
+     */
+    public void soumettre(long id, String fen) {
+        soumettre(id, Position.depuisFen(fen));
+    }
+
+    /**
+     * Soumet une position.
+     *
+     * @param id       l’identifiant rendu avec l’analyse
+     * @param position la position
+     */
+    public void soumettre(long id, Position position) {
+        bassin.execute(() -> analyser(id, position));
+    }
+
+    /**
+     * Soumet un lot de positions, identifiées par leur rang à partir d’un premier identifiant.
+     *
+     * @param premierId l’identifiant de la première position
+     * @param positions les positions
+     */
+    public void soumettre(long premierId, List<Position> positions) {
+        bassin.execute(new Lot(premierId, List.copyOf(positions), 0, positions.size()));
+    }
+
+    /**
+     * Analyse une position dans le fil courant et publie le résultat.
+     *
+     * @param id       l’identifiant de la position
+     * @param position la position
+     */
+    private void analyser(long id, Position position) {
+        RechercheAlphaBeta recherche = recherches.get();
+        int[] coups = new int[nombreCoups];
+        int[] scores = new int[nombreCoups];
+        int nombre = recherche.chercherMeilleurs(position, profondeur, coups, scores);
+        noeuds.add(recherche.getNoeuds());
+        editeur.submit(new Analyse(id, position, Arrays.copyOf(coups, nombre), Arrays.copyOf(scores, nombre),
+                recherche.getProfondeurAtteinte(), recherche.getNoeuds()));
+    }
+
+    /**
+     * Retourne le nombre total de nœuds visités par les analyses terminées.
+     *
+     * @return le nombre de nœuds
+     */
+    public long getNoeuds() {
+        return noeuds.sum();
+    }
+
+    /**
+     * Retourne la table partagée par les recherches.
+     *
+     * @return la table
+     */
+    public TableTransposition getTable() {
+        return table;
+    }
+
+    /**
+     * Attend la fin des analyses soumises, puis termine la publication.
+     */
+    @Override
+    public void close() {
+        bassin.close();
+        editeur.close();
+    }
+
+    /**
+     * Tâche fork-join analysant un intervalle d’un lot de positions.
+     */
+    @SuppressWarnings("serial")
+    private final class Lot extends RecursiveAction {
+
+        /** Identifiant de la première position du lot. */
+        private final long premierId;
+
+        /** Les positions du lot. */
+        private final List<Position> positions;
+
+        /** Première position de l’intervalle. */
+        private final int debut;
+
+        /** Fin exclue de l’intervalle. */
+        private final int fin;
+
+        /**
+         * Construit une tâche.
+         *
+         * @param premierId l’identifiant de la première position du lot
+         * @param positions les positions du lot
+         * @param debut     la première position de l’intervalle
+         * @param fin       la fin exclue
+         */
+        Lot(long premierId, List<Position> positions, int debut, int fin) {
+            this.premierId = premierId;
+            this.positions = positions;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut > SEUIL) {
+                int milieu = (debut + fin) >>> 1;
+                invokeAll(new Lot(premierId, positions, debut, milieu), new Lot(premierId, positions, milieu, fin));
+                return;
+            }
+            for (int i = debut; i < fin; i++) {
+                analyser(premierId + i, positions.get(i));
+            }
+        }
+    }
+
+    /**
+     * Résultat de l’analyse d’une position.
+     */
+    public static final class Analyse {
+
+        /** L’identifiant de la position. */
+        private final long id;
+
+        /** La position analysée. */
+        private final Position position;
+
+        /** Les meilleurs coups, du meilleur au moins bon. */
+        private final int[] coups;
+
+        /** Le score de chaque coup, du point de vue du joueur qui a le trait. */
+        private final int[] scores;
+
+        /** La profondeur de la dernière itération complète. */
+        private final int profondeur;
+
+        /** Le nombre de nœuds visités. */
+        private final long noeuds;
+
+        /**
+         * Construit un résultat.
+         *
+         * @param id         l’identifiant de la position
+         * @param position   la position
+         * @param coups      les meilleurs coups
+         * @param scores     leurs scores
+         * @param profondeur la profondeur atteinte
+         * @param noeuds     le nombre de nœuds visités
+         */
+        Analyse(long id, Position position, int[] coups, int[] scores, int profondeur, long noeuds) {
+            this.id = id;
+            this.position = position;
+            this.coups = coups;
+            this.scores = scores;
+            this.profondeur = profondeur;
+            this.noeuds = noeuds;
+        }
+
+        /**
+         * Retourne l’identifiant de la position.
+         *
+         * @return l’identifiant donné à la soumission
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Retourne la position analysée.
+         *
+         * @return la position
+         */
+        public Position getPosition() {
+            return position;
+        }
+
+        /**
+         * Retourne les meilleurs coups, codés selon {@link Coup}, du meilleur au moins bon.
+         *
+         * @return les coups (copie) ; vide si la position n’a aucun coup légal
+         */
+        public int[] getCoups() {
+            return coups.clone();
+        }
+
+        /**
+         * Retourne le score de chaque coup, du point de vue du joueur qui a le trait.
+         *
+         * @return les scores, dans l’ordre des coups (copie)
+         */
+        public int[] getScores() {
+            return scores.clone();
+        }
+
+        /**
+         * Retourne la profondeur de la dernière itération complète.
+         *
+         * @return la profondeur, inférieure à celle demandée si le budget de nœuds a été épuisé
+         */
+        public int getProfondeur() {
+            return profondeur;
+        }
+
+        /**
+         * Retourne le nombre de nœuds visités.
+         *
+         * @return le nombre de nœuds
+         */
+        public long getNoeuds() {
+            return noeuds;
+        }
+    }
+}
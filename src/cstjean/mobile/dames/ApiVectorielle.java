@@ -0,0 +1,44 @@
+package cstjean.mobile.dames;
+
+/**
+ * Chargement des chemins SIMD, qui dépendent du module incubateur {@code jdk.incubator.vector}.
+ *
+ * <p>
+ * Ces classes sont compilées à part, dans le dossier {@code src-vector} (module {@code dames-vector}),
+ * le seul qui reçoit {@code --add-modules jdk.incubator.vector} : le reste du projet se compile sans
+ * le module incubateur. Elles ne sont connues ici que par leur nom et leur interface ; si le module
+ * n’est pas chargé ou si elles sont absentes du chemin de classes, les évaluations restent sur leurs
+ * boucles scalaires.
+ * </p>
+ */
+final class ApiVectorielle {
+
+    /** Vrai si le module de l’API vectorielle est présent dans la couche de démarrage. */
+    private static final boolean MODULE_PRESENT = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * Classe utilitaire : aucune instance.
+     */
+    private ApiVectorielle() {
+    }
+
+    /**
+     * Crée une instance d’un chemin SIMD du paquet.
+     *
+     * @param classe le nom simple de la classe, qui doit avoir un constructeur sans paramètre
+     * @param type   l’interface qu’elle implémente
+     * @param <T>    le type de l’interface
+     * @return l’instance, ou {@code null} si le module ou la classe est absent
+     */
+    static <T> T creer(String classe, Class<T> type) {
+        if (!MODULE_PRESENT) {
+            return null;
+        }
+        try {
+            Class<?> chemin = Class.forName(ApiVectorielle.class.getPackageName() + "." + classe);
+            return type.cast(chemin.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package cstjean.mobile.dames;
+
+/**
+ * Codage compact d’un coup dans un seul {@code int}.
+ *
+ * <p>
+ * Un coup codé contient :
+ * </p>
+ * <ul>
+ *     <li>les bits 0 à 6 → la case de départ,</li>
+ *     <li>les bits 7 à 13 → la case d’arrivée,</li>
+ *     <li>les bits 14 à 20 → la case vidée par une prise, ou {@code 0},</li>
+ *     <li>les bits 21 à 23 → la pièce qui occupait la case vidée (voir {@link #PIECE_AUCUNE}),</li>
+ *     <li>le bit 24 → la promotion en dame.</li>
+ * </ul>
+ *
+ * <p>
+ * Ce codage évite toute allocation pour transmettre, journaliser ou rejouer un coup.
+ * </p>
+ */
+public final class Coup {
+
+    /** Aucune pièce. */
+    public static final int PIECE_AUCUNE = 0;
+
+    /** Un pion blanc. */
+    public static final int PIECE_PION_BLANC = 1;
+
+    /** Une dame blanche. */
+    public static final int PIECE_DAME_BLANCHE = 2;
+
+    /** Un pion noir. */
+    public static final int PIECE_PION_NOIR = 3;
+
+    /** Une dame noire. */
+    public static final int PIECE_DAME_NOIRE = 4;
+
+    /** Masque d’une case (7 bits). */
+    private static final int MASQUE_CASE = 0x7F;
+
+    /** Décalage de la case d’arrivée. */
+    private static final int DECALAGE_ARRIVEE = 7;
+
+    /** Décalage de la case prise. */
+    private static final int DECALAGE_PRISE = 14;
+
+    /** Décalage de la pièce prise. */
+    private static final int DECALAGE_PIECE = 21;
+
+    /** Bit de promotion. */
+    private static final int BIT_PROMOTION = 1 << 24;
+
+    /**
+     * Classe utilitaire : aucune instance.
+     */
+    private Coup() {
+    }
+
+    /**
+     * Code un coup.
+     *
+     * @param depart     la case de départ
+     * @param arrivee    la case d’arrivée
+     * @param prise      la case vidée par une prise, ou {@code 0}
+     * @param piecePrise la pièce qui occupait la case vidée
+     * @param promotion  vrai si la pièce devient une dame
+     * @return le coup codé
+     */
+    public static int encoder(int depart, int arrivee, int prise, int piecePrise, boolean promotion) {
+        return depart
+                | arrivee << DECALAGE_ARRIVEE
+                | prise << DECALAGE_PRISE
+                | piecePrise << DECALAGE_PIECE
+                | (promotion ? BIT_PROMOTION : 0);
+    }
+
+    /**
+     * Retourne la case de départ d’un coup.
+     *
+     * @param coup le coup codé
+     * @return la case de départ
+     */
+    public static int depart(int coup) {
+        return coup & MASQUE_CASE;
+    }
+
+    /**
+     * Retourne la case d’arrivée d’un coup.
+     *
+     * @param coup le coup codé
+     * @return la case d’arrivée
+     */
+    public static int arrivee(int coup) {
+        return coup >>> DECALAGE_ARRIVEE & MASQUE_CASE;
+    }
+
+    /**
+     * Retourne la case vidée par le coup.
+     *
+     * @param coup le coup codé
+     * @return la case vidée, ou {@code 0} si le coup n’en vide aucune
+     */
+    public static int prise(int coup) {
+        return coup >>> DECALAGE_PRISE & MASQUE_CASE;
+    }
+
+    /**
+     * Retourne la pièce qui occupait la case vidée par le coup.
+     *
+     * @param coup le coup codé
+     * @return le code de la pièce ({@link #PIECE_AUCUNE} si la case était vide)
+     */
+    public static int piecePrise(int coup) {
+        return coup >>> DECALAGE_PIECE & 0x7;
+    }
+
+    /**
+     * Indique si le coup promeut la pièce en dame.
+     *
+     * @param coup le coup codé
+     * @return vrai s’il y a promotion
+     */
+    public static boolean estPromotion(int coup) {
+        return (coup & BIT_PROMOTION) != 0;
+    }
+
+    /**
+     * Retourne le code de la même pièce dans l’autre couleur.
+     *
+     * @param codePiece le code d’une pièce
+     * @return le code de la pièce de même type et de couleur opposée ({@link #PIECE_AUCUNE} inchangé)
+     */
+    public static int inverserCouleur(int codePiece) {
+        return codePiece == PIECE_AUCUNE ? PIECE_AUCUNE : (codePiece + 1) % 4 + 1;
+    }
+
+    /**
+     * Retourne le code de pièce correspondant à un {@link Pion}.
+     *
+     * @param pion le pion, ou {@code null}
+     * @return le code de la pièce
+     */
+    public static int codePiece(Pion pion) {
+        if (pion == null) {
+            return PIECE_AUCUNE;
+        }
+        boolean dame = pion instanceof Dame;
+        if (pion.getCouleur() == Pion.Couleur.Blanc) {
+            return dame ? PIECE_DAME_BLANCHE : PIECE_PION_BLANC;
+        }
+        return dame ? PIECE_DAME_NOIRE : PIECE_PION_NOIR;
+    }
+
+    /**
+     * Crée le {@link Pion} correspondant à un code de pièce.
+     *
+     * @param code le code de la pièce
+     * @return le pion, ou {@code null} pour {@link #PIECE_AUCUNE}
+     */
+    public static Pion creerPiece(int code) {
+        return switch (code) {
+            case PIECE_PION_BLANC -> new Pion(Pion.Couleur.Blanc);
+            case PIECE_DAME_BLANCHE -> new Dame(Pion.Couleur.Blanc);
+            case PIECE_PION_NOIR -> new Pion(Pion.Couleur.Noir);
+            case PIECE_DAME_NOIRE -> new Dame(Pion.Couleur.Noir);
+            default -> null;
+        };
+    }
+
+    /**
+     * Retourne la notation usuelle d’un coup ({@code 32-28} ou {@code 28x19}).
+     *
+     * @param coup le coup codé
+     * @return la notation du coup
+     */
+    public static String notation(int coup) {
+        char separateur = piecePrise(coup) != PIECE_AUCUNE ? 'x' : '-';
+        return depart(coup) + String.valueOf(separateur) + arrivee(coup);
+    }
+}
@@ -1,17 +1,18 @@
 package cstjean.mobile.dames;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
  * Représente un damier pour le jeu de dames.
  *
  * <p>
- * Le damier est modélisé comme une liste de 50 cases jouables,
+ * Le damier est modélisé comme une liste de cases jouables,
  * chacune pouvant contenir un pion ({@link Pion}) ou être vide ({@code null}).
- * Les positions sont numérotées de 1 à 50 inclusivement et
- * correspondent aux cases foncées d’un damier standard 10 × 10.
+ * Les positions sont numérotées de 1 à {@link Geometrie#getNbCases()} inclusivement et
+ * correspondent aux cases foncées du damier. Par défaut, il s’agit du damier
+ * standard 10 × 10 de 50 cases ; les variantes 8 × 8 et 12 × 12 sont décrites
+ * par {@link Geometrie}.
  * </p>
  *
  * <p>
@@ -35,7 +36,7 @@ import java.util.List;
 public class Damier {
 
     /**
-     * La liste interne représentant les 50 cases jouables du damier.
+     * La liste interne représentant les cases jouables du damier.
      *
      * <p>
      * Chaque élément est soit :
@@ -46,29 +47,89 @@ public class Damier {
      * </ul>
      *
      * <p>
-     * La liste contient toujours exactement 50 éléments.
+     * La liste contient toujours exactement {@link Geometrie#getNbCases()} éléments.
      * </p>
      */
     private final List<Pion> pions;
 
+    /**
+     * La géométrie du damier (taille, numérotation et tables de déplacement).
+     */
+    private final Geometrie geometrie;
+
     /**
      * La couleur du joueur dont c'est le tour de jouer.
      */
     private Pion.Couleur joueurCourant;
 
     /**
-     * Construit un damier vide.
+     * Les observateurs notifiés après chaque déplacement accepté.
+     */
+    private final List<ObservateurDeplacement> observateurs;
+
+    /**
+     * Le hachage de Zobrist de la position courante, mis à jour à chaque modification.
+     */
+    private long hachage;
+
+    /**
+     * Le hachage de Zobrist de la position jumelle (voir {@link Position#symetrique()}),
+     * tenu à jour en même temps que {@link #hachage}.
+     */
+    private long hachageSymetrique;
+
+    /**
+     * Le nombre de pièces de chaque type, indexé par code de pièce (voir {@link Coup}).
+     */
+    private final int[] compteurs;
+
+    /**
+     * Le détecteur de parties nulles, alimenté à chaque déplacement accepté.
+     */
+    private final DetecteurNulle detecteurNulle;
+
+    /**
+     * Vrai si {@link #jouer(int, int)} refuse un coup sans prise lorsqu’une prise est possible.
+     */
+    private boolean priseObligatoire;
+
+    /**
+     * Construit un damier 10 × 10 vide.
      *
      * <p>
      * Les 50 cases sont initialisées à {@code null}.
      * </p>
      */
     public Damier() {
-        this.pions = new ArrayList<>();
-        for (int i = 0; i < 50; i++) {
+        this(Geometrie.DIX);
+    }
+
+    /**
+     * Construit un damier vide de la géométrie donnée.
+     *
+     * @param geometrie la géométrie du damier
+     */
+    public Damier(Geometrie geometrie) {
+        this.geometrie = geometrie;
+        this.pions = new ArrayList<>(geometrie.getNbCases());
+        for (int i = 0; i < geometrie.getNbCases(); i++) {
             pions.add(null);
         }
         joueurCourant = Pion.Couleur.Blanc;
+        observateurs = new ArrayList<>();
+        compteurs = new int[5];
+        compteurs[Coup.PIECE_AUCUNE] = geometrie.getNbCases();
+        hachageSymetrique = Zobrist.TRAIT_NOIR;
+        detecteurNulle = new DetecteurNulle();
+    }
+
+    /**
+     * Retourne la géométrie du damier.
+     *
+     * @return la géométrie
+     */
+    public Geometrie getGeometrie() {
+        return geometrie;
     }
 
     /**
@@ -93,6 +154,112 @@ public class Damier {
         return joueurCourant;
     }
 
+    /**
+     * Définit la couleur du joueur dont c'est le tour de jouer.
+     *
+     * @param joueurCourant la couleur du joueur courant
+     */
+    public void setJoueurCourant(Pion.Couleur joueurCourant) {
+        if (this.joueurCourant != joueurCourant) {
+            changerJoueur();
+        }
+        detecteurNulle.reinitialiser(hachage);
+    }
+
+    /**
+     * Retourne le hachage de Zobrist de la position courante.
+     *
+     * @return le hachage sur 64 bits, identique à celui de {@link Position#getHachage()}
+     */
+    public long getHachage() {
+        return hachage;
+    }
+
+    /**
+     * Retourne le hachage de l’orientation canonique de la position, en temps constant.
+     *
+     * <p>
+     * Une position et sa jumelle (damier tourné d’un demi-tour, couleurs et trait échangés)
+     * ont la même valeur ; elles partagent ce hachage, identique à
+     * {@link Position#getHachageCanonique()}. Une table de transposition, un livre d’ouvertures
+     * ou une base de finales peut ainsi ne garder qu’une entrée par paire.
+     * </p>
+     *
+     * @return le hachage canonique sur 64 bits
+     */
+    public long getHachageCanonique() {
+        return joueurCourant == Pion.Couleur.Blanc ? hachage : hachageSymetrique;
+    }
+
+    /**
+     * Indique si la partie est nulle selon les règles de répétition, des 25 coups ou des finales réduites.
+     *
+     * @return vrai si la partie est nulle
+     */
+    public boolean estPartieNulle() {
+        return detecteurNulle.getMotif() != DetecteurNulle.Motif.Aucun;
+    }
+
+    /**
+     * Indique si la partie est terminée : partie nulle, ou joueur courant sans aucun coup.
+     *
+     * @return vrai si plus aucun coup ne peut être joué
+     */
+    public boolean estPartieTerminee() {
+        return estPartieNulle() || !aUnCoup(joueurCourant);
+    }
+
+    /**
+     * Indique si {@link #jouer(int, int)} impose la prise lorsqu’elle est possible.
+     *
+     * @return vrai si la prise est obligatoire
+     */
+    public boolean isPriseObligatoire() {
+        return priseObligatoire;
+    }
+
+    /**
+     * Rend la prise obligatoire ou facultative pour {@link #jouer(int, int)}.
+     * Par défaut, comme pour {@link #deplacer(int, int)}, elle est facultative.
+     *
+     * @param priseObligatoire vrai pour imposer la prise
+     */
+    public void setPriseObligatoire(boolean priseObligatoire) {
+        this.priseObligatoire = priseObligatoire;
+    }
+
+    /**
+     * Retourne le motif de nulle constaté après le dernier déplacement.
+     *
+     * <p>
+     * L’historique des positions repart de zéro chaque fois que le damier est modifié
+     * directement par {@link #ajouterPion(int, Pion)} ou {@link #setJoueurCourant(Pion.Couleur)}.
+     * </p>
+     *
+     * @return le motif de nulle, ou {@link DetecteurNulle.Motif#Aucun}
+     */
+    public DetecteurNulle.Motif getMotifNulle() {
+        return detecteurNulle.getMotif();
+    }
+
+    /**
+     * Ajoute un observateur notifié après chaque déplacement accepté.
+     *
+     * @param observateur l’observateur à ajouter
+     */
+    public void ajouterObservateur(ObservateurDeplacement observateur) {
+        observateurs.add(observateur);
+    }
+
+    /**
+     * Retire un observateur précédemment ajouté.
+     *
+     * @param observateur l’observateur à retirer
+     */
+    public void retirerObservateur(ObservateurDeplacement observateur) {
+        observateurs.remove(observateur);
+    }
+
     /**
      * Place un pion à la position spécifiée.
      *
@@ -100,20 +267,53 @@ public class Damier {
      * Si un pion se trouve déjà à cette position, il est remplacé.
      * </p>
      *
-     * @param position la position (1 à 50) où placer le pion
+     * @param position la position (1 à {@link Geometrie#getNbCases()}) où placer le pion
      * @param pion     le pion à ajouter
-     * @throws IndexOutOfBoundsException si {@code position} n’est pas comprise entre 1 et 50
+     * @throws IndexOutOfBoundsException si {@code position} n’est pas une case du damier
      */
     public void ajouterPion(int position, Pion pion) {
-        pions.set(position - 1, pion);
+        placer(position, pion);
+        detecteurNulle.reinitialiser(hachage);
+    }
+
+    /**
+     * Place un pion sans toucher à l’historique des positions, en tenant à jour
+     * le hachage et le nombre de pièces.
+     *
+     * @param position la position (1 à {@link Geometrie#getNbCases()})
+     * @param pion     le pion à placer, ou {@code null} pour vider la case
+     * @throws IndexOutOfBoundsException si {@code position} n’est pas une case du damier
+     */
+    private void placer(int position, Pion pion) {
+        int ancien = Coup.codePiece(pions.set(position - 1, pion));
+        int nouveau = Coup.codePiece(pion);
+        hachage ^= Zobrist.cle(position, ancien) ^ Zobrist.cle(position, nouveau);
+        int symetrique = geometrie.symetrique(position);
+        hachageSymetrique ^= Zobrist.cle(symetrique, Coup.inverserCouleur(ancien))
+                ^ Zobrist.cle(symetrique, Coup.inverserCouleur(nouveau));
+        compteurs[ancien]--;
+        compteurs[nouveau]++;
+    }
+
+    /**
+     * Passe le trait à l’adversaire.
+     */
+    private void changerJoueur() {
+        if (joueurCourant == Pion.Couleur.Blanc) {
+            joueurCourant = Pion.Couleur.Noir;
+        } else {
+            joueurCourant = Pion.Couleur.Blanc;
+        }
+        hachage ^= Zobrist.TRAIT_NOIR;
+        hachageSymetrique ^= Zobrist.TRAIT_NOIR;
     }
 
     /**
      * Retourne le pion situé à une position donnée.
      *
-     * @param position la position (1 à 50)
+     * @param position la position (1 à {@link Geometrie#getNbCases()})
      * @return le pion en cette position, ou {@code null} si la case est vide
-     * @throws IndexOutOfBoundsException si {@code position} n’est pas comprise entre 1 et 50
+     * @throws IndexOutOfBoundsException si {@code position} n’est pas une case du damier
      */
     public Pion recupererPion(int position) {
         return pions.get(position - 1);
@@ -125,13 +325,7 @@ public class Damier {
      * @return le nombre de cases non vides
      */
     public int grandeur() {
-        int compteur = 0;
-        for (int i = 0; i < 50; i++) {
-            if (pions.get(i) != null) {
-                compteur++;
-            }
-        }
-        return compteur;
+        return pions.size() - compteurs[Coup.PIECE_AUCUNE];
     }
 
     /**
@@ -142,10 +336,10 @@ public class Damier {
      * qui se charge de :
      * </p>
      * <ul>
-     *     <li>Placer les 20 pions noirs dans la partie supérieure,</li>
-     *     <li>Laisser les 10 cases centrales vides,</li>
-     *     <li>Placer les 20 pions blancs dans la partie inférieure,</li>
-     *     <li>Afficher le damier en console sous forme de grille 10 × 10.</li>
+     *     <li>Placer les pions noirs dans les rangées supérieures (20 sur un damier 10 × 10),</li>
+     *     <li>Laisser les deux rangées centrales vides,</li>
+     *     <li>Placer les pions blancs dans les rangées inférieures,</li>
+     *     <li>Afficher le damier en console sous forme de grille.</li>
      * </ul>
      *
      * <p>
@@ -160,19 +354,21 @@ public class Damier {
     public void initialiser() {
         List<Pion> pions = this.getPions();
 
+        int nbPions = geometrie.getPionsDepart();
+        int nbCases = geometrie.getNbCases();
+
         // Placer les pions noirs et blancs
-        for (int i = 0; i < 20; i++) {
+        for (int i = 0; i < nbPions; i++) {
             this.ajouterPion(i + 1, new Pion(Pion.Couleur.Noir));
         }
-        // 10 cases centrales vides (indices 20-29) -> déjà null
-        // 20 pions blancs
-        for (int i = 30; i < 50; i++) {
+        // Deux rangées centrales vides -> déjà null
+        for (int i = nbCases - nbPions; i < nbCases; i++) {
             this.ajouterPion(i + 1, new Pion(Pion.Couleur.Blanc));
         }
 
         DamierAfficher d = new DamierAfficher();
         System.out.println(d.afficher(this));
-        joueurCourant = Pion.Couleur.Blanc;
+        setJoueurCourant(Pion.Couleur.Blanc);
     }
 
     /**
@@ -194,36 +390,20 @@ public class Damier {
      * les pions atteignant la dernière rangée et affiche le damier mis à jour.
      * </p>
      *
-     * @param posInitial la position de départ (1 à 50)
-     * @param posFinal   la position d’arrivée (1 à 50)
+     * @param posInitial la position de départ (1 à {@link Geometrie#getNbCases()})
+     * @param posFinal   la position d’arrivée (1 à {@link Geometrie#getNbCases()})
      */
     public void deplacer(int posInitial, int posFinal) {
         DeplacementPion dp = new DeplacementPion(this);
         DamierAfficher da = new DamierAfficher();
-        List<Integer> ligneHaut = List.of(1, 2, 3, 4, 5);
-        List<Integer> ligneBas = List.of(46, 47, 48, 49, 50);
         try {
             if (dp.getToutesLesPossibilites(posInitial).contains(posFinal) &&
                     getPions().get(posInitial - 1).getCouleur() == joueurCourant) {
-                if (Math.abs(posFinal - posInitial) > 6) {
-                    ajouterPion(capture(posInitial, posFinal, dp), null);
-                    ajouterPion(posFinal, getPions().get(posInitial - 1));
-                } else {
-                    ajouterPion(posFinal, getPions().get(posInitial - 1));
-                }
-                if (ligneHaut.contains(posFinal) && getPions().get(posInitial - 1).getCouleur() == Pion.Couleur.Blanc) {
-                    ajouterPion(posFinal, new Dame(Pion.Couleur.Blanc));
-                } else if (ligneBas.contains(posFinal) &&
-                        getPions().get(posInitial - 1).getCouleur() == Pion.Couleur.Noir) {
-                    ajouterPion(posFinal, new Dame(Pion.Couleur.Noir));
-                }
-                ajouterPion(posInitial, null);
-
-                if (joueurCourant == Pion.Couleur.Blanc) {
-                    joueurCourant = Pion.Couleur.Noir;
-                } else {
-                    joueurCourant = Pion.Couleur.Blanc;
+                int prise = 0;
+                if (Math.abs(geometrie.ligne(posFinal) - geometrie.ligne(posInitial)) > 1) {
+                    prise = capture(posInitial, posFinal);
                 }
+                effectuer(posInitial, posFinal, prise);
             }
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -232,70 +412,316 @@ public class Damier {
     }
 
     /**
-     * Calcule la position du pion capturé entre deux positions.
+     * Joue un coup du joueur courant et retourne un résultat codé, sans lever d’exception ni afficher.
      *
-     * @param posInitial position de départ du pion
-     * @param posFinal position d’arrivée du pion
-     * @param dp outil de conversion des positions en coordonnées
-     * @return la position du pion capturé, ou -1 s’il n’y en a pas
+     * <p>
+     * Les règles sont celles de {@link #deplacer(int, int)}. Un coup refusé ne modifie rien et
+     * ne crée aucun objet ; son statut se lit avec {@link ResultatCoup#statut(int)}. Un coup accepté
+     * porte ses détails (prise, pièce prise, promotion) selon {@link Coup}, à lire avec
+     * {@link ResultatCoup#coup(int)}. L’exception d’un observateur n’interrompt pas le coup :
+     * elle est confiée au gestionnaire d’exceptions non interceptées du fil courant.
+     * </p>
+     *
+     * @param depart  la case de départ
+     * @param arrivee la case d’arrivée
+     * @return le résultat codé selon {@link ResultatCoup}
      */
+    public int jouer(int depart, int arrivee) {
+        if (estPartieNulle()) {
+            return ResultatCoup.encoder(StatutCoup.PartieTerminee, 0);
+        }
+        StatutCoup refus = verifier(depart, arrivee);
+        if (refus != null) {
+            // Un joueur sans coup ne peut jouer aucun coup légal : la fin de partie n’est cherchée qu’au refus
+            return ResultatCoup.encoder(aUnCoup(joueurCourant) ? refus : StatutCoup.PartieTerminee, 0);
+        }
+        return ResultatCoup.encoder(StatutCoup.Accepte,
+                effectuer(depart, arrivee, geometrie.casePrise(depart, arrivee)));
+    }
 
-    public int capture(int posInitial, int posFinal, DeplacementPion dp) {
-        int[] coordInitial = dp.convertirPosition(posInitial);
-        int[] coordFinal = dp.convertirPosition(posFinal);
-        if (recupererPion(posInitial) instanceof Dame) {
-            if (coordFinal[1] - coordInitial[1] < 0) {
-                if (coordFinal[0] - coordInitial[0] < 0) {
-                    return dp.positionDepuisCoord(coordFinal[0] + 1, coordFinal[1] + 1);
-                } else {
-                    return dp.positionDepuisCoord(coordFinal[0] - 1, coordFinal[1] + 1);
-                }
-            } else {
-                if (coordFinal[0] - coordInitial[0] < 0) {
-                    return dp.positionDepuisCoord(coordFinal[0] + 1, coordFinal[1] - 1);
-                } else {
-                    return dp.positionDepuisCoord(coordFinal[0] - 1, coordFinal[1] - 1);
-                }
+    /**
+     * Rejoue un coup enregistré : comme {@link #jouer(int, int)}, mais sans refuser le coup d’une partie
+     * déjà nulle, pour qu’une partie qui a continué au-delà d’une nulle réclamable se reconstruise en entier.
+     *
+     * @param depart  la case de départ
+     * @param arrivee la case d’arrivée
+     * @return le résultat codé selon {@link ResultatCoup}
+     */
+    int rejouer(int depart, int arrivee) {
+        StatutCoup refus = verifier(depart, arrivee);
+        if (refus != null) {
+            return ResultatCoup.encoder(refus, 0);
+        }
+        return ResultatCoup.encoder(StatutCoup.Accepte,
+                effectuer(depart, arrivee, geometrie.casePrise(depart, arrivee)));
+    }
+
+    /**
+     * Vérifie un coup du joueur courant selon les règles de {@link #deplacer(int, int)},
+     * sans tenir compte de la fin de partie.
+     *
+     * @param depart  la case de départ
+     * @param arrivee la case d’arrivée
+     * @return le motif du refus, ou {@code null} si le coup est légal
+     */
+    private StatutCoup verifier(int depart, int arrivee) {
+        int nbCases = geometrie.getNbCases();
+        if (depart < 1 || depart > nbCases || pions.get(depart - 1) == null) {
+            return StatutCoup.AucunePiece;
+        }
+        Pion pion = pions.get(depart - 1);
+        if (pion.getCouleur() != joueurCourant) {
+            return StatutCoup.MauvaisCamp;
+        }
+        if (arrivee < 1 || arrivee > nbCases || !estAtteignable(depart, arrivee, pion)) {
+            return StatutCoup.DestinationIllegale;
+        }
+        int videe = geometrie.casePrise(depart, arrivee);
+        if (priseObligatoire && !estAdverse(videe, joueurCourant) && aUnePrise(joueurCourant)) {
+            return StatutCoup.PriseObligatoire;
+        }
+        return null;
+    }
+
+    /**
+     * Applique un déplacement déjà validé, met à jour le trait et le détecteur de nulle,
+     * puis notifie les observateurs.
+     *
+     * @param posInitial la case de départ
+     * @param posFinal   la case d’arrivée
+     * @param videe      la case vidée par un déplacement de plus d’une rangée, ou {@code 0}
+     * @return le coup joué, codé selon {@link Coup}
+     */
+    private int effectuer(int posInitial, int posFinal, int videe) {
+        Pion pion = recupererPion(posInitial);
+        int prise = 0;
+        int piecePrise = Coup.PIECE_AUCUNE;
+        if (videe != 0) {
+            prise = videe;
+            piecePrise = Coup.codePiece(recupererPion(prise));
+            placer(prise, null);
+            if (piecePrise == Coup.PIECE_AUCUNE) {
+                prise = 0;
             }
         }
+        placer(posFinal, pion);
+        boolean promotion = false;
+        if (geometrie.estPromotion(posFinal, Pion.Couleur.Blanc) && pion.getCouleur() == Pion.Couleur.Blanc) {
+            promotion = !(pion instanceof Dame);
+            placer(posFinal, new Dame(Pion.Couleur.Blanc));
+        } else if (geometrie.estPromotion(posFinal, Pion.Couleur.Noir)
+                && pion.getCouleur() == Pion.Couleur.Noir) {
+            promotion = !(pion instanceof Dame);
+            placer(posFinal, new Dame(Pion.Couleur.Noir));
+        }
+        placer(posInitial, null);
+        changerJoueur();
 
-        List<Integer> ligne1 = new ArrayList<>(Arrays.asList(1, 2, 3, 4, 5, 11, 12, 13, 14, 15,
-                21, 22, 23, 24, 25, 31, 32, 33, 34, 35, 41, 42, 43, 44, 45));
-        if (ligne1.contains(posInitial)) {
-            if (getPions().get(posInitial - 1).getCouleur() == Pion.Couleur.Blanc) {
-                if (posFinal - posInitial == -11) {
-                    return posFinal + 6;
-                }
-                if (posFinal - posInitial == -9) {
-                    return posFinal + 5;
+        boolean irreversible = !(pion instanceof Dame) || piecePrise != Coup.PIECE_AUCUNE;
+        detecteurNulle.enregistrer(hachage, irreversible,
+                compteurs[Coup.PIECE_PION_BLANC], compteurs[Coup.PIECE_DAME_BLANCHE],
+                compteurs[Coup.PIECE_PION_NOIR], compteurs[Coup.PIECE_DAME_NOIRE]);
+        int coup = Coup.encoder(posInitial, posFinal, prise, piecePrise, promotion);
+        notifier(coup);
+        return coup;
+    }
+
+    /**
+     * Indique, sans allocation, si une pièce peut atteindre une case selon les règles de {@link DeplacementPion}.
+     *
+     * @param depart  la case de la pièce
+     * @param arrivee la case visée
+     * @param pion    la pièce
+     * @return vrai si le déplacement est permis
+     */
+    private boolean estAtteignable(int depart, int arrivee, Pion pion) {
+        if (pions.get(arrivee - 1) != null) {
+            return false;
+        }
+        Pion.Couleur couleur = pion.getCouleur();
+        int portee = pion instanceof Dame ? porteeDame(depart) : 0;
+        for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+            if (pion instanceof Dame) {
+                for (int distance = 1; distance <= portee; distance++) {
+                    if (geometrie.caseSurRayon(depart, direction, distance) == arrivee) {
+                        return true;
+                    }
                 }
+            } else if (!Geometrie.estVersAvant(direction, couleur)) {
+                continue;
+            } else if (geometrie.voisin(depart, direction) == arrivee) {
+                return true;
             }
-            if (recupererPion(posInitial).getCouleur() == Pion.Couleur.Noir) {
-                if (posFinal - posInitial == 11) {
-                    return posFinal - 5;
-                }
-                if (posFinal - posInitial == 9) {
-                    return posFinal - 4;
-                }
+            if (geometrie.caseSurRayon(depart, direction, 2) == arrivee
+                    && estAdverse(geometrie.voisin(depart, direction), couleur)) {
+                return true;
             }
-        } else {
-            if (getPions().get(posInitial - 1).getCouleur() == Pion.Couleur.Blanc) {
-                if (posFinal - posInitial == -9) {
-                    return posFinal + 4;
+        }
+        return false;
+    }
+
+    /**
+     * Retourne la portée d’une dame : la plus grande distance {@code d} telle que, pour chaque
+     * distance de 1 à {@code d}, au moins une diagonale offre une case vide à cette distance.
+     *
+     * @param depart la case de la dame
+     * @return la portée, éventuellement nulle
+     */
+    private int porteeDame(int depart) {
+        int portee = 0;
+        boolean trouve = true;
+        while (trouve) {
+            trouve = false;
+            for (int direction = 0; direction < Geometrie.NB_DIRECTIONS && !trouve; direction++) {
+                int cible = geometrie.caseSurRayon(depart, direction, portee + 1);
+                trouve = cible != 0 && pions.get(cible - 1) == null;
+            }
+            if (trouve) {
+                portee++;
+            }
+        }
+        return portee;
+    }
+
+    /**
+     * Indique si une case porte une pièce adverse.
+     *
+     * @param position la case, ou {@code 0} ou {@code -1} pour aucune
+     * @param couleur  la couleur du joueur
+     * @return vrai si la case porte une pièce de l’autre couleur
+     */
+    private boolean estAdverse(int position, Pion.Couleur couleur) {
+        if (position <= 0) {
+            return false;
+        }
+        Pion pion = pions.get(position - 1);
+        return pion != null && pion.getCouleur() != couleur;
+    }
+
+    /**
+     * Indique si un joueur a au moins un coup.
+     *
+     * @param couleur la couleur du joueur
+     * @return vrai si un coup est possible
+     */
+    private boolean aUnCoup(Pion.Couleur couleur) {
+        for (int depart = 1; depart <= geometrie.getNbCases(); depart++) {
+            Pion pion = pions.get(depart - 1);
+            if (pion == null || pion.getCouleur() != couleur) {
+                continue;
+            }
+            for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+                int voisin = geometrie.voisin(depart, direction);
+                boolean avance = pion instanceof Dame || Geometrie.estVersAvant(direction, couleur);
+                if (voisin != 0 && avance && pions.get(voisin - 1) == null) {
+                    return true;
                 }
-                if (posFinal - posInitial == -11) {
-                    return posFinal + 5;
+                int saut = geometrie.caseSurRayon(depart, direction, 2);
+                if (saut != 0 && avance && estAdverse(voisin, couleur) && pions.get(saut - 1) == null) {
+                    return true;
                 }
             }
-            if (getPions().get(posInitial - 1).getCouleur() == Pion.Couleur.Noir) {
-                if (posFinal - posInitial == 11) {
-                    return posFinal - 6;
+            if (pion instanceof Dame && porteeDame(depart) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indique si un joueur peut prendre une pièce adverse.
+     *
+     * @param couleur la couleur du joueur
+     * @return vrai si au moins un coup légal vide une case adverse
+     */
+    private boolean aUnePrise(Pion.Couleur couleur) {
+        for (int depart = 1; depart <= geometrie.getNbCases(); depart++) {
+            Pion pion = pions.get(depart - 1);
+            if (pion == null || pion.getCouleur() != couleur) {
+                continue;
+            }
+            int portee = pion instanceof Dame ? Math.max(2, porteeDame(depart)) : 2;
+            for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+                if (!(pion instanceof Dame) && !Geometrie.estVersAvant(direction, couleur)) {
+                    continue;
                 }
-                if (posFinal - posInitial == 9) {
-                    return posFinal - 5;
+                for (int distance = 2; distance <= portee; distance++) {
+                    int arrivee = geometrie.caseSurRayon(depart, direction, distance);
+                    if (arrivee != 0 && pions.get(arrivee - 1) == null
+                            && estAdverse(geometrie.caseSurRayon(depart, direction, distance - 1), couleur)
+                            && estAtteignable(depart, arrivee, pion)) {
+                        return true;
+                    }
                 }
             }
         }
+        return false;
+    }
+
+    /**
+     * Notifie les observateurs qu’un coup vient d’être joué. L’exception d’un observateur est
+     * remise au gestionnaire d’exceptions non interceptées du fil courant, puis les suivants sont notifiés.
+     *
+     * @param coup le coup joué, codé selon {@link Coup}
+     */
+    private void notifier(int coup) {
+        for (int i = 0; i < observateurs.size(); i++) {
+            try {
+                observateurs.get(i).deplacementEffectue(this, coup);
+            } catch (RuntimeException e) {
+                // Le coup est déjà joué : un observateur en échec ne l’annule pas
+                Thread fil = Thread.currentThread();
+                fil.getUncaughtExceptionHandler().uncaughtException(fil, e);
+            }
+        }
+    }
+
+    /**
+     * Calcule la position du pion capturé entre deux positions.
+     *
+     * <p>
+     * La case est lue dans la table des trajets de la {@link Geometrie}, sans calcul de coordonnées
+     * ni allocation : une dame prend la voisine de l’arrivée sur sa diagonale, un pion la case
+     * du milieu d’un saut de deux cases vers l’avant.
+     * </p>
+     *
+     * @param posInitial position de départ du pion
+     * @param posFinal position d’arrivée du pion
+     * @return la position du pion capturé, ou -1 s’il n’y en a pas (cases hors du damier comprises)
+     */
+    public int capture(int posInitial, int posFinal) {
+        int nbCases = geometrie.getNbCases();
+        if (posInitial < 1 || posInitial > nbCases || posFinal < 1 || posFinal > nbCases) {
+            return -1;
+        }
+        int prise = geometrie.casePrise(posInitial, posFinal);
+        Pion pion = recupererPion(posInitial);
+        if (prise == 0 || pion == null) {
+            return -1;
+        }
+        if (pion instanceof Dame) {
+            return prise;
+        }
+
+        // Un pion ne prend qu’en avançant de deux cases en diagonale
+        if (geometrie.distance(posInitial, posFinal) == 2
+                && Geometrie.estVersAvant(geometrie.direction(posInitial, posFinal), pion.getCouleur())) {
+            return prise;
+        }
         return -1;
     }
+
+    /**
+     * Calcule la position du pion capturé entre deux positions.
+     *
+     * @param posInitial position de départ du pion
+     * @param posFinal position d’arrivée du pion
+     * @param dp outil de déplacement du damier, inutilisé
+     * @return la position du pion capturé, ou -1 s’il n’y en a pas
+     * @deprecated la table des trajets rend l’outil de déplacement inutile : utiliser {@link #capture(int, int)}
+     */
+    @Deprecated
+    public int capture(int posInitial, int posFinal, DeplacementPion dp) {
+        return capture(posInitial, posFinal);
+    }
 }
@@ -22,7 +22,7 @@ public class DamierAfficher {
      * </p>
      *
      * <p>
-     * L’affichage se fait sur une grille 10×10, où :
+     * L’affichage se fait sur une grille de la taille du damier (10×10 par défaut), où :
      * <ul>
      *     <li>{@code 'P'} = pion noir</li>
      *     <li>{@code 'p'} = pion blanc</li>
@@ -37,9 +37,10 @@ public class DamierAfficher {
     public String afficher(Damier damier) {
         StringBuilder representation = new StringBuilder();
         // Afficher la grille
+        int taille = damier.getGeometrie().getTaille();
         int compteur = 1;
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
                 if ((i + j) % 2 == 1) {
                     Pion pion = damier.recupererPion(compteur);
                     if (pion == null) {
@@ -13,6 +13,11 @@ public class DeplacementPion {
      */
     private final Damier damier;
 
+    /**
+     * Géométrie du damier, qui fournit les tables de voisins et de rayons.
+     */
+    private final Geometrie geometrie;
+
     /**
      * Liste contenant les positions des pions adverses pouvant être capturés.
      */
@@ -25,6 +30,7 @@ public class DeplacementPion {
      */
     public DeplacementPion(Damier damier) {
         this.damier = damier;
+        this.geometrie = damier.getGeometrie();
         posCapturables = new ArrayList<>();
     }
 
@@ -67,18 +73,12 @@ public class DeplacementPion {
         boolean estDame = pion instanceof Dame;
         Pion.Couleur couleur = pion.getCouleur();
 
-        int[] coord = convertirPosition(position);
-        int ligne = coord[0];
-        int col = coord[1];
-
-        if (!estDame && couleur == Pion.Couleur.Blanc) {
-            ajouterSiVide(casesValides, ligne - 1, col - 1);
-            ajouterSiVide(casesValides, ligne - 1, col + 1);
-        }
-
-        if (!estDame && couleur == Pion.Couleur.Noir) {
-            ajouterSiVide(casesValides, ligne + 1, col - 1);
-            ajouterSiVide(casesValides, ligne + 1, col + 1);
+        if (!estDame) {
+            for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+                if (Geometrie.estVersAvant(direction, couleur)) {
+                    ajouterSiVide(casesValides, geometrie.voisin(position, direction));
+                }
+            }
         }
 
         if (estDame) {
@@ -88,10 +88,9 @@ public class DeplacementPion {
 
                 i++;
                 compteur = casesValides.size();
-                ajouterSiVide(casesValides, ligne - i, col - i);
-                ajouterSiVide(casesValides, ligne - i, col + i);
-                ajouterSiVide(casesValides, ligne + i, col - i);
-                ajouterSiVide(casesValides, ligne + i, col + i);
+                for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+                    ajouterSiVide(casesValides, geometrie.caseSurRayon(position, direction, i));
+                }
                 if (compteur == casesValides.size()) {
                     break;
                 }
@@ -118,25 +117,11 @@ public class DeplacementPion {
         boolean estDame = pion instanceof Dame;
         Pion.Couleur couleur = pion.getCouleur();
 
-        int[] coord = convertirPosition(position);
-        int ligne = coord[0];
-        int col = coord[1];
-
-        if (!estDame && couleur == Pion.Couleur.Blanc) {
-            ajouterCapture(casesCaptures, ligne, col, ligne - 1, col - 1, ligne - 2, col - 2, couleur);
-            ajouterCapture(casesCaptures, ligne, col, ligne - 1, col + 1, ligne - 2, col + 2, couleur);
-        }
-
-        if (!estDame && couleur == Pion.Couleur.Noir) {
-            ajouterCapture(casesCaptures, ligne, col, ligne + 1, col - 1, ligne + 2, col - 2, couleur);
-            ajouterCapture(casesCaptures, ligne, col, ligne + 1, col + 1, ligne + 2, col + 2, couleur);
-        }
-
-        if (estDame) {
-            ajouterCapture(casesCaptures, ligne, col, ligne - 1, col - 1, ligne - 2, col - 2, couleur);
-            ajouterCapture(casesCaptures, ligne, col, ligne - 1, col + 1, ligne - 2, col + 2, couleur);
-            ajouterCapture(casesCaptures, ligne, col, ligne + 1, col - 1, ligne + 2, col - 2, couleur);
-            ajouterCapture(casesCaptures, ligne, col, ligne + 1, col + 1, ligne + 2, col + 2, couleur);
+        for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+            if (estDame || Geometrie.estVersAvant(direction, couleur)) {
+                ajouterCapture(casesCaptures, geometrie.caseSurRayon(position, direction, 1),
+                        geometrie.caseSurRayon(position, direction, 2), couleur);
+            }
         }
 
         return casesCaptures;
@@ -147,15 +132,12 @@ public class DeplacementPion {
      *
      * @param casesValides liste des cases valides
      *
-     * @param ligne ligne de la case
-     *
-     * @param col colonne de la case
+     * @param position la case, ou {@code 0} si elle sort du damier
      */
-    private void ajouterSiVide(List<Integer> casesValides, int ligne, int col) {
-        if (!estCoordValide(ligne, col)) {
+    private void ajouterSiVide(List<Integer> casesValides, int position) {
+        if (position == 0) {
             return;
         }
-        int position = positionDepuisCoord(ligne, col);
         if (damier.recupererPion(position) == null) {
             casesValides.add(position);
         }
@@ -165,25 +147,15 @@ public class DeplacementPion {
      * Vérifie et ajoute une position de capture possible.
      *
      * @param casesCaptures liste des cases où une capture peut être faite
-     * @param ligne ligne du pion
-     * @param col colonne du pion
-     * @param ligneMilieu ligne du pion adverse
-     * @param colMilieu colonne du pion adverse
-     * @param ligneFinal ligne d’arrivée
-     * @param colFinal colonne d’arrivée
+     * @param posMilieu case du pion adverse, ou {@code 0} si elle sort du damier
+     * @param posFinal case d’arrivée, ou {@code 0} si elle sort du damier
      * @param couleur couleur du pion actif
      */
-    private void ajouterCapture(List<Integer> casesCaptures, int ligne, int col, int ligneMilieu,
-                                int colMilieu, int ligneFinal, int colFinal, Pion.Couleur couleur) {
-        if (!estCoordValide(ligneMilieu, colMilieu)) {
-            return;
-        }
-        if (!estCoordValide(ligneFinal, colFinal)) {
+    private void ajouterCapture(List<Integer> casesCaptures, int posMilieu, int posFinal, Pion.Couleur couleur) {
+        if (posMilieu == 0 || posFinal == 0) {
             return;
         }
 
-        int posMilieu = positionDepuisCoord(ligneMilieu, colMilieu);
-        int posFinal = positionDepuisCoord(ligneFinal, colFinal);
         posCapturables.add(posMilieu);
         Pion pionMilieu = damier.recupererPion(posMilieu);
         Pion pionFinal = damier.recupererPion(posFinal);
@@ -194,62 +166,27 @@ public class DeplacementPion {
     }
 
     /**
-     * Convertit une position (1 à 50) en coordonnées (ligne, colonne).
+     * Convertit une position en coordonnées (ligne, colonne).
      *
      * @param position position du pion
-     * @return tableau contenant la ligne et la colonne
+     * @return tableau contenant la ligne et la colonne, ou {@code {-1, -1}} si la position n’existe pas
      */
     public int[] convertirPosition(int position) {
-        int compteur = 1;
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                if ((i + j) % 2 == 1) {
-                    if (compteur == position) {
-                        return new int[]{i, j};
-                    }
-                    compteur++;
-                }
-            }
+        if (position < 1 || position > geometrie.getNbCases()) {
+            return new int[]{-1, -1};
         }
-        return new int[]{-1, -1};
+        return new int[]{geometrie.ligne(position), geometrie.colonne(position)};
     }
 
     /**
-     * Convertit des coordonnées en position (1 à 50).
+     * Convertit des coordonnées en position.
      *
      * @param ligne ligne sur le damier
      * @param col colonne sur le damier
-     * @return position correspondante
+     * @return position correspondante, ou {@code -1} si la case n’est pas jouable
      */
     public int positionDepuisCoord(int ligne, int col) {
-        // Vérifier uniquement les bornes ici — on laisse la vérification de parité
-        // être traitée par la boucle, afin que le return final puisse être atteint
-        if (ligne < 0 || ligne >= 10 || col < 0 || col >= 10) {
-            return -1;
-        }
-        int compteur = 1;
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                if ((i + j) % 2 == 1) {
-                    if (i == ligne && j == col) {
-                        return compteur;
-                    }
-                    compteur++;
-                }
-            }
-        }
-        return -1;
-    }
-
-    /**
-     * Vérifie si les coordonnées données sont valides.
-     *
-     * @param ligne ligne sur le damier
-     * @param col colonne sur le damier
-     * @return vrai si les coordonnées sont valides, faux sinon
-     */
-    private boolean estCoordValide(int ligne, int col) {
-        return ligne >= 0 && ligne < 10 && col >= 0 && col < 10 && (ligne + col) % 2 != 0;
+        return geometrie.position(ligne, col);
     }
 
 }
@@ -0,0 +1,209 @@
+package cstjean.mobile.dames;
+
+/**
+ * Détecte les parties nulles selon les règles du jeu de dames international.
+ *
+ * <p>
+ * Trois règles sont suivies de façon incrémentale, coup par coup :
+ * </p>
+ * <ul>
+ *     <li>la triple répétition d’une même position (même joueur au trait),</li>
+ *     <li>25 coups de chaque joueur sans déplacement de pion ni prise, seules les dames ayant joué,</li>
+ *     <li>les finales réduites contre une dame seule : 16 coups chacun pour trois pièces dont une dame
+ *     (trois dames, deux dames et un pion, une dame et deux pions), 5 coups chacun pour deux pièces
+ *     ou moins dont une dame.</li>
+ * </ul>
+ *
+ * <p>
+ * Les hachages des positions sont conservés dans un tampon circulaire.
+ * Un coup de pion ou une prise rend toute répétition antérieure impossible ;
+ * la recherche ne remonte donc jamais au-delà du dernier coup irréversible.
+ * </p>
+ */
+public final class DetecteurNulle {
+
+    /**
+     * Motifs possibles de partie nulle.
+     */
+    public enum Motif {
+        /** La partie n’est pas nulle. */
+        Aucun,
+        /** La même position est apparue trois fois. */
+        Repetition,
+        /** 25 coups de chaque joueur n’ont déplacé que des dames, sans prise. */
+        VingtCinqCoups,
+        /** Le délai d’une finale réduite contre une dame seule est écoulé. */
+        FinaleReduite
+    }
+
+    /** Nombre de demi-coups de dames sans prise menant à la nulle (25 coups par joueur). */
+    public static final int DEMI_COUPS_DAMES = 50;
+
+    /** Nombre de demi-coups accordés à une finale de trois pièces contre une dame (16 coups par joueur). */
+    public static final int DEMI_COUPS_FINALE_LONGUE = 32;
+
+    /** Nombre de demi-coups accordés à une finale de deux pièces contre une dame (5 coups par joueur). */
+    public static final int DEMI_COUPS_FINALE_COURTE = 10;
+
+    /**
+     * Capacité du tampon circulaire (puissance de deux).
+     * Au-delà de {@link #DEMI_COUPS_DAMES} demi-coups réversibles, la partie est déjà nulle.
+     */
+    private static final int CAPACITE = 64;
+
+    /** Les hachages des positions depuis le dernier coup irréversible. */
+    private final long[] hachages;
+
+    /** Indice de la dernière position enregistrée dans le tampon. */
+    private int tete;
+
+    /** Nombre de positions valides dans le tampon. */
+    private int taille;
+
+    /** Nombre de demi-coups consécutifs de dames sans prise. */
+    private int demiCoupsDames;
+
+    /** Nombre de demi-coups joués dans la finale réduite courante. */
+    private int demiCoupsFinale;
+
+    /** Limite de la finale réduite courante, ou {@code 0} si la position n’en est pas une. */
+    private int limiteFinale;
+
+    /** Motif de nulle constaté après le dernier coup. */
+    private Motif motif;
+
+    /**
+     * Construit un détecteur pour une position vide de hachage nul.
+     */
+    public DetecteurNulle() {
+        hachages = new long[CAPACITE];
+        reinitialiser(0L);
+    }
+
+    /**
+     * Oublie tout l’historique et repart d’une position donnée.
+     *
+     * @param hachage le hachage de la position de départ
+     */
+    public void reinitialiser(long hachage) {
+        tete = 0;
+        taille = 1;
+        hachages[0] = hachage;
+        demiCoupsDames = 0;
+        demiCoupsFinale = 0;
+        limiteFinale = 0;
+        motif = Motif.Aucun;
+    }
+
+    /**
+     * Enregistre la position atteinte après un coup et met à jour les compteurs.
+     *
+     * @param hachage       le hachage de la nouvelle position
+     * @param irreversible  vrai si le coup déplaçait un pion ou prenait une pièce
+     * @param pionsBlancs   le nombre de pions blancs après le coup
+     * @param damesBlanches le nombre de dames blanches après le coup
+     * @param pionsNoirs    le nombre de pions noirs après le coup
+     * @param damesNoires   le nombre de dames noires après le coup
+     * @return le motif de nulle constaté, ou {@link Motif#Aucun}
+     */
+    public Motif enregistrer(long hachage, boolean irreversible, int pionsBlancs, int damesBlanches,
+                             int pionsNoirs, int damesNoires) {
+        int occurrences = 1;
+        if (irreversible) {
+            taille = 0;
+            demiCoupsDames = 0;
+        } else {
+            demiCoupsDames++;
+            // Seules les positions au même trait peuvent être identiques : un pas de deux suffit.
+            for (int i = 2; i <= taille; i += 2) {
+                if (hachages[(tete - i + 1) & (CAPACITE - 1)] == hachage) {
+                    occurrences++;
+                }
+            }
+        }
+        tete = (tete + 1) & (CAPACITE - 1);
+        hachages[tete] = hachage;
+        taille = Math.min(taille + 1, CAPACITE);
+
+        int limite = limiteFinale(pionsBlancs, damesBlanches, pionsNoirs, damesNoires);
+        if (limite != limiteFinale) {
+            limiteFinale = limite;
+            demiCoupsFinale = 0;
+        } else if (limite != 0) {
+            demiCoupsFinale++;
+        }
+
+        if (occurrences >= 3) {
+            motif = Motif.Repetition;
+        } else if (demiCoupsDames >= DEMI_COUPS_DAMES) {
+            motif = Motif.VingtCinqCoups;
+        } else if (limiteFinale != 0 && demiCoupsFinale >= limiteFinale) {
+            motif = Motif.FinaleReduite;
+        } else {
+            motif = Motif.Aucun;
+        }
+        return motif;
+    }
+
+    /**
+     * Retourne le motif de nulle constaté après le dernier coup enregistré.
+     *
+     * @return le motif, ou {@link Motif#Aucun}
+     */
+    public Motif getMotif() {
+        return motif;
+    }
+
+    /**
+     * Retourne le nombre de demi-coups consécutifs de dames sans prise.
+     *
+     * @return le compteur de la règle des 25 coups
+     */
+    public int getDemiCoupsDames() {
+        return demiCoupsDames;
+    }
+
+    /**
+     * Retourne le nombre de demi-coups joués dans la finale réduite courante.
+     *
+     * @return le compteur de finale, ou {@code 0} hors finale réduite
+     */
+    public int getDemiCoupsFinale() {
+        return demiCoupsFinale;
+    }
+
+    /**
+     * Retourne le délai accordé à une finale réduite contre une dame seule.
+     *
+     * @param pionsBlancs   le nombre de pions blancs
+     * @param damesBlanches le nombre de dames blanches
+     * @param pionsNoirs    le nombre de pions noirs
+     * @param damesNoires   le nombre de dames noires
+     * @return le nombre de demi-coups accordés, ou {@code 0} si ce n’est pas une finale réduite
+     */
+    static int limiteFinale(int pionsBlancs, int damesBlanches, int pionsNoirs, int damesNoires) {
+        if (pionsNoirs == 0 && damesNoires == 1 && damesBlanches >= 1) {
+            return limitePourAttaquant(pionsBlancs + damesBlanches);
+        }
+        if (pionsBlancs == 0 && damesBlanches == 1 && damesNoires >= 1) {
+            return limitePourAttaquant(pionsNoirs + damesNoires);
+        }
+        return 0;
+    }
+
+    /**
+     * Retourne le délai selon le nombre de pièces du camp qui affronte la dame seule.
+     *
+     * @param pieces le nombre de pièces du camp attaquant (au moins une dame)
+     * @return le nombre de demi-coups accordés, ou {@code 0} au-delà de trois pièces
+     */
+    private static int limitePourAttaquant(int pieces) {
+        if (pieces <= 2) {
+            return DEMI_COUPS_FINALE_COURTE;
+        }
+        if (pieces == 3) {
+            return DEMI_COUPS_FINALE_LONGUE;
+        }
+        return 0;
+    }
+}
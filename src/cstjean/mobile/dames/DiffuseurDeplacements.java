@@ -0,0 +1,119 @@
+package cstjean.mobile.dames;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Diffuse les déplacements d’un {@link Damier} aux spectateurs sous forme de lots d’événements delta.
+ *
+ * <p>
+ * Le diffuseur s’abonne au damier comme {@link ObservateurDeplacement},
+ * regroupe les {@link EvenementDeplacement} en lots de taille fixe et les publie
+ * par {@link java.util.concurrent.Flow}. Chaque spectateur contrôle son débit
+ * par {@link Flow.Subscription#request(long)}. Lorsque le tampon d’un spectateur est plein,
+ * le lot lui est retiré plutôt que de ralentir la partie ; le spectateur détecte le trou
+ * grâce aux numéros de séquence et repart d’un damier complet.
+ * </p>
+ */
+public class DiffuseurDeplacements implements ObservateurDeplacement, Flow.Publisher<List<EvenementDeplacement>>,
+        AutoCloseable {
+
+    /** L’éditeur sous-jacent, qui gère les tampons et la contre-pression par abonné. */
+    private final SubmissionPublisher<List<EvenementDeplacement>> editeur;
+
+    /** Nombre d’événements par lot. */
+    private final int tailleLot;
+
+    /** Les événements du lot en cours. */
+    private final List<EvenementDeplacement> lotEnCours;
+
+    /** Nombre de lots abandonnés pour des spectateurs trop lents. */
+    private final LongAdder lotsAbandonnes = new LongAdder();
+
+    /** Numéro de séquence du prochain événement. */
+    private long sequence;
+
+    /**
+     * Construit un diffuseur qui publie chaque événement individuellement
+     * sur le {@link ForkJoinPool#commonPool()}.
+     */
+    public DiffuseurDeplacements() {
+        this(1, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+    }
+
+    /**
+     * Construit un diffuseur.
+     *
+     * @param tailleLot   le nombre d’événements regroupés dans un lot
+     * @param executeur   l’exécuteur qui livre les lots aux spectateurs
+     * @param tailleTampon le nombre maximal de lots en attente par spectateur
+     */
+    public DiffuseurDeplacements(int tailleLot, Executor executeur, int tailleTampon) {
+        if (tailleLot < 1) {
+            throw new IllegalArgumentException("tailleLot doit être positive : " + tailleLot);
+        }
+        this.tailleLot = tailleLot;
+        this.lotEnCours = new ArrayList<>(tailleLot);
+        this.editeur = new SubmissionPublisher<>(executeur, tailleTampon);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<EvenementDeplacement>> spectateur) {
+        editeur.subscribe(spectateur);
+    }
+
+    @Override
+    public synchronized void deplacementEffectue(Damier damier, int coup) {
+        lotEnCours.add(new EvenementDeplacement(sequence++, coup, damier.getJoueurCourant()));
+        if (lotEnCours.size() >= tailleLot) {
+            vider();
+        }
+    }
+
+    /**
+     * Publie immédiatement le lot en cours, même s’il est incomplet.
+     */
+    public synchronized void vider() {
+        if (lotEnCours.isEmpty()) {
+            return;
+        }
+        List<EvenementDeplacement> lot = List.copyOf(lotEnCours);
+        lotEnCours.clear();
+        editeur.offer(lot, (spectateur, rejete) -> {
+            lotsAbandonnes.increment();
+            return false;
+        });
+    }
+
+    /**
+     * Retourne le nombre de spectateurs abonnés.
+     *
+     * @return le nombre de spectateurs
+     */
+    public int getNombreSpectateurs() {
+        return editeur.getNumberOfSubscribers();
+    }
+
+    /**
+     * Retourne le nombre de lots abandonnés parce qu’un spectateur ne suivait pas.
+     *
+     * @return le nombre de lots abandonnés
+     */
+    public long getLotsAbandonnes() {
+        return lotsAbandonnes.sum();
+    }
+
+    /**
+     * Publie le lot en cours puis termine la diffusion.
+     */
+    @Override
+    public synchronized void close() {
+        vider();
+        editeur.close();
+    }
+}
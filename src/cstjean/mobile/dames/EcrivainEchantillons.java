@@ -0,0 +1,202 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Écrit des positions étiquetées dans des fichiers binaires à enregistrements fixes, découpés en tranches.
+ *
+ * <p>
+ * Chaque tranche commence par un en-tête de {@link #TAILLE_ENTETE} octets ({@link #MAGIQUE},
+ * {@link #VERSION}, nombre de cases, taille d’enregistrement), suivi d’enregistrements
+ * petit-boutistes de {@link #TAILLE_ENREGISTREMENT} octets :
+ * </p>
+ * <ul>
+ *     <li>octets 0, 8 et 16 → masques des blancs, des noirs et des dames ;</li>
+ *     <li>octets 24 et 26 → score de recherche (du point de vue du trait) et numéro du demi-coup, sur 16 bits ;</li>
+ *     <li>octet 28 → trait ({@code 0} blancs, {@code 1} noirs) ;</li>
+ *     <li>octet 29 → résultat de la partie du point de vue des blancs ({@code 1}, {@code 0} ou {@code -1}) ;</li>
+ *     <li>octets 30 et 31 → réservés.</li>
+ * </ul>
+ *
+ * <p>
+ * Les enregistrements passent par un tampon direct vidé d’un seul bloc dans un {@link FileChannel}.
+ * Une nouvelle tranche est ouverte dès que la suivante dépasserait la taille maximale.
+ * </p>
+ */
+public class EcrivainEchantillons implements AutoCloseable {
+
+    /** Signature d’une tranche ({@code "DECH"}). */
+    public static final int MAGIQUE = 0x48434544;
+
+    /** Version du format. */
+    public static final int VERSION = 1;
+
+    /** Taille de l’en-tête d’une tranche, en octets. */
+    public static final int TAILLE_ENTETE = 16;
+
+    /** Taille d’un enregistrement, en octets. */
+    public static final int TAILLE_ENREGISTREMENT = 32;
+
+    /** Taille maximale d’une tranche, limitée par la projection en mémoire d’un seul tampon. */
+    public static final long TAILLE_TRANCHE_MAX = TAILLE_ENTETE
+            + (Integer.MAX_VALUE - TAILLE_ENTETE) / TAILLE_ENREGISTREMENT * (long) TAILLE_ENREGISTREMENT;
+
+    /** Taille du tampon d’écriture, en octets. */
+    private static final int TAILLE_TAMPON = 1 << 20;
+
+    /** Le dossier des tranches. */
+    private final Path dossier;
+
+    /** Le préfixe du nom des tranches. */
+    private final String prefixe;
+
+    /** Le nombre maximal d’enregistrements par tranche. */
+    private final long enregistrementsParTranche;
+
+    /** Le tampon d’écriture. */
+    private final ByteBuffer tampon;
+
+    /** Les tranches créées. */
+    private final List<Path> tranches;
+
+    /** La géométrie des positions écrites, fixée par la première. */
+    private Geometrie geometrie;
+
+    /** Le canal de la tranche courante, ou {@code null} avant la première écriture. */
+    private FileChannel canal;
+
+    /** Le nombre d’enregistrements de la tranche courante, tampon compris. */
+    private long enregistrementsTranche;
+
+    /** Le nombre total d’enregistrements écrits. */
+    private long total;
+
+    /**
+     * Construit un écrivain.
+     *
+     * @param dossier        le dossier des tranches (créé au besoin)
+     * @param prefixe        le préfixe du nom des tranches ({@code prefixe-00000.bin}, …)
+     * @param tailleMaximale la taille maximale d’une tranche, en octets
+     * @throws IOException si le dossier ne peut être créé
+     */
+    public EcrivainEchantillons(Path dossier, String prefixe, long tailleMaximale) throws IOException {
+        if (tailleMaximale < TAILLE_ENTETE + TAILLE_ENREGISTREMENT || tailleMaximale > TAILLE_TRANCHE_MAX) {
+            throw new IllegalArgumentException("Taille de tranche invalide : " + tailleMaximale);
+        }
+        this.dossier = Files.createDirectories(dossier);
+        this.prefixe = prefixe;
+        this.enregistrementsParTranche = (tailleMaximale - TAILLE_ENTETE) / TAILLE_ENREGISTREMENT;
+        this.tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON).order(ByteOrder.LITTLE_ENDIAN);
+        this.tranches = new ArrayList<>();
+    }
+
+    /**
+     * Écrit une position étiquetée.
+     *
+     * @param position la position
+     * @param score    le score de recherche, du point de vue du trait (ramené sur 16 bits)
+     * @param resultat le résultat de la partie, du point de vue des blancs
+     * @param demiCoup le numéro du demi-coup dans la partie
+     * @throws IOException si l’écriture échoue
+     */
+    public void ecrire(Position position, int score, int resultat, int demiCoup) throws IOException {
+        if (geometrie == null) {
+            geometrie = position.getGeometrie();
+        } else if (geometrie != position.getGeometrie()) {
+            throw new IllegalArgumentException("Toutes les positions doivent avoir la même géométrie");
+        }
+        if (canal == null || enregistrementsTranche == enregistrementsParTranche) {
+            ouvrirTranche();
+        }
+        if (tampon.remaining() < TAILLE_ENREGISTREMENT) {
+            vider();
+        }
+        tampon.putLong(position.getBlancs())
+                .putLong(position.getNoirs())
+                .putLong(position.getDames())
+                .putShort((short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, score)))
+                .putShort((short) Math.min(Short.MAX_VALUE, demiCoup))
+                .put((byte) (position.getTrait() == Pion.Couleur.Blanc ? 0 : 1))
+                .put((byte) Integer.signum(resultat))
+                .putShort((short) 0);
+        enregistrementsTranche++;
+        total++;
+    }
+
+    /**
+     * Écrit l’état d’un damier étiqueté.
+     *
+     * @param damier   le damier
+     * @param score    le score de recherche, du point de vue du trait
+     * @param resultat le résultat de la partie, du point de vue des blancs
+     * @param demiCoup le numéro du demi-coup dans la partie
+     * @throws IOException si l’écriture échoue
+     */
+    public void ecrire(Damier damier, int score, int resultat, int demiCoup) throws IOException {
+        ecrire(Position.depuis(damier), score, resultat, demiCoup);
+    }
+
+    /**
+     * Retourne les tranches créées jusqu’ici.
+     *
+     * @return les chemins des tranches, dans l’ordre
+     */
+    public List<Path> getTranches() {
+        return List.copyOf(tranches);
+    }
+
+    /**
+     * Retourne le nombre total d’enregistrements écrits.
+     *
+     * @return le nombre d’enregistrements
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Vide le tampon et ferme la tranche courante.
+     *
+     * @throws IOException si l’écriture échoue
+     */
+    @Override
+    public void close() throws IOException {
+        if (canal != null) {
+            vider();
+            canal.close();
+            canal = null;
+        }
+    }
+
+    /**
+     * Ferme la tranche courante et en ouvre une nouvelle, en-tête compris.
+     *
+     * @throws IOException si l’ouverture échoue
+     */
+    private void ouvrirTranche() throws IOException {
+        close();
+        Path chemin = dossier.resolve(String.format("%s-%05d.bin", prefixe, tranches.size()));
+        canal = FileChannel.open(chemin, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        tranches.add(chemin);
+        enregistrementsTranche = 0;
+        tampon.putInt(MAGIQUE).putInt(VERSION).putInt(geometrie.getNbCases()).putInt(TAILLE_ENREGISTREMENT);
+    }
+
+    /**
+     * Écrit le contenu du tampon dans la tranche courante.
+     *
+     * @throws IOException si l’écriture échoue
+     */
+    private void vider() throws IOException {
+        FichiersBinaires.vider(canal, tampon);
+    }
+}
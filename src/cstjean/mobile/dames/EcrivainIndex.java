@@ -0,0 +1,226 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écrit un fichier d’index de positions, lu ensuite par {@link IndexPositions}.
+ *
+ * <p>
+ * Les listes doivent être fournies par hachage croissant (ordre non signé), chacune triée par occurrence
+ * croissante. Le fichier contient, dans l’ordre :
+ * </p>
+ * <ul>
+ *     <li>un en-tête de {@link #TAILLE_ENTETE} octets ({@link #MAGIQUE}, {@link #VERSION},
+ *     nombre de clés, décalage de la table des clés, décalage de la table de répartition) ;</li>
+ *     <li>les listes d’occurrences : nombre d’occurrences, puis pour chacune l’écart d’identifiant
+ *     de partie avec la précédente et le demi-coup (ou l’écart de demi-coup si la partie est la même),
+ *     le tout en entiers variables de 7 bits par octet ;</li>
+ *     <li>la table des clés : {@link #TAILLE_CLE} octets par clé (hachage, décalage de sa liste) ;</li>
+ *     <li>la table de répartition : pour chacun des 65 536 préfixes de 16 bits, l’indice de la première clé
+ *     qui le porte, plus le nombre de clés à la fin.</li>
+ * </ul>
+ *
+ * <p>
+ * Les listes et les clés passent par deux tampons directs ; les clés s’accumulent dans un fichier
+ * temporaire, recopié à la fin par transfert direct entre canaux.
+ * </p>
+ */
+public class EcrivainIndex implements AutoCloseable {
+
+    /** Signature d’un fichier d’index ({@code "DIDX"}). */
+    public static final int MAGIQUE = 0x58444944;
+
+    /** Version du format. */
+    public static final int VERSION = 1;
+
+    /** Taille de l’en-tête, en octets. */
+    public static final int TAILLE_ENTETE = 32;
+
+    /** Taille d’une entrée de la table des clés, en octets. */
+    public static final int TAILLE_CLE = 16;
+
+    /** Nombre de bits du préfixe de la table de répartition. */
+    public static final int BITS_REPARTITION = 16;
+
+    /** Taille de chaque tampon, en octets. */
+    private static final int TAILLE_TAMPON = 1 << 20;
+
+    /** Place réservée dans le tampon pour une occurrence : deux entiers variables de 64 bits. */
+    private static final int OCTETS_OCCURRENCE_MAX = 20;
+
+    /** Le fichier d’index. */
+    private final Path fichier;
+
+    /** Le fichier temporaire des clés. */
+    private final Path fichierCles;
+
+    /** Le canal du fichier d’index. */
+    private final FileChannel canal;
+
+    /** Le canal du fichier temporaire des clés. */
+    private final FileChannel canalCles;
+
+    /** Le tampon des listes. */
+    private final ByteBuffer tampon;
+
+    /** Le tampon des clés. */
+    private final ByteBuffer tamponCles;
+
+    /** Nombre de clés par préfixe. */
+    private final long[] repartition;
+
+    /** Décalage, dans le fichier, de la prochaine liste. */
+    private long decalage;
+
+    /** Nombre de clés écrites. */
+    private long nombreCles;
+
+    /** Dernier hachage écrit. */
+    private long dernier;
+
+    /**
+     * Crée le fichier d’index.
+     *
+     * @param fichier le fichier, remplacé s’il existe
+     * @throws IOException si le fichier ne peut être créé
+     */
+    public EcrivainIndex(Path fichier) throws IOException {
+        this.fichier = fichier;
+        this.fichierCles = fichier.resolveSibling(fichier.getFileName() + ".cles");
+        this.canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.canalCles = FileChannel.open(fichierCles, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON).order(ByteOrder.LITTLE_ENDIAN);
+        this.tamponCles = ByteBuffer.allocateDirect(TAILLE_TAMPON).order(ByteOrder.LITTLE_ENDIAN);
+        this.repartition = new long[(1 << BITS_REPARTITION) + 1];
+        this.decalage = TAILLE_ENTETE;
+        canal.position(TAILLE_ENTETE);
+    }
+
+    /**
+     * Retourne le fichier d’index.
+     *
+     * @return le chemin du fichier
+     */
+    public Path getFichier() {
+        return fichier;
+    }
+
+    /**
+     * Retourne le nombre de clés écrites.
+     *
+     * @return le nombre de positions distinctes
+     */
+    public long getNombreCles() {
+        return nombreCles;
+    }
+
+    /**
+     * Écrit la liste d’occurrences d’une position.
+     *
+     * @param hachage      le hachage de la position, supérieur (non signé) au précédent
+     * @param occurrences  les occurrences, croissantes, codées par {@link IndexPositions#occurrence(long, int)}
+     * @param debut        l’indice de la première occurrence dans le tableau
+     * @param nombre       le nombre d’occurrences (au moins une)
+     * @throws IOException              si l’écriture échoue
+     * @throws IllegalArgumentException si les hachages ne sont pas croissants ou la liste est vide
+     */
+    public void ajouter(long hachage, long[] occurrences, int debut, int nombre) throws IOException {
+        if (nombre <= 0 || (nombreCles > 0 && Long.compareUnsigned(hachage, dernier) <= 0)) {
+            throw new IllegalArgumentException("Hachages non croissants ou liste vide : " + Long.toHexString(hachage));
+        }
+        dernier = hachage;
+        if (tamponCles.remaining() < TAILLE_CLE) {
+            FichiersBinaires.vider(canalCles, tamponCles);
+        }
+        tamponCles.putLong(hachage).putLong(decalage + tampon.position());
+        repartition[(int) (hachage >>> (Long.SIZE - BITS_REPARTITION))]++;
+        nombreCles++;
+
+        reserver(OCTETS_OCCURRENCE_MAX);
+        ecrireVariable(nombre);
+        long partiePrecedente = 0;
+        int demiCoupPrecedent = 0;
+        for (int i = 0; i < nombre; i++) {
+            reserver(OCTETS_OCCURRENCE_MAX);
+            long partie = IndexPositions.partie(occurrences[debut + i]);
+            int demiCoup = IndexPositions.demiCoup(occurrences[debut + i]);
+            ecrireVariable(partie - partiePrecedente);
+            ecrireVariable(partie == partiePrecedente && i > 0 ? demiCoup - demiCoupPrecedent : demiCoup);
+            partiePrecedente = partie;
+            demiCoupPrecedent = demiCoup;
+        }
+    }
+
+    /**
+     * Termine le fichier : recopie la table des clés, écrit la table de répartition et l’en-tête.
+     *
+     * @throws IOException si l’écriture échoue
+     */
+    @Override
+    public void close() throws IOException {
+        try (canal; canalCles) {
+            FichiersBinaires.vider(canal, tampon);
+            FichiersBinaires.vider(canalCles, tamponCles);
+            long debutCles = canal.position();
+            long taille = canalCles.size();
+            for (long copie = 0; copie < taille; ) {
+                copie += canalCles.transferTo(copie, taille - copie, canal);
+            }
+            long debutRepartition = debutCles + taille;
+            canal.position(debutRepartition);
+            long cumul = 0;
+            for (int i = 0; i < repartition.length; i++) {
+                if (tampon.remaining() < Long.BYTES) {
+                    FichiersBinaires.vider(canal, tampon);
+                }
+                long compte = repartition[i];
+                tampon.putLong(cumul);
+                cumul += compte;
+            }
+            FichiersBinaires.vider(canal, tampon);
+            tampon.putInt(MAGIQUE).putInt(VERSION).putLong(nombreCles).putLong(debutCles).putLong(debutRepartition);
+            tampon.flip();
+            // L’en-tête commence à l’octet 0 : la position du tampon est aussi celle du fichier.
+            while (tampon.hasRemaining()) {
+                canal.write(tampon, tampon.position());
+            }
+            canal.force(true);
+        } finally {
+            Files.deleteIfExists(fichierCles);
+        }
+    }
+
+    /**
+     * Vide le tampon des listes s’il lui reste moins d’une place donnée.
+     *
+     * @param octets la place requise
+     * @throws IOException si l’écriture échoue
+     */
+    private void reserver(int octets) throws IOException {
+        if (tampon.remaining() < octets) {
+            decalage += tampon.position();
+            FichiersBinaires.vider(canal, tampon);
+        }
+    }
+
+    /**
+     * Écrit un entier positif par groupes de 7 bits, du poids faible au poids fort.
+     *
+     * @param valeur la valeur (non négative)
+     */
+    private void ecrireVariable(long valeur) {
+        while ((valeur & ~0x7fL) != 0) {
+            tampon.put((byte) (valeur & 0x7f | 0x80));
+            valeur >>>= 7;
+        }
+        tampon.put((byte) valeur);
+    }
+}
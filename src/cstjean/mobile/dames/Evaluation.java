@@ -0,0 +1,241 @@
+package cstjean.mobile.dames;
+
+/**
+ * Évaluation statique linéaire d’une {@link Position}.
+ *
+ * <p>
+ * Chaque caractéristique compte les pièces d’un type (pions, dames ou toutes) posées sur
+ * un ensemble de cases. Elle vaut le compte des blancs moins celui des noirs, le masque des
+ * noirs étant le miroir de celui des blancs (la case {@code s} devient {@code nbCases + 1 - s}).
+ * Le score est la somme pondérée des caractéristiques :
+ * </p>
+ * <ul>
+ *     <li>{@link #PIONS} → nombre de pions,</li>
+ *     <li>{@link #DAMES} → nombre de dames,</li>
+ *     <li>{@link #CENTRE} → pions sur les rangées et colonnes centrales,</li>
+ *     <li>{@link #AVANCE} → pions dans la moitié adverse,</li>
+ *     <li>{@link #ARRIERE} → pions restés sur la dernière rangée, qui gardent la promotion,</li>
+ *     <li>{@link #BORD} → pièces sur une colonne de bord.</li>
+ * </ul>
+ *
+ * <p>
+ * Tout se réduit à des {@code et} et des comptes de bits sur les masques de la position,
+ * ce qui permet d’évaluer des lots de positions en parallèle ({@link EvaluationLot})
+ * avec exactement le même résultat.
+ * </p>
+ */
+public final class Evaluation {
+
+    /** Caractéristique du nombre de pions. */
+    public static final int PIONS = 0;
+
+    /** Caractéristique du nombre de dames. */
+    public static final int DAMES = 1;
+
+    /** Caractéristique des pions centraux. */
+    public static final int CENTRE = 2;
+
+    /** Caractéristique des pions avancés. */
+    public static final int AVANCE = 3;
+
+    /** Caractéristique des pions de la dernière rangée. */
+    public static final int ARRIERE = 4;
+
+    /** Caractéristique des pièces au bord. */
+    public static final int BORD = 5;
+
+    /** Nombre de caractéristiques. */
+    public static final int NB_CARACTERISTIQUES = 6;
+
+    /** Cible d’une caractéristique comptant les pions. */
+    static final int CIBLE_PIONS = 0;
+
+    /** Cible d’une caractéristique comptant les dames. */
+    static final int CIBLE_DAMES = 1;
+
+    /** Cible d’une caractéristique comptant toutes les pièces. */
+    static final int CIBLE_TOUTES = 2;
+
+    /** Type de pièce compté par chaque caractéristique. */
+    private static final int[] CIBLES = {
+        CIBLE_PIONS, CIBLE_DAMES, CIBLE_PIONS, CIBLE_PIONS, CIBLE_PIONS, CIBLE_TOUTES
+    };
+
+    /** Poids par défaut, en centièmes de pion. */
+    private static final int[] POIDS_DEFAUT = {100, 300, 5, 8, 4, -3};
+
+    /** La géométrie du damier évalué. */
+    private final Geometrie geometrie;
+
+    /** Poids de chaque caractéristique. */
+    private final int[] poids;
+
+    /** Cases comptées pour les blancs, par caractéristique. */
+    private final long[] masquesBlancs;
+
+    /** Cases comptées pour les noirs, par caractéristique. */
+    private final long[] masquesNoirs;
+
+    /**
+     * Construit une évaluation 10 × 10 avec les poids par défaut.
+     */
+    public Evaluation() {
+        this(Geometrie.DIX, POIDS_DEFAUT);
+    }
+
+    /**
+     * Construit une évaluation.
+     *
+     * @param geometrie la géométrie du damier (au plus 64 cases)
+     * @param poids     le poids de chaque caractéristique, en centièmes de pion
+     * @throws IllegalArgumentException si la géométrie est trop grande ou si le nombre de poids est incorrect
+     */
+    public Evaluation(Geometrie geometrie, int[] poids) {
+        Position.verifierGeometrie(geometrie);
+        if (poids.length != NB_CARACTERISTIQUES) {
+            throw new IllegalArgumentException("Il faut " + NB_CARACTERISTIQUES + " poids");
+        }
+        this.geometrie = geometrie;
+        this.poids = poids.clone();
+        this.masquesBlancs = new long[NB_CARACTERISTIQUES];
+        this.masquesNoirs = new long[NB_CARACTERISTIQUES];
+        int taille = geometrie.getTaille();
+        for (int position = 1; position <= geometrie.getNbCases(); position++) {
+            int ligne = geometrie.ligne(position);
+            int colonne = geometrie.colonne(position);
+            long bit = 1L << (position - 1);
+            masquesBlancs[PIONS] |= bit;
+            masquesBlancs[DAMES] |= bit;
+            if (ligne >= taille / 2 - 2 && ligne <= taille / 2 + 1 && colonne >= 2 && colonne <= taille - 3) {
+                masquesBlancs[CENTRE] |= bit;
+            }
+            if (ligne < taille / 2) {
+                masquesBlancs[AVANCE] |= bit;
+            }
+            if (ligne == taille - 1) {
+                masquesBlancs[ARRIERE] |= bit;
+            }
+            if (colonne == 0 || colonne == taille - 1) {
+                masquesBlancs[BORD] |= bit;
+            }
+        }
+        for (int k = 0; k < NB_CARACTERISTIQUES; k++) {
+            masquesNoirs[k] = Position.miroir(masquesBlancs[k], geometrie.getNbCases());
+        }
+    }
+
+    /**
+     * Évalue une position du point de vue du joueur qui a le trait.
+     *
+     * @param position la position
+     * @return le score, en centièmes de pion ; positif si le trait est avantagé
+     */
+    public int evaluer(Position position) {
+        int score = evaluerBlancs(position.getBlancs(), position.getNoirs(), position.getDames());
+        return position.getTrait() == Pion.Couleur.Blanc ? score : -score;
+    }
+
+    /**
+     * Évalue des masques du point de vue des blancs.
+     *
+     * @param blancs les cases des pièces blanches
+     * @param noirs  les cases des pièces noires
+     * @param dames  les cases des dames
+     * @return le score, en centièmes de pion ; positif si les blancs sont avantagés
+     */
+    public int evaluerBlancs(long blancs, long noirs, long dames) {
+        int score = 0;
+        for (int k = 0; k < NB_CARACTERISTIQUES; k++) {
+            score += poids[k] * caracteristique(k, blancs, noirs, dames);
+        }
+        return score;
+    }
+
+    /**
+     * Calcule toutes les caractéristiques d’une position, du point de vue des blancs.
+     *
+     * @param position la position
+     * @param sortie   le tableau qui reçoit les {@link #NB_CARACTERISTIQUES} valeurs
+     */
+    public void caracteristiques(Position position, int[] sortie) {
+        for (int k = 0; k < NB_CARACTERISTIQUES; k++) {
+            sortie[k] = caracteristique(k, position.getBlancs(), position.getNoirs(), position.getDames());
+        }
+    }
+
+    /**
+     * Calcule une caractéristique : compte des blancs moins compte des noirs.
+     *
+     * @param k      la caractéristique
+     * @param blancs les cases des pièces blanches
+     * @param noirs  les cases des pièces noires
+     * @param dames  les cases des dames
+     * @return la valeur de la caractéristique
+     */
+    private int caracteristique(int k, long blancs, long noirs, long dames) {
+        long type = switch (CIBLES[k]) {
+            case CIBLE_PIONS -> ~dames;
+            case CIBLE_DAMES -> dames;
+            default -> -1L;
+        };
+        return Long.bitCount(blancs & type & masquesBlancs[k]) - Long.bitCount(noirs & type & masquesNoirs[k]);
+    }
+
+    /**
+     * Retourne la géométrie évaluée.
+     *
+     * @return la géométrie
+     */
+    public Geometrie getGeometrie() {
+        return geometrie;
+    }
+
+    /**
+     * Retourne une copie des poids.
+     *
+     * @return le poids de chaque caractéristique
+     */
+    public int[] getPoids() {
+        return poids.clone();
+    }
+
+    /**
+     * Retourne le type de pièce compté par une caractéristique.
+     *
+     * @param k la caractéristique
+     * @return {@link #CIBLE_PIONS}, {@link #CIBLE_DAMES} ou {@link #CIBLE_TOUTES}
+     */
+    static int cible(int k) {
+        return CIBLES[k];
+    }
+
+    /**
+     * Retourne le poids d’une caractéristique.
+     *
+     * @param k la caractéristique
+     * @return son poids
+     */
+    int poids(int k) {
+        return poids[k];
+    }
+
+    /**
+     * Retourne les cases comptées pour les blancs par une caractéristique.
+     *
+     * @param k la caractéristique
+     * @return le masque des blancs
+     */
+    long masqueBlanc(int k) {
+        return masquesBlancs[k];
+    }
+
+    /**
+     * Retourne les cases comptées pour les noirs par une caractéristique.
+     *
+     * @param k la caractéristique
+     * @return le masque des noirs
+     */
+    long masqueNoir(int k) {
+        return masquesNoirs[k];
+    }
+}
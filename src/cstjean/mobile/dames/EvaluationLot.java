@@ -0,0 +1,175 @@
+package cstjean.mobile.dames;
+
+/**
+ * Évaluation d’un lot de positions rangé en structure de tableaux.
+ *
+ * <p>
+ * Les positions ajoutées sont décomposées en quatre tableaux parallèles
+ * (blancs, noirs, dames et signe du trait) plutôt qu’en objets. L’évaluation
+ * parcourt ces tableaux par voies SIMD avec {@code jdk.incubator.vector} lorsque ce module
+ * est chargé ({@code --add-modules jdk.incubator.vector}) et que le chemin SIMD est présent
+ * (voir {@link ApiVectorielle}), et par une boucle scalaire sinon.
+ * Les deux chemins donnent exactement les scores de {@link Evaluation#evaluer(Position)}.
+ * </p>
+ *
+ * <p>
+ * Un lot se réutilise : {@link #vider()} le remet à zéro sans libérer ses tableaux.
+ * </p>
+ */
+public class EvaluationLot {
+
+    /** Nom du chemin SIMD, compilé à part. */
+    private static final String CHEMIN_SIMD = "EvaluationVectorielle";
+
+    /** Vrai si le chemin SIMD peut être chargé dans cette machine virtuelle. */
+    private static final boolean VECTORIEL_DISPONIBLE = ApiVectorielle.creer(CHEMIN_SIMD, CheminSimd.class) != null;
+
+    /**
+     * Chemin SIMD de l’évaluation d’un lot ; une instance n’est utilisée que par son lot.
+     */
+    interface CheminSimd {
+
+        /**
+         * Évalue les positions par blocs d’une largeur de vecteur.
+         *
+         * @param evaluation l’évaluation appliquée
+         * @param blancs     cases des pièces blanches, par position
+         * @param noirs      cases des pièces noires, par position
+         * @param dames      cases des dames, par position
+         * @param signes     signe du trait, par position
+         * @param nombre     le nombre de positions
+         * @param resultats  le tableau qui reçoit les scores
+         * @return l’indice de la première position non évaluée (le reste va à la boucle scalaire)
+         */
+        int evaluer(Evaluation evaluation, long[] blancs, long[] noirs, long[] dames, long[] signes, int nombre,
+                    int[] resultats);
+    }
+
+    /** L’évaluation appliquée. */
+    private final Evaluation evaluation;
+
+    /** Cases des pièces blanches, par position. */
+    private final long[] blancs;
+
+    /** Cases des pièces noires, par position. */
+    private final long[] noirs;
+
+    /** Cases des dames, par position. */
+    private final long[] dames;
+
+    /** {@code 1} si les blancs ont le trait, {@code -1} sinon, par position. */
+    private final long[] signes;
+
+    /** Le chemin SIMD propre à ce lot, ou {@code null} s’il est indisponible. */
+    private final CheminSimd simd;
+
+    /** Nombre de positions dans le lot. */
+    private int nombre;
+
+    /** Vrai si l’évaluation doit utiliser l’API vectorielle. */
+    private boolean vectoriel;
+
+    /**
+     * Construit un lot vide.
+     *
+     * @param evaluation l’évaluation appliquée
+     * @param capacite   le nombre maximal de positions
+     */
+    public EvaluationLot(Evaluation evaluation, int capacite) {
+        this.evaluation = evaluation;
+        this.blancs = new long[capacite];
+        this.noirs = new long[capacite];
+        this.dames = new long[capacite];
+        this.signes = new long[capacite];
+        this.simd = VECTORIEL_DISPONIBLE ? ApiVectorielle.creer(CHEMIN_SIMD, CheminSimd.class) : null;
+        this.vectoriel = simd != null;
+    }
+
+    /**
+     * Indique si l’API vectorielle est disponible dans cette machine virtuelle.
+     *
+     * @return vrai si le module {@code jdk.incubator.vector} est chargé et le chemin SIMD présent
+     */
+    public static boolean estVectorielDisponible() {
+        return VECTORIEL_DISPONIBLE;
+    }
+
+    /**
+     * Choisit le chemin d’évaluation ; le chemin vectoriel n’est retenu que s’il est disponible.
+     *
+     * @param vectoriel vrai pour utiliser l’API vectorielle
+     */
+    public void setVectoriel(boolean vectoriel) {
+        this.vectoriel = vectoriel && simd != null;
+    }
+
+    /**
+     * Indique si l’évaluation utilise l’API vectorielle.
+     *
+     * @return vrai pour le chemin vectoriel
+     */
+    public boolean isVectoriel() {
+        return vectoriel;
+    }
+
+    /**
+     * Ajoute une position au lot.
+     *
+     * @param position la position
+     * @throws IllegalStateException si le lot est plein
+     * @throws IllegalArgumentException si la géométrie diffère de celle de l’évaluation
+     */
+    public void ajouter(Position position) {
+        if (position.getGeometrie() != evaluation.getGeometrie()) {
+            throw new IllegalArgumentException("Géométrie différente de celle de l’évaluation");
+        }
+        if (nombre == blancs.length) {
+            throw new IllegalStateException("Lot plein");
+        }
+        blancs[nombre] = position.getBlancs();
+        noirs[nombre] = position.getNoirs();
+        dames[nombre] = position.getDames();
+        signes[nombre] = position.getTrait() == Pion.Couleur.Blanc ? 1 : -1;
+        nombre++;
+    }
+
+    /**
+     * Ajoute l’état d’un damier au lot.
+     *
+     * @param damier le damier
+     */
+    public void ajouter(Damier damier) {
+        ajouter(Position.depuis(damier));
+    }
+
+    /**
+     * Vide le lot en conservant ses tableaux.
+     */
+    public void vider() {
+        nombre = 0;
+    }
+
+    /**
+     * Retourne le nombre de positions du lot.
+     *
+     * @return le nombre de positions
+     */
+    public int getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Évalue toutes les positions du lot, chacune du point de vue du joueur qui a le trait.
+     *
+     * @param resultats le tableau qui reçoit les scores (au moins {@link #getNombre()} éléments)
+     */
+    public void evaluer(int[] resultats) {
+        int debut = 0;
+        if (vectoriel) {
+            debut = simd.evaluer(evaluation, blancs, noirs, dames, signes, nombre, resultats);
+        }
+        for (int i = debut; i < nombre; i++) {
+            resultats[i] = (int) signes[i] * evaluation.evaluerBlancs(blancs[i], noirs[i], dames[i]);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package cstjean.mobile.dames;
+
+/**
+ * Évaluation par réseau NNUE, avec accumulateurs mis à jour de façon incrémentale.
+ *
+ * <p>
+ * L’évaluateur tient sa propre copie du damier (un code de pièce par case) et les deux
+ * accumulateurs de la première couche. Jouer ou annuler un coup n’ajoute ou ne retire que
+ * les rangées de poids des caractéristiques touchées : pièce déplacée (avant et après
+ * une éventuelle promotion) et pièce prise. L’évaluation complète n’est refaite
+ * qu’à {@link #initialiser(Position)}.
+ * </p>
+ *
+ * <p>
+ * Les additions de rangées et le produit de sortie passent par {@code jdk.incubator.vector}
+ * lorsque ce module est chargé et que le chemin SIMD est présent (voir {@link ApiVectorielle}),
+ * et par des boucles scalaires sinon ; l’arithmétique sur
+ * 16 bits est la même dans les deux cas. Une instance n’est utilisée que par un seul fil.
+ * </p>
+ */
+public class EvaluationNnue {
+
+    /** Le chemin SIMD, sans état et partagé, ou {@code null} s’il est indisponible. */
+    private static final CheminSimd SIMD = ApiVectorielle.creer("NnueVectoriel", CheminSimd.class);
+
+    /**
+     * Chemin SIMD des calculs sur les accumulateurs.
+     */
+    interface CheminSimd {
+
+        /**
+         * Retourne le nombre de voies de 16 bits d’un vecteur.
+         *
+         * @return la largeur
+         */
+        int largeur();
+
+        /**
+         * Ajoute ou retire une rangée de poids d’un accumulateur, par blocs entiers.
+         *
+         * @param accumulateur l’accumulateur
+         * @param poids        les poids de la première couche
+         * @param rangee       le décalage de la rangée
+         * @param signe        {@code 1} pour ajouter, {@code -1} pour retirer
+         * @return l’indice du premier élément non traité
+         */
+        int modifier(short[] accumulateur, short[] poids, int rangee, int signe);
+
+        /**
+         * Calcule le produit scalaire de l’accumulateur écrêté et des poids de sortie sur les premiers éléments.
+         *
+         * @param accumulateur l’accumulateur
+         * @param sortie       les poids de sortie
+         * @param decalage     le début de la moitié utilisée
+         * @param borne        le nombre d’éléments traités (multiple de {@link #largeur()})
+         * @return le produit partiel
+         */
+        long produit(short[] accumulateur, short[] sortie, int decalage, int borne);
+    }
+
+    /** Le réseau utilisé. */
+    private final ReseauNnue reseau;
+
+    /** Code de la pièce de chaque case (indice = position). */
+    private final byte[] cases;
+
+    /** Accumulateur de la perspective blanche. */
+    private final short[] accumulateurBlanc;
+
+    /** Accumulateur de la perspective noire. */
+    private final short[] accumulateurNoir;
+
+    /** La couleur du joueur qui a le trait. */
+    private Pion.Couleur trait;
+
+    /** Vrai si les calculs utilisent l’API vectorielle. */
+    private boolean vectoriel;
+
+    /**
+     * Construit un évaluateur sur un damier vide, blancs au trait.
+     *
+     * @param reseau le réseau
+     */
+    public EvaluationNnue(ReseauNnue reseau) {
+        this.reseau = reseau;
+        this.cases = new byte[reseau.getNbCases() + 1];
+        this.accumulateurBlanc = new short[reseau.getTaille()];
+        this.accumulateurNoir = new short[reseau.getTaille()];
+        this.trait = Pion.Couleur.Blanc;
+        this.vectoriel = SIMD != null;
+        recalculer();
+    }
+
+    /**
+     * Choisit le chemin de calcul ; le chemin vectoriel n’est retenu que s’il est disponible.
+     *
+     * @param vectoriel vrai pour utiliser l’API vectorielle
+     */
+    public void setVectoriel(boolean vectoriel) {
+        this.vectoriel = vectoriel && SIMD != null;
+    }
+
+    /**
+     * Recharge entièrement le damier et les accumulateurs à partir d’une position.
+     *
+     * @param position la position
+     * @throws IllegalArgumentException si le nombre de cases diffère de celui du réseau
+     */
+    public void initialiser(Position position) {
+        verifierCases(position.getGeometrie());
+        for (int i = 1; i < cases.length; i++) {
+            cases[i] = (byte) position.piece(i);
+        }
+        trait = position.getTrait();
+        recalculer();
+    }
+
+    /**
+     * Recharge entièrement le damier et les accumulateurs à partir d’un damier.
+     *
+     * @param damier le damier
+     * @throws IllegalArgumentException si le nombre de cases diffère de celui du réseau
+     */
+    public void initialiser(Damier damier) {
+        verifierCases(damier.getGeometrie());
+        for (int i = 1; i < cases.length; i++) {
+            cases[i] = (byte) Coup.codePiece(damier.recupererPion(i));
+        }
+        trait = damier.getJoueurCourant();
+        recalculer();
+    }
+
+    /**
+     * Joue un coup : met à jour le damier interne et les accumulateurs.
+     *
+     * @param coup le coup codé selon {@link Coup}, légal dans la position courante
+     */
+    public void jouer(int coup) {
+        int depart = Coup.depart(coup);
+        int arrivee = Coup.arrivee(coup);
+        int prise = Coup.prise(coup);
+        int piece = cases[depart];
+        int pieceArrivee = Coup.estPromotion(coup) ? piece + 1 : piece;
+        if (prise != 0) {
+            retirer(Coup.piecePrise(coup), prise);
+            cases[prise] = Coup.PIECE_AUCUNE;
+        }
+        retirer(piece, depart);
+        cases[depart] = Coup.PIECE_AUCUNE;
+        ajouter(pieceArrivee, arrivee);
+        cases[arrivee] = (byte) pieceArrivee;
+        changerTrait();
+    }
+
+    /**
+     * Annule le dernier coup joué.
+     *
+     * @param coup le coup codé selon {@link Coup}, tel que passé à {@link #jouer(int)}
+     */
+    public void annuler(int coup) {
+        int depart = Coup.depart(coup);
+        int arrivee = Coup.arrivee(coup);
+        int prise = Coup.prise(coup);
+        int pieceArrivee = cases[arrivee];
+        int piece = Coup.estPromotion(coup) ? pieceArrivee - 1 : pieceArrivee;
+        retirer(pieceArrivee, arrivee);
+        cases[arrivee] = Coup.PIECE_AUCUNE;
+        ajouter(piece, depart);
+        cases[depart] = (byte) piece;
+        if (prise != 0) {
+            ajouter(Coup.piecePrise(coup), prise);
+            cases[prise] = (byte) Coup.piecePrise(coup);
+        }
+        changerTrait();
+    }
+
+    /**
+     * Évalue la position courante du point de vue du joueur qui a le trait.
+     *
+     * @return le score, en centièmes de pion
+     */
+    public int evaluer() {
+        boolean blanc = trait == Pion.Couleur.Blanc;
+        short[] nous = blanc ? accumulateurBlanc : accumulateurNoir;
+        short[] eux = blanc ? accumulateurNoir : accumulateurBlanc;
+        short[] sortie = reseau.getSortie();
+        int taille = reseau.getTaille();
+        long somme = reseau.getBiaisSortie() + produit(nous, sortie, 0) + produit(eux, sortie, taille);
+        return (int) (somme / reseau.getEchelle());
+    }
+
+    /**
+     * Retourne la couleur du joueur qui a le trait.
+     *
+     * @return la couleur au trait
+     */
+    public Pion.Couleur getTrait() {
+        return trait;
+    }
+
+    /**
+     * Retourne une copie d’un accumulateur.
+     *
+     * @param perspective la perspective (blanche ou noire)
+     * @return les valeurs de l’accumulateur
+     */
+    public short[] getAccumulateur(Pion.Couleur perspective) {
+        return (perspective == Pion.Couleur.Blanc ? accumulateurBlanc : accumulateurNoir).clone();
+    }
+
+    /**
+     * Vérifie que la géométrie correspond au réseau.
+     *
+     * @param geometrie la géométrie
+     */
+    private void verifierCases(Geometrie geometrie) {
+        if (geometrie.getNbCases() != reseau.getNbCases()) {
+            throw new IllegalArgumentException("Le réseau attend " + reseau.getNbCases() + " cases");
+        }
+    }
+
+    /**
+     * Recalcule les deux accumulateurs à partir du damier interne.
+     */
+    private void recalculer() {
+        System.arraycopy(reseau.getBiais(), 0, accumulateurBlanc, 0, accumulateurBlanc.length);
+        System.arraycopy(reseau.getBiais(), 0, accumulateurNoir, 0, accumulateurNoir.length);
+        for (int i = 1; i < cases.length; i++) {
+            if (cases[i] != Coup.PIECE_AUCUNE) {
+                ajouter(cases[i], i);
+            }
+        }
+    }
+
+    /**
+     * Passe le trait à l’adversaire.
+     */
+    private void changerTrait() {
+        trait = trait == Pion.Couleur.Blanc ? Pion.Couleur.Noir : Pion.Couleur.Blanc;
+    }
+
+    /**
+     * Ajoute une caractéristique aux deux accumulateurs.
+     *
+     * @param piece    le code de la pièce
+     * @param position la case
+     */
+    private void ajouter(int piece, int position) {
+        modifier(accumulateurBlanc, reseau.rangee(piece, position, true), 1);
+        modifier(accumulateurNoir, reseau.rangee(piece, position, false), 1);
+    }
+
+    /**
+     * Retire une caractéristique des deux accumulateurs.
+     *
+     * @param piece    le code de la pièce
+     * @param position la case
+     */
+    private void retirer(int piece, int position) {
+        modifier(accumulateurBlanc, reseau.rangee(piece, position, true), -1);
+        modifier(accumulateurNoir, reseau.rangee(piece, position, false), -1);
+    }
+
+    /**
+     * Ajoute ou retire une rangée de poids d’un accumulateur.
+     *
+     * @param accumulateur l’accumulateur
+     * @param rangee       le décalage de la rangée de poids
+     * @param signe        {@code 1} pour ajouter, {@code -1} pour retirer
+     */
+    private void modifier(short[] accumulateur, int rangee, int signe) {
+        short[] poids = reseau.getPoids();
+        int debut = vectoriel ? SIMD.modifier(accumulateur, poids, rangee, signe) : 0;
+        for (int i = debut; i < accumulateur.length; i++) {
+            accumulateur[i] = (short) (accumulateur[i] + signe * poids[rangee + i]);
+        }
+    }
+
+    /**
+     * Calcule le produit scalaire d’un accumulateur écrêté et d’une moitié des poids de sortie.
+     *
+     * @param accumulateur l’accumulateur
+     * @param sortie       les poids de sortie
+     * @param decalage     le début de la moitié utilisée
+     * @return le produit
+     */
+    private long produit(short[] accumulateur, short[] sortie, int decalage) {
+        int debut = 0;
+        long somme = 0;
+        if (vectoriel) {
+            debut = accumulateur.length - accumulateur.length % SIMD.largeur();
+            somme = SIMD.produit(accumulateur, sortie, decalage, debut);
+        }
+        for (int i = debut; i < accumulateur.length; i++) {
+            int activation = Math.max(0, Math.min(ReseauNnue.ACTIVATION_MAX, accumulateur[i]));
+            somme += activation * sortie[decalage + i];
+        }
+        return somme;
+    }
+}
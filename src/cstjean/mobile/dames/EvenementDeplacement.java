@@ -0,0 +1,121 @@
+package cstjean.mobile.dames;
+
+/**
+ * Événement delta décrivant un déplacement joué sur un {@link Damier}.
+ *
+ * <p>
+ * Un spectateur qui connaît la position précédente peut la mettre à jour
+ * en appliquant cet événement, sans recevoir le damier complet.
+ * Le numéro de séquence permet de détecter un événement manquant.
+ * </p>
+ */
+public final class EvenementDeplacement {
+
+    /** Numéro de séquence de l’événement (0 pour le premier). */
+    private final long sequence;
+
+    /** Le coup joué, codé selon {@link Coup}. */
+    private final int coup;
+
+    /** La couleur du joueur qui doit jouer après ce coup. */
+    private final Pion.Couleur prochainJoueur;
+
+    /**
+     * Construit un événement de déplacement.
+     *
+     * @param sequence       le numéro de séquence
+     * @param coup           le coup codé
+     * @param prochainJoueur le joueur qui doit jouer ensuite
+     */
+    public EvenementDeplacement(long sequence, int coup, Pion.Couleur prochainJoueur) {
+        this.sequence = sequence;
+        this.coup = coup;
+        this.prochainJoueur = prochainJoueur;
+    }
+
+    /**
+     * Retourne le numéro de séquence de l’événement.
+     *
+     * @return le numéro de séquence
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retourne le coup codé.
+     *
+     * @return le coup, codé selon {@link Coup}
+     */
+    public int getCoup() {
+        return coup;
+    }
+
+    /**
+     * Retourne la case de départ.
+     *
+     * @return la case de départ
+     */
+    public int getDepart() {
+        return Coup.depart(coup);
+    }
+
+    /**
+     * Retourne la case d’arrivée.
+     *
+     * @return la case d’arrivée
+     */
+    public int getArrivee() {
+        return Coup.arrivee(coup);
+    }
+
+    /**
+     * Retourne la case vidée par une prise.
+     *
+     * @return la case prise, ou {@code 0} s’il n’y en a pas
+     */
+    public int getPrise() {
+        return Coup.prise(coup);
+    }
+
+    /**
+     * Indique si le coup a promu la pièce en dame.
+     *
+     * @return vrai s’il y a eu promotion
+     */
+    public boolean estPromotion() {
+        return Coup.estPromotion(coup);
+    }
+
+    /**
+     * Retourne le joueur qui doit jouer après ce coup.
+     *
+     * @return la couleur du prochain joueur
+     */
+    public Pion.Couleur getProchainJoueur() {
+        return prochainJoueur;
+    }
+
+    /**
+     * Applique cet événement à une copie locale du damier.
+     *
+     * <p>
+     * Le coup est rejoué par {@link Damier#rejouer(int, int)} : la copie garde l’historique de sa
+     * détection des nulles et reconnaît donc les répétitions et les nulles de la partie observée.
+     * </p>
+     *
+     * @param damier le damier du spectateur, dans l’état précédant ce coup
+     * @throws IllegalStateException si le coup est illégal sur ce damier, désynchronisé de la partie
+     */
+    public void appliquer(Damier damier) {
+        int resultat = damier.rejouer(getDepart(), getArrivee());
+        if (!ResultatCoup.estAccepte(resultat)) {
+            throw new IllegalStateException("Événement " + this + " refusé : " + ResultatCoup.statut(resultat));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return sequence + ":" + Coup.notation(coup) + (estPromotion() ? "D" : "");
+    }
+}
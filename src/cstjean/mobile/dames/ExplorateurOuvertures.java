@@ -0,0 +1,533 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Explorateur d’ouvertures : pour une position, les suites jouées dans l’archive et leurs statistiques.
+ *
+ * <p>
+ * Les statistiques sont précalculées par {@link #construire(List, Path, int, int)} dans un fichier trié
+ * par hachage de position :
+ * </p>
+ * <ul>
+ *     <li>un en-tête de {@link #TAILLE_ENTETE} octets ({@link #MAGIQUE}, {@link #VERSION},
+ *     nombre de positions, décalage des suites) ;</li>
+ *     <li>la table des positions, {@link #TAILLE_POSITION} octets chacune : hachage, indice de la première
+ *     suite et nombre de suites ;</li>
+ *     <li>les suites, {@link #TAILLE_SUITE} octets chacune : coup, nombre de parties, victoires des blancs,
+ *     nulles, somme et nombre des classements connus.</li>
+ * </ul>
+ *
+ * <p>
+ * Une consultation cherche le hachage par dichotomie dans la projection du fichier, sans parcourir
+ * aucune partie. Les résultats des positions les plus demandées (le haut de l’arbre) sont gardés
+ * dans un cache des moins récemment utilisées.
+ * </p>
+ */
+public class ExplorateurOuvertures implements AutoCloseable {
+
+    /** Signature d’un fichier d’ouvertures ({@code "DOUV"}). */
+    public static final int MAGIQUE = 0x56554f44;
+
+    /** Version du format. */
+    public static final int VERSION = 1;
+
+    /** Taille de l’en-tête, en octets. */
+    public static final int TAILLE_ENTETE = 32;
+
+    /** Taille d’une entrée de la table des positions, en octets. */
+    public static final int TAILLE_POSITION = 16;
+
+    /** Taille d’une suite, en octets. */
+    public static final int TAILLE_SUITE = 32;
+
+    /** Taille du tampon d’écriture, en octets. */
+    private static final int TAILLE_TAMPON = 1 << 20;
+
+    /** L’arène qui possède la projection. */
+    private final Arena arene;
+
+    /** La projection du fichier. */
+    private final MemorySegment projection;
+
+    /** Le nombre de positions. */
+    private final long nombrePositions;
+
+    /** Le décalage des suites. */
+    private final long debutSuites;
+
+    /** Le cache des dernières consultations, par hachage. */
+    private final Map<Long, List<Suite>> cache;
+
+    /** Nombre de consultations servies par le cache. */
+    private long trouvees;
+
+    /** Nombre de consultations lues dans le fichier. */
+    private long manquees;
+
+    /**
+     * Statistiques d’une suite jouée depuis une position.
+     */
+    public static final class Suite {
+
+        /** Le coup joué. */
+        private final int coup;
+
+        /** Le camp qui joue le coup. */
+        private final Pion.Couleur trait;
+
+        /** Le nombre de parties. */
+        private final int parties;
+
+        /** Le nombre de victoires des blancs. */
+        private final int victoiresBlancs;
+
+        /** Le nombre de nulles. */
+        private final int nulles;
+
+        /** Le classement moyen des parties, ou {@link PartieArchivee#ELO_INCONNU}. */
+        private final int eloMoyen;
+
+        /**
+         * Construit une suite.
+         *
+         * @param coup            le coup
+         * @param trait           le camp qui joue le coup
+         * @param parties         le nombre de parties
+         * @param victoiresBlancs le nombre de victoires des blancs
+         * @param nulles          le nombre de nulles
+         * @param eloMoyen        le classement moyen
+         */
+        private Suite(int coup, Pion.Couleur trait, int parties, int victoiresBlancs, int nulles, int eloMoyen) {
+            this.coup = coup;
+            this.trait = trait;
+            this.parties = parties;
+            this.victoiresBlancs = victoiresBlancs;
+            this.nulles = nulles;
+            this.eloMoyen = eloMoyen;
+        }
+
+        /**
+         * Retourne le coup joué.
+         *
+         * @return le coup codé selon {@link Coup}
+         */
+        public int getCoup() {
+            return coup;
+        }
+
+        /**
+         * Retourne le nombre de parties où la suite a été jouée.
+         *
+         * @return le nombre de parties
+         */
+        public int getParties() {
+            return parties;
+        }
+
+        /**
+         * Retourne le pourcentage de parties gagnées par le camp qui joue le coup.
+         *
+         * @return un pourcentage entre 0 et 100
+         */
+        public double getPourcentageGains() {
+            int victoires = trait == Pion.Couleur.Blanc ? victoiresBlancs : parties - victoiresBlancs - nulles;
+            return 100.0 * victoires / parties;
+        }
+
+        /**
+         * Retourne le pourcentage de parties nulles.
+         *
+         * @return un pourcentage entre 0 et 100
+         */
+        public double getPourcentageNulles() {
+            return 100.0 * nulles / parties;
+        }
+
+        /**
+         * Retourne le pourcentage de parties perdues par le camp qui joue le coup.
+         *
+         * @return un pourcentage entre 0 et 100
+         */
+        public double getPourcentagePertes() {
+            int defaites = trait == Pion.Couleur.Blanc ? parties - victoiresBlancs - nulles : victoiresBlancs;
+            return 100.0 * defaites / parties;
+        }
+
+        /**
+         * Retourne le classement moyen des joueurs des parties de cette suite.
+         *
+         * @return le classement moyen, ou {@link PartieArchivee#ELO_INCONNU} si aucun n’est connu
+         */
+        public int getEloMoyen() {
+            return eloMoyen;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s : %d parties, %.1f %% / %.1f %% / %.1f %%, Elo %d", Coup.notation(coup),
+                    parties, getPourcentageGains(), getPourcentageNulles(), getPourcentagePertes(), eloMoyen);
+        }
+    }
+
+    /**
+     * Construit un explorateur sur une projection vérifiée.
+     *
+     * @param arene         l’arène qui possède la projection
+     * @param projection    la projection du fichier
+     * @param capaciteCache le nombre de positions gardées en cache
+     */
+    private ExplorateurOuvertures(Arena arene, MemorySegment projection, int capaciteCache) {
+        this.arene = arene;
+        this.projection = projection;
+        this.nombrePositions = projection.get(FichiersBinaires.LONG, 8);
+        this.debutSuites = projection.get(FichiersBinaires.LONG, 16);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<Suite>> plusAncienne) {
+                return size() > capaciteCache;
+            }
+        };
+    }
+
+    /**
+     * Projette en mémoire un fichier d’ouvertures.
+     *
+     * @param fichier       le fichier écrit par {@link #construire(List, Path, int, int)}
+     * @param capaciteCache le nombre de positions gardées en cache
+     * @return l’explorateur
+     * @throws IOException si le fichier est illisible ou invalide
+     */
+    public static ExplorateurOuvertures ouvrir(Path fichier, int capaciteCache) throws IOException {
+        Arena arene = Arena.ofShared();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            MemorySegment projection = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size(), arene);
+            if (projection.byteSize() < TAILLE_ENTETE
+                    || projection.get(FichiersBinaires.INT, 0) != MAGIQUE
+                    || projection.get(FichiersBinaires.INT, 4) != VERSION
+                    || projection.get(FichiersBinaires.LONG, 16)
+                    != TAILLE_ENTETE + projection.get(FichiersBinaires.LONG, 8) * TAILLE_POSITION
+                    || (projection.byteSize() - projection.get(FichiersBinaires.LONG, 16)) % TAILLE_SUITE != 0) {
+                throw new IOException("Fichier d’ouvertures invalide : " + fichier);
+            }
+            return new ExplorateurOuvertures(arene, projection, capaciteCache);
+        } catch (IOException | RuntimeException e) {
+            arene.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Précalcule les statistiques d’ouvertures d’une archive.
+     *
+     * <p>
+     * Seuls les {@code profondeurMax} premiers demi-coups de chaque partie sont comptés, et seules
+     * les suites jouées dans au moins {@code partiesMin} parties sont gardées. Les parties sont rejouées
+     * par {@link Damier#rejouer(int, int)}, comme pour {@link IndexPositions} : une partie n’est plus
+     * comptée à partir de son premier coup illégal.
+     * </p>
+     *
+     * @param parties       les parties
+     * @param fichier       le fichier à écrire
+     * @param profondeurMax le nombre de demi-coups comptés par partie
+     * @param partiesMin    le nombre minimal de parties d’une suite gardée
+     * @throws IOException si l’écriture échoue
+     */
+    public static void construire(List<PartieArchivee> parties, Path fichier, int profondeurMax, int partiesMin)
+            throws IOException {
+        int total = 0;
+        for (PartieArchivee partie : parties) {
+            total += Math.min(profondeurMax, partie.getNombreCoups());
+        }
+        // Chaque coup joué devient un couple (hachage de la position, coup | résultat | classement).
+        long[] hachages = new long[total];
+        long[] valeurs = new long[total];
+        int nombre = 0;
+        Damier damier = null;
+        for (PartieArchivee partie : parties) {
+            if (damier == null || damier.getGeometrie() != partie.getGeometrie()) {
+                damier = new Damier(partie.getGeometrie());
+            }
+            Position.initiale(partie.getGeometrie()).copierDans(damier);
+            long resultat = partie.getResultat() + 1;
+            long elo = eloMoyen(partie);
+            for (int i = 0; i < Math.min(profondeurMax, partie.getNombreCoups()); i++) {
+                long hachage = damier.getHachage();
+                int joue = damier.rejouer(Coup.depart(partie.getCoup(i)), Coup.arrivee(partie.getCoup(i)));
+                if (!ResultatCoup.estAccepte(joue)) {
+                    break;
+                }
+                hachages[nombre] = hachage;
+                valeurs[nombre++] = (long) ResultatCoup.coup(joue) << 32 | resultat << 24 | elo;
+            }
+        }
+        IndexPositions.trier(hachages, valeurs, nombre);
+
+        long nombrePositions = 0;
+        long nombreSuites = 0;
+        for (int debut = 0; debut < nombre; ) {
+            int fin = finGroupe(hachages, debut, nombre);
+            Arrays.sort(valeurs, debut, fin);
+            int suites = compterSuites(valeurs, debut, fin, partiesMin);
+            if (suites > 0) {
+                nombrePositions++;
+                nombreSuites += suites;
+            }
+            debut = fin;
+        }
+
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON).order(ByteOrder.LITTLE_ENDIAN);
+            tampon.putInt(MAGIQUE).putInt(VERSION).putLong(nombrePositions)
+                    .putLong(TAILLE_ENTETE + nombrePositions * TAILLE_POSITION).putLong(0);
+            int premiere = 0;
+            for (int debut = 0; debut < nombre; ) {
+                int fin = finGroupe(hachages, debut, nombre);
+                int suites = compterSuites(valeurs, debut, fin, partiesMin);
+                if (suites > 0) {
+                    FichiersBinaires.reserver(canal, tampon, TAILLE_POSITION);
+                    tampon.putLong(hachages[debut]).putInt(premiere).putInt(suites);
+                    premiere += suites;
+                }
+                debut = fin;
+            }
+            for (int debut = 0; debut < nombre; ) {
+                int fin = finGroupe(hachages, debut, nombre);
+                for (int d = debut; d < fin; ) {
+                    int f = d + 1;
+                    while (f < fin && valeurs[f] >>> 32 == valeurs[d] >>> 32) {
+                        f++;
+                    }
+                    if (f - d >= partiesMin) {
+                        FichiersBinaires.reserver(canal, tampon, TAILLE_SUITE);
+                        ecrireSuite(tampon, valeurs, d, f);
+                    }
+                    d = f;
+                }
+                debut = fin;
+            }
+            FichiersBinaires.vider(canal, tampon);
+            canal.force(true);
+        }
+    }
+
+    /**
+     * Retourne les suites jouées depuis la position d’un damier.
+     *
+     * @param damier le damier
+     * @return les suites, de la plus jouée à la moins jouée ; vide si la position est inconnue
+     */
+    public List<Suite> explorer(Damier damier) {
+        return explorer(damier.getHachage(), damier.getJoueurCourant());
+    }
+
+    /**
+     * Retourne les suites jouées depuis une position.
+     *
+     * @param position la position
+     * @return les suites, de la plus jouée à la moins jouée ; vide si la position est inconnue
+     */
+    public List<Suite> explorer(Position position) {
+        return explorer(position.getHachage(), position.getTrait());
+    }
+
+    /**
+     * Retourne les suites jouées depuis une position donnée par son hachage.
+     *
+     * @param hachage le hachage de la position
+     * @param trait   le camp au trait
+     * @return les suites, de la plus jouée à la moins jouée ; vide si la position est inconnue
+     */
+    public List<Suite> explorer(long hachage, Pion.Couleur trait) {
+        synchronized (cache) {
+            List<Suite> suites = cache.get(hachage);
+            if (suites != null) {
+                trouvees++;
+                return suites;
+            }
+            manquees++;
+        }
+        List<Suite> suites = lire(hachage, trait);
+        synchronized (cache) {
+            cache.put(hachage, suites);
+        }
+        return suites;
+    }
+
+    /**
+     * Retourne le nombre de positions du fichier.
+     *
+     * @return le nombre de positions
+     */
+    public long getNombrePositions() {
+        return nombrePositions;
+    }
+
+    /**
+     * Retourne le nombre de consultations servies par le cache.
+     *
+     * @return le nombre de succès du cache
+     */
+    public long getTrouvees() {
+        synchronized (cache) {
+            return trouvees;
+        }
+    }
+
+    /**
+     * Retourne le nombre de consultations lues dans le fichier.
+     *
+     * @return le nombre d’échecs du cache
+     */
+    public long getManquees() {
+        synchronized (cache) {
+            return manquees;
+        }
+    }
+
+    /**
+     * Libère la projection.
+     */
+    @Override
+    public void close() {
+        arene.close();
+    }
+
+    /**
+     * Lit dans la projection les suites d’une position.
+     *
+     * @param hachage le hachage de la position
+     * @param trait   le camp au trait
+     * @return les suites, de la plus jouée à la moins jouée
+     */
+    private List<Suite> lire(long hachage, Pion.Couleur trait) {
+        long bas = 0;
+        long haut = nombrePositions - 1;
+        while (bas <= haut) {
+            long milieu = (bas + haut) >>> 1;
+            long decalage = TAILLE_ENTETE + milieu * TAILLE_POSITION;
+            int comparaison = Long.compareUnsigned(projection.get(FichiersBinaires.LONG, decalage), hachage);
+            if (comparaison < 0) {
+                bas = milieu + 1;
+            } else if (comparaison > 0) {
+                haut = milieu - 1;
+            } else {
+                int premiere = projection.get(FichiersBinaires.INT, decalage + 8);
+                int nombre = projection.get(FichiersBinaires.INT, decalage + 12);
+                List<Suite> suites = new ArrayList<>(nombre);
+                for (int i = 0; i < nombre; i++) {
+                    long suite = debutSuites + (long) (premiere + i) * TAILLE_SUITE;
+                    int elos = projection.get(FichiersBinaires.INT, suite + 24);
+                    long sommeElo = projection.get(FichiersBinaires.LONG, suite + 16);
+                    suites.add(new Suite(projection.get(FichiersBinaires.INT, suite), trait,
+                            projection.get(FichiersBinaires.INT, suite + 4),
+                            projection.get(FichiersBinaires.INT, suite + 8),
+                            projection.get(FichiersBinaires.INT, suite + 12),
+                            elos == 0 ? PartieArchivee.ELO_INCONNU : (int) (sommeElo / elos)));
+                }
+                suites.sort((a, b) -> Integer.compare(b.parties, a.parties));
+                return Collections.unmodifiableList(suites);
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * Retourne le classement moyen des joueurs connus d’une partie.
+     *
+     * @param partie la partie
+     * @return le classement moyen, ou {@link PartieArchivee#ELO_INCONNU}
+     */
+    private static long eloMoyen(PartieArchivee partie) {
+        int blancs = partie.getEloBlancs();
+        int noirs = partie.getEloNoirs();
+        if (blancs == PartieArchivee.ELO_INCONNU || noirs == PartieArchivee.ELO_INCONNU) {
+            return Math.max(blancs, noirs) & 0xffffff;
+        }
+        return (blancs + noirs) / 2 & 0xffffff;
+    }
+
+    /**
+     * Retourne la fin du groupe d’entrées de même hachage.
+     *
+     * @param hachages les hachages triés
+     * @param debut    le début du groupe
+     * @param nombre   le nombre d’entrées
+     * @return l’indice qui suit le groupe
+     */
+    private static int finGroupe(long[] hachages, int debut, int nombre) {
+        int fin = debut + 1;
+        while (fin < nombre && hachages[fin] == hachages[debut]) {
+            fin++;
+        }
+        return fin;
+    }
+
+    /**
+     * Compte les suites gardées d’une position, dont les entrées sont triées par coup.
+     *
+     * @param valeurs    les entrées
+     * @param debut      le début des entrées de la position
+     * @param fin        la fin des entrées de la position
+     * @param partiesMin le nombre minimal de parties d’une suite gardée
+     * @return le nombre de suites gardées
+     */
+    private static int compterSuites(long[] valeurs, int debut, int fin, int partiesMin) {
+        int suites = 0;
+        for (int d = debut; d < fin; ) {
+            int f = d + 1;
+            while (f < fin && valeurs[f] >>> 32 == valeurs[d] >>> 32) {
+                f++;
+            }
+            if (f - d >= partiesMin) {
+                suites++;
+            }
+            d = f;
+        }
+        return suites;
+    }
+
+    /**
+     * Écrit les statistiques d’une suite.
+     *
+     * @param tampon  le tampon
+     * @param valeurs les entrées
+     * @param debut   la première entrée de la suite
+     * @param fin     l’entrée qui suit la suite
+     */
+    private static void ecrireSuite(ByteBuffer tampon, long[] valeurs, int debut, int fin) {
+        int victoiresBlancs = 0;
+        int nulles = 0;
+        long sommeElo = 0;
+        int elos = 0;
+        for (int i = debut; i < fin; i++) {
+            int resultat = (int) (valeurs[i] >>> 24 & 0xff) - 1;
+            int elo = (int) (valeurs[i] & 0xffffff);
+            if (resultat == PartieArchivee.VICTOIRE_BLANCS) {
+                victoiresBlancs++;
+            } else if (resultat == PartieArchivee.NULLE) {
+                nulles++;
+            }
+            if (elo != PartieArchivee.ELO_INCONNU) {
+                sommeElo += elo;
+                elos++;
+            }
+        }
+        tampon.putInt((int) (valeurs[debut] >>> 32)).putInt(fin - debut).putInt(victoiresBlancs).putInt(nulles)
+                .putLong(sommeElo).putInt(elos).putInt(0);
+    }
+}
@@ -0,0 +1,69 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Outils communs aux fichiers binaires petit-boutistes du paquet : dispositions des entiers
+ * pour les projections en mémoire, et écriture des tampons dans un canal.
+ */
+final class FichiersBinaires {
+
+    /** Entier 64 bits petit-boutiste. */
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    /** Entier 32 bits petit-boutiste. */
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    /** Entier 16 bits petit-boutiste. */
+    static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Classe utilitaire : aucune instance.
+     */
+    private FichiersBinaires() {
+    }
+
+    /**
+     * Écrit entièrement les octets restants d’un tampon à la position courante d’un canal.
+     *
+     * @param canal  le canal
+     * @param tampon le tampon, prêt à être lu
+     * @throws IOException si l’écriture échoue
+     */
+    static void ecrireTout(FileChannel canal, ByteBuffer tampon) throws IOException {
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+    }
+
+    /**
+     * Écrit le contenu d’un tampon en cours de remplissage dans un canal, puis le vide.
+     *
+     * @param canal  le canal
+     * @param tampon le tampon
+     * @throws IOException si l’écriture échoue
+     */
+    static void vider(FileChannel canal, ByteBuffer tampon) throws IOException {
+        tampon.flip();
+        ecrireTout(canal, tampon);
+        tampon.clear();
+    }
+
+    /**
+     * Vide un tampon dans un canal s’il lui reste moins d’une place donnée.
+     *
+     * @param canal  le canal
+     * @param tampon le tampon
+     * @param octets la place requise
+     * @throws IOException si l’écriture échoue
+     */
+    static void reserver(FileChannel canal, ByteBuffer tampon, int octets) throws IOException {
+        if (tampon.remaining() < octets) {
+            vider(canal, tampon);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package cstjean.mobile.dames;
+
+/**
+ * Génère les coups légaux d’une {@link Position}, directement sur ses masques.
+ *
+ * <p>
+ * Les règles sont exactement celles de {@link DeplacementPion} et de {@link Damier#deplacer(int, int)} :
+ * </p>
+ * <ul>
+ *     <li>un pion avance d’une case en diagonale vers une case vide,
+ *     ou prend une pièce adverse voisine vers l’avant en sautant sur la case vide qui la suit ;</li>
+ *     <li>une dame se déplace vers toute case vide située à une distance {@code i} dans une des quatre
+ *     diagonales, tant qu’au moins une diagonale offrait une case vide à la distance {@code i - 1} ;
+ *     elle prend une pièce adverse voisine dans les quatre directions ;</li>
+ *     <li>tout déplacement de plus d’une case vide la case voisine de l’arrivée, du côté du départ ;</li>
+ *     <li>un pion qui atteint la rangée de promotion devient une dame.</li>
+ * </ul>
+ *
+ * <p>
+ * Les coups sont écrits, codés selon {@link Coup}, dans un tableau fourni par l’appelant,
+ * ce qui évite toute allocation.
+ * </p>
+ */
+public final class GenerateurCoups {
+
+    /**
+     * Taille suffisante du tableau de coups pour toute position d’au plus 64 cases :
+     * un coup relie une case occupée à une case vide, et il y a au plus 32 × 32 telles paires.
+     */
+    public static final int COUPS_MAX = 1024;
+
+    /**
+     * Classe utilitaire : aucune instance.
+     */
+    private GenerateurCoups() {
+    }
+
+    /**
+     * Génère tous les coups légaux du joueur qui a le trait.
+     *
+     * @param position la position
+     * @param coups    le tableau qui reçoit les coups (au moins {@link #COUPS_MAX} éléments)
+     * @return le nombre de coups générés
+     */
+    public static int generer(Position position, int[] coups) {
+        boolean blanc = position.getTrait() == Pion.Couleur.Blanc;
+        long amis = blanc ? position.getBlancs() : position.getNoirs();
+        long adverses = blanc ? position.getNoirs() : position.getBlancs();
+        return generer(position.getGeometrie(), amis, adverses, position.getDames(), blanc, coups);
+    }
+
+    /**
+     * Génère tous les coups légaux d’un camp à partir de masques.
+     *
+     * @param geometrie la géométrie du damier
+     * @param amis      les cases des pièces du camp qui joue
+     * @param adverses  les cases des pièces adverses
+     * @param dames     les cases des dames (des deux camps)
+     * @param blanc     vrai si le camp qui joue est blanc
+     * @param coups     le tableau qui reçoit les coups
+     * @return le nombre de coups générés
+     */
+    public static int generer(Geometrie geometrie, long amis, long adverses, long dames, boolean blanc,
+                              int[] coups) {
+        Pion.Couleur couleur = blanc ? Pion.Couleur.Blanc : Pion.Couleur.Noir;
+        long occupees = amis | adverses;
+        int nombre = 0;
+        long pieces = amis;
+        while (pieces != 0) {
+            int bit = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            int depart = bit + 1;
+            if ((dames >>> bit & 1L) != 0) {
+                nombre = genererDame(geometrie, depart, occupees, amis, adverses, dames, blanc, coups, nombre);
+            } else {
+                nombre = genererPion(geometrie, depart, occupees, adverses, dames, couleur, coups, nombre);
+            }
+        }
+        return nombre;
+    }
+
+    /**
+     * Génère les coups d’un pion.
+     *
+     * @param geometrie la géométrie du damier
+     * @param depart    la case du pion
+     * @param occupees  les cases occupées
+     * @param adverses  les cases adverses
+     * @param dames     les cases des dames
+     * @param couleur   la couleur du pion
+     * @param coups     le tableau qui reçoit les coups
+     * @param nombre    le nombre de coups déjà écrits
+     * @return le nouveau nombre de coups
+     */
+    private static int genererPion(Geometrie geometrie, int depart, long occupees, long adverses, long dames,
+                                   Pion.Couleur couleur, int[] coups, int nombre) {
+        for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+            if (!Geometrie.estVersAvant(direction, couleur)) {
+                continue;
+            }
+            int voisin = geometrie.voisin(depart, direction);
+            if (voisin == 0) {
+                continue;
+            }
+            if (!estOccupee(occupees, voisin)) {
+                coups[nombre++] = Coup.encoder(depart, voisin, 0, Coup.PIECE_AUCUNE,
+                        geometrie.estPromotion(voisin, couleur));
+            } else if (estOccupee(adverses, voisin)) {
+                int saut = geometrie.caseSurRayon(depart, direction, 2);
+                if (saut != 0 && !estOccupee(occupees, saut)) {
+                    coups[nombre++] = Coup.encoder(depart, saut, voisin,
+                            codePiece(dames, voisin, couleur != Pion.Couleur.Blanc),
+                            geometrie.estPromotion(saut, couleur));
+                }
+            }
+        }
+        return nombre;
+    }
+
+    /**
+     * Génère les coups d’une dame.
+     *
+     * @param geometrie la géométrie du damier
+     * @param depart    la case de la dame
+     * @param occupees  les cases occupées
+     * @param amis      les cases du camp qui joue
+     * @param adverses  les cases adverses
+     * @param dames     les cases des dames
+     * @param blanc     vrai si la dame est blanche
+     * @param coups     le tableau qui reçoit les coups
+     * @param nombre    le nombre de coups déjà écrits
+     * @return le nouveau nombre de coups
+     */
+    private static int genererDame(Geometrie geometrie, int depart, long occupees, long amis, long adverses,
+                                   long dames, boolean blanc, int[] coups, int nombre) {
+        int distance = 0;
+        boolean ajoute = true;
+        while (ajoute) {
+            distance++;
+            ajoute = false;
+            for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+                int arrivee = geometrie.caseSurRayon(depart, direction, distance);
+                if (arrivee == 0 || estOccupee(occupees, arrivee)) {
+                    continue;
+                }
+                ajoute = true;
+                int prise = 0;
+                int piecePrise = Coup.PIECE_AUCUNE;
+                if (distance > 1) {
+                    int voisine = geometrie.caseSurRayon(depart, direction, distance - 1);
+                    if (estOccupee(occupees, voisine)) {
+                        prise = voisine;
+                        boolean priseBlanche = blanc == estOccupee(amis, voisine);
+                        piecePrise = codePiece(dames, voisine, priseBlanche);
+                    }
+                }
+                coups[nombre++] = Coup.encoder(depart, arrivee, prise, piecePrise, false);
+            }
+        }
+        if (distance > 1) {
+            // Les prises à distance 2 ont déjà été produites comme déplacements simples.
+            return nombre;
+        }
+        for (int direction = 0; direction < Geometrie.NB_DIRECTIONS; direction++) {
+            int voisin = geometrie.voisin(depart, direction);
+            int saut = geometrie.caseSurRayon(depart, direction, 2);
+            if (voisin != 0 && saut != 0 && estOccupee(adverses, voisin) && !estOccupee(occupees, saut)) {
+                coups[nombre++] = Coup.encoder(depart, saut, voisin, codePiece(dames, voisin, !blanc),
+                        false);
+            }
+        }
+        return nombre;
+    }
+
+    /**
+     * Indique si une case fait partie d’un masque.
+     *
+     * @param masque   le masque
+     * @param position la case
+     * @return vrai si le bit de la case est levé
+     */
+    private static boolean estOccupee(long masque, int position) {
+        return (masque >>> (position - 1) & 1L) != 0;
+    }
+
+    /**
+     * Retourne le code d’une pièce présente sur une case.
+     *
+     * @param dames    les cases des dames
+     * @param position la case
+     * @param blanche  vrai si la pièce est blanche
+     * @return le code de la pièce selon {@link Coup}
+     */
+    private static int codePiece(long dames, int position, boolean blanche) {
+        boolean dame = estOccupee(dames, position);
+        if (blanche) {
+            return dame ? Coup.PIECE_DAME_BLANCHE : Coup.PIECE_PION_BLANC;
+        }
+        return dame ? Coup.PIECE_DAME_NOIRE : Coup.PIECE_PION_NOIR;
+    }
+}
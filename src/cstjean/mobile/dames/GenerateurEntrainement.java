@@ -0,0 +1,144 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Produit des données d’entraînement : parties jouées ou rejouées, positions échantillonnées,
+ * étiquetées par un score de recherche et par le résultat final.
+ *
+ * <p>
+ * Les parties d’auto-apprentissage commencent par quelques coups aléatoires, pour varier
+ * les ouvertures, puis chaque camp joue le meilleur coup d’une {@link RechercheAlphaBeta}.
+ * Une partie qui atteint {@link #DEMI_COUPS_MAX} demi-coups est nulle.
+ * Les positions retenues sont écrites par un {@link EcrivainEchantillons}.
+ * </p>
+ */
+public class GenerateurEntrainement {
+
+    /** Nombre maximal de demi-coups d’une partie d’auto-apprentissage. */
+    public static final int DEMI_COUPS_MAX = 200;
+
+    /** Nombre de demi-coups joués au hasard au début de chaque partie. */
+    public static final int OUVERTURE_ALEATOIRE = 6;
+
+    /** La recherche qui choisit les coups et étiquette les positions. */
+    private final RechercheAlphaBeta recherche;
+
+    /** La profondeur de recherche. */
+    private final int profondeur;
+
+    /** Probabilité de retenir une position, en 1/65536. */
+    private final int seuilEchantillon;
+
+    /** Nombre de demi-coups ignorés au début de chaque partie. */
+    private final int demiCoupsIgnores;
+
+    /** Le générateur pseudo-aléatoire. */
+    private final Xorshift hasard;
+
+    /** Tampon de génération des coups. */
+    private final int[] coups;
+
+    /**
+     * Construit un générateur.
+     *
+     * @param evaluation       l’évaluation utilisée par la recherche
+     * @param profondeur       la profondeur de recherche, en demi-coups (au moins 1)
+     * @param taux             la proportion de positions retenues (entre 0 et 1)
+     * @param demiCoupsIgnores le nombre de demi-coups ignorés au début de chaque partie
+     * @param graine           la graine du générateur pseudo-aléatoire
+     * @throws IllegalArgumentException si la profondeur ou le taux est invalide
+     */
+    public GenerateurEntrainement(Evaluation evaluation, int profondeur, double taux, int demiCoupsIgnores,
+                                  long graine) {
+        if (profondeur < 1) {
+            throw new IllegalArgumentException("Profondeur de recherche invalide : " + profondeur);
+        }
+        if (taux < 0 || taux > 1) {
+            throw new IllegalArgumentException("Taux d’échantillonnage invalide : " + taux);
+        }
+        this.recherche = new RechercheAlphaBeta(evaluation);
+        this.profondeur = profondeur;
+        this.seuilEchantillon = (int) Math.round(taux * 65536);
+        this.demiCoupsIgnores = demiCoupsIgnores;
+        this.hasard = new Xorshift(graine);
+        this.coups = new int[GenerateurCoups.COUPS_MAX];
+    }
+
+    /**
+     * Joue une partie d’auto-apprentissage depuis la position initiale 10 × 10.
+     *
+     * @param id l’identifiant de la partie
+     * @return la partie terminée
+     */
+    public PartieArchivee jouerPartie(long id) {
+        int[] joues = new int[DEMI_COUPS_MAX];
+        Position position = Position.initiale();
+        int resultat = PartieArchivee.NULLE;
+        int demiCoup = 0;
+        while (demiCoup < DEMI_COUPS_MAX) {
+            int nombre = GenerateurCoups.generer(position, coups);
+            if (nombre == 0) {
+                resultat = position.getTrait() == Pion.Couleur.Blanc
+                        ? PartieArchivee.VICTOIRE_NOIRS : PartieArchivee.VICTOIRE_BLANCS;
+                break;
+            }
+            int coup;
+            if (demiCoup < OUVERTURE_ALEATOIRE) {
+                coup = coups[hasard.suivant(nombre)];
+            } else {
+                recherche.chercher(position, profondeur);
+                coup = recherche.getMeilleurCoup();
+                if (coup == 0) {
+                    // La recherche n’a rendu aucun coup : la partie s’arrête plutôt que de corrompre la position
+                    break;
+                }
+            }
+            joues[demiCoup++] = coup;
+            position = position.appliquer(coup);
+        }
+        return new PartieArchivee(id, Geometrie.DIX, Arrays.copyOf(joues, demiCoup), resultat);
+    }
+
+    /**
+     * Rejoue une partie et écrit un échantillon des positions rencontrées.
+     *
+     * @param partie   la partie
+     * @param ecrivain la destination
+     * @return le nombre de positions écrites
+     * @throws IOException si l’écriture échoue
+     */
+    public int echantillonner(PartieArchivee partie, EcrivainEchantillons ecrivain) throws IOException {
+        int ecrites = 0;
+        Position position = Position.initiale(partie.getGeometrie());
+        for (int demiCoup = 0; demiCoup <= partie.getNombreCoups(); demiCoup++) {
+            if (demiCoup >= demiCoupsIgnores && (hasard.suivant() & 0xFFFF) < seuilEchantillon) {
+                int score = recherche.chercher(position, profondeur);
+                ecrivain.ecrire(position, score, partie.getResultat(), demiCoup);
+                ecrites++;
+            }
+            if (demiCoup < partie.getNombreCoups()) {
+                position = position.appliquer(partie.getCoup(demiCoup));
+            }
+        }
+        return ecrites;
+    }
+
+    /**
+     * Joue des parties d’auto-apprentissage et en écrit les positions échantillonnées.
+     *
+     * @param nombreParties le nombre de parties
+     * @param premierId     l’identifiant de la première partie
+     * @param ecrivain      la destination
+     * @return le nombre de positions écrites
+     * @throws IOException si l’écriture échoue
+     */
+    public long generer(int nombreParties, long premierId, EcrivainEchantillons ecrivain) throws IOException {
+        long ecrites = 0;
+        for (int i = 0; i < nombreParties; i++) {
+            ecrites += echantillonner(jouerPartie(premierId + i), ecrivain);
+        }
+        return ecrites;
+    }
+}
@@ -0,0 +1,364 @@
+package cstjean.mobile.dames;
+
+/**
+ * Géométrie d’un damier carré de taille paire, avec ses tables précalculées.
+ *
+ * <p>
+ * Les cases jouables sont les cases foncées ({@code (ligne + colonne)} impair),
+ * numérotées de 1 à {@link #getNbCases()} ligne par ligne à partir du haut,
+ * comme sur le damier international. Les noirs commencent en haut et
+ * sont promus sur la dernière ligne ; les blancs commencent en bas et sont promus
+ * sur la première.
+ * </p>
+ *
+ * <p>
+ * Les tables (coordonnées, voisins, rayons, trajets et rangées de promotion) sont générées
+ * une seule fois, au chargement de la classe, pour chaque variante :
+ * </p>
+ * <ul>
+ *     <li>{@link #HUIT} → 8 × 8, 32 cases (dames brésiliennes et russes),</li>
+ *     <li>{@link #DIX} → 10 × 10, 50 cases (dames internationales),</li>
+ *     <li>{@link #DOUZE} → 12 × 12, 72 cases (dames canadiennes).</li>
+ * </ul>
+ *
+ * <p>
+ * Les directions sont numérotées de 0 à 3 : {@link #HAUT_GAUCHE}, {@link #HAUT_DROITE},
+ * {@link #BAS_GAUCHE} et {@link #BAS_DROITE}.
+ * </p>
+ */
+public final class Geometrie {
+
+    /** Direction vers la ligne précédente et la colonne précédente. */
+    public static final int HAUT_GAUCHE = 0;
+
+    /** Direction vers la ligne précédente et la colonne suivante. */
+    public static final int HAUT_DROITE = 1;
+
+    /** Direction vers la ligne suivante et la colonne précédente. */
+    public static final int BAS_GAUCHE = 2;
+
+    /** Direction vers la ligne suivante et la colonne suivante. */
+    public static final int BAS_DROITE = 3;
+
+    /** Nombre de directions diagonales. */
+    public static final int NB_DIRECTIONS = 4;
+
+    /** Variation de ligne de chaque direction. */
+    private static final int[] DELTA_LIGNE = {-1, -1, 1, 1};
+
+    /** Variation de colonne de chaque direction. */
+    private static final int[] DELTA_COLONNE = {-1, 1, -1, 1};
+
+    /** Damier 8 × 8. */
+    public static final Geometrie HUIT = new Geometrie(8);
+
+    /** Damier 10 × 10. */
+    public static final Geometrie DIX = new Geometrie(10);
+
+    /** Damier 12 × 12. */
+    public static final Geometrie DOUZE = new Geometrie(12);
+
+    /** Nombre de lignes et de colonnes. */
+    private final int taille;
+
+    /** Nombre de cases jouables. */
+    private final int nbCases;
+
+    /** Ligne de chaque case (indice = position). */
+    private final int[] lignes;
+
+    /** Colonne de chaque case (indice = position). */
+    private final int[] colonnes;
+
+    /** Position de chaque coordonnée ({@code ligne * taille + colonne}), ou {@code 0} si non jouable. */
+    private final int[] positions;
+
+    /**
+     * Cases de chaque rayon, indexées par {@code position * 4 + direction},
+     * de la plus proche à la plus éloignée.
+     */
+    private final int[][] rayons;
+
+    /** Case symétrique de chaque case par rotation d’un demi-tour (indice = position). */
+    private final int[] symetriques;
+
+    /**
+     * Trajet diagonal entre deux cases, indexé par {@code depart * (nbCases + 1) + arrivee} :
+     * la case qui précède l’arrivée (bits 6 et plus), la direction (bits 4 et 5) et la distance
+     * (bits 0 à 3), ou {@code 0} si les deux cases ne sont pas sur une même diagonale.
+     */
+    private final int[] trajets;
+
+    /**
+     * Construit et précalcule la géométrie d’un damier.
+     *
+     * @param taille le nombre de lignes et de colonnes (pair)
+     */
+    private Geometrie(int taille) {
+        this.taille = taille;
+        this.nbCases = taille * taille / 2;
+        this.lignes = new int[nbCases + 1];
+        this.colonnes = new int[nbCases + 1];
+        this.positions = new int[taille * taille];
+        int compteur = 1;
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                if ((i + j) % 2 == 1) {
+                    lignes[compteur] = i;
+                    colonnes[compteur] = j;
+                    positions[i * taille + j] = compteur;
+                    compteur++;
+                }
+            }
+        }
+
+        this.rayons = new int[(nbCases + 1) * NB_DIRECTIONS][];
+        rayons[0] = new int[0];
+        rayons[1] = rayons[0];
+        rayons[2] = rayons[0];
+        rayons[3] = rayons[0];
+        for (int position = 1; position <= nbCases; position++) {
+            for (int direction = 0; direction < NB_DIRECTIONS; direction++) {
+                int longueur = 0;
+                while (estCoordValide(lignes[position] + DELTA_LIGNE[direction] * (longueur + 1),
+                        colonnes[position] + DELTA_COLONNE[direction] * (longueur + 1))) {
+                    longueur++;
+                }
+                int[] rayon = new int[longueur];
+                for (int k = 0; k < longueur; k++) {
+                    rayon[k] = positions[(lignes[position] + DELTA_LIGNE[direction] * (k + 1)) * taille
+                            + colonnes[position] + DELTA_COLONNE[direction] * (k + 1)];
+                }
+                rayons[position * NB_DIRECTIONS + direction] = rayon;
+            }
+        }
+
+        this.trajets = new int[(nbCases + 1) * (nbCases + 1)];
+        for (int depart = 1; depart <= nbCases; depart++) {
+            for (int direction = 0; direction < NB_DIRECTIONS; direction++) {
+                int[] rayon = rayons[depart * NB_DIRECTIONS + direction];
+                for (int k = 0; k < rayon.length; k++) {
+                    int precedente = k == 0 ? 0 : rayon[k - 1];
+                    trajets[depart * (nbCases + 1) + rayon[k]] = precedente << 6 | direction << 4 | (k + 1);
+                }
+            }
+        }
+
+        this.symetriques = new int[nbCases + 1];
+        for (int position = 1; position <= nbCases; position++) {
+            int ligne = taille - 1 - lignes[position];
+            int colonne = taille - 1 - colonnes[position];
+            symetriques[position] = positions[ligne * taille + colonne];
+        }
+    }
+
+    /**
+     * Retourne la géométrie correspondant à une taille de damier.
+     *
+     * @param taille le nombre de lignes et de colonnes (8, 10 ou 12)
+     * @return la géométrie précalculée
+     * @throws IllegalArgumentException si la taille n’est pas prise en charge
+     */
+    public static Geometrie pourTaille(int taille) {
+        return switch (taille) {
+            case 8 -> HUIT;
+            case 10 -> DIX;
+            case 12 -> DOUZE;
+            default -> throw new IllegalArgumentException("Taille de damier non prise en charge : " + taille);
+        };
+    }
+
+    /**
+     * Retourne le nombre de lignes (et de colonnes) du damier.
+     *
+     * @return la taille du damier
+     */
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * Retourne le nombre de cases jouables.
+     *
+     * @return le nombre de cases
+     */
+    public int getNbCases() {
+        return nbCases;
+    }
+
+    /**
+     * Retourne le nombre de rangées occupées par chaque camp au départ.
+     *
+     * @return le nombre de rangées de pions par camp
+     */
+    public int getRangeesDepart() {
+        return taille / 2 - 1;
+    }
+
+    /**
+     * Retourne le nombre de pions de chaque camp au départ.
+     *
+     * @return le nombre de pions par camp
+     */
+    public int getPionsDepart() {
+        return getRangeesDepart() * taille / 2;
+    }
+
+    /**
+     * Retourne la ligne d’une case.
+     *
+     * @param position la case (1 à {@link #getNbCases()})
+     * @return la ligne, à partir de 0 en haut
+     */
+    public int ligne(int position) {
+        return lignes[position];
+    }
+
+    /**
+     * Retourne la colonne d’une case.
+     *
+     * @param position la case (1 à {@link #getNbCases()})
+     * @return la colonne, à partir de 0 à gauche
+     */
+    public int colonne(int position) {
+        return colonnes[position];
+    }
+
+    /**
+     * Convertit des coordonnées en numéro de case.
+     *
+     * @param ligne la ligne
+     * @param col   la colonne
+     * @return la case correspondante, ou {@code -1} si les coordonnées ne désignent pas une case jouable
+     */
+    public int position(int ligne, int col) {
+        if (!estCoordValide(ligne, col)) {
+            return -1;
+        }
+        return positions[ligne * taille + col];
+    }
+
+    /**
+     * Indique si des coordonnées désignent une case jouable.
+     *
+     * @param ligne la ligne
+     * @param col   la colonne
+     * @return vrai si la case existe et est foncée
+     */
+    public boolean estCoordValide(int ligne, int col) {
+        return ligne >= 0 && ligne < taille && col >= 0 && col < taille && (ligne + col) % 2 != 0;
+    }
+
+    /**
+     * Retourne la case voisine dans une direction.
+     *
+     * @param position  la case de départ
+     * @param direction la direction (0 à 3)
+     * @return la case voisine, ou {@code 0} au bord du damier
+     */
+    public int voisin(int position, int direction) {
+        return caseSurRayon(position, direction, 1);
+    }
+
+    /**
+     * Retourne la case située à une distance donnée dans une direction.
+     *
+     * @param position  la case de départ
+     * @param direction la direction (0 à 3)
+     * @param distance  la distance, à partir de 1
+     * @return la case, ou {@code 0} si elle sort du damier
+     */
+    public int caseSurRayon(int position, int direction, int distance) {
+        int[] rayon = rayons[position * NB_DIRECTIONS + direction];
+        return distance <= rayon.length ? rayon[distance - 1] : 0;
+    }
+
+    /**
+     * Retourne le nombre de cases d’un rayon.
+     *
+     * @param position  la case de départ
+     * @param direction la direction (0 à 3)
+     * @return le nombre de cases jusqu’au bord du damier
+     */
+    public int longueurRayon(int position, int direction) {
+        return rayons[position * NB_DIRECTIONS + direction].length;
+    }
+
+    /**
+     * Retourne la direction de la diagonale qui mène d’une case à une autre.
+     *
+     * @param depart  la case de départ
+     * @param arrivee la case d’arrivée
+     * @return la direction (0 à 3), ou {@code -1} si les cases ne sont pas sur une même diagonale
+     */
+    public int direction(int depart, int arrivee) {
+        int trajet = trajets[depart * (nbCases + 1) + arrivee];
+        return trajet == 0 ? -1 : trajet >>> 4 & 0x3;
+    }
+
+    /**
+     * Retourne la distance diagonale entre deux cases.
+     *
+     * @param depart  la case de départ
+     * @param arrivee la case d’arrivée
+     * @return la distance, à partir de 1, ou {@code 0} si les cases ne sont pas sur une même diagonale
+     */
+    public int distance(int depart, int arrivee) {
+        return trajets[depart * (nbCases + 1) + arrivee] & 0xF;
+    }
+
+    /**
+     * Retourne la case sautée par une prise : la voisine de l’arrivée du côté du départ,
+     * pour un saut de pion comme pour la prise à distance d’une dame.
+     *
+     * @param depart  la case de départ
+     * @param arrivee la case d’arrivée
+     * @return la case sautée, ou {@code 0} si les cases sont voisines ou ne sont pas sur une même diagonale
+     */
+    public int casePrise(int depart, int arrivee) {
+        return trajets[depart * (nbCases + 1) + arrivee] >>> 6;
+    }
+
+    /**
+     * Retourne la case symétrique par rotation d’un demi-tour du damier.
+     *
+     * <p>
+     * Associée à l’échange des couleurs et du trait, cette rotation transforme une position
+     * en une position de même valeur : les blancs y jouent le rôle des noirs, vers l’avant.
+     * La numérotation étant symétrique, la case {@code s} devient {@code nbCases + 1 - s}.
+     * </p>
+     *
+     * @param position la case
+     * @return la case symétrique
+     */
+    public int symetrique(int position) {
+        return symetriques[position];
+    }
+
+    /**
+     * Indique si une direction fait avancer une pièce de la couleur donnée.
+     *
+     * @param direction la direction (0 à 3)
+     * @param couleur   la couleur de la pièce
+     * @return vrai si la direction va vers la rangée de promotion de cette couleur
+     */
+    public static boolean estVersAvant(int direction, Pion.Couleur couleur) {
+        return couleur == Pion.Couleur.Blanc ? DELTA_LIGNE[direction] < 0 : DELTA_LIGNE[direction] > 0;
+    }
+
+    /**
+     * Indique si une case appartient à la rangée de promotion d’une couleur.
+     *
+     * @param position la case
+     * @param couleur  la couleur de la pièce qui y arrive
+     * @return vrai si un pion de cette couleur y devient dame
+     */
+    public boolean estPromotion(int position, Pion.Couleur couleur) {
+        return couleur == Pion.Couleur.Blanc ? lignes[position] == 0 : lignes[position] == taille - 1;
+    }
+
+    @Override
+    public String toString() {
+        return taille + "x" + taille;
+    }
+}
@@ -0,0 +1,180 @@
+package cstjean.mobile.dames;
+
+/**
+ * Répartit le temps de réflexion d’un coup à partir de la pendule.
+ *
+ * <p>
+ * Deux limites encadrent chaque coup : une limite souple, consultée entre deux itérations
+ * de l’approfondissement, et une limite ferme, transmise à la recherche par
+ * {@link RechercheAlphaBeta#setEcheance(long)}, qui interrompt l’itération en cours.
+ * La limite souple s’allonge lorsque le meilleur coup change d’une itération à l’autre,
+ * sans jamais dépasser la limite ferme ; lorsque le temps est compté, un coup forcé est joué
+ * dès la première itération.
+ * </p>
+ *
+ * <p>
+ * Les durées sont en nanosecondes et les instants selon {@link System#nanoTime()}.
+ * Une instance sert à un coup à la fois ; elle est relancée par {@link #demarrer(long, int)}.
+ * </p>
+ */
+public final class GestionTemps {
+
+    /** Temps gardé en réserve pour la communication avec l’interface, par coup. */
+    public static final long MARGE = 30_000_000L;
+
+    /** Nombre de coups restants supposé lorsque la pendule ne le précise pas. */
+    public static final int COUPS_RESTANTS_DEFAUT = 30;
+
+    /** Multiple de la part normale qu’un coup instable peut consommer. */
+    private static final int EXTENSION_MAX = 4;
+
+    /** Part maximale du temps restant consommée par un seul coup. */
+    private static final double PART_MAX = 0.4;
+
+    /**
+     * Fraction de la limite souple après laquelle une nouvelle itération n’est pas commencée :
+     * elle durerait vraisemblablement plus que toutes les précédentes réunies.
+     */
+    private static final double FRACTION_ITERATION = 0.6;
+
+    /** Allongement de la limite souple à chaque changement du meilleur coup. */
+    private static final double INSTABILITE_CHANGEMENT = 1.0;
+
+    /** Atténuation de l’instabilité à chaque itération. */
+    private static final double INSTABILITE_OUBLI = 0.5;
+
+    /** Part normale d’un coup, ou {@link Long#MAX_VALUE} si le temps n’est pas limité. */
+    private final long part;
+
+    /** Durée maximale d’un coup, ou {@link Long#MAX_VALUE}. */
+    private final long plafond;
+
+    /** Vrai si la durée du coup est imposée plutôt que tirée de la pendule. */
+    private final boolean fixe;
+
+    /** Instant du début du coup. */
+    private long debut;
+
+    /** Vrai si la position n’a qu’un coup légal. */
+    private boolean force;
+
+    /** Meilleur coup de l’itération précédente. */
+    private int dernierCoup;
+
+    /** Instabilité du meilleur coup, qui allonge la limite souple. */
+    private double instabilite;
+
+    /**
+     * Construit une gestion.
+     *
+     * @param part    la part normale d’un coup
+     * @param plafond la durée maximale d’un coup
+     * @param fixe    vrai si la durée est imposée
+     */
+    private GestionTemps(long part, long plafond, boolean fixe) {
+        this.part = part;
+        this.plafond = plafond;
+        this.fixe = fixe;
+    }
+
+    /**
+     * Construit une gestion sans limite de temps : seuls {@code stop}, la profondeur ou les nœuds arrêtent.
+     *
+     * @return la gestion
+     */
+    public static GestionTemps infini() {
+        return new GestionTemps(Long.MAX_VALUE, Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Construit une gestion à durée fixe par coup.
+     *
+     * @param duree la durée de chaque coup
+     * @return la gestion
+     */
+    public static GestionTemps fixe(long duree) {
+        long utile = Math.max(1, duree - MARGE);
+        return new GestionTemps(utile, utile, true);
+    }
+
+    /**
+     * Construit une gestion à partir de la pendule.
+     *
+     * @param restant       le temps restant au joueur
+     * @param increment     le temps ajouté après chaque coup
+     * @param coupsRestants le nombre de coups avant le prochain contrôle, ou zéro s’il n’y en a pas
+     * @return la gestion
+     */
+    public static GestionTemps pendule(long restant, long increment, int coupsRestants) {
+        int coups = coupsRestants > 0 ? coupsRestants : COUPS_RESTANTS_DEFAUT;
+        long disponible = Math.max(1, restant - MARGE);
+        // L’incrément n’est compté que s’il reste des coups à jouer avant le contrôle.
+        long recu = coupsRestants == 1 ? 0 : increment;
+        long part = Math.min(disponible, disponible / coups + recu);
+        long plafond = disponible;
+        if (coups > 1) {
+            plafond = (long) (disponible * PART_MAX);
+            part = Math.min(part, plafond);
+            plafond = Math.min(plafond, part * EXTENSION_MAX);
+        }
+        return new GestionTemps(part, plafond, false);
+    }
+
+    /**
+     * Démarre la réflexion d’un coup.
+     *
+     * @param maintenant  l’instant du début du coup
+     * @param coupsLegaux le nombre de coups légaux de la position
+     */
+    public void demarrer(long maintenant, int coupsLegaux) {
+        debut = maintenant;
+        force = coupsLegaux <= 1;
+        dernierCoup = 0;
+        instabilite = 0;
+    }
+
+    /**
+     * Retourne l’instant auquel la recherche doit être interrompue, même au milieu d’une itération.
+     *
+     * @return la limite ferme, ou {@link Long#MAX_VALUE} s’il n’y en a pas
+     */
+    public long getEcheance() {
+        return plafond == Long.MAX_VALUE ? Long.MAX_VALUE : debut + plafond;
+    }
+
+    /**
+     * Retourne la limite souple actuelle, allongée par l’instabilité.
+     *
+     * @return la durée, ou {@link Long#MAX_VALUE} s’il n’y en a pas
+     */
+    public long getLimiteSouple() {
+        if (fixe) {
+            return part;
+        }
+        return Math.min(plafond, (long) (part * (1 + instabilite)));
+    }
+
+    /**
+     * Tient compte d’une itération terminée et décide s’il faut en commencer une autre.
+     *
+     * @param maintenant   l’instant de la fin de l’itération
+     * @param meilleurCoup le meilleur coup de l’itération
+     * @return vrai si la recherche doit s’arrêter maintenant
+     */
+    public boolean iterationTerminee(long maintenant, int meilleurCoup) {
+        if (force && plafond != Long.MAX_VALUE) {
+            return true;
+        }
+        instabilite *= INSTABILITE_OUBLI;
+        if (dernierCoup != 0 && meilleurCoup != dernierCoup) {
+            instabilite += INSTABILITE_CHANGEMENT;
+        }
+        dernierCoup = meilleurCoup;
+        long limite = getLimiteSouple();
+        if (limite == Long.MAX_VALUE) {
+            return false;
+        }
+        long ecoule = maintenant - debut;
+        return fixe ? ecoule >= limite : ecoule >= limite * FRACTION_ITERATION;
+    }
+}
@@ -0,0 +1,373 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Générateur de charge pour le chemin des coups : des clients concurrents jouent des parties aléatoires
+ * contre une {@link SalleParties}, et la latence de chaque opération est mesurée.
+ *
+ * <p>
+ * Chaque client, sur son propre fil, ouvre une partie, puis demande les coups légaux et en joue un
+ * au hasard jusqu’à la fin de la partie, et recommence jusqu’à l’échéance. Les durées sont notées
+ * dans un {@link HistogrammeLatence} par client et par opération, fusionnés à la fin. Le rapport
+ * donne, pour chaque opération, le débit et les percentiles 50, 99 et 99,9, ainsi que le nombre de
+ * parties menées à leur fin et celui des coups refusés à tort ; il s’écrit dans un fichier et se
+ * compare à celui d’une exécution précédente.
+ * </p>
+ *
+ * <p>
+ * Les clients enchaînent leurs opérations sans pause : la latence mesurée est celle d’un système
+ * saturé au niveau de concurrence demandé, et le débit celui qu’il soutient.
+ * </p>
+ */
+public class HarnaisCharge {
+
+    /** Les opérations mesurées : ouvrir une partie, obtenir les coups légaux, jouer un coup. */
+    public static final String[] OPERATIONS = {"creer", "coups", "jouer"};
+
+    /** Indice de l’ouverture d’une partie. */
+    private static final int CREER = 0;
+
+    /** Indice de la demande des coups légaux. */
+    private static final int COUPS = 1;
+
+    /** Indice d’un coup joué. */
+    private static final int JOUER = 2;
+
+    /** Limite de demi-coups d’une partie. */
+    private static final int DEMI_COUPS_MAX = 200;
+
+    /** Nombre de clients concurrents. */
+    private final int clients;
+
+    /** Durée de la mesure, en nanosecondes. */
+    private final long duree;
+
+    /** Graine du hasard des clients. */
+    private final long graine;
+
+    /**
+     * Construit un harnais.
+     *
+     * @param clients le nombre de clients concurrents
+     * @param duree   la durée de la mesure, en nanosecondes
+     * @param graine  la graine du hasard ; le client {@code i} joue avec la graine {@code graine + i}
+     */
+    public HarnaisCharge(int clients, long duree, long graine) {
+        if (clients < 1) {
+            throw new IllegalArgumentException("Il faut au moins un client : " + clients);
+        }
+        this.clients = clients;
+        this.duree = duree;
+        this.graine = graine;
+    }
+
+    /**
+     * Lance la charge sur une salle et attend la fin de tous les clients.
+     *
+     * @param salle la salle de parties
+     * @return le rapport de la mesure
+     * @throws InterruptedException si l’attente est interrompue
+     */
+    public Rapport executer(SalleParties salle) throws InterruptedException {
+        List<Client> liste = new ArrayList<>();
+        List<Thread> fils = new ArrayList<>();
+        long debut = System.nanoTime();
+        long fin = debut + duree;
+        for (int c = 0; c < clients; c++) {
+            Client client = new Client(salle, new Xorshift(graine + c), fin);
+            liste.add(client);
+            fils.add(Thread.ofPlatform().name("client-" + c).start(client));
+        }
+        for (Thread fil : fils) {
+            fil.join();
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        HistogrammeLatence[] totaux = new HistogrammeLatence[OPERATIONS.length];
+        long parties = 0;
+        long refuses = 0;
+        long terminees = 0;
+        for (int o = 0; o < OPERATIONS.length; o++) {
+            totaux[o] = new HistogrammeLatence();
+        }
+        for (Client client : liste) {
+            for (int o = 0; o < OPERATIONS.length; o++) {
+                totaux[o].fusionner(client.histogrammes[o]);
+            }
+            parties += client.parties;
+            refuses += client.refuses;
+            terminees += client.terminees;
+        }
+        Map<String, Double> valeurs = new LinkedHashMap<>();
+        valeurs.put("clients", (double) clients);
+        valeurs.put("secondes", secondes);
+        valeurs.put("parties", (double) parties);
+        valeurs.put("refuses", (double) refuses);
+        valeurs.put("terminees", (double) terminees);
+        for (int o = 0; o < OPERATIONS.length; o++) {
+            HistogrammeLatence h = totaux[o];
+            String op = OPERATIONS[o];
+            valeurs.put(op + ".nombre", (double) h.getNombre());
+            valeurs.put(op + ".debit", h.getNombre() / secondes);
+            valeurs.put(op + ".p50", (double) h.percentile(50));
+            valeurs.put(op + ".p99", (double) h.percentile(99));
+            valeurs.put(op + ".p999", (double) h.percentile(99.9));
+            valeurs.put(op + ".max", (double) h.getMax());
+        }
+        return new Rapport(valeurs);
+    }
+
+    /**
+     * Point d’entrée en ligne de commande : échauffe, mesure, écrit et compare le rapport.
+     *
+     * <p>
+     * Options : {@code --clients N}, {@code --secondes S}, {@code --echauffement S},
+     * {@code --graine G}, {@code --sortie fichier} (rapport écrit) et {@code --reference fichier}
+     * (rapport d’une exécution précédente, comparé à celui-ci). Avant et après une modification,
+     * {@code charge --sortie avant.txt} puis {@code charge --reference avant.txt} suffisent.
+     * </p>
+     *
+     * @param args   les options
+     * @param sortie la sortie du rapport
+     * @return le rapport de la mesure
+     * @throws IOException          si un rapport ne peut être lu ou écrit
+     * @throws InterruptedException si la mesure est interrompue
+     */
+    public static Rapport lancer(String[] args, PrintStream sortie) throws IOException, InterruptedException {
+        int clients = Runtime.getRuntime().availableProcessors();
+        double secondes = 10;
+        double echauffement = 2;
+        long graine = 1;
+        Path fichier = null;
+        Path reference = null;
+        if (args.length % 2 != 0) {
+            throw new IllegalArgumentException("Valeur manquante pour " + args[args.length - 1]);
+        }
+        for (int i = 0; i < args.length; i += 2) {
+            String valeur = args[i + 1];
+            switch (args[i]) {
+                case "--clients" -> clients = Integer.parseInt(valeur);
+                case "--secondes" -> secondes = Double.parseDouble(valeur);
+                case "--echauffement" -> echauffement = Double.parseDouble(valeur);
+                case "--graine" -> graine = Long.parseLong(valeur);
+                case "--sortie" -> fichier = Path.of(valeur);
+                case "--reference" -> reference = Path.of(valeur);
+                default -> throw new IllegalArgumentException("Option inconnue : " + args[i]);
+            }
+        }
+        SalleParties salle = new SalleParties();
+        if (echauffement > 0) {
+            // Laisse le compilateur à la volée optimiser le chemin avant la mesure.
+            new HarnaisCharge(clients, (long) (echauffement * 1e9), graine).executer(salle);
+        }
+        Rapport rapport = new HarnaisCharge(clients, (long) (secondes * 1e9), graine).executer(salle);
+        if (reference != null) {
+            sortie.print(rapport.comparer(Rapport.lire(reference)));
+        } else {
+            sortie.print(rapport);
+        }
+        if (fichier != null) {
+            rapport.ecrire(fichier);
+        }
+        return rapport;
+    }
+
+    /**
+     * Un client : joue des parties aléatoires jusqu’à l’échéance.
+     */
+    private static final class Client implements Runnable {
+
+        /** La salle de parties. */
+        private final SalleParties salle;
+
+        /** Le hasard du client. */
+        private final Xorshift hasard;
+
+        /** Instant de fin de la mesure. */
+        private final long fin;
+
+        /** Les latences de chaque opération. */
+        private final HistogrammeLatence[] histogrammes = new HistogrammeLatence[OPERATIONS.length];
+
+        /** Nombre de parties jouées. */
+        private long parties;
+
+        /** Nombre de coups légaux refusés par la salle. */
+        private long refuses;
+
+        /** Nombre de parties menées à leur fin, quand la salle ne propose plus aucun coup légal. */
+        private long terminees;
+
+        /**
+         * Construit un client.
+         *
+         * @param salle  la salle de parties
+         * @param hasard le hasard du client
+         * @param fin    l’instant de fin de la mesure
+         */
+        Client(SalleParties salle, Xorshift hasard, long fin) {
+            this.salle = salle;
+            this.hasard = hasard;
+            this.fin = fin;
+            for (int o = 0; o < OPERATIONS.length; o++) {
+                histogrammes[o] = new HistogrammeLatence();
+            }
+        }
+
+        @Override
+        public void run() {
+            int[] coups = new int[GenerateurCoups.COUPS_MAX];
+            long maintenant = System.nanoTime();
+            while (maintenant < fin) {
+                long id = salle.creer();
+                long apres = System.nanoTime();
+                histogrammes[CREER].enregistrer(apres - maintenant);
+                maintenant = apres;
+                for (int ply = 0; ply < DEMI_COUPS_MAX && maintenant < fin; ply++) {
+                    int n = salle.coupsLegaux(id, coups);
+                    apres = System.nanoTime();
+                    histogrammes[COUPS].enregistrer(apres - maintenant);
+                    maintenant = apres;
+                    if (n == 0) {
+                        terminees++;
+                        break;
+                    }
+                    int coup = coups[hasard.suivant(n)];
+                    int resultat = salle.jouer(id, Coup.depart(coup), Coup.arrivee(coup));
+                    apres = System.nanoTime();
+                    histogrammes[JOUER].enregistrer(apres - maintenant);
+                    maintenant = apres;
+                    if (!ResultatCoup.estAccepte(resultat)) {
+                        refuses++;
+                        break;
+                    }
+                }
+                salle.fermer(id);
+                parties++;
+            }
+        }
+    }
+
+    /**
+     * Rapport d’une mesure : des valeurs nommées, les latences étant en nanosecondes
+     * et les débits en opérations par seconde.
+     */
+    public static final class Rapport {
+
+        /** Les valeurs, dans l’ordre d’affichage. */
+        private final Map<String, Double> valeurs;
+
+        /**
+         * Construit un rapport.
+         *
+         * @param valeurs les valeurs nommées
+         */
+        Rapport(Map<String, Double> valeurs) {
+            this.valeurs = new LinkedHashMap<>(valeurs);
+        }
+
+        /**
+         * Retourne une valeur du rapport, par exemple {@code jouer.p99}.
+         *
+         * @param cle le nom de la valeur
+         * @return la valeur, ou {@link Double#NaN} si elle est absente
+         */
+        public double get(String cle) {
+            return valeurs.getOrDefault(cle, Double.NaN);
+        }
+
+        /**
+         * Écrit le rapport dans un fichier texte, une valeur par ligne.
+         *
+         * @param fichier le fichier
+         * @throws IOException si le fichier ne peut être écrit
+         */
+        public void ecrire(Path fichier) throws IOException {
+            try (Writer ecrivain = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Double> entree : valeurs.entrySet()) {
+                    ecrivain.write(entree.getKey() + "=" + entree.getValue() + "\n");
+                }
+            }
+        }
+
+        /**
+         * Lit un rapport écrit par {@link #ecrire(Path)}.
+         *
+         * @param fichier le fichier
+         * @return le rapport
+         * @throws IOException si le fichier ne peut être lu
+         */
+        public static Rapport lire(Path fichier) throws IOException {
+            Map<String, Double> valeurs = new LinkedHashMap<>();
+            for (String ligne : Files.readAllLines(fichier, StandardCharsets.UTF_8)) {
+                int egal = ligne.indexOf('=');
+                if (egal > 0) {
+                    try {
+                        valeurs.put(ligne.substring(0, egal), Double.parseDouble(ligne.substring(egal + 1)));
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Rapport invalide : " + ligne, e);
+                    }
+                }
+            }
+            return new Rapport(valeurs);
+        }
+
+        /**
+         * Compare ce rapport à celui d’une exécution de référence.
+         *
+         * @param reference le rapport de référence
+         * @return un tableau des valeurs avant, après et de leur écart relatif
+         */
+        public String comparer(Rapport reference) {
+            StringBuilder texte = new StringBuilder(String.format(Locale.ROOT, "%-14s %14s %14s %9s%n",
+                    "mesure", "reference", "actuel", "ecart"));
+            for (Map.Entry<String, Double> entree : valeurs.entrySet()) {
+                double avant = reference.get(entree.getKey());
+                double apres = entree.getValue();
+                String ecart = Double.isNaN(avant) || avant == 0
+                        ? "-" : String.format(Locale.ROOT, "%+.1f%%", 100 * (apres - avant) / avant);
+                texte.append(String.format(Locale.ROOT, "%-14s %14s %14s %9s%n", entree.getKey(),
+                        formater(entree.getKey(), avant), formater(entree.getKey(), apres), ecart));
+            }
+            return texte.toString();
+        }
+
+        /**
+         * Met en forme une valeur selon sa nature : latences en microsecondes, le reste tel quel.
+         *
+         * @param cle    le nom de la valeur
+         * @param valeur la valeur
+         * @return le texte
+         */
+        private static String formater(String cle, double valeur) {
+            if (Double.isNaN(valeur)) {
+                return "-";
+            } else if (cle.endsWith(".p50") || cle.endsWith(".p99") || cle.endsWith(".p999")
+                    || cle.endsWith(".max")) {
+                return String.format(Locale.ROOT, "%.1f us", valeur / 1e3);
+            }
+            return String.format(Locale.ROOT, "%.1f", valeur);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texte = new StringBuilder();
+            for (Map.Entry<String, Double> entree : valeurs.entrySet()) {
+                texte.append(String.format(Locale.ROOT, "%-14s %14s%n", entree.getKey(),
+                        formater(entree.getKey(), entree.getValue())));
+            }
+            return texte.toString();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package cstjean.mobile.dames;
+
+/**
+ * Histogramme de latences à seaux logarithmiques, dans l’esprit de HdrHistogram.
+ *
+ * <p>
+ * Les valeurs inférieures à {@code 2 × SOUS_SEAUX} sont comptées exactement ; au-delà, chaque
+ * puissance de deux est découpée en {@code SOUS_SEAUX} seaux égaux, si bien que l’erreur relative
+ * d’un percentile ne dépasse jamais {@code 1 / SOUS_SEAUX} (environ 1,6 %), de la nanoseconde
+ * à plusieurs jours, dans un tableau fixe de quelques milliers de compteurs.
+ * </p>
+ *
+ * <p>
+ * Enregistrer une valeur ne fait ni allocation ni synchronisation : chaque fil tient son propre
+ * histogramme, et les histogrammes sont fusionnés à la fin de la mesure.
+ * </p>
+ */
+public final class HistogrammeLatence {
+
+    /** Nombre de bits de précision à l’intérieur d’une puissance de deux. */
+    private static final int PRECISION = 6;
+
+    /** Nombre de seaux par puissance de deux. */
+    private static final int SOUS_SEAUX = 1 << PRECISION;
+
+    /** Nombre total de seaux, jusqu’à {@link Long#MAX_VALUE}. */
+    private static final int NB_SEAUX = (Long.SIZE - PRECISION) * SOUS_SEAUX;
+
+    /** Compteurs des seaux. */
+    private final long[] comptes = new long[NB_SEAUX];
+
+    /** Nombre de valeurs enregistrées. */
+    private long nombre;
+
+    /** Somme des valeurs enregistrées. */
+    private long somme;
+
+    /** Plus petite valeur enregistrée. */
+    private long min = Long.MAX_VALUE;
+
+    /** Plus grande valeur enregistrée. */
+    private long max;
+
+    /**
+     * Enregistre une valeur.
+     *
+     * @param valeur la valeur, typiquement une durée en nanosecondes ; une valeur négative compte pour zéro
+     */
+    public void enregistrer(long valeur) {
+        long v = Math.max(0, valeur);
+        comptes[indice(v)]++;
+        nombre++;
+        somme += v;
+        min = Math.min(min, v);
+        max = Math.max(max, v);
+    }
+
+    /**
+     * Ajoute à cet histogramme les valeurs d’un autre.
+     *
+     * @param autre l’histogramme à fusionner, inchangé
+     */
+    public void fusionner(HistogrammeLatence autre) {
+        for (int i = 0; i < NB_SEAUX; i++) {
+            comptes[i] += autre.comptes[i];
+        }
+        nombre += autre.nombre;
+        somme += autre.somme;
+        min = Math.min(min, autre.min);
+        max = Math.max(max, autre.max);
+    }
+
+    /**
+     * Retourne la valeur sous laquelle se trouve une proportion donnée des valeurs enregistrées.
+     *
+     * @param percentile le percentile, de 0 à 100
+     * @return la plus grande valeur équivalente du seau atteint, bornée par le maximum ;
+     *         zéro si l’histogramme est vide
+     */
+    public long percentile(double percentile) {
+        if (nombre == 0) {
+            return 0;
+        }
+        long rang = Math.max(1, (long) Math.ceil(percentile / 100 * nombre));
+        long cumul = 0;
+        for (int i = 0; i < NB_SEAUX; i++) {
+            cumul += comptes[i];
+            if (cumul >= rang) {
+                return Math.min(max, Math.max(min, borneSuperieure(i)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Retourne le nombre de valeurs enregistrées.
+     *
+     * @return le nombre de valeurs
+     */
+    public long getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Retourne la moyenne des valeurs enregistrées.
+     *
+     * @return la moyenne, ou zéro si l’histogramme est vide
+     */
+    public double getMoyenne() {
+        return nombre == 0 ? 0 : (double) somme / nombre;
+    }
+
+    /**
+     * Retourne la plus petite valeur enregistrée.
+     *
+     * @return le minimum, ou zéro si l’histogramme est vide
+     */
+    public long getMin() {
+        return nombre == 0 ? 0 : min;
+    }
+
+    /**
+     * Retourne la plus grande valeur enregistrée.
+     *
+     * @return le maximum, ou zéro si l’histogramme est vide
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Retourne le seau d’une valeur.
+     *
+     * @param valeur la valeur, positive ou nulle
+     * @return l’indice du seau
+     */
+    static int indice(long valeur) {
+        if (valeur < 2 * SOUS_SEAUX) {
+            return (int) valeur;
+        }
+        int exposant = Long.SIZE - 1 - Long.numberOfLeadingZeros(valeur);
+        int mantisse = (int) (valeur >>> (exposant - PRECISION));
+        return ((exposant - PRECISION + 1) << PRECISION) + mantisse - SOUS_SEAUX;
+    }
+
+    /**
+     * Retourne la plus grande valeur d’un seau.
+     *
+     * @param indice l’indice du seau
+     * @return la plus grande valeur qui tombe dans ce seau
+     */
+    static long borneSuperieure(int indice) {
+        if (indice < 2 * SOUS_SEAUX) {
+            return indice;
+        }
+        int decalage = (indice >>> PRECISION) - 1;
+        long mantisse = (indice & (SOUS_SEAUX - 1)) + SOUS_SEAUX;
+        return ((mantisse + 1) << decalage) - 1;
+    }
+}
@@ -0,0 +1,531 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Index inversé des positions vers les parties qui les ont atteintes.
+ *
+ * <p>
+ * Chaque position, repérée par son hachage de Zobrist, renvoie à la liste des occurrences
+ * (identifiant de partie, demi-coup) où elle est apparue. Le fichier, écrit par {@link EcrivainIndex},
+ * est projeté en mémoire : une recherche lit la table de répartition des 16 bits de poids fort,
+ * cherche par dichotomie parmi les quelques clés du préfixe, puis décode la liste.
+ * </p>
+ *
+ * <p>
+ * La construction rejoue les parties sur des {@link Damier}, en parallèle : chaque fil trie les
+ * occurrences de sa part des parties (tri par base sur le hachage) et en écrit un segment, puis
+ * {@link #fusionner(List, Path)} interclasse les segments triés dans l’index final. La même fusion
+ * sert à ajouter un segment récent à un index existant.
+ * </p>
+ *
+ * <p>
+ * Une occurrence est codée sur un {@code long} : l’identifiant de partie sur les 48 bits de poids fort,
+ * le demi-coup sur les 16 bits de poids faible ; l’ordre des entiers est donc celui des parties, puis des coups.
+ * </p>
+ */
+public class IndexPositions implements AutoCloseable {
+
+    /** Nombre de bits du demi-coup dans une occurrence. */
+    private static final int BITS_DEMI_COUP = 16;
+
+    /** Plus grand identifiant de partie représentable dans une occurrence (48 bits). */
+    public static final long PARTIE_MAX = (1L << (Long.SIZE - BITS_DEMI_COUP)) - 1;
+
+    /** Plus grand demi-coup représentable dans une occurrence (16 bits). */
+    public static final int DEMI_COUP_MAX = (1 << BITS_DEMI_COUP) - 1;
+
+    /** Nombre de bits traités par passe du tri par base. */
+    private static final int BITS_PASSE = 16;
+
+    /** L’arène qui possède la projection. */
+    private final Arena arene;
+
+    /** La projection du fichier. */
+    private final MemorySegment projection;
+
+    /** Le nombre de clés. */
+    private final long nombreCles;
+
+    /** Le décalage de la table des clés. */
+    private final long debutCles;
+
+    /** Le décalage de la table de répartition. */
+    private final long debutRepartition;
+
+    /**
+     * Construit un index sur une projection vérifiée.
+     *
+     * @param arene      l’arène qui possède la projection
+     * @param projection la projection du fichier
+     */
+    private IndexPositions(Arena arene, MemorySegment projection) {
+        this.arene = arene;
+        this.projection = projection;
+        this.nombreCles = projection.get(FichiersBinaires.LONG, 8);
+        this.debutCles = projection.get(FichiersBinaires.LONG, 16);
+        this.debutRepartition = projection.get(FichiersBinaires.LONG, 24);
+    }
+
+    /**
+     * Projette en mémoire un fichier d’index.
+     *
+     * @param fichier le fichier écrit par {@link EcrivainIndex}
+     * @return l’index
+     * @throws IOException si le fichier est illisible ou invalide
+     */
+    public static IndexPositions ouvrir(Path fichier) throws IOException {
+        Arena arene = Arena.ofShared();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            MemorySegment projection = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size(), arene);
+            long tailleRepartition = ((1L << EcrivainIndex.BITS_REPARTITION) + 1) * Long.BYTES;
+            if (projection.byteSize() < EcrivainIndex.TAILLE_ENTETE + tailleRepartition
+                    || projection.get(FichiersBinaires.INT, 0) != EcrivainIndex.MAGIQUE
+                    || projection.get(FichiersBinaires.INT, 4) != EcrivainIndex.VERSION
+                    || projection.get(FichiersBinaires.LONG, 16)
+                    + projection.get(FichiersBinaires.LONG, 8) * EcrivainIndex.TAILLE_CLE
+                    != projection.get(FichiersBinaires.LONG, 24)
+                    || projection.get(FichiersBinaires.LONG, 24) + tailleRepartition != projection.byteSize()) {
+                throw new IOException("Index invalide : " + fichier);
+            }
+            return new IndexPositions(arene, projection);
+        } catch (IOException | RuntimeException e) {
+            arene.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Construit un index à partir de parties archivées, en parallèle.
+     *
+     * @param parties les parties ; leurs identifiants doivent tenir sur 48 bits
+     * @param fichier le fichier d’index à créer
+     * @param nbFils  le nombre de fils, donc de segments intermédiaires
+     * @return l’index ouvert
+     * @throws IllegalArgumentException si une partie ne peut être codée en occurrences
+     *                                  (voir {@link #occurrence(long, int)})
+     * @throws IOException              si un fichier ne peut être écrit
+     * @throws InterruptedException     si l’attente est interrompue
+     */
+    public static IndexPositions construire(List<PartieArchivee> parties, Path fichier, int nbFils)
+            throws IOException, InterruptedException {
+        for (PartieArchivee partie : parties) {
+            occurrence(partie.getId(), partie.getNombreCoups());
+        }
+        int nbSegments = Math.max(1, Math.min(nbFils, parties.size()));
+        List<Path> segments = new ArrayList<>(nbSegments);
+        for (int s = 0; s < nbSegments; s++) {
+            segments.add(fichier.resolveSibling(fichier.getFileName() + String.format(".segment-%05d", s)));
+        }
+        ExecutorService executeur = Executors.newFixedThreadPool(nbSegments);
+        try {
+            List<Future<Void>> futurs = new ArrayList<>(nbSegments);
+            for (int s = 0; s < nbSegments; s++) {
+                List<PartieArchivee> part = parties.subList(parties.size() * s / nbSegments,
+                        parties.size() * (s + 1) / nbSegments);
+                Path segment = segments.get(s);
+                futurs.add(executeur.submit(() -> {
+                    ecrireSegment(part, segment);
+                    return null;
+                }));
+            }
+            for (Future<Void> futur : futurs) {
+                futur.get();
+            }
+            fusionner(segments, fichier);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executeur.shutdownNow();
+            for (Path segment : segments) {
+                Files.deleteIfExists(segment);
+            }
+        }
+        return ouvrir(fichier);
+    }
+
+    /**
+     * Rejoue des parties sur un {@link Damier} et écrit l’index trié de leurs positions.
+     *
+     * <p>
+     * Une partie est rejouée par {@link Damier#rejouer(int, int)} jusqu’à son dernier coup, ou jusqu’au
+     * premier coup illégal. Les règles de nulle ne l’interrompent pas : une partie archivée peut continuer
+     * au-delà d’une nulle réclamable.
+     * </p>
+     *
+     * @param parties les parties
+     * @param segment le fichier du segment
+     * @throws IllegalArgumentException si l’identifiant d’une partie dépasse {@link #PARTIE_MAX}, est négatif,
+     *                                  ou si elle compte plus de {@link #DEMI_COUP_MAX} demi-coups
+     * @throws IOException              si l’écriture échoue
+     */
+    public static void ecrireSegment(List<PartieArchivee> parties, Path segment) throws IOException {
+        int total = 0;
+        for (PartieArchivee partie : parties) {
+            occurrence(partie.getId(), partie.getNombreCoups());
+            total += partie.getNombreCoups() + 1;
+        }
+        long[] hachages = new long[total];
+        long[] occurrences = new long[total];
+        int nombre = 0;
+        Damier damier = null;
+        for (PartieArchivee partie : parties) {
+            if (damier == null || damier.getGeometrie() != partie.getGeometrie()) {
+                damier = new Damier(partie.getGeometrie());
+            }
+            Position.initiale(partie.getGeometrie()).copierDans(damier);
+            hachages[nombre] = damier.getHachage();
+            occurrences[nombre++] = occurrence(partie.getId(), 0);
+            for (int i = 0; i < partie.getNombreCoups(); i++) {
+                int coup = partie.getCoup(i);
+                if (!ResultatCoup.estAccepte(damier.rejouer(Coup.depart(coup), Coup.arrivee(coup)))) {
+                    break;
+                }
+                hachages[nombre] = damier.getHachage();
+                occurrences[nombre++] = occurrence(partie.getId(), i + 1);
+            }
+        }
+        trier(hachages, occurrences, nombre);
+        try (EcrivainIndex ecrivain = new EcrivainIndex(segment)) {
+            int debut = 0;
+            while (debut < nombre) {
+                int fin = debut + 1;
+                while (fin < nombre && hachages[fin] == hachages[debut]) {
+                    fin++;
+                }
+                // Le tri par base est stable mais l’ordre des parties fournies est quelconque.
+                Arrays.sort(occurrences, debut, fin);
+                ecrivain.ajouter(hachages[debut], occurrences, debut, fin - debut);
+                debut = fin;
+            }
+        }
+    }
+
+    /**
+     * Interclasse des index triés dans un nouvel index ; les listes d’une même position sont réunies.
+     *
+     * <p>
+     * L’index fusionné est écrit dans un fichier temporaire voisin, puis renommé atomiquement :
+     * la destination peut donc être l’un des index fusionnés.
+     * </p>
+     *
+     * @param segments    les index à fusionner
+     * @param destination le fichier de l’index fusionné, remplacé s’il existe
+     * @throws IOException si un fichier ne peut être lu ou écrit
+     */
+    public static void fusionner(List<Path> segments, Path destination) throws IOException {
+        Path cible = destination.toAbsolutePath();
+        Path temporaire = Files.createTempFile(cible.getParent(), cible.getFileName().toString(), ".tmp");
+        try {
+            interclasser(segments, temporaire);
+            Files.move(temporaire, cible, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    /**
+     * Interclasse des index triés dans un fichier.
+     *
+     * @param segments    les index à fusionner
+     * @param destination le fichier écrit, tronqué s’il existe
+     * @throws IOException si un fichier ne peut être lu ou écrit
+     */
+    private static void interclasser(List<Path> segments, Path destination) throws IOException {
+        List<IndexPositions> sources = new ArrayList<>(segments.size());
+        try (EcrivainIndex ecrivain = new EcrivainIndex(destination)) {
+            for (Path segment : segments) {
+                sources.add(ouvrir(segment));
+            }
+            long[] curseurs = new long[sources.size()];
+            long[] tampon = new long[64];
+            while (true) {
+                // Le nombre de segments est petit : une recherche linéaire du minimum suffit.
+                long minimum = 0;
+                boolean trouve = false;
+                for (int s = 0; s < sources.size(); s++) {
+                    if (curseurs[s] < sources.get(s).nombreCles) {
+                        long cle = sources.get(s).cle(curseurs[s]);
+                        if (!trouve || Long.compareUnsigned(cle, minimum) < 0) {
+                            minimum = cle;
+                            trouve = true;
+                        }
+                    }
+                }
+                if (!trouve) {
+                    break;
+                }
+                int nombre = 0;
+                for (int s = 0; s < sources.size(); s++) {
+                    IndexPositions source = sources.get(s);
+                    if (curseurs[s] < source.nombreCles && source.cle(curseurs[s]) == minimum) {
+                        long decalage = source.decalageListe(curseurs[s]);
+                        int compte = (int) new Lecture(source.projection, decalage).suivant();
+                        if (tampon.length < nombre + compte) {
+                            tampon = Arrays.copyOf(tampon, Math.max(tampon.length * 2, nombre + compte));
+                        }
+                        nombre += source.decoder(decalage, tampon, nombre);
+                        curseurs[s]++;
+                    }
+                }
+                Arrays.sort(tampon, 0, nombre);
+                ecrivain.ajouter(minimum, tampon, 0, nombre);
+            }
+        } finally {
+            for (IndexPositions source : sources) {
+                source.close();
+            }
+        }
+    }
+
+    /**
+     * Code une occurrence.
+     *
+     * @param partie   l’identifiant de la partie, de 0 à {@link #PARTIE_MAX}
+     * @param demiCoup le demi-coup, de 0 à {@link #DEMI_COUP_MAX}
+     * @return l’occurrence codée
+     * @throws IllegalArgumentException si l’un des deux est hors limites
+     */
+    public static long occurrence(long partie, int demiCoup) {
+        if (partie < 0 || partie > PARTIE_MAX) {
+            throw new IllegalArgumentException("Identifiant de partie hors limites : " + partie);
+        }
+        if (demiCoup < 0 || demiCoup > DEMI_COUP_MAX) {
+            throw new IllegalArgumentException("Demi-coup hors limites : " + demiCoup);
+        }
+        return partie << BITS_DEMI_COUP | demiCoup;
+    }
+
+    /**
+     * Extrait l’identifiant de partie d’une occurrence.
+     *
+     * @param occurrence l’occurrence codée
+     * @return l’identifiant de la partie
+     */
+    public static long partie(long occurrence) {
+        return occurrence >>> BITS_DEMI_COUP;
+    }
+
+    /**
+     * Extrait le demi-coup d’une occurrence.
+     *
+     * @param occurrence l’occurrence codée
+     * @return le demi-coup
+     */
+    public static int demiCoup(long occurrence) {
+        return (int) (occurrence & DEMI_COUP_MAX);
+    }
+
+    /**
+     * Retourne le nombre de positions distinctes de l’index.
+     *
+     * @return le nombre de clés
+     */
+    public long getNombreCles() {
+        return nombreCles;
+    }
+
+    /**
+     * Retourne le nombre d’occurrences d’une position.
+     *
+     * @param hachage le hachage de la position
+     * @return le nombre d’occurrences, ou {@code 0} si elle est absente
+     */
+    public int compter(long hachage) {
+        long cle = chercher(hachage);
+        return cle < 0 ? 0 : (int) new Lecture(projection, decalageListe(cle)).suivant();
+    }
+
+    /**
+     * Retourne toutes les occurrences d’une position.
+     *
+     * @param hachage le hachage de la position
+     * @return les occurrences codées, croissantes ; vide si la position est absente
+     */
+    public long[] rechercher(long hachage) {
+        long cle = chercher(hachage);
+        if (cle < 0) {
+            return new long[0];
+        }
+        long decalage = decalageListe(cle);
+        long[] occurrences = new long[(int) new Lecture(projection, decalage).suivant()];
+        decoder(decalage, occurrences, 0);
+        return occurrences;
+    }
+
+    /**
+     * Retourne toutes les occurrences de la position d’un damier.
+     *
+     * @param damier le damier
+     * @return les occurrences codées, croissantes
+     */
+    public long[] rechercher(Damier damier) {
+        return rechercher(damier.getHachage());
+    }
+
+    /**
+     * Libère la projection.
+     */
+    @Override
+    public void close() {
+        arene.close();
+    }
+
+    /**
+     * Cherche la clé d’un hachage.
+     *
+     * @param hachage le hachage
+     * @return l’indice de la clé, ou {@code -1}
+     */
+    private long chercher(long hachage) {
+        int prefixe = (int) (hachage >>> (Long.SIZE - EcrivainIndex.BITS_REPARTITION));
+        long bas = projection.get(FichiersBinaires.LONG, debutRepartition + (long) prefixe * Long.BYTES);
+        long haut = projection.get(FichiersBinaires.LONG, debutRepartition + (prefixe + 1L) * Long.BYTES) - 1;
+        while (bas <= haut) {
+            long milieu = (bas + haut) >>> 1;
+            int comparaison = Long.compareUnsigned(cle(milieu), hachage);
+            if (comparaison == 0) {
+                return milieu;
+            }
+            if (comparaison < 0) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retourne le hachage d’une clé.
+     *
+     * @param indice l’indice de la clé
+     * @return le hachage
+     */
+    private long cle(long indice) {
+        return projection.get(FichiersBinaires.LONG, debutCles + indice * EcrivainIndex.TAILLE_CLE);
+    }
+
+    /**
+     * Retourne le décalage de la liste d’une clé.
+     *
+     * @param indice l’indice de la clé
+     * @return le décalage dans le fichier
+     */
+    private long decalageListe(long indice) {
+        return projection.get(FichiersBinaires.LONG, debutCles + indice * EcrivainIndex.TAILLE_CLE + Long.BYTES);
+    }
+
+    /**
+     * Décode une liste d’occurrences.
+     *
+     * @param decalage    le décalage de la liste
+     * @param destination le tableau qui reçoit les occurrences
+     * @param depart      l’indice de la première occurrence écrite
+     * @return le nombre d’occurrences décodées
+     */
+    private int decoder(long decalage, long[] destination, int depart) {
+        Lecture lecture = new Lecture(projection, decalage);
+        int nombre = (int) lecture.suivant();
+        long partie = 0;
+        int demiCoup = 0;
+        for (int i = 0; i < nombre; i++) {
+            long ecart = lecture.suivant();
+            int valeur = (int) lecture.suivant();
+            partie += ecart;
+            demiCoup = i > 0 && ecart == 0 ? demiCoup + valeur : valeur;
+            destination[depart + i] = occurrence(partie, demiCoup);
+        }
+        return nombre;
+    }
+
+    /**
+     * Trie deux tableaux parallèles par hachage croissant (ordre non signé), par un tri par base stable.
+     *
+     * @param hachages    les hachages
+     * @param occurrences les occurrences, déplacées avec leur hachage
+     * @param nombre      le nombre d’éléments à trier
+     */
+    static void trier(long[] hachages, long[] occurrences, int nombre) {
+        long[] hachagesTemp = new long[nombre];
+        long[] occurrencesTemp = new long[nombre];
+        int[] comptes = new int[1 << BITS_PASSE];
+        for (int decalage = 0; decalage < Long.SIZE; decalage += BITS_PASSE) {
+            Arrays.fill(comptes, 0);
+            for (int i = 0; i < nombre; i++) {
+                comptes[(int) (hachages[i] >>> decalage) & ((1 << BITS_PASSE) - 1)]++;
+            }
+            int cumul = 0;
+            for (int c = 0; c < comptes.length; c++) {
+                int compte = comptes[c];
+                comptes[c] = cumul;
+                cumul += compte;
+            }
+            for (int i = 0; i < nombre; i++) {
+                int rang = comptes[(int) (hachages[i] >>> decalage) & ((1 << BITS_PASSE) - 1)]++;
+                hachagesTemp[rang] = hachages[i];
+                occurrencesTemp[rang] = occurrences[i];
+            }
+            System.arraycopy(hachagesTemp, 0, hachages, 0, nombre);
+            System.arraycopy(occurrencesTemp, 0, occurrences, 0, nombre);
+        }
+    }
+
+    /**
+     * Lecture séquentielle d’entiers variables dans une projection.
+     */
+    private static final class Lecture {
+
+        /** La projection lue. */
+        private final MemorySegment projection;
+
+        /** Le décalage du prochain octet. */
+        private long decalage;
+
+        /**
+         * Construit une lecture.
+         *
+         * @param projection la projection
+         * @param decalage   le décalage du premier octet
+         */
+        private Lecture(MemorySegment projection, long decalage) {
+            this.projection = projection;
+            this.decalage = decalage;
+        }
+
+        /**
+         * Lit l’entier variable suivant : groupes de 7 bits, du poids faible au poids fort.
+         *
+         * @return la valeur
+         */
+        private long suivant() {
+            long valeur = 0;
+            int bits = 0;
+            byte octet;
+            do {
+                octet = projection.get(ValueLayout.JAVA_BYTE, decalage++);
+                valeur |= (long) (octet & 0x7f) << bits;
+                bits += 7;
+            } while (octet < 0);
+            return valeur;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package cstjean.mobile.dames;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Historique compact d’une partie : les coups codés en {@code int} et, tous les
+ * {@code intervalle} demi-coups, un point de reprise du damier compacté en trois masques.
+ *
+ * <p>
+ * Revenir à n’importe quel demi-coup (revue de partie, reprise de coup) part du point
+ * de reprise précédent et rejoue au plus {@code intervalle - 1} coups, au lieu de rejouer
+ * toute la partie depuis la position initiale. Le journal peut suivre un {@link Damier}
+ * en tant qu’{@link ObservateurDeplacement}.
+ * </p>
+ *
+ * <p>
+ * Le format sérialisé, dans l’ordre de l’octet du {@link ByteBuffer} fourni, est :
+ * {@link #MAGIQUE}, nombre de cases, intervalle et nombre de coups (entiers de 32 bits),
+ * les trois masques et le trait (octet) de la position de départ, puis les coups.
+ * Les points de reprise sont recalculés à la lecture.
+ * </p>
+ */
+public class JournalCoups implements ObservateurDeplacement {
+
+    /** Signature du format sérialisé ({@code "DJRN"}). */
+    public static final int MAGIQUE = 0x4E524A44;
+
+    /** Intervalle par défaut entre deux points de reprise. */
+    public static final int INTERVALLE_DEFAUT = 16;
+
+    /** Taille fixe de l’en-tête sérialisé, en octets. */
+    private static final int TAILLE_ENTETE = 4 * Integer.BYTES + 3 * Long.BYTES + 1;
+
+    /** Nombre de {@code long} par point de reprise. */
+    private static final int LONGS_PAR_POINT = 3;
+
+    /** La position de départ. */
+    private final Position depart;
+
+    /** Le nombre de demi-coups entre deux points de reprise. */
+    private final int intervalle;
+
+    /** Les coups joués. */
+    private int[] coups;
+
+    /** Le nombre de coups joués. */
+    private int nombre;
+
+    /** Points de reprise : blancs, noirs et dames après {@code i × intervalle} demi-coups. */
+    private long[] points;
+
+    /** La position après le dernier coup. */
+    private Position courante;
+
+    /**
+     * Construit un journal vide avec l’intervalle par défaut.
+     *
+     * @param depart la position de départ
+     */
+    public JournalCoups(Position depart) {
+        this(depart, INTERVALLE_DEFAUT);
+    }
+
+    /**
+     * Construit un journal vide.
+     *
+     * @param depart     la position de départ
+     * @param intervalle le nombre de demi-coups entre deux points de reprise
+     */
+    public JournalCoups(Position depart, int intervalle) {
+        if (intervalle < 1) {
+            throw new IllegalArgumentException("Intervalle invalide : " + intervalle);
+        }
+        this.depart = depart;
+        this.intervalle = intervalle;
+        this.coups = new int[64];
+        this.points = new long[LONGS_PAR_POINT * 8];
+        this.courante = depart;
+        enregistrerPoint(0, depart);
+    }
+
+    /**
+     * Ajoute un coup au journal.
+     *
+     * @param coup le coup codé selon {@link Coup}, légal dans la position courante
+     */
+    public void ajouter(int coup) {
+        if (nombre == coups.length) {
+            coups = Arrays.copyOf(coups, nombre * 2);
+        }
+        coups[nombre++] = coup;
+        courante = courante.appliquer(coup);
+        if (nombre % intervalle == 0) {
+            enregistrerPoint(nombre / intervalle, courante);
+        }
+    }
+
+    /**
+     * Enregistre le coup joué sur le damier suivi.
+     *
+     * @param damier le damier après le déplacement
+     * @param coup   le coup joué
+     */
+    @Override
+    public void deplacementEffectue(Damier damier, int coup) {
+        ajouter(coup);
+    }
+
+    /**
+     * Retourne la position après un nombre donné de demi-coups.
+     *
+     * @param demiCoup le demi-coup visé (0 à {@link #getNombreCoups()})
+     * @return la position atteinte
+     * @throws IndexOutOfBoundsException si le demi-coup n’existe pas
+     */
+    public Position positionA(int demiCoup) {
+        if (demiCoup < 0 || demiCoup > nombre) {
+            throw new IndexOutOfBoundsException("Demi-coup hors limites : " + demiCoup);
+        }
+        if (demiCoup == nombre) {
+            return courante;
+        }
+        int point = demiCoup / intervalle;
+        int base = point * LONGS_PAR_POINT;
+        Pion.Couleur trait = (point * intervalle) % 2 == 0 ? depart.getTrait() : adversaire(depart.getTrait());
+        Position position = Position.depuisMasques(depart.getGeometrie(), points[base], points[base + 1],
+                points[base + 2], trait);
+        for (int i = point * intervalle; i < demiCoup; i++) {
+            position = position.appliquer(coups[i]);
+        }
+        return position;
+    }
+
+    /**
+     * Place un damier dans l’état atteint après un nombre donné de demi-coups.
+     *
+     * @param demiCoup le demi-coup visé
+     * @param damier   le damier à modifier
+     */
+    public void restaurer(int demiCoup, Damier damier) {
+        positionA(demiCoup).copierDans(damier);
+    }
+
+    /**
+     * Reprend les derniers coups : le journal est tronqué au demi-coup donné.
+     *
+     * @param demiCoup le nombre de coups conservés
+     * @return la position atteinte
+     */
+    public Position tronquer(int demiCoup) {
+        courante = positionA(demiCoup);
+        nombre = demiCoup;
+        return courante;
+    }
+
+    /**
+     * Retourne le nombre de demi-coups du journal.
+     *
+     * @return le nombre de coups
+     */
+    public int getNombreCoups() {
+        return nombre;
+    }
+
+    /**
+     * Retourne un coup du journal.
+     *
+     * @param demiCoup l’indice du coup, à partir de 0
+     * @return le coup codé selon {@link Coup}
+     */
+    public int getCoup(int demiCoup) {
+        if (demiCoup < 0 || demiCoup >= nombre) {
+            throw new IndexOutOfBoundsException("Demi-coup hors limites : " + demiCoup);
+        }
+        return coups[demiCoup];
+    }
+
+    /**
+     * Retourne la position de départ.
+     *
+     * @return la position de départ
+     */
+    public Position getDepart() {
+        return depart;
+    }
+
+    /**
+     * Retourne la position après le dernier coup.
+     *
+     * @return la position courante
+     */
+    public Position getCourante() {
+        return courante;
+    }
+
+    /**
+     * Retourne l’intervalle entre deux points de reprise.
+     *
+     * @return l’intervalle, en demi-coups
+     */
+    public int getIntervalle() {
+        return intervalle;
+    }
+
+    /**
+     * Retourne le nombre d’octets nécessaires à {@link #ecrire(ByteBuffer)}.
+     *
+     * @return la taille sérialisée
+     */
+    public int tailleSerialisee() {
+        return TAILLE_ENTETE + nombre * Integer.BYTES;
+    }
+
+    /**
+     * Écrit le journal à la position courante d’un tampon.
+     *
+     * @param tampon le tampon, avec au moins {@link #tailleSerialisee()} octets disponibles
+     */
+    public void ecrire(ByteBuffer tampon) {
+        tampon.putInt(MAGIQUE)
+                .putInt(depart.getGeometrie().getNbCases())
+                .putInt(intervalle)
+                .putInt(nombre)
+                .putLong(depart.getBlancs())
+                .putLong(depart.getNoirs())
+                .putLong(depart.getDames())
+                .put((byte) (depart.getTrait() == Pion.Couleur.Blanc ? 0 : 1));
+        tampon.asIntBuffer().put(coups, 0, nombre);
+        tampon.position(tampon.position() + nombre * Integer.BYTES);
+    }
+
+    /**
+     * Lit un journal à la position courante d’un tampon et recalcule ses points de reprise.
+     *
+     * @param tampon le tampon
+     * @return le journal lu
+     * @throws IllegalArgumentException si le contenu n’est pas un journal valide
+     */
+    public static JournalCoups lire(ByteBuffer tampon) {
+        try {
+            if (tampon.getInt() != MAGIQUE) {
+                throw new IllegalArgumentException("Journal invalide");
+            }
+            int nbCases = tampon.getInt();
+            Geometrie geometrie = nbCases == Geometrie.HUIT.getNbCases() ? Geometrie.HUIT : Geometrie.DIX;
+            int intervalle = tampon.getInt();
+            int nombre = tampon.getInt();
+            long blancs = tampon.getLong();
+            long noirs = tampon.getLong();
+            long dames = tampon.getLong();
+            Pion.Couleur trait = tampon.get() == 0 ? Pion.Couleur.Blanc : Pion.Couleur.Noir;
+            if (nbCases != geometrie.getNbCases() || nombre < 0 || tampon.remaining() < nombre * Integer.BYTES) {
+                throw new IllegalArgumentException("Journal invalide");
+            }
+            JournalCoups journal = new JournalCoups(Position.depuisMasques(geometrie, blancs, noirs, dames, trait),
+                    intervalle);
+            for (int i = 0; i < nombre; i++) {
+                journal.ajouter(tampon.getInt());
+            }
+            return journal;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Journal tronqué", e);
+        }
+    }
+
+    /**
+     * Enregistre un point de reprise.
+     *
+     * @param indice   l’indice du point
+     * @param position la position à compacter
+     */
+    private void enregistrerPoint(int indice, Position position) {
+        int base = indice * LONGS_PAR_POINT;
+        if (base + LONGS_PAR_POINT > points.length) {
+            points = Arrays.copyOf(points, points.length * 2);
+        }
+        points[base] = position.getBlancs();
+        points[base + 1] = position.getNoirs();
+        points[base + 2] = position.getDames();
+    }
+
+    /**
+     * Retourne la couleur adverse.
+     *
+     * @param couleur une couleur
+     * @return l’autre couleur
+     */
+    private static Pion.Couleur adversaire(Pion.Couleur couleur) {
+        return couleur == Pion.Couleur.Blanc ? Pion.Couleur.Noir : Pion.Couleur.Blanc;
+    }
+}
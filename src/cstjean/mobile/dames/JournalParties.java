@@ -0,0 +1,528 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Journal des parties en cours, en ajout seul, réparti en tranches et résistant aux pannes.
+ *
+ * <p>
+ * Chaque événement (début de partie, coup accepté, fin de partie) est ajouté à la tranche de sa partie,
+ * un fichier de {@link #TAILLE_ENTETE} octets d’en-tête suivi d’enregistrements petit-boutistes de
+ * {@link #TAILLE_ENREGISTREMENT} octets : identifiant de partie, valeur (coup codé selon {@link Coup},
+ * {@code -taille} pour un début de partie ou {@link #FIN} pour une fin), puis somme de contrôle des
+ * douze premiers octets.
+ * </p>
+ *
+ * <p>
+ * Un ajout ne rend la main qu’une fois l’événement écrit sur disque. Les synchronisations sont groupées :
+ * le premier appelant qui attend devient meneur, échange le tampon de la tranche contre le tampon de réserve,
+ * écrit et force l’écriture hors du verrou, pendant que les ajouts suivants s’accumulent dans l’autre tampon ;
+ * un seul {@link FileChannel#force(boolean)} rend ainsi durables les événements de toutes les sessions
+ * qui attendaient.
+ * </p>
+ *
+ * <p>
+ * À l’ouverture, un enregistrement incomplet ou dont la somme de contrôle est fausse marque la fin d’une
+ * écriture interrompue : la tranche est tronquée juste avant. {@link #rejouer(Path, String, int)} relit
+ * les tranches en parallèle et reconstruit le {@link Damier} de chaque partie non terminée.
+ * </p>
+ */
+public class JournalParties implements AutoCloseable {
+
+    /** Signature d’une tranche ({@code "DJPS"}). */
+    public static final int MAGIQUE = 0x53504a44;
+
+    /** Version du format. */
+    public static final int VERSION = 1;
+
+    /** Taille de l’en-tête d’une tranche, en octets. */
+    public static final int TAILLE_ENTETE = 16;
+
+    /** Taille d’un enregistrement, en octets. */
+    public static final int TAILLE_ENREGISTREMENT = 16;
+
+    /** Valeur d’un enregistrement de fin de partie. */
+    public static final int FIN = Integer.MIN_VALUE;
+
+    /** Taille de chacun des deux tampons d’une tranche, en octets. */
+    private static final int TAILLE_TAMPON = 1 << 16;
+
+    /** Sel de la somme de contrôle, pour qu’un enregistrement nul ne soit pas valide. */
+    private static final long SEL_CONTROLE = 0x5851f42d4c957f2dL;
+
+    /** Les tranches. */
+    private final Tranche[] tranches;
+
+    /** Le premier échec d’écriture d’un observateur, relancé par l’ajout ou la fermeture suivante. */
+    private final AtomicReference<IOException> echecObservateur = new AtomicReference<>();
+
+    /**
+     * Une tranche du journal : son fichier, ses deux tampons et l’état de la synchronisation groupée.
+     */
+    private static final class Tranche {
+
+        /** Le canal du fichier. */
+        private final FileChannel canal;
+
+        /** Le verrou de l’état de la tranche. */
+        private final ReentrantLock verrou = new ReentrantLock();
+
+        /** Signalé à la fin de chaque synchronisation. */
+        private final Condition synchronisee = verrou.newCondition();
+
+        /** Le tampon qui reçoit les ajouts. */
+        private ByteBuffer tampon = ByteBuffer.allocateDirect(TAILLE_TAMPON).order(ByteOrder.LITTLE_ENDIAN);
+
+        /** Le tampon écrit par le meneur, ou vide. */
+        private ByteBuffer reserve = ByteBuffer.allocateDirect(TAILLE_TAMPON).order(ByteOrder.LITTLE_ENDIAN);
+
+        /** Numéro du dernier événement placé dans un tampon. */
+        private long ajoutes;
+
+        /** Numéro du dernier événement écrit sur disque. */
+        private long durables;
+
+        /** Vrai pendant qu’un meneur écrit. */
+        private boolean enCours;
+
+        /** Nombre de synchronisations effectuées. */
+        private long synchronisations;
+
+        /** L’échec d’écriture qui a rendu la tranche inutilisable, ou {@code null}. */
+        private IOException echec;
+
+        /**
+         * Construit une tranche sur un canal positionné à la fin des enregistrements valides.
+         *
+         * @param canal le canal
+         */
+        private Tranche(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        /**
+         * Ajoute un enregistrement et attend qu’il soit écrit sur disque.
+         *
+         * @param partie l’identifiant de la partie
+         * @param valeur la valeur de l’enregistrement
+         * @throws IOException si l’écriture échoue
+         */
+        private void ajouter(long partie, int valeur) throws IOException {
+            verrou.lock();
+            try {
+                while (tampon.remaining() < TAILLE_ENREGISTREMENT) {
+                    verifier();
+                    if (enCours) {
+                        synchronisee.awaitUninterruptibly();
+                    } else {
+                        mener();
+                    }
+                }
+                verifier();
+                tampon.putLong(partie).putInt(valeur).putInt(controle(partie, valeur));
+                long numero = ++ajoutes;
+                while (durables < numero) {
+                    verifier();
+                    if (enCours) {
+                        synchronisee.awaitUninterruptibly();
+                    } else {
+                        mener();
+                    }
+                }
+            } finally {
+                verrou.unlock();
+            }
+        }
+
+        /**
+         * Écrit et force le tampon courant, hors du verrou ; appelé verrou tenu, sans meneur en cours.
+         *
+         * @throws IOException si l’écriture échoue
+         */
+        private void mener() throws IOException {
+            enCours = true;
+            ByteBuffer aEcrire = tampon;
+            tampon = reserve;
+            reserve = aEcrire;
+            long cible = ajoutes;
+            IOException erreur = null;
+            verrou.unlock();
+            try {
+                FichiersBinaires.vider(canal, aEcrire);
+                canal.force(false);
+            } catch (IOException e) {
+                erreur = e;
+            } finally {
+                verrou.lock();
+            }
+            enCours = false;
+            if (erreur == null) {
+                durables = cible;
+                synchronisations++;
+            } else {
+                echec = erreur;
+            }
+            synchronisee.signalAll();
+            verifier();
+        }
+
+        /**
+         * Relance l’échec d’écriture précédent, s’il y en a un.
+         *
+         * @throws IOException si une écriture a échoué
+         */
+        private void verifier() throws IOException {
+            if (echec != null) {
+                throw new IOException("Tranche du journal inutilisable", echec);
+            }
+        }
+    }
+
+    /**
+     * Ouvre ou crée un journal.
+     *
+     * <p>
+     * Les tranches existantes sont vérifiées et leurs enregistrements incomplets sont retirés.
+     * </p>
+     *
+     * @param dossier    le dossier des tranches (créé au besoin)
+     * @param prefixe    le préfixe des tranches ({@code prefixe-00000.jrn}, …)
+     * @param nbTranches le nombre de tranches ; il doit rester le même d’une ouverture à l’autre
+     * @throws IOException si une tranche est illisible ou invalide
+     */
+    public JournalParties(Path dossier, String prefixe, int nbTranches) throws IOException {
+        Files.createDirectories(dossier);
+        this.tranches = new Tranche[nbTranches];
+        try {
+            for (int i = 0; i < nbTranches; i++) {
+                Path chemin = dossier.resolve(String.format("%s-%05d.jrn", prefixe, i));
+                FileChannel canal = FileChannel.open(chemin, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                tranches[i] = new Tranche(canal);
+                if (canal.size() == 0) {
+                    ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE).order(ByteOrder.LITTLE_ENDIAN);
+                    entete.putInt(MAGIQUE).putInt(VERSION).putInt(i).putInt(nbTranches);
+                    FichiersBinaires.vider(canal, entete);
+                    canal.force(true);
+                } else {
+                    long valide = longueurValide(chemin, i, nbTranches);
+                    canal.truncate(valide);
+                    canal.position(valide);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            fermer();
+            throw e;
+        }
+    }
+
+    /**
+     * Enregistre le début d’une partie depuis la position initiale.
+     *
+     * @param partie    l’identifiant de la partie
+     * @param geometrie la géométrie du damier
+     * @throws IllegalArgumentException si la géométrie compte plus de {@link Position#CASES_MAX} cases,
+     *                                  la partie ne pouvant alors être rejouée
+     * @throws IOException              si l’écriture échoue
+     */
+    public void commencer(long partie, Geometrie geometrie) throws IOException {
+        Position.verifierGeometrie(geometrie);
+        verifierObservateurs();
+        tranche(partie).ajouter(partie, -geometrie.getTaille());
+    }
+
+    /**
+     * Enregistre un coup accepté.
+     *
+     * @param partie l’identifiant de la partie
+     * @param coup   le coup codé selon {@link Coup}
+     * @throws IOException si l’écriture échoue
+     */
+    public void enregistrer(long partie, int coup) throws IOException {
+        if (coup <= 0) {
+            throw new IllegalArgumentException("Coup invalide : " + coup);
+        }
+        verifierObservateurs();
+        tranche(partie).ajouter(partie, coup);
+    }
+
+    /**
+     * Enregistre la fin d’une partie, qui ne sera plus reconstruite.
+     *
+     * @param partie l’identifiant de la partie
+     * @throws IOException si l’écriture échoue
+     */
+    public void terminer(long partie) throws IOException {
+        verifierObservateurs();
+        tranche(partie).ajouter(partie, FIN);
+    }
+
+    /**
+     * Retourne un observateur qui enregistre chaque coup accepté par un {@link Damier}.
+     *
+     * <p>
+     * L’observateur ne lève rien dans le damier : un échec d’écriture rend le journal inutilisable
+     * et est relancé par l’ajout ou la fermeture suivante.
+     * </p>
+     *
+     * @param partie l’identifiant de la partie suivie
+     * @return l’observateur
+     */
+    public ObservateurDeplacement observateur(long partie) {
+        return (damier, coup) -> {
+            try {
+                enregistrer(partie, coup);
+            } catch (IOException e) {
+                echecObservateur.compareAndSet(null, e);
+            }
+        };
+    }
+
+    /**
+     * Relance l’échec d’écriture d’un observateur, s’il y en a un.
+     *
+     * @throws IOException si un observateur n’a pu enregistrer un coup
+     */
+    private void verifierObservateurs() throws IOException {
+        IOException echec = echecObservateur.get();
+        if (echec != null) {
+            throw new IOException("Coup perdu par un observateur du journal", echec);
+        }
+    }
+
+    /**
+     * Retourne le nombre total de synchronisations sur disque effectuées depuis l’ouverture.
+     *
+     * @return le nombre d’appels à {@link FileChannel#force(boolean)}
+     */
+    public long getSynchronisations() {
+        long total = 0;
+        for (Tranche tranche : tranches) {
+            tranche.verrou.lock();
+            try {
+                total += tranche.synchronisations;
+            } finally {
+                tranche.verrou.unlock();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Ferme les tranches ; tout ajout rendu a déjà été écrit sur disque.
+     *
+     * @throws IOException si une tranche ne peut être fermée, ou si un observateur n’a pu enregistrer un coup
+     */
+    @Override
+    public void close() throws IOException {
+        fermer();
+        verifierObservateurs();
+    }
+
+    /**
+     * Ferme les canaux des tranches ouvertes.
+     *
+     * @throws IOException si une tranche ne peut être fermée
+     */
+    private void fermer() throws IOException {
+        IOException erreur = null;
+        for (Tranche tranche : tranches) {
+            if (tranche == null) {
+                continue;
+            }
+            try {
+                tranche.canal.close();
+            } catch (IOException e) {
+                erreur = e;
+            }
+        }
+        if (erreur != null) {
+            throw erreur;
+        }
+    }
+
+    /**
+     * Relit un journal et reconstruit le damier de chaque partie non terminée.
+     *
+     * <p>
+     * Les tranches sont relues en parallèle ; une partie n’apparaît que dans une seule tranche.
+     * Chaque coup est rejoué sur le {@link Damier}, ce qui rétablit aussi l’historique de la détection
+     * des nulles ; une nulle déjà réclamable n’arrête pas la relecture, mais un coup illégal est ignoré.
+     * La lecture d’une tranche s’arrête au premier enregistrement incomplet ou invalide.
+     * </p>
+     *
+     * @param dossier le dossier des tranches
+     * @param prefixe le préfixe des tranches
+     * @param nbFils  le nombre de fils de relecture
+     * @return les damiers des parties en cours, par identifiant
+     * @throws IOException          si une tranche est illisible ou invalide
+     * @throws InterruptedException si l’attente est interrompue
+     */
+    public static Map<Long, Damier> rejouer(Path dossier, String prefixe, int nbFils)
+            throws IOException, InterruptedException {
+        List<Path> chemins = new ArrayList<>();
+        int nbTranches = 0;
+        while (Files.exists(dossier.resolve(String.format("%s-%05d.jrn", prefixe, nbTranches)))) {
+            chemins.add(dossier.resolve(String.format("%s-%05d.jrn", prefixe, nbTranches)));
+            nbTranches++;
+        }
+        Map<Long, Damier> parties = new ConcurrentHashMap<>();
+        ExecutorService executeur = Executors.newFixedThreadPool(Math.max(1, Math.min(nbFils, nbTranches)));
+        try {
+            List<Future<Void>> futurs = new ArrayList<>(nbTranches);
+            for (int i = 0; i < nbTranches; i++) {
+                Path chemin = chemins.get(i);
+                int numero = i;
+                int total = nbTranches;
+                futurs.add(executeur.submit(() -> {
+                    parties.putAll(rejouerTranche(chemin, numero, total));
+                    return null;
+                }));
+            }
+            for (Future<Void> futur : futurs) {
+                futur.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executeur.shutdownNow();
+        }
+        return parties;
+    }
+
+    /**
+     * Relit une tranche.
+     *
+     * @param chemin     le fichier de la tranche
+     * @param numero     le numéro attendu de la tranche
+     * @param nbTranches le nombre attendu de tranches
+     * @return les damiers des parties en cours de la tranche
+     * @throws IOException si la tranche est illisible ou invalide
+     */
+    private static Map<Long, Damier> rejouerTranche(Path chemin, int numero, int nbTranches) throws IOException {
+        Map<Long, Damier> parties = new HashMap<>();
+        try (Arena arene = Arena.ofConfined();
+             FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            MemorySegment projection = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size(), arene);
+            verifierEntete(projection, chemin, numero, nbTranches);
+            long fin = longueurValide(projection);
+            for (long decalage = TAILLE_ENTETE; decalage < fin; decalage += TAILLE_ENREGISTREMENT) {
+                long partie = projection.get(FichiersBinaires.LONG, decalage);
+                int valeur = projection.get(FichiersBinaires.INT, decalage + 8);
+                if (valeur == FIN) {
+                    parties.remove(partie);
+                } else if (valeur < 0) {
+                    Geometrie geometrie = Geometrie.pourTaille(-valeur);
+                    Damier damier = new Damier(geometrie);
+                    Position.initiale(geometrie).copierDans(damier);
+                    parties.put(partie, damier);
+                } else {
+                    Damier damier = parties.get(partie);
+                    if (damier != null) {
+                        damier.rejouer(Coup.depart(valeur), Coup.arrivee(valeur));
+                    }
+                }
+            }
+        }
+        return parties;
+    }
+
+    /**
+     * Vérifie une tranche existante et retourne la longueur de ses enregistrements valides.
+     *
+     * @param chemin     le fichier de la tranche
+     * @param numero     le numéro attendu de la tranche
+     * @param nbTranches le nombre attendu de tranches
+     * @return la longueur à garder, en octets
+     * @throws IOException si la tranche est illisible ou invalide
+     */
+    private static long longueurValide(Path chemin, int numero, int nbTranches) throws IOException {
+        try (Arena arene = Arena.ofConfined();
+             FileChannel canal = FileChannel.open(chemin, StandardOpenOption.READ)) {
+            MemorySegment projection = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size(), arene);
+            verifierEntete(projection, chemin, numero, nbTranches);
+            return longueurValide(projection);
+        }
+    }
+
+    /**
+     * Vérifie l’en-tête d’une tranche.
+     *
+     * @param projection la projection de la tranche
+     * @param chemin     le fichier de la tranche
+     * @param numero     le numéro attendu de la tranche
+     * @param nbTranches le nombre attendu de tranches
+     * @throws IOException si l’en-tête est invalide
+     */
+    private static void verifierEntete(MemorySegment projection, Path chemin, int numero, int nbTranches)
+            throws IOException {
+        if (projection.byteSize() < TAILLE_ENTETE
+                || projection.get(FichiersBinaires.INT, 0) != MAGIQUE
+                || projection.get(FichiersBinaires.INT, 4) != VERSION
+                || projection.get(FichiersBinaires.INT, 8) != numero
+                || projection.get(FichiersBinaires.INT, 12) != nbTranches) {
+            throw new IOException("Tranche de journal invalide : " + chemin);
+        }
+    }
+
+    /**
+     * Retourne la fin du dernier enregistrement valide d’une tranche.
+     *
+     * @param projection la projection de la tranche
+     * @return la longueur des données valides, en-tête compris
+     */
+    private static long longueurValide(MemorySegment projection) {
+        long decalage = TAILLE_ENTETE;
+        while (decalage + TAILLE_ENREGISTREMENT <= projection.byteSize()
+                && projection.get(FichiersBinaires.INT, decalage + 12)
+                == controle(projection.get(FichiersBinaires.LONG, decalage),
+                projection.get(FichiersBinaires.INT, decalage + 8))) {
+            decalage += TAILLE_ENREGISTREMENT;
+        }
+        return decalage;
+    }
+
+    /**
+     * Calcule la somme de contrôle d’un enregistrement.
+     *
+     * @param partie l’identifiant de la partie
+     * @param valeur la valeur
+     * @return la somme de contrôle
+     */
+    private static int controle(long partie, int valeur) {
+        return (int) Zobrist.melanger(partie * SEL_CONTROLE ^ valeur ^ SEL_CONTROLE);
+    }
+
+    /**
+     * Retourne la tranche d’une partie.
+     *
+     * @param partie l’identifiant de la partie
+     * @return la tranche
+     */
+    private Tranche tranche(long partie) {
+        return tranches[(int) Long.remainderUnsigned(Zobrist.melanger(partie), tranches.length)];
+    }
+}
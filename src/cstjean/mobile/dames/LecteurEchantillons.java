@@ -0,0 +1,289 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Lit sans copie les tranches écrites par {@link EcrivainEchantillons}.
+ *
+ * <p>
+ * Chaque tranche est projetée en mémoire ; les enregistrements sont lus directement dans
+ * la projection, par un indice global qui enchaîne les tranches dans l’ordre.
+ * </p>
+ *
+ * <p>
+ * Le mélange entre tranches ne matérialise aucune permutation : {@link #indiceMelange(long)}
+ * applique une bijection pseudo-aléatoire de {@code [0, n)} (multiplications impaires et
+ * décalages-xor sur la puissance de deux supérieure, puis marche de cycle), ce qui convient
+ * à des milliards d’enregistrements.
+ * </p>
+ */
+public final class LecteurEchantillons implements AutoCloseable {
+
+    /** Nombre de tours de la bijection de mélange. */
+    private static final int TOURS = 3;
+
+    /** Les projections des tranches. */
+    private final MappedByteBuffer[] projections;
+
+    /** Indice global du premier enregistrement de chaque tranche, plus le total à la fin. */
+    private final long[] debuts;
+
+    /** La géométrie des positions lues. */
+    private final Geometrie geometrie;
+
+    /** Masque de la puissance de deux couvrant le nombre d’enregistrements. */
+    private long masque;
+
+    /** Décalage des tours de mélange. */
+    private int decalage;
+
+    /** Multiplicateurs impairs de chaque tour. */
+    private final long[] multiplicateurs = new long[TOURS];
+
+    /** Constantes additives de chaque tour. */
+    private final long[] constantes = new long[TOURS];
+
+    /**
+     * Ouvre une liste de tranches.
+     *
+     * @param tranches les chemins des tranches, dans l’ordre
+     * @throws IOException si une tranche est illisible ou invalide
+     */
+    public LecteurEchantillons(List<Path> tranches) throws IOException {
+        this.projections = new MappedByteBuffer[tranches.size()];
+        this.debuts = new long[tranches.size() + 1];
+        int nbCases = -1;
+        for (int i = 0; i < projections.length; i++) {
+            try (FileChannel canal = FileChannel.open(tranches.get(i), StandardOpenOption.READ)) {
+                MappedByteBuffer projection = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                projection.order(ByteOrder.LITTLE_ENDIAN);
+                if (projection.capacity() < EcrivainEchantillons.TAILLE_ENTETE
+                        || projection.getInt(0) != EcrivainEchantillons.MAGIQUE
+                        || projection.getInt(4) != EcrivainEchantillons.VERSION
+                        || projection.getInt(12) != EcrivainEchantillons.TAILLE_ENREGISTREMENT
+                        || (nbCases >= 0 && projection.getInt(8) != nbCases)) {
+                    throw new IOException("Tranche invalide : " + tranches.get(i));
+                }
+                nbCases = projection.getInt(8);
+                projections[i] = projection;
+                long nombre = (projection.capacity() - EcrivainEchantillons.TAILLE_ENTETE)
+                        / EcrivainEchantillons.TAILLE_ENREGISTREMENT;
+                debuts[i + 1] = debuts[i] + nombre;
+            }
+        }
+        this.geometrie = nbCases == Geometrie.HUIT.getNbCases() ? Geometrie.HUIT : Geometrie.DIX;
+        melanger(0);
+    }
+
+    /**
+     * Ouvre toutes les tranches d’un dossier portant un préfixe donné, dans l’ordre de leur nom.
+     *
+     * @param dossier le dossier
+     * @param prefixe le préfixe des tranches
+     * @return le lecteur
+     * @throws IOException si le dossier ou une tranche est illisible
+     */
+    public static LecteurEchantillons ouvrir(Path dossier, String prefixe) throws IOException {
+        try (Stream<Path> fichiers = Files.list(dossier)) {
+            return new LecteurEchantillons(fichiers
+                    .filter(f -> f.getFileName().toString().startsWith(prefixe + "-"))
+                    .filter(f -> f.getFileName().toString().endsWith(".bin"))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    /**
+     * Retourne le nombre total d’enregistrements.
+     *
+     * @return le nombre d’enregistrements
+     */
+    public long getNombre() {
+        return debuts[debuts.length - 1];
+    }
+
+    /**
+     * Retourne le masque des blancs d’un enregistrement.
+     *
+     * @param indice l’indice global
+     * @return le masque des blancs
+     */
+    public long getBlancs(long indice) {
+        return lireLong(indice, 0);
+    }
+
+    /**
+     * Retourne le masque des noirs d’un enregistrement.
+     *
+     * @param indice l’indice global
+     * @return le masque des noirs
+     */
+    public long getNoirs(long indice) {
+        return lireLong(indice, 8);
+    }
+
+    /**
+     * Retourne le masque des dames d’un enregistrement.
+     *
+     * @param indice l’indice global
+     * @return le masque des dames
+     */
+    public long getDames(long indice) {
+        return lireLong(indice, 16);
+    }
+
+    /**
+     * Retourne le score de recherche d’un enregistrement, du point de vue du trait.
+     *
+     * @param indice l’indice global
+     * @return le score
+     */
+    public int getScore(long indice) {
+        int tranche = tranche(indice);
+        return projections[tranche].getShort(decalage(tranche, indice) + 24);
+    }
+
+    /**
+     * Retourne le numéro du demi-coup d’un enregistrement.
+     *
+     * @param indice l’indice global
+     * @return le demi-coup
+     */
+    public int getDemiCoup(long indice) {
+        int tranche = tranche(indice);
+        return projections[tranche].getShort(decalage(tranche, indice) + 26);
+    }
+
+    /**
+     * Retourne le joueur au trait d’un enregistrement.
+     *
+     * @param indice l’indice global
+     * @return la couleur au trait
+     */
+    public Pion.Couleur getTrait(long indice) {
+        int tranche = tranche(indice);
+        return projections[tranche].get(decalage(tranche, indice) + 28) == 0 ? Pion.Couleur.Blanc : Pion.Couleur.Noir;
+    }
+
+    /**
+     * Retourne le résultat de la partie d’un enregistrement, du point de vue des blancs.
+     *
+     * @param indice l’indice global
+     * @return {@code 1}, {@code 0} ou {@code -1}
+     */
+    public int getResultat(long indice) {
+        int tranche = tranche(indice);
+        return projections[tranche].get(decalage(tranche, indice) + 29);
+    }
+
+    /**
+     * Reconstruit la position d’un enregistrement.
+     *
+     * @param indice l’indice global
+     * @return la position
+     */
+    public Position getPosition(long indice) {
+        return Position.depuisMasques(geometrie, getBlancs(indice), getNoirs(indice), getDames(indice),
+                getTrait(indice));
+    }
+
+    /**
+     * Tire de nouvelles clés de mélange.
+     *
+     * @param graine la graine du mélange
+     */
+    public void melanger(long graine) {
+        long n = Math.max(2, getNombre());
+        int bits = Long.SIZE - Long.numberOfLeadingZeros(n - 1);
+        masque = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+        decalage = Math.max(1, bits / 2 + 1);
+        Xorshift hasard = new Xorshift(graine);
+        for (int t = 0; t < TOURS; t++) {
+            multiplicateurs[t] = hasard.suivant() | 1L;
+            constantes[t] = hasard.suivant();
+        }
+    }
+
+    /**
+     * Retourne l’indice global du {@code rang}-ième enregistrement dans l’ordre mélangé.
+     *
+     * @param rang le rang, entre {@code 0} et {@link #getNombre()} exclu
+     * @return un indice global ; chaque indice apparaît exactement une fois
+     * @throws IndexOutOfBoundsException si le rang est hors limites, en particulier si le lecteur est vide
+     */
+    public long indiceMelange(long rang) {
+        if (rang < 0 || rang >= getNombre()) {
+            throw new IndexOutOfBoundsException("Rang hors limites : " + rang + " sur " + getNombre());
+        }
+        long x = rang;
+        do {
+            for (int t = 0; t < TOURS; t++) {
+                x = (x * multiplicateurs[t] + constantes[t]) & masque;
+                x ^= x >>> decalage;
+            }
+        } while (x >= getNombre());
+        return x;
+    }
+
+    /**
+     * Libère les projections ; la mémoire est rendue au ramasse-miettes.
+     */
+    @Override
+    public void close() {
+        Arrays.fill(projections, null);
+    }
+
+    /**
+     * Retourne la tranche contenant un indice global.
+     *
+     * @param indice l’indice global
+     * @return l’indice de la tranche
+     */
+    private int tranche(long indice) {
+        if (indice < 0 || indice >= getNombre()) {
+            throw new IndexOutOfBoundsException("Indice hors limites : " + indice);
+        }
+        int position = Arrays.binarySearch(debuts, indice);
+        // Les tranches vides répètent le même début : on avance jusqu’à la dernière.
+        if (position >= 0) {
+            while (position + 1 < projections.length && debuts[position + 1] == indice) {
+                position++;
+            }
+            return position;
+        }
+        return -position - 2;
+    }
+
+    /**
+     * Retourne le décalage, dans sa tranche, d’un enregistrement.
+     *
+     * @param tranche l’indice de la tranche
+     * @param indice  l’indice global
+     * @return le décalage en octets
+     */
+    private int decalage(int tranche, long indice) {
+        return EcrivainEchantillons.TAILLE_ENTETE
+                + (int) (indice - debuts[tranche]) * EcrivainEchantillons.TAILLE_ENREGISTREMENT;
+    }
+
+    /**
+     * Lit un entier de 64 bits d’un enregistrement.
+     *
+     * @param indice   l’indice global
+     * @param position la position du champ dans l’enregistrement
+     * @return la valeur
+     */
+    private long lireLong(long indice, int position) {
+        int tranche = tranche(indice);
+        return projections[tranche].getLong(decalage(tranche, indice) + position);
+    }
+}
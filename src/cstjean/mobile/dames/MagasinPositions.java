@@ -0,0 +1,488 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Magasin de positions tassées, stockées hors du tas dans des {@link MemorySegment}.
+ *
+ * <p>
+ * Chaque position occupe un enregistrement petit-boutiste de {@link #TAILLE_ENREGISTREMENT} octets :
+ * </p>
+ * <ul>
+ *     <li>octets 0, 8 et 16 → masques des blancs, des noirs et des dames ;</li>
+ *     <li>octet 24 → identifiant de la partie, sur 32 bits ;</li>
+ *     <li>octet 28 → numéro du demi-coup, sur 16 bits ;</li>
+ *     <li>octet 30 → trait ({@code 0} blancs, {@code 1} noirs) ;</li>
+ *     <li>octet 31 → résultat de la partie du point de vue des blancs ({@code 1}, {@code 0} ou {@code -1}).</li>
+ * </ul>
+ *
+ * <p>
+ * En mémoire, les enregistrements sont rangés dans des blocs de {@link #ENREGISTREMENTS_PAR_BLOC}
+ * alloués au fil des ajouts dans une {@link Arena} partagée : l’agrandissement ne recopie rien et
+ * le ramasse-miettes ne voit que le tableau des blocs. Le magasin s’enregistre dans un fichier
+ * (en-tête de {@link #TAILLE_ENTETE} octets puis enregistrements) que {@link #ouvrir(Path)} projette
+ * en mémoire, en lecture seule, sans le charger.
+ * </p>
+ *
+ * <p>
+ * Les ajouts se font depuis un seul fil ; une fois remplis, les blocs se lisent depuis plusieurs fils.
+ * La mémoire est rendue par {@link #close()}.
+ * </p>
+ */
+public class MagasinPositions implements AutoCloseable {
+
+    /** Signature d’un fichier de magasin ({@code "DMAG"}). */
+    public static final int MAGIQUE = 0x47414d44;
+
+    /** Version du format. */
+    public static final int VERSION = 1;
+
+    /** Taille de l’en-tête d’un fichier, en octets. */
+    public static final int TAILLE_ENTETE = 32;
+
+    /** Taille d’un enregistrement, en octets. */
+    public static final int TAILLE_ENREGISTREMENT = 32;
+
+    /** Plus grand numéro de demi-coup représentable (16 bits non signés). */
+    public static final int DEMI_COUP_MAX = 0xFFFF;
+
+    /** Logarithme en base 2 du nombre d’enregistrements par bloc. */
+    private static final int BITS_BLOC = 16;
+
+    /** Nombre d’enregistrements par bloc (2 Mo par bloc). */
+    public static final int ENREGISTREMENTS_PAR_BLOC = 1 << BITS_BLOC;
+
+    /** L’arène qui possède toute la mémoire du magasin. */
+    private final Arena arene;
+
+    /** La géométrie des positions stockées. */
+    private final Geometrie geometrie;
+
+    /** Vrai si le magasin est une projection de fichier. */
+    private final boolean lectureSeule;
+
+    /** Les blocs d’enregistrements ; seuls les premiers sont utilisés. */
+    private MemorySegment[] blocs;
+
+    /** Le nombre d’enregistrements. */
+    private long nombre;
+
+    /**
+     * Construit un magasin vide, en mémoire.
+     *
+     * @param geometrie la géométrie des positions (au plus 64 cases)
+     * @throws IllegalArgumentException si la géométrie a plus de 64 cases
+     */
+    public MagasinPositions(Geometrie geometrie) {
+        Position.verifierGeometrie(geometrie);
+        this.arene = Arena.ofShared();
+        this.geometrie = geometrie;
+        this.lectureSeule = false;
+        this.blocs = new MemorySegment[4];
+    }
+
+    /**
+     * Construit un magasin sur des blocs existants.
+     *
+     * @param arene     l’arène qui possède les blocs
+     * @param geometrie la géométrie des positions
+     * @param blocs     les blocs
+     * @param nombre    le nombre d’enregistrements
+     */
+    private MagasinPositions(Arena arene, Geometrie geometrie, MemorySegment[] blocs, long nombre) {
+        this.arene = arene;
+        this.geometrie = geometrie;
+        this.lectureSeule = true;
+        this.blocs = blocs;
+        this.nombre = nombre;
+    }
+
+    /**
+     * Projette en mémoire un fichier écrit par {@link #enregistrer(Path)}.
+     *
+     * <p>
+     * Le magasin obtenu est en lecture seule ; les pages du fichier sont chargées à la demande.
+     * </p>
+     *
+     * @param fichier le fichier
+     * @return le magasin
+     * @throws IOException si le fichier est illisible ou invalide
+     */
+    public static MagasinPositions ouvrir(Path fichier) throws IOException {
+        Arena arene = Arena.ofShared();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            MemorySegment projection = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size(), arene);
+            if (projection.byteSize() < TAILLE_ENTETE
+                    || projection.get(FichiersBinaires.INT, 0) != MAGIQUE
+                    || projection.get(FichiersBinaires.INT, 4) != VERSION
+                    || projection.get(FichiersBinaires.INT, 12) != TAILLE_ENREGISTREMENT) {
+                throw new IOException("Magasin invalide : " + fichier);
+            }
+            int nbCases = projection.get(FichiersBinaires.INT, 8);
+            long nombre = projection.get(FichiersBinaires.LONG, 16);
+            if (nbCases != Geometrie.HUIT.getNbCases() && nbCases != Geometrie.DIX.getNbCases()
+                    || nombre < 0 || TAILLE_ENTETE + nombre * TAILLE_ENREGISTREMENT != projection.byteSize()) {
+                throw new IOException("Magasin invalide : " + fichier);
+            }
+            Geometrie geometrie = nbCases == Geometrie.HUIT.getNbCases() ? Geometrie.HUIT : Geometrie.DIX;
+            MemorySegment[] blocs = new MemorySegment[(int) ((nombre + ENREGISTREMENTS_PAR_BLOC - 1) >>> BITS_BLOC)];
+            long tailleBloc = (long) ENREGISTREMENTS_PAR_BLOC * TAILLE_ENREGISTREMENT;
+            for (int b = 0; b < blocs.length; b++) {
+                long debut = TAILLE_ENTETE + b * tailleBloc;
+                blocs[b] = projection.asSlice(debut, Math.min(tailleBloc, projection.byteSize() - debut));
+            }
+            return new MagasinPositions(arene, geometrie, blocs, nombre);
+        } catch (IOException | RuntimeException e) {
+            arene.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Retourne la géométrie des positions stockées.
+     *
+     * @return la géométrie
+     */
+    public Geometrie getGeometrie() {
+        return geometrie;
+    }
+
+    /**
+     * Retourne le nombre d’enregistrements.
+     *
+     * @return le nombre de positions stockées
+     */
+    public long getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Indique si le magasin est une projection de fichier, qui refuse les ajouts.
+     *
+     * @return vrai si le magasin est en lecture seule
+     */
+    public boolean estLectureSeule() {
+        return lectureSeule;
+    }
+
+    /**
+     * Ajoute une position.
+     *
+     * @param position la position
+     * @param partie   l’identifiant de la partie
+     * @param demiCoup le numéro du demi-coup
+     * @param resultat le résultat de la partie du point de vue des blancs
+     * @return l’indice de l’enregistrement
+     * @throws IllegalArgumentException si la position n’a pas la géométrie du magasin,
+     *                                  ou si le demi-coup dépasse {@link #DEMI_COUP_MAX}
+     * @throws IllegalStateException    si le magasin est en lecture seule
+     */
+    public long ajouter(Position position, int partie, int demiCoup, int resultat) {
+        if (position.getGeometrie() != geometrie) {
+            throw new IllegalArgumentException("Géométrie différente : " + position.getGeometrie());
+        }
+        return ajouter(position.getBlancs(), position.getNoirs(), position.getDames(),
+                position.getTrait() == Pion.Couleur.Blanc, partie, demiCoup, resultat);
+    }
+
+    /**
+     * Ajoute une position donnée par ses masques.
+     *
+     * @param blancs     le masque des blancs
+     * @param noirs      le masque des noirs
+     * @param dames      le masque des dames
+     * @param traitBlanc vrai si les blancs ont le trait
+     * @param partie     l’identifiant de la partie
+     * @param demiCoup   le numéro du demi-coup
+     * @param resultat   le résultat de la partie du point de vue des blancs
+     * @return l’indice de l’enregistrement
+     * @throws IllegalArgumentException si le demi-coup est négatif ou dépasse {@link #DEMI_COUP_MAX}
+     * @throws IllegalStateException    si le magasin est en lecture seule
+     */
+    public long ajouter(long blancs, long noirs, long dames, boolean traitBlanc, int partie, int demiCoup,
+                        int resultat) {
+        if (lectureSeule) {
+            throw new IllegalStateException("Magasin en lecture seule.");
+        }
+        if (demiCoup < 0 || demiCoup > DEMI_COUP_MAX) {
+            throw new IllegalArgumentException("Demi-coup hors limites : " + demiCoup);
+        }
+        int b = (int) (nombre >>> BITS_BLOC);
+        if (b == blocs.length) {
+            blocs = Arrays.copyOf(blocs, blocs.length * 2);
+        }
+        if (blocs[b] == null) {
+            blocs[b] = arene.allocate((long) ENREGISTREMENTS_PAR_BLOC * TAILLE_ENREGISTREMENT, Long.BYTES);
+        }
+        MemorySegment bloc = blocs[b];
+        long decalage = decalage(nombre);
+        bloc.set(FichiersBinaires.LONG, decalage, blancs);
+        bloc.set(FichiersBinaires.LONG, decalage + 8, noirs);
+        bloc.set(FichiersBinaires.LONG, decalage + 16, dames);
+        bloc.set(FichiersBinaires.INT, decalage + 24, partie);
+        bloc.set(FichiersBinaires.SHORT, decalage + 28, (short) demiCoup);
+        bloc.set(ValueLayout.JAVA_BYTE, decalage + 30, (byte) (traitBlanc ? 0 : 1));
+        bloc.set(ValueLayout.JAVA_BYTE, decalage + 31, (byte) resultat);
+        return nombre++;
+    }
+
+    /**
+     * Ajoute toutes les positions d’une partie archivée, de la position initiale à la position finale.
+     *
+     * @param partie la partie
+     * @return l’indice du premier enregistrement ajouté
+     * @throws IllegalArgumentException si la partie n’a pas la géométrie du magasin, si son identifiant
+     *                                  ne tient pas sur 32 bits ou si elle dépasse {@link #DEMI_COUP_MAX}
+     *                                  demi-coups ; rien n’est alors ajouté
+     * @throws IllegalStateException    si le magasin est en lecture seule
+     */
+    public long ajouterPartie(PartieArchivee partie) {
+        if (partie.getId() < Integer.MIN_VALUE || partie.getId() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Identifiant de partie hors limites : " + partie.getId());
+        }
+        if (partie.getNombreCoups() > DEMI_COUP_MAX) {
+            throw new IllegalArgumentException("Partie trop longue : " + partie.getNombreCoups() + " demi-coups");
+        }
+        if (partie.getGeometrie() != geometrie) {
+            throw new IllegalArgumentException("Géométrie différente : " + partie.getGeometrie());
+        }
+        long premier = nombre;
+        Position position = Position.initiale(partie.getGeometrie());
+        int id = (int) partie.getId();
+        ajouter(position, id, 0, partie.getResultat());
+        for (int i = 0; i < partie.getNombreCoups(); i++) {
+            position = position.appliquer(partie.getCoup(i));
+            ajouter(position, id, i + 1, partie.getResultat());
+        }
+        return premier;
+    }
+
+    /**
+     * Retourne le masque des blancs d’un enregistrement.
+     *
+     * @param indice l’indice
+     * @return le masque des blancs
+     */
+    public long getBlancs(long indice) {
+        return bloc(indice).get(FichiersBinaires.LONG, decalage(indice));
+    }
+
+    /**
+     * Retourne le masque des noirs d’un enregistrement.
+     *
+     * @param indice l’indice
+     * @return le masque des noirs
+     */
+    public long getNoirs(long indice) {
+        return bloc(indice).get(FichiersBinaires.LONG, decalage(indice) + 8);
+    }
+
+    /**
+     * Retourne le masque des dames d’un enregistrement.
+     *
+     * @param indice l’indice
+     * @return le masque des dames
+     */
+    public long getDames(long indice) {
+        return bloc(indice).get(FichiersBinaires.LONG, decalage(indice) + 16);
+    }
+
+    /**
+     * Retourne l’identifiant de la partie d’un enregistrement.
+     *
+     * @param indice l’indice
+     * @return l’identifiant de la partie
+     */
+    public int getPartie(long indice) {
+        return bloc(indice).get(FichiersBinaires.INT, decalage(indice) + 24);
+    }
+
+    /**
+     * Retourne le numéro du demi-coup d’un enregistrement.
+     *
+     * @param indice l’indice
+     * @return le demi-coup
+     */
+    public int getDemiCoup(long indice) {
+        return Short.toUnsignedInt(bloc(indice).get(FichiersBinaires.SHORT, decalage(indice) + 28));
+    }
+
+    /**
+     * Retourne le joueur au trait d’un enregistrement.
+     *
+     * @param indice l’indice
+     * @return la couleur au trait
+     */
+    public Pion.Couleur getTrait(long indice) {
+        return bloc(indice).get(ValueLayout.JAVA_BYTE, decalage(indice) + 30) == 0
+                ? Pion.Couleur.Blanc : Pion.Couleur.Noir;
+    }
+
+    /**
+     * Retourne le résultat de la partie d’un enregistrement, du point de vue des blancs.
+     *
+     * @param indice l’indice
+     * @return {@code 1}, {@code 0} ou {@code -1}
+     */
+    public int getResultat(long indice) {
+        return bloc(indice).get(ValueLayout.JAVA_BYTE, decalage(indice) + 31);
+    }
+
+    /**
+     * Reconstruit la position d’un enregistrement.
+     *
+     * @param indice l’indice
+     * @return la position
+     */
+    public Position getPosition(long indice) {
+        return Position.depuisMasques(geometrie, getBlancs(indice), getNoirs(indice), getDames(indice),
+                getTrait(indice));
+    }
+
+    /**
+     * Lit les masques d’une suite d’enregistrements dans des tableaux, sans allocation.
+     *
+     * @param debut     l’indice du premier enregistrement
+     * @param blancs    reçoit les masques des blancs
+     * @param noirs     reçoit les masques des noirs
+     * @param dames     reçoit les masques des dames
+     * @param nombreLus le nombre d’enregistrements à lire
+     * @throws IndexOutOfBoundsException si la suite dépasse le magasin
+     */
+    public void lireMasques(long debut, long[] blancs, long[] noirs, long[] dames, int nombreLus) {
+        verifierIntervalle(debut, nombreLus);
+        for (int i = 0; i < nombreLus; i++) {
+            long indice = debut + i;
+            MemorySegment bloc = bloc(indice);
+            long decalage = decalage(indice);
+            blancs[i] = bloc.get(FichiersBinaires.LONG, decalage);
+            noirs[i] = bloc.get(FichiersBinaires.LONG, decalage + 8);
+            dames[i] = bloc.get(FichiersBinaires.LONG, decalage + 16);
+        }
+    }
+
+    /**
+     * Copie une suite d’enregistrements bruts dans un segment, bloc par bloc.
+     *
+     * @param debut       l’indice du premier enregistrement
+     * @param nombreLus   le nombre d’enregistrements à copier
+     * @param destination le segment qui reçoit {@code nombreLus * TAILLE_ENREGISTREMENT} octets
+     * @param decalage    le décalage d’écriture dans la destination, en octets
+     * @throws IndexOutOfBoundsException si la suite dépasse le magasin ou la destination
+     */
+    public void copierVers(long debut, long nombreLus, MemorySegment destination, long decalage) {
+        verifierIntervalle(debut, nombreLus);
+        long indice = debut;
+        long fin = debut + nombreLus;
+        while (indice < fin) {
+            long finBloc = Math.min(fin, ((indice >>> BITS_BLOC) + 1) << BITS_BLOC);
+            long octets = (finBloc - indice) * TAILLE_ENREGISTREMENT;
+            MemorySegment.copy(bloc(indice), decalage(indice), destination, decalage, octets);
+            decalage += octets;
+            indice = finBloc;
+        }
+    }
+
+    /**
+     * Écrit le magasin dans un fichier, que {@link #ouvrir(Path)} pourra projeter en mémoire.
+     *
+     * <p>
+     * Le contenu est d’abord écrit dans un fichier temporaire voisin, puis renommé atomiquement :
+     * un arrêt en cours d’écriture laisse l’ancien fichier intact, et un magasin peut s’enregistrer
+     * sur son propre fichier projeté sans en tronquer la projection.
+     * </p>
+     *
+     * @param fichier le fichier, remplacé s’il existe
+     * @throws IOException si l’écriture échoue
+     */
+    public void enregistrer(Path fichier) throws IOException {
+        Path cible = fichier.toAbsolutePath();
+        Path temporaire = Files.createTempFile(cible.getParent(), cible.getFileName().toString(), ".tmp");
+        try {
+            ecrireDans(temporaire);
+            Files.move(temporaire, cible, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    /**
+     * Écrit l’en-tête et les enregistrements dans un fichier, puis le force sur le disque.
+     *
+     * @param fichier le fichier, tronqué s’il existe
+     * @throws IOException si l’écriture échoue
+     */
+    private void ecrireDans(Path fichier) throws IOException {
+        try (Arena temporaire = Arena.ofConfined();
+             FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            MemorySegment entete = temporaire.allocate(TAILLE_ENTETE, Long.BYTES);
+            entete.set(FichiersBinaires.INT, 0, MAGIQUE);
+            entete.set(FichiersBinaires.INT, 4, VERSION);
+            entete.set(FichiersBinaires.INT, 8, geometrie.getNbCases());
+            entete.set(FichiersBinaires.INT, 12, TAILLE_ENREGISTREMENT);
+            entete.set(FichiersBinaires.LONG, 16, nombre);
+            FichiersBinaires.ecrireTout(canal, entete.asByteBuffer());
+            for (int b = 0; (long) b << BITS_BLOC < nombre; b++) {
+                long utilises = Math.min(ENREGISTREMENTS_PAR_BLOC, nombre - ((long) b << BITS_BLOC));
+                MemorySegment utile = blocs[b].asSlice(0, utilises * TAILLE_ENREGISTREMENT);
+                FichiersBinaires.ecrireTout(canal, utile.asByteBuffer());
+            }
+            canal.force(true);
+        }
+    }
+
+    /**
+     * Libère toute la mémoire du magasin ; les segments obtenus auparavant deviennent inaccessibles.
+     */
+    @Override
+    public void close() {
+        arene.close();
+    }
+
+    /**
+     * Vérifie qu’une suite d’enregistrements est dans le magasin.
+     *
+     * @param debut     l’indice du premier enregistrement
+     * @param nombreLus le nombre d’enregistrements
+     * @throws IndexOutOfBoundsException si la suite dépasse le magasin
+     */
+    private void verifierIntervalle(long debut, long nombreLus) {
+        if (debut < 0 || nombreLus < 0 || debut > nombre - nombreLus) {
+            throw new IndexOutOfBoundsException("Intervalle hors du magasin : " + debut + " + " + nombreLus);
+        }
+    }
+
+    /**
+     * Retourne le bloc d’un enregistrement.
+     *
+     * @param indice l’indice
+     * @return le bloc
+     * @throws IndexOutOfBoundsException si l’indice est hors du magasin
+     */
+    private MemorySegment bloc(long indice) {
+        if (indice < 0 || indice >= nombre) {
+            throw new IndexOutOfBoundsException("Indice hors du magasin : " + indice);
+        }
+        return blocs[(int) (indice >>> BITS_BLOC)];
+    }
+
+    /**
+     * Retourne le décalage d’un enregistrement dans son bloc.
+     *
+     * @param indice l’indice
+     * @return le décalage, en octets
+     */
+    private static long decalage(long indice) {
+        return (indice & (ENREGISTREMENTS_PAR_BLOC - 1)) * (long) TAILLE_ENREGISTREMENT;
+    }
+}
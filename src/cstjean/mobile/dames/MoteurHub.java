@@ -0,0 +1,604 @@
+package cstjean.mobile.dames;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Frontal en ligne de commande qui expose le moteur aux interfaces graphiques par le protocole Hub.
+ *
+ * <p>
+ * Le protocole est textuel : une commande par ligne, suivie de paramètres {@code nom=valeur}
+ * (valeurs entre guillemets si elles contiennent des espaces). Les positions sont données par le trait
+ * ({@code W} ou {@code B}) suivi des 50 cases ({@code w}, {@code b}, {@code W}, {@code B} ou {@code e}),
+ * les coups en notation usuelle, les prises suivies de la case prise ({@code 28x19x23}).
+ * </p>
+ *
+ * <p>
+ * Le fil qui appelle {@link #executer()} est dédié aux entrées-sorties ; chaque recherche s’exécute
+ * sur un fil virtuel, si bien que {@code stop} et {@code ponder-hit} sont traités pendant la réflexion.
+ * Le temps de chaque coup est réparti par {@link GestionTemps} ; la réflexion sur le temps adverse
+ * ne consomme la pendule qu’à partir de {@code ponder-hit}.
+ * Pour un démarrage rapide, la réponse à {@code hub} n’alloue rien : l’évaluation et les tables
+ * de recherche ne sont construites qu’à {@code init}.
+ * </p>
+ */
+public class MoteurHub {
+
+    /** Nom annoncé à l’interface. */
+    public static final String NOM = "Dames";
+
+    /** Version annoncée à l’interface. */
+    public static final String VERSION = "1.0";
+
+    /** Durée de réflexion par coup, en secondes, lorsqu’aucun niveau n’est fixé. */
+    private static final double TEMPS_DEFAUT = 1.0;
+
+    /** Codes des pièces selon {@link Coup}, dans l’ordre du protocole. */
+    private static final String PIECES = "ewWbB";
+
+    /** Les commandes reçues. */
+    private final BufferedReader entree;
+
+    /** Les réponses, partagées entre le fil d’entrées-sorties et celui de la recherche. */
+    private final PrintWriter sortie;
+
+    /** La position à chercher. */
+    private Position position = Position.initiale();
+
+    /** La recherche, construite à l’initialisation. */
+    private RechercheAlphaBeta recherche;
+
+    /** Les fils virtuels des recherches, créés à l’initialisation. */
+    private ExecutorService filRecherche;
+
+    /** Sérialise les lignes envoyées par le fil d’entrées-sorties et celui de la recherche. */
+    private final ReentrantLock verrouSortie = new ReentrantLock();
+
+    /** Protège l’état de la recherche en cours, partagé avec son fil. */
+    private final ReentrantLock verrou = new ReentrantLock();
+
+    /** Signalée lorsqu’une réflexion en attente est confirmée ou arrêtée. */
+    private final Condition decision = verrou.newCondition();
+
+    /** Profondeur maximale fixée par {@code level}. */
+    private int profondeur = RechercheAlphaBeta.PROFONDEUR_MAX;
+
+    /** Budget de nœuds fixé par {@code level}. */
+    private long noeuds = Long.MAX_VALUE;
+
+    /** Temps par coup, en secondes, ou zéro. */
+    private double tempsCoup = TEMPS_DEFAUT;
+
+    /** Temps restant à la pendule, en secondes, ou zéro. */
+    private double temps;
+
+    /** Incrément par coup, en secondes. */
+    private double increment;
+
+    /** Nombre de coups avant le prochain contrôle, ou zéro. */
+    private int coupsRestants;
+
+    /** Vrai si la réflexion ne s’arrête que sur {@code stop}. */
+    private boolean infini;
+
+    /** Vrai pendant une recherche, jusqu’à l’envoi de {@code done}. */
+    private boolean enRecherche;
+
+    /** Vrai tant qu’une réflexion sur le temps adverse n’a pas été confirmée. */
+    private boolean ponderation;
+
+    /** Vrai si la réflexion en cours n’attend que {@code stop} pour répondre. */
+    private boolean analyse;
+
+    /** Vrai si {@code stop} a été reçu pendant la recherche en cours. */
+    private boolean arretDemande;
+
+    /** La gestion du temps de la recherche en cours. */
+    private GestionTemps gestion;
+
+    /** Nombre de coups légaux à la racine de la recherche en cours. */
+    private int coupsRacine;
+
+    /** Début de la recherche en cours, selon {@link System#nanoTime()}. */
+    private volatile long debut;
+
+    /**
+     * Construit un frontal.
+     *
+     * @param entree les commandes de l’interface
+     * @param sortie les réponses à l’interface
+     */
+    public MoteurHub(Reader entree, Writer sortie) {
+        this.entree = new BufferedReader(entree);
+        this.sortie = new PrintWriter(sortie);
+    }
+
+    /**
+     * Traite les commandes jusqu’à {@code quit} ou la fin de l’entrée.
+     *
+     * @throws IOException si l’entrée ne peut être lue
+     */
+    public void executer() throws IOException {
+        try {
+            String ligne;
+            while ((ligne = entree.readLine()) != null) {
+                if (!traiter(ligne.trim())) {
+                    break;
+                }
+            }
+        } finally {
+            arreterRecherche();
+            if (filRecherche != null) {
+                filRecherche.shutdown();
+                try {
+                    filRecherche.awaitTermination(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sortie.flush();
+        }
+    }
+
+    /**
+     * Traite une commande.
+     *
+     * @param ligne la commande
+     * @return faux si le frontal doit s’arrêter
+     */
+    private boolean traiter(String ligne) {
+        if (ligne.isEmpty()) {
+            return true;
+        }
+        int espace = ligne.indexOf(' ');
+        String commande = espace < 0 ? ligne : ligne.substring(0, espace);
+        Map<String, String> arguments = arguments(espace < 0 ? "" : ligne.substring(espace + 1));
+        switch (commande) {
+            case "hub" -> {
+                envoyer("id name=" + NOM + " version=" + VERSION);
+                envoyer("wait");
+            }
+            case "init" -> {
+                initialiser();
+                envoyer("ready");
+            }
+            case "ping" -> envoyer("pong");
+            case "set-param" -> envoyer("error unknown parameter " + arguments.get("name"));
+            case "new-game" -> position = Position.initiale();
+            case "pos" -> positionner(arguments);
+            case "level" -> niveau(arguments);
+            case "go" -> lancer(arguments);
+            case "ponder-hit" -> confirmerPonderation();
+            case "stop" -> arreterRecherche();
+            case "quit" -> {
+                return false;
+            }
+            default -> envoyer("error unknown command " + commande);
+        }
+        return true;
+    }
+
+    /**
+     * Construit l’évaluation, la recherche et son fil, si ce n’est déjà fait.
+     */
+    private void initialiser() {
+        if (recherche != null) {
+            return;
+        }
+        recherche = new RechercheAlphaBeta(new Evaluation());
+        recherche.setSuivi(this::iterationTerminee);
+        filRecherche = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("recherche-hub-", 0).factory());
+    }
+
+    /**
+     * Traite {@code pos} : position de départ et coups joués depuis.
+     *
+     * @param arguments les paramètres {@code pos} et {@code moves}
+     */
+    private void positionner(Map<String, String> arguments) {
+        Position nouvelle = Position.initiale();
+        String texte = arguments.get("pos");
+        if (texte != null) {
+            nouvelle = lirePosition(texte);
+            if (nouvelle == null) {
+                envoyer("error invalid position " + texte);
+                return;
+            }
+        }
+        String coups = arguments.get("moves");
+        if (coups != null) {
+            int[] possibles = new int[GenerateurCoups.COUPS_MAX];
+            for (String notation : coups.trim().split("\\s+")) {
+                if (notation.isEmpty()) {
+                    continue;
+                }
+                int coup = trouverCoup(nouvelle, notation, possibles);
+                if (coup == 0) {
+                    envoyer("error illegal move " + notation);
+                    return;
+                }
+                nouvelle = nouvelle.appliquer(coup);
+            }
+        }
+        position = nouvelle;
+    }
+
+    /**
+     * Traite {@code level} : chaque commande remplace le niveau précédent.
+     *
+     * <p>
+     * Tous les paramètres sont lus avant d’être retenus : un niveau invalide laisse le précédent intact.
+     * </p>
+     *
+     * @param arguments les paramètres du niveau
+     */
+    private void niveau(Map<String, String> arguments) {
+        int nouvelleProfondeur;
+        long nouveauxNoeuds;
+        double nouveauTempsCoup;
+        double nouveauTemps;
+        double nouvelIncrement;
+        int nouveauxCoups;
+        try {
+            nouvelleProfondeur = arguments.containsKey("depth")
+                    ? Integer.parseInt(arguments.get("depth")) : RechercheAlphaBeta.PROFONDEUR_MAX;
+            nouveauxNoeuds = arguments.containsKey("nodes") ? Long.parseLong(arguments.get("nodes")) : Long.MAX_VALUE;
+            nouveauTempsCoup = decimal(arguments, "move-time");
+            nouveauTemps = decimal(arguments, "time");
+            nouvelIncrement = decimal(arguments, "inc");
+            nouveauxCoups = arguments.containsKey("moves") ? Integer.parseInt(arguments.get("moves")) : 0;
+        } catch (NumberFormatException e) {
+            envoyer("error invalid level " + e.getMessage());
+            return;
+        }
+        boolean nouvelInfini = arguments.containsKey("infinite");
+        if (nouveauTempsCoup == 0 && nouveauTemps == 0 && !nouvelInfini
+                && nouvelleProfondeur == RechercheAlphaBeta.PROFONDEUR_MAX && nouveauxNoeuds == Long.MAX_VALUE) {
+            nouveauTempsCoup = TEMPS_DEFAUT;
+        }
+        profondeur = nouvelleProfondeur;
+        noeuds = nouveauxNoeuds;
+        tempsCoup = nouveauTempsCoup;
+        temps = nouveauTemps;
+        increment = nouvelIncrement;
+        coupsRestants = nouveauxCoups;
+        infini = nouvelInfini;
+    }
+
+    /**
+     * Traite {@code go} : lance la recherche sans attendre sa fin.
+     *
+     * @param arguments {@code think}, {@code ponder} ou {@code analyze}
+     */
+    private void lancer(Map<String, String> arguments) {
+        initialiser();
+        Position racine = position;
+        int legaux = GenerateurCoups.generer(racine, new int[GenerateurCoups.COUPS_MAX]);
+        verrou.lock();
+        try {
+            if (enRecherche) {
+                envoyer("error search in progress");
+                return;
+            }
+            enRecherche = true;
+            arretDemande = false;
+            ponderation = arguments.containsKey("ponder");
+            analyse = arguments.containsKey("analyze");
+            coupsRacine = legaux;
+            gestion = gestion();
+            debut = System.nanoTime();
+            if (ponderation || analyse) {
+                recherche.setEcheance(Long.MAX_VALUE);
+            } else {
+                gestion.demarrer(debut, legaux);
+                recherche.setEcheance(gestion.getEcheance());
+            }
+        } finally {
+            verrou.unlock();
+        }
+        recherche.setNoeudsMax(noeuds);
+        int limite = Math.max(1, Math.min(profondeur, RechercheAlphaBeta.PROFONDEUR_MAX));
+        filRecherche.execute(() -> reflechir(racine, limite));
+    }
+
+    /**
+     * Construit la gestion du temps selon le niveau.
+     *
+     * @return la gestion, à démarrer
+     */
+    private GestionTemps gestion() {
+        if (infini) {
+            return GestionTemps.infini();
+        } else if (tempsCoup > 0) {
+            return GestionTemps.fixe(nanosecondes(tempsCoup));
+        } else if (temps > 0) {
+            return GestionTemps.pendule(nanosecondes(temps), nanosecondes(increment), coupsRestants);
+        }
+        return GestionTemps.infini();
+    }
+
+    /**
+     * Traite {@code ponder-hit} : le coup attendu a été joué, la pendule tourne à partir de maintenant.
+     */
+    private void confirmerPonderation() {
+        verrou.lock();
+        try {
+            if (!enRecherche || !ponderation) {
+                return;
+            }
+            ponderation = false;
+            gestion.demarrer(System.nanoTime(), coupsRacine);
+            recherche.setEcheance(gestion.getEcheance());
+            decision.signalAll();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Traite {@code stop} : interrompt immédiatement la recherche en cours, qui répond alors.
+     */
+    private void arreterRecherche() {
+        verrou.lock();
+        try {
+            if (!enRecherche) {
+                return;
+            }
+            arretDemande = true;
+            recherche.arreter();
+            decision.signalAll();
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Effectue une recherche, dans le fil de recherche, puis envoie {@code done}.
+     * Le coup n’est absent que si la position n’a aucun coup légal.
+     *
+     * @param racine la position
+     * @param limite la profondeur maximale
+     */
+    private void reflechir(Position racine, int limite) {
+        recherche.chercher(racine, limite);
+        int[] variante = recherche.getVariante();
+        if (variante.length == 0) {
+            // Une recherche arrêtée avant la fin de sa première itération n’a aucun coup à proposer.
+            int[] legaux = new int[GenerateurCoups.COUPS_MAX];
+            if (GenerateurCoups.generer(racine, legaux) > 0) {
+                variante = new int[] {legaux[0]};
+            }
+        }
+        verrou.lock();
+        try {
+            // Une réflexion sur le temps adverse ou une analyse ne répond qu’une fois confirmée ou arrêtée.
+            while ((ponderation || analyse) && !arretDemande) {
+                decision.awaitUninterruptibly();
+            }
+            StringBuilder reponse = new StringBuilder("done");
+            if (variante.length > 0) {
+                reponse.append(" move=").append(notation(variante[0]));
+            }
+            if (variante.length > 1) {
+                reponse.append(" ponder=").append(notation(variante[1]));
+            }
+            envoyer(reponse.toString());
+            enRecherche = false;
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Envoie une ligne {@code info} à la fin d’une itération, puis arrête la recherche
+     * si {@code stop} a été reçu ou si la gestion du temps le décide.
+     *
+     * @param profondeurAtteinte la profondeur de l’itération
+     * @param score              le score
+     * @param visites            le nombre de nœuds visités
+     */
+    private void iterationTerminee(int profondeurAtteinte, int score, long visites) {
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        StringBuilder pv = new StringBuilder();
+        for (int coup : recherche.getVariante()) {
+            pv.append(pv.length() == 0 ? "" : " ").append(notation(coup));
+        }
+        envoyer(String.format(Locale.ROOT, "info depth=%d score=%d nodes=%d time=%.3f nps=%d pv=\"%s\"",
+                profondeurAtteinte, score, visites, secondes,
+                secondes > 0 ? (long) (visites / secondes) : 0L, pv));
+        verrou.lock();
+        try {
+            // Un stop reçu avant que la recherche n’ait commencé est appliqué dès la première itération.
+            if (arretDemande || !ponderation && !analyse
+                    && gestion.iterationTerminee(System.nanoTime(), recherche.getMeilleurCoup())) {
+                recherche.arreter();
+            }
+        } finally {
+            verrou.unlock();
+        }
+    }
+
+    /**
+     * Envoie une ligne à l’interface.
+     *
+     * @param ligne la ligne
+     */
+    private void envoyer(String ligne) {
+        verrouSortie.lock();
+        try {
+            sortie.print(ligne);
+            sortie.print('\n');
+            sortie.flush();
+        } finally {
+            verrouSortie.unlock();
+        }
+    }
+
+    /**
+     * Découpe les paramètres d’une commande.
+     *
+     * @param texte les paramètres {@code nom=valeur} ou {@code nom}, séparés par des espaces
+     * @return les valeurs par nom ; un paramètre sans valeur est associé à la chaîne vide
+     */
+    private static Map<String, String> arguments(String texte) {
+        Map<String, String> arguments = new HashMap<>();
+        int i = 0;
+        int n = texte.length();
+        while (i < n) {
+            while (i < n && texte.charAt(i) == ' ') {
+                i++;
+            }
+            int debutNom = i;
+            while (i < n && texte.charAt(i) != ' ' && texte.charAt(i) != '=') {
+                i++;
+            }
+            String nom = texte.substring(debutNom, i);
+            String valeur = "";
+            if (i < n && texte.charAt(i) == '=') {
+                i++;
+                int fin;
+                if (i < n && texte.charAt(i) == '"') {
+                    fin = texte.indexOf('"', i + 1);
+                    fin = fin < 0 ? n : fin;
+                    valeur = texte.substring(i + 1, fin);
+                    i = Math.min(n, fin + 1);
+                } else {
+                    fin = texte.indexOf(' ', i);
+                    fin = fin < 0 ? n : fin;
+                    valeur = texte.substring(i, fin);
+                    i = fin;
+                }
+            }
+            if (!nom.isEmpty()) {
+                arguments.put(nom, valeur);
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * Lit un paramètre décimal.
+     *
+     * @param arguments les paramètres
+     * @param nom       le nom du paramètre
+     * @return sa valeur, ou zéro s’il est absent
+     */
+    private static double decimal(Map<String, String> arguments, String nom) {
+        return arguments.containsKey(nom) ? Double.parseDouble(arguments.get(nom)) : 0;
+    }
+
+    /**
+     * Convertit une durée du protocole en nanosecondes.
+     *
+     * @param secondes la durée en secondes
+     * @return la durée en nanosecondes
+     */
+    private static long nanosecondes(double secondes) {
+        return (long) (secondes * 1e9);
+    }
+
+    /**
+     * Lit une position 10 × 10 au format du protocole.
+     *
+     * @param texte le trait suivi des 50 cases
+     * @return la position, ou {@code null} si le texte est invalide
+     */
+    public static Position lirePosition(String texte) {
+        Geometrie geometrie = Geometrie.DIX;
+        if (texte.length() != geometrie.getNbCases() + 1) {
+            return null;
+        }
+        char trait = texte.charAt(0);
+        if (trait != 'W' && trait != 'B') {
+            return null;
+        }
+        long blancs = 0;
+        long noirs = 0;
+        long dames = 0;
+        for (int bit = 0; bit < geometrie.getNbCases(); bit++) {
+            int code = PIECES.indexOf(texte.charAt(bit + 1));
+            if (code < 0) {
+                return null;
+            }
+            long masque = 1L << bit;
+            if (code == Coup.PIECE_PION_BLANC || code == Coup.PIECE_DAME_BLANCHE) {
+                blancs |= masque;
+            } else if (code != Coup.PIECE_AUCUNE) {
+                noirs |= masque;
+            }
+            if (code == Coup.PIECE_DAME_BLANCHE || code == Coup.PIECE_DAME_NOIRE) {
+                dames |= masque;
+            }
+        }
+        return Position.depuisMasques(geometrie, blancs, noirs, dames,
+                trait == 'W' ? Pion.Couleur.Blanc : Pion.Couleur.Noir);
+    }
+
+    /**
+     * Écrit une position au format du protocole.
+     *
+     * @param position la position 10 × 10
+     * @return le trait suivi des 50 cases
+     */
+    public static String ecrirePosition(Position position) {
+        StringBuilder texte = new StringBuilder(position.getTrait() == Pion.Couleur.Blanc ? "W" : "B");
+        for (int p = 1; p <= position.getGeometrie().getNbCases(); p++) {
+            texte.append(PIECES.charAt(position.piece(p)));
+        }
+        return texte.toString();
+    }
+
+    /**
+     * Retrouve le coup légal correspondant à une notation.
+     *
+     * @param position  la position
+     * @param notation  le coup, {@code 32-28} ou {@code 28x19} (cases prises facultatives)
+     * @param possibles tampon pour les coups légaux
+     * @return le coup, ou {@code 0} s’il n’est pas légal
+     */
+    private static int trouverCoup(Position position, String notation, int[] possibles) {
+        String[] cases = notation.split("[-x]");
+        if (cases.length < 2) {
+            return 0;
+        }
+        int depart;
+        int arrivee;
+        try {
+            depart = Integer.parseInt(cases[0]);
+            arrivee = Integer.parseInt(cases[1]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        int n = GenerateurCoups.generer(position, possibles);
+        for (int i = 0; i < n; i++) {
+            if (Coup.depart(possibles[i]) == depart && Coup.arrivee(possibles[i]) == arrivee) {
+                return possibles[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Écrit un coup au format du protocole : notation usuelle, suivie de la case prise.
+     *
+     * @param coup le coup codé
+     * @return la notation
+     */
+    private static String notation(int coup) {
+        if (Coup.piecePrise(coup) == Coup.PIECE_AUCUNE) {
+            return Coup.notation(coup);
+        }
+        return Coup.notation(coup) + "x" + Coup.prise(coup);
+    }
+}
@@ -0,0 +1,411 @@
+package cstjean.mobile.dames;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Moteur de recherche arborescente Monte-Carlo (MCTS) sur des {@link Position}.
+ *
+ * <p>
+ * Plusieurs fils d’exécution font croître un même arbre, sans verrou global :
+ * </p>
+ * <ul>
+ *     <li>les statistiques de chaque nœud sont mises à jour par opérations atomiques ;</li>
+ *     <li>un nœud est développé par une seule comparaison-échange de son tableau d’enfants ;</li>
+ *     <li>une perte virtuelle est ajoutée sur le chemin pendant la descente, ce qui
+ *     détourne les autres fils vers d’autres branches jusqu’à la rétropropagation.</li>
+ * </ul>
+ *
+ * <p>
+ * La sélection suit UCT ou PUCT (voir {@link Selection}). La recherche peut être
+ * interrompue à tout moment : {@link #meilleurCoup()} retourne le coup le plus visité,
+ * dont la qualité s’améliore avec le temps accordé. Après un coup joué, {@link #avancer(int)}
+ * conserve le sous-arbre correspondant pour la recherche suivante.
+ * </p>
+ */
+public class MoteurMcts {
+
+    /**
+     * Formules de sélection disponibles.
+     */
+    public enum Selection {
+        /** UCB1 appliquée aux arbres : {@code Q + c √(ln N / n)}. */
+        Uct,
+        /**
+         * Variante à probabilités a priori : {@code Q + c P √N / (1 + n)}.
+         * Les prises et les promotions reçoivent une probabilité a priori triple des autres coups.
+         */
+        Puct
+    }
+
+    /** Nombre maximal de demi-coups d’une simulation ; au-delà, la partie est comptée nulle. */
+    public static final int DEMI_COUPS_MAX = 200;
+
+    /** Nombre de visites comptées pour chaque perte virtuelle. */
+    private static final int PERTE_VIRTUELLE = 3;
+
+    /** Valeur d’une victoire, en demi-points. */
+    private static final int VICTOIRE = 2;
+
+    /** Valeur d’une nulle, en demi-points. */
+    private static final int NULLE = 1;
+
+    /** La formule de sélection. */
+    private final Selection selection;
+
+    /** La constante d’exploration. */
+    private final double exploration;
+
+    /** La racine courante de l’arbre. */
+    private volatile Noeud racine;
+
+    /** Demande d’arrêt de la recherche en cours. */
+    private volatile boolean arret;
+
+    /**
+     * Nœud de l’arbre de recherche.
+     *
+     * <p>
+     * Les statistiques sont exprimées du point de vue du joueur qui a joué le coup
+     * menant à ce nœud.
+     * </p>
+     */
+    private static final class Noeud {
+
+        /** Mise à jour atomique des visites. */
+        private static final AtomicIntegerFieldUpdater<Noeud> VISITES =
+                AtomicIntegerFieldUpdater.newUpdater(Noeud.class, "visites");
+
+        /** Mise à jour atomique de la somme des résultats. */
+        private static final AtomicLongFieldUpdater<Noeud> SOMME =
+                AtomicLongFieldUpdater.newUpdater(Noeud.class, "somme");
+
+        /** Développement atomique des enfants. */
+        private static final AtomicReferenceFieldUpdater<Noeud, Noeud[]> ENFANTS =
+                AtomicReferenceFieldUpdater.newUpdater(Noeud.class, Noeud[].class, "enfants");
+
+        /** La position de ce nœud. */
+        private final Position position;
+
+        /** Le coup qui mène à ce nœud, ou {@code 0} pour la racine. */
+        private final int coup;
+
+        /** La probabilité a priori du coup (PUCT). */
+        private final double priorite;
+
+        /** Le nombre de visites, pertes virtuelles en cours comprises. */
+        private volatile int visites;
+
+        /** La somme des résultats, en demi-points. */
+        private volatile long somme;
+
+        /** Les enfants, ou {@code null} tant que le nœud n’est pas développé. */
+        private volatile Noeud[] enfants;
+
+        /**
+         * Construit un nœud.
+         *
+         * @param position la position
+         * @param coup     le coup qui y mène
+         * @param priorite la probabilité a priori du coup
+         */
+        private Noeud(Position position, int coup, double priorite) {
+            this.position = position;
+            this.coup = coup;
+            this.priorite = priorite;
+        }
+    }
+
+    /**
+     * Construit un moteur UCT à partir d’une position.
+     *
+     * @param position la position de départ
+     */
+    public MoteurMcts(Position position) {
+        this(position, Selection.Uct, Math.sqrt(2));
+    }
+
+    /**
+     * Construit un moteur à partir d’une position.
+     *
+     * @param position    la position de départ
+     * @param selection   la formule de sélection
+     * @param exploration la constante d’exploration
+     */
+    public MoteurMcts(Position position, Selection selection, double exploration) {
+        this.selection = selection;
+        this.exploration = exploration;
+        this.racine = new Noeud(position, 0, 1.0);
+    }
+
+    /**
+     * Lance la recherche sur plusieurs fils pendant une durée donnée, puis retourne le meilleur coup.
+     *
+     * @param dureeMillis la durée de la recherche, en millisecondes
+     * @param nbFils      le nombre de fils d’exécution
+     * @return le coup le plus visité, ou {@code 0} si la position n’a aucun coup
+     * @throws InterruptedException si le fil appelant est interrompu pendant l’attente ; la recherche
+     *                              est alors arrêtée et tous ses fils sont terminés avant le retour
+     */
+    public int chercher(long dureeMillis, int nbFils) throws InterruptedException {
+        long echeance = System.nanoTime() + dureeMillis * 1_000_000L;
+        arret = false;
+        Thread[] fils = new Thread[nbFils];
+        boolean termine = false;
+        try {
+            for (int i = 0; i < nbFils; i++) {
+                fils[i] = new Thread(() -> travailler(echeance, Long.MAX_VALUE), "mcts-" + i);
+                fils[i].start();
+            }
+            for (Thread f : fils) {
+                f.join();
+            }
+            termine = true;
+        } finally {
+            if (!termine) {
+                arreter();
+                attendreSansInterruption(fils);
+            }
+        }
+        return meilleurCoup();
+    }
+
+    /**
+     * Attend la fin de fils déjà arrêtés, sans céder aux interruptions, qui sont rétablies ensuite.
+     *
+     * @param fils les fils, dont certains peuvent ne pas avoir été créés
+     */
+    private static void attendreSansInterruption(Thread[] fils) {
+        boolean interrompu = false;
+        for (Thread f : fils) {
+            while (f != null && f.isAlive()) {
+                try {
+                    f.join();
+                } catch (InterruptedException e) {
+                    interrompu = true;
+                }
+            }
+        }
+        if (interrompu) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Effectue un nombre donné d’itérations dans le fil appelant.
+     *
+     * @param iterations le nombre d’itérations
+     * @return le coup le plus visité, ou {@code 0} si la position n’a aucun coup
+     */
+    public int chercherIterations(long iterations) {
+        arret = false;
+        travailler(Long.MAX_VALUE, iterations);
+        return meilleurCoup();
+    }
+
+    /**
+     * Demande l’arrêt de la recherche en cours ; les fils terminent leur itération.
+     */
+    public void arreter() {
+        arret = true;
+    }
+
+    /**
+     * Retourne le coup le plus visité à la racine. Peut être appelé pendant la recherche.
+     *
+     * @return le meilleur coup, ou {@code 0} si la racine n’a pas encore d’enfant
+     */
+    public int meilleurCoup() {
+        Noeud[] enfants = racine.enfants;
+        if (enfants == null) {
+            return 0;
+        }
+        Noeud meilleur = null;
+        for (Noeud enfant : enfants) {
+            if (meilleur == null || enfant.visites > meilleur.visites) {
+                meilleur = enfant;
+            }
+        }
+        return meilleur == null ? 0 : meilleur.coup;
+    }
+
+    /**
+     * Retourne le nombre de visites de la racine.
+     *
+     * @return le nombre de simulations terminées depuis la racine
+     */
+    public int getVisites() {
+        return racine.visites;
+    }
+
+    /**
+     * Retourne la valeur estimée de la racine pour le joueur qui a le trait.
+     *
+     * @return la probabilité estimée de gain (une nulle compte pour moitié), entre 0 et 1
+     */
+    public double getValeur() {
+        Noeud r = racine;
+        if (r.visites == 0) {
+            return 0.5;
+        }
+        return 1.0 - r.somme / (double) (VICTOIRE * r.visites);
+    }
+
+    /**
+     * Retourne la position de la racine.
+     *
+     * @return la position courante
+     */
+    public Position getPosition() {
+        return racine.position;
+    }
+
+    /**
+     * Joue un coup à la racine en conservant le sous-arbre correspondant.
+     *
+     * <p>
+     * Ne doit pas être appelé pendant une recherche.
+     * </p>
+     *
+     * @param coup le coup joué
+     */
+    public void avancer(int coup) {
+        Noeud[] enfants = racine.enfants;
+        if (enfants != null) {
+            for (Noeud enfant : enfants) {
+                if (enfant.coup == coup) {
+                    racine = enfant;
+                    return;
+                }
+            }
+        }
+        racine = new Noeud(racine.position.appliquer(coup), 0, 1.0);
+    }
+
+    /**
+     * Boucle de travail d’un fil : sélection, développement, simulation et rétropropagation.
+     *
+     * @param echeance   l’instant limite, selon {@link System#nanoTime()}
+     * @param iterations le nombre maximal d’itérations
+     */
+    private void travailler(long echeance, long iterations) {
+        Noeud[] chemin = new Noeud[DEMI_COUPS_MAX + 2];
+        int[] coups = new int[GenerateurCoups.COUPS_MAX];
+        MoteurPartiesAleatoires simulateur = new MoteurPartiesAleatoires(System.nanoTime()
+                ^ Thread.currentThread().threadId(), DEMI_COUPS_MAX);
+        Noeud depart = racine;
+        for (long i = 0; i < iterations && !arret; i++) {
+            if ((i & 63) == 0 && System.nanoTime() - echeance > 0) {
+                break;
+            }
+            iterer(depart, chemin, coups, simulateur);
+        }
+    }
+
+    /**
+     * Effectue une itération complète à partir d’une racine.
+     *
+     * @param depart     la racine
+     * @param chemin     tampon des nœuds visités
+     * @param coups      tampon de génération des coups
+     * @param simulateur le moteur de parties aléatoires du fil
+     */
+    private void iterer(Noeud depart, Noeud[] chemin, int[] coups, MoteurPartiesAleatoires simulateur) {
+        int profondeur = 0;
+        Noeud noeud = depart;
+        chemin[0] = noeud;
+        Noeud.VISITES.addAndGet(noeud, PERTE_VIRTUELLE);
+        Noeud[] enfants = noeud.enfants;
+        while (enfants != null && enfants.length > 0 && profondeur < DEMI_COUPS_MAX) {
+            noeud = choisir(noeud, enfants);
+            chemin[++profondeur] = noeud;
+            Noeud.VISITES.addAndGet(noeud, PERTE_VIRTUELLE);
+            enfants = noeud.enfants;
+        }
+
+        if (enfants == null && profondeur < DEMI_COUPS_MAX) {
+            enfants = developper(noeud, coups);
+            if (enfants.length > 0) {
+                noeud = choisir(noeud, enfants);
+                chemin[++profondeur] = noeud;
+                Noeud.VISITES.addAndGet(noeud, PERTE_VIRTUELLE);
+            }
+        }
+
+        int gagnant = simulateur.jouer(noeud.position);
+        for (int i = 0; i <= profondeur; i++) {
+            Noeud n = chemin[i];
+            int auteur = n.position.getTrait() == Pion.Couleur.Blanc
+                    ? MoteurPartiesAleatoires.VICTOIRE_NOIRS : MoteurPartiesAleatoires.VICTOIRE_BLANCS;
+            int resultat = gagnant == MoteurPartiesAleatoires.NULLE ? NULLE : gagnant == auteur ? VICTOIRE : 0;
+            Noeud.SOMME.addAndGet(n, resultat);
+            Noeud.VISITES.addAndGet(n, 1 - PERTE_VIRTUELLE);
+            chemin[i] = null;
+        }
+    }
+
+    /**
+     * Développe un nœud en créant un enfant par coup légal.
+     *
+     * @param noeud le nœud à développer
+     * @param coups tampon de génération des coups
+     * @return les enfants du nœud (éventuellement créés par un autre fil)
+     */
+    private Noeud[] developper(Noeud noeud, int[] coups) {
+        int nombre = GenerateurCoups.generer(noeud.position, coups);
+        double total = 0;
+        for (int i = 0; i < nombre; i++) {
+            total += poids(coups[i]);
+        }
+        Noeud[] enfants = new Noeud[nombre];
+        for (int i = 0; i < nombre; i++) {
+            enfants[i] = new Noeud(noeud.position.appliquer(coups[i]), coups[i], poids(coups[i]) / total);
+        }
+        if (Noeud.ENFANTS.compareAndSet(noeud, null, enfants)) {
+            return enfants;
+        }
+        return noeud.enfants;
+    }
+
+    /**
+     * Retourne le poids a priori d’un coup.
+     *
+     * @param coup le coup
+     * @return 3 pour une prise ou une promotion, 1 sinon
+     */
+    private static double poids(int coup) {
+        return Coup.piecePrise(coup) != Coup.PIECE_AUCUNE || Coup.estPromotion(coup) ? 3.0 : 1.0;
+    }
+
+    /**
+     * Choisit l’enfant qui maximise la formule de sélection.
+     *
+     * @param parent   le nœud parent
+     * @param enfants  ses enfants
+     * @return l’enfant choisi
+     */
+    private Noeud choisir(Noeud parent, Noeud[] enfants) {
+        int visitesParent = Math.max(1, parent.visites);
+        double logParent = Math.log(visitesParent);
+        double racineParent = Math.sqrt(visitesParent);
+        Noeud meilleur = enfants[0];
+        double meilleurScore = Double.NEGATIVE_INFINITY;
+        for (Noeud enfant : enfants) {
+            int n = enfant.visites;
+            double score;
+            if (selection == Selection.Uct) {
+                score = n == 0 ? Double.MAX_VALUE
+                        : enfant.somme / (double) (VICTOIRE * n) + exploration * Math.sqrt(logParent / n);
+            } else {
+                double q = n == 0 ? 0.5 : enfant.somme / (double) (VICTOIRE * n);
+                score = q + exploration * enfant.priorite * racineParent / (1 + n);
+            }
+            if (score > meilleurScore) {
+                meilleurScore = score;
+                meilleur = enfant;
+            }
+        }
+        return meilleur;
+    }
+}
@@ -0,0 +1,224 @@
+package cstjean.mobile.dames;
+
+/**
+ * Joue à grande cadence des parties aléatoires jusqu’à leur fin.
+ *
+ * <p>
+ * À partir d’une position, le moteur choisit à chaque demi-coup un coup légal uniformément
+ * au hasard, jusqu’à ce que le joueur au trait n’ait plus de coup (il perd) ou que
+ * la limite de demi-coups soit atteinte (partie nulle).
+ * </p>
+ *
+ * <p>
+ * Le damier est tenu dans trois masques modifiés sur place, les coups sont générés
+ * dans un tampon réutilisé et le hasard vient d’un {@link Xorshift} : une partie
+ * ne fait aucune allocation, sans affichage ni exception. Une instance n’est pas
+ * partagée entre fils d’exécution ; chaque fil crée la sienne.
+ * </p>
+ */
+public class MoteurPartiesAleatoires {
+
+    /** Résultat d’une victoire des blancs. */
+    public static final int VICTOIRE_BLANCS = 1;
+
+    /** Résultat d’une partie nulle. */
+    public static final int NULLE = 0;
+
+    /** Résultat d’une victoire des noirs. */
+    public static final int VICTOIRE_NOIRS = -1;
+
+    /** Limite de demi-coups par défaut. */
+    public static final int DEMI_COUPS_MAX = 200;
+
+    /** Le générateur pseudo-aléatoire. */
+    private final Xorshift hasard;
+
+    /** Le tampon de génération des coups. */
+    private final int[] coups;
+
+    /** La limite de demi-coups d’une partie. */
+    private final int demiCoupsMax;
+
+    /** La géométrie de la partie en cours. */
+    private Geometrie geometrie;
+
+    /** Cases des pièces blanches de la partie en cours. */
+    private long blancs;
+
+    /** Cases des pièces noires de la partie en cours. */
+    private long noirs;
+
+    /** Cases des dames de la partie en cours. */
+    private long dames;
+
+    /** Vrai si les blancs ont le trait. */
+    private boolean traitBlanc;
+
+    /** Nombre de victoires blanches depuis la dernière remise à zéro. */
+    private long victoiresBlanches;
+
+    /** Nombre de victoires noires depuis la dernière remise à zéro. */
+    private long victoiresNoires;
+
+    /** Nombre de nulles depuis la dernière remise à zéro. */
+    private long nulles;
+
+    /** Nombre total de demi-coups joués depuis la dernière remise à zéro. */
+    private long demiCoupsJoues;
+
+    /**
+     * Construit un moteur avec la limite de demi-coups par défaut.
+     *
+     * @param graine la graine du générateur pseudo-aléatoire
+     */
+    public MoteurPartiesAleatoires(long graine) {
+        this(graine, DEMI_COUPS_MAX);
+    }
+
+    /**
+     * Construit un moteur.
+     *
+     * @param graine       la graine du générateur pseudo-aléatoire
+     * @param demiCoupsMax la limite de demi-coups au-delà de laquelle la partie est nulle
+     */
+    public MoteurPartiesAleatoires(long graine, int demiCoupsMax) {
+        this.hasard = new Xorshift(graine);
+        this.coups = new int[GenerateurCoups.COUPS_MAX];
+        this.demiCoupsMax = demiCoupsMax;
+    }
+
+    /**
+     * Joue une partie aléatoire à partir d’un damier.
+     *
+     * @param damier le damier de départ (non modifié)
+     * @return {@link #VICTOIRE_BLANCS}, {@link #NULLE} ou {@link #VICTOIRE_NOIRS}
+     */
+    public int jouer(Damier damier) {
+        return jouer(Position.depuis(damier));
+    }
+
+    /**
+     * Joue une partie aléatoire à partir d’une position.
+     *
+     * @param depart la position de départ
+     * @return {@link #VICTOIRE_BLANCS}, {@link #NULLE} ou {@link #VICTOIRE_NOIRS}
+     */
+    public int jouer(Position depart) {
+        geometrie = depart.getGeometrie();
+        blancs = depart.getBlancs();
+        noirs = depart.getNoirs();
+        dames = depart.getDames();
+        traitBlanc = depart.getTrait() == Pion.Couleur.Blanc;
+        for (int demiCoup = 0; demiCoup < demiCoupsMax; demiCoup++) {
+            int nombre = traitBlanc
+                    ? GenerateurCoups.generer(geometrie, blancs, noirs, dames, true, coups)
+                    : GenerateurCoups.generer(geometrie, noirs, blancs, dames, false, coups);
+            if (nombre == 0) {
+                demiCoupsJoues += demiCoup;
+                if (traitBlanc) {
+                    victoiresNoires++;
+                    return VICTOIRE_NOIRS;
+                }
+                victoiresBlanches++;
+                return VICTOIRE_BLANCS;
+            }
+            appliquer(coups[hasard.suivant(nombre)]);
+        }
+        demiCoupsJoues += demiCoupsMax;
+        nulles++;
+        return NULLE;
+    }
+
+    /**
+     * Joue plusieurs parties aléatoires à partir d’une même position.
+     *
+     * @param depart  la position de départ
+     * @param parties le nombre de parties
+     * @return la proportion de points obtenus par le joueur au trait dans {@code depart}
+     *         (une nulle compte pour moitié)
+     */
+    public double estimer(Position depart, int parties) {
+        long points = 0;
+        int gain = depart.getTrait() == Pion.Couleur.Blanc ? VICTOIRE_BLANCS : VICTOIRE_NOIRS;
+        for (int i = 0; i < parties; i++) {
+            int resultat = jouer(depart);
+            points += resultat == gain ? 2 : resultat == NULLE ? 1 : 0;
+        }
+        return points / (2.0 * parties);
+    }
+
+    /**
+     * Applique un coup sur place aux masques de la partie en cours.
+     *
+     * @param coup le coup codé selon {@link Coup}
+     */
+    private void appliquer(int coup) {
+        int prise = Coup.prise(coup);
+        if (prise != 0) {
+            long garde = ~(1L << (prise - 1));
+            blancs &= garde;
+            noirs &= garde;
+            dames &= garde;
+        }
+        long bitDepart = 1L << (Coup.depart(coup) - 1);
+        long bitArrivee = 1L << (Coup.arrivee(coup) - 1);
+        long bascule = bitDepart | bitArrivee;
+        if (traitBlanc) {
+            blancs ^= bascule;
+        } else {
+            noirs ^= bascule;
+        }
+        if ((dames & bitDepart) != 0) {
+            dames ^= bascule;
+        } else if (Coup.estPromotion(coup)) {
+            dames |= bitArrivee;
+        }
+        traitBlanc = !traitBlanc;
+    }
+
+    /**
+     * Retourne le nombre de victoires blanches depuis la dernière remise à zéro.
+     *
+     * @return le nombre de victoires blanches
+     */
+    public long getVictoiresBlanches() {
+        return victoiresBlanches;
+    }
+
+    /**
+     * Retourne le nombre de victoires noires depuis la dernière remise à zéro.
+     *
+     * @return le nombre de victoires noires
+     */
+    public long getVictoiresNoires() {
+        return victoiresNoires;
+    }
+
+    /**
+     * Retourne le nombre de parties nulles depuis la dernière remise à zéro.
+     *
+     * @return le nombre de nulles
+     */
+    public long getNulles() {
+        return nulles;
+    }
+
+    /**
+     * Retourne le nombre total de demi-coups joués depuis la dernière remise à zéro.
+     *
+     * @return le nombre de demi-coups
+     */
+    public long getDemiCoupsJoues() {
+        return demiCoupsJoues;
+    }
+
+    /**
+     * Remet les statistiques à zéro.
+     */
+    public void reinitialiserStatistiques() {
+        victoiresBlanches = 0;
+        victoiresNoires = 0;
+        nulles = 0;
+        demiCoupsJoues = 0;
+    }
+}
@@ -0,0 +1,21 @@
+package cstjean.mobile.dames;
+
+/**
+ * Observateur notifié après chaque déplacement accepté par un {@link Damier}.
+ *
+ * <p>
+ * Le coup est transmis sous forme codée (voir {@link Coup}) afin qu’aucune
+ * allocation ne soit nécessaire du côté du damier.
+ * </p>
+ */
+@FunctionalInterface
+public interface ObservateurDeplacement {
+
+    /**
+     * Appelé après qu’un déplacement a été appliqué au damier.
+     *
+     * @param damier le damier, déjà mis à jour (le joueur courant est celui qui doit jouer ensuite)
+     * @param coup   le coup joué, codé selon {@link Coup}
+     */
+    void deplacementEffectue(Damier damier, int coup);
+}
@@ -0,0 +1,186 @@
+package cstjean.mobile.dames;
+
+import java.util.Arrays;
+
+/**
+ * Partie terminée, conservée sous forme compacte : la suite de ses coups, son résultat
+ * et, s’ils sont connus, les classements Elo des deux joueurs.
+ *
+ * <p>
+ * Les coups sont codés selon {@link Coup} et se rejouent depuis la position initiale
+ * de la géométrie de la partie.
+ * </p>
+ */
+public final class PartieArchivee {
+
+    /** Résultat d’une victoire des blancs. */
+    public static final int VICTOIRE_BLANCS = MoteurPartiesAleatoires.VICTOIRE_BLANCS;
+
+    /** Résultat d’une partie nulle. */
+    public static final int NULLE = MoteurPartiesAleatoires.NULLE;
+
+    /** Résultat d’une victoire des noirs. */
+    public static final int VICTOIRE_NOIRS = MoteurPartiesAleatoires.VICTOIRE_NOIRS;
+
+    /** Classement d’un joueur inconnu. */
+    public static final int ELO_INCONNU = 0;
+
+    /** L’identifiant de la partie. */
+    private final long id;
+
+    /** La géométrie du damier. */
+    private final Geometrie geometrie;
+
+    /** Les coups joués, dans l’ordre. */
+    private final int[] coups;
+
+    /** Le résultat, du point de vue des blancs. */
+    private final int resultat;
+
+    /** Le classement du joueur des blancs, ou {@link #ELO_INCONNU}. */
+    private final int eloBlancs;
+
+    /** Le classement du joueur des noirs, ou {@link #ELO_INCONNU}. */
+    private final int eloNoirs;
+
+    /**
+     * Construit une partie archivée dont les classements des joueurs sont inconnus.
+     *
+     * @param id        l’identifiant de la partie
+     * @param geometrie la géométrie du damier
+     * @param coups     les coups joués (copiés)
+     * @param resultat  {@link #VICTOIRE_BLANCS}, {@link #NULLE} ou {@link #VICTOIRE_NOIRS}
+     */
+    public PartieArchivee(long id, Geometrie geometrie, int[] coups, int resultat) {
+        this(id, geometrie, coups, resultat, ELO_INCONNU, ELO_INCONNU);
+    }
+
+    /**
+     * Construit une partie archivée.
+     *
+     * @param id        l’identifiant de la partie
+     * @param geometrie la géométrie du damier
+     * @param coups     les coups joués (copiés)
+     * @param resultat  {@link #VICTOIRE_BLANCS}, {@link #NULLE} ou {@link #VICTOIRE_NOIRS}
+     * @param eloBlancs le classement du joueur des blancs, ou {@link #ELO_INCONNU}
+     * @param eloNoirs  le classement du joueur des noirs, ou {@link #ELO_INCONNU}
+     */
+    public PartieArchivee(long id, Geometrie geometrie, int[] coups, int resultat, int eloBlancs, int eloNoirs) {
+        if (resultat < VICTOIRE_NOIRS || resultat > VICTOIRE_BLANCS) {
+            throw new IllegalArgumentException("Résultat invalide : " + resultat);
+        }
+        if (eloBlancs < 0 || eloNoirs < 0) {
+            throw new IllegalArgumentException("Classement invalide : " + eloBlancs + ", " + eloNoirs);
+        }
+        this.id = id;
+        this.geometrie = geometrie;
+        this.coups = coups.clone();
+        this.resultat = resultat;
+        this.eloBlancs = eloBlancs;
+        this.eloNoirs = eloNoirs;
+    }
+
+    /**
+     * Retourne l’identifiant de la partie.
+     *
+     * @return l’identifiant
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Retourne la géométrie du damier.
+     *
+     * @return la géométrie
+     */
+    public Geometrie getGeometrie() {
+        return geometrie;
+    }
+
+    /**
+     * Retourne le nombre de demi-coups de la partie.
+     *
+     * @return le nombre de coups
+     */
+    public int getNombreCoups() {
+        return coups.length;
+    }
+
+    /**
+     * Retourne un coup de la partie.
+     *
+     * @param demiCoup l’indice du demi-coup, à partir de 0
+     * @return le coup codé selon {@link Coup}
+     */
+    public int getCoup(int demiCoup) {
+        return coups[demiCoup];
+    }
+
+    /**
+     * Retourne une copie des coups de la partie.
+     *
+     * @return les coups
+     */
+    public int[] getCoups() {
+        return coups.clone();
+    }
+
+    /**
+     * Retourne le résultat de la partie, du point de vue des blancs.
+     *
+     * @return {@link #VICTOIRE_BLANCS}, {@link #NULLE} ou {@link #VICTOIRE_NOIRS}
+     */
+    public int getResultat() {
+        return resultat;
+    }
+
+    /**
+     * Retourne le classement du joueur des blancs.
+     *
+     * @return le classement, ou {@link #ELO_INCONNU}
+     */
+    public int getEloBlancs() {
+        return eloBlancs;
+    }
+
+    /**
+     * Retourne le classement du joueur des noirs.
+     *
+     * @return le classement, ou {@link #ELO_INCONNU}
+     */
+    public int getEloNoirs() {
+        return eloNoirs;
+    }
+
+    /**
+     * Rejoue la partie jusqu’à un demi-coup donné.
+     *
+     * @param demiCoup le nombre de demi-coups à rejouer
+     * @return la position atteinte
+     */
+    public Position positionApres(int demiCoup) {
+        Position position = Position.initiale(geometrie);
+        for (int i = 0; i < demiCoup; i++) {
+            position = position.appliquer(coups[i]);
+        }
+        return position;
+    }
+
+    @Override
+    public boolean equals(Object autre) {
+        return autre instanceof PartieArchivee p && id == p.id && geometrie == p.geometrie
+                && resultat == p.resultat && eloBlancs == p.eloBlancs && eloNoirs == p.eloNoirs
+                && Arrays.equals(coups, p.coups);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id) * 31 + Arrays.hashCode(coups);
+    }
+
+    @Override
+    public String toString() {
+        return "Partie " + id + " (" + coups.length + " demi-coups, résultat " + resultat + ")";
+    }
+}
@@ -0,0 +1,534 @@
+package cstjean.mobile.dames;
+
+/**
+ * Position immuable d’une partie de dames, codée sur quelques entiers primitifs.
+ *
+ * <p>
+ * Chaque case jouable {@code n} correspond au bit {@code n - 1} de trois masques :
+ * </p>
+ * <ul>
+ *     <li>{@code blancs} → cases occupées par une pièce blanche,</li>
+ *     <li>{@code noirs} → cases occupées par une pièce noire,</li>
+ *     <li>{@code dames} → cases occupées par une dame, quelle que soit sa couleur.</li>
+ * </ul>
+ *
+ * <p>
+ * Appliquer un coup produit une nouvelle position de taille constante,
+ * sans copier de liste ni créer de {@link Pion} ; le hachage de Zobrist
+ * est mis à jour en même temps. Une position se convertit sans perte
+ * vers et depuis un {@link Damier}.
+ * </p>
+ *
+ * <p>
+ * Les masques étant des {@code long}, seules les géométries d’au plus 64 cases
+ * ({@link Geometrie#HUIT} et {@link Geometrie#DIX}) peuvent être représentées.
+ * </p>
+ */
+public final class Position {
+
+    /** Nombre maximal de cases représentables par un masque. */
+    public static final int CASES_MAX = Long.SIZE;
+
+    /** Représentation de chaque code de pièce, dans l’ordre de {@link Coup}. */
+    private static final String REPRESENTATIONS = "-pdPD";
+
+    /** La géométrie du damier. */
+    private final Geometrie geometrie;
+
+    /** Cases occupées par une pièce blanche. */
+    private final long blancs;
+
+    /** Cases occupées par une pièce noire. */
+    private final long noirs;
+
+    /** Cases occupées par une dame. */
+    private final long dames;
+
+    /** La couleur du joueur qui a le trait. */
+    private final Pion.Couleur trait;
+
+    /** Le hachage de Zobrist de la position. */
+    private final long hachage;
+
+    /**
+     * Construit une position à partir de ses masques.
+     *
+     * @param geometrie la géométrie du damier
+     * @param blancs  cases des pièces blanches
+     * @param noirs   cases des pièces noires
+     * @param dames   cases des dames
+     * @param trait   le joueur qui a le trait
+     * @param hachage le hachage de Zobrist correspondant
+     */
+    private Position(Geometrie geometrie, long blancs, long noirs, long dames, Pion.Couleur trait, long hachage) {
+        this.geometrie = geometrie;
+        this.blancs = blancs;
+        this.noirs = noirs;
+        this.dames = dames;
+        this.trait = trait;
+        this.hachage = hachage;
+    }
+
+    /**
+     * Construit une position 10 × 10 à partir de ses masques, en calculant son hachage.
+     *
+     * @param blancs cases des pièces blanches
+     * @param noirs  cases des pièces noires
+     * @param dames  cases des dames
+     * @param trait  le joueur qui a le trait
+     * @return la position
+     * @throws IllegalArgumentException si une case est à la fois blanche et noire,
+     *                                  ou si une dame n’a pas de couleur
+     */
+    public static Position depuisMasques(long blancs, long noirs, long dames, Pion.Couleur trait) {
+        return depuisMasques(Geometrie.DIX, blancs, noirs, dames, trait);
+    }
+
+    /**
+     * Construit une position à partir de ses masques, en calculant son hachage.
+     *
+     * @param geometrie la géométrie du damier
+     * @param blancs    cases des pièces blanches
+     * @param noirs     cases des pièces noires
+     * @param dames     cases des dames
+     * @param trait     le joueur qui a le trait
+     * @return la position
+     * @throws IllegalArgumentException si la géométrie compte plus de {@link #CASES_MAX} cases,
+     *                                  si une case est à la fois blanche et noire, si une dame n’a pas
+     *                                  de couleur ou si une pièce est hors du damier
+     */
+    public static Position depuisMasques(Geometrie geometrie, long blancs, long noirs, long dames,
+                                         Pion.Couleur trait) {
+        verifierGeometrie(geometrie);
+        long horsDamier = geometrie.getNbCases() == CASES_MAX ? 0L : -1L << geometrie.getNbCases();
+        if ((blancs & noirs) != 0 || (dames & ~(blancs | noirs)) != 0 || ((blancs | noirs) & horsDamier) != 0) {
+            throw new IllegalArgumentException("Masques incohérents");
+        }
+        long hachage = trait == Pion.Couleur.Noir ? Zobrist.TRAIT_NOIR : 0L;
+        long occupees = blancs | noirs;
+        while (occupees != 0) {
+            int bit = Long.numberOfTrailingZeros(occupees);
+            occupees &= occupees - 1;
+            hachage ^= Zobrist.cle(bit + 1, codePiece(blancs, dames, bit));
+        }
+        return new Position(geometrie, blancs, noirs, dames, trait, hachage);
+    }
+
+    /**
+     * Vérifie qu’une géométrie peut être représentée par des masques de 64 bits.
+     *
+     * @param geometrie la géométrie à vérifier
+     * @throws IllegalArgumentException si la géométrie compte plus de {@link #CASES_MAX} cases
+     */
+    static void verifierGeometrie(Geometrie geometrie) {
+        if (geometrie.getNbCases() > CASES_MAX) {
+            throw new IllegalArgumentException("Damier " + geometrie + " trop grand pour une position compacte");
+        }
+    }
+
+    /**
+     * Construit la position correspondant à l’état d’un damier.
+     *
+     * @param damier le damier à convertir
+     * @return la position équivalente
+     */
+    public static Position depuis(Damier damier) {
+        Geometrie geometrie = damier.getGeometrie();
+        verifierGeometrie(geometrie);
+        long blancs = 0;
+        long noirs = 0;
+        long dames = 0;
+        for (int position = 1; position <= geometrie.getNbCases(); position++) {
+            Pion pion = damier.recupererPion(position);
+            if (pion == null) {
+                continue;
+            }
+            long bit = 1L << (position - 1);
+            if (pion.getCouleur() == Pion.Couleur.Blanc) {
+                blancs |= bit;
+            } else {
+                noirs |= bit;
+            }
+            if (pion instanceof Dame) {
+                dames |= bit;
+            }
+        }
+        return depuisMasques(geometrie, blancs, noirs, dames, damier.getJoueurCourant());
+    }
+
+    /**
+     * Retourne la position de départ standard du damier 10 × 10 : 20 pions noirs sur les cases 1 à 20,
+     * 20 pions blancs sur les cases 31 à 50, les blancs ayant le trait.
+     *
+     * @return la position initiale
+     */
+    public static Position initiale() {
+        return initiale(Geometrie.DIX);
+    }
+
+    /**
+     * Retourne la position de départ d’une géométrie donnée, les blancs ayant le trait.
+     *
+     * @param geometrie la géométrie du damier
+     * @return la position initiale
+     */
+    public static Position initiale(Geometrie geometrie) {
+        verifierGeometrie(geometrie);
+        int nbPions = geometrie.getPionsDepart();
+        long noirs = (1L << nbPions) - 1;
+        long blancs = noirs << (geometrie.getNbCases() - nbPions);
+        return depuisMasques(geometrie, blancs, noirs, 0L, Pion.Couleur.Blanc);
+    }
+
+    /**
+     * Lit une position 10 × 10 en notation FEN du format PDN ({@code W:W31-50:B1-20}).
+     *
+     * @param fen la notation
+     * @return la position
+     * @throws IllegalArgumentException si la notation est invalide
+     */
+    public static Position depuisFen(String fen) {
+        return depuisFen(Geometrie.DIX, fen);
+    }
+
+    /**
+     * Lit une position en notation FEN du format PDN : le trait, puis les cases des blancs
+     * et des noirs, séparées par des virgules, les dames préfixées de {@code K} et les suites
+     * de cases notées par intervalles ({@code W:WK4,31-35:B1,2,3}). Les guillemets et le point
+     * final sont tolérés.
+     *
+     * @param geometrie la géométrie du damier
+     * @param fen       la notation
+     * @return la position
+     * @throws IllegalArgumentException si la notation est invalide
+     */
+    public static Position depuisFen(Geometrie geometrie, String fen) {
+        verifierGeometrie(geometrie);
+        String texte = fen.replace("\"", "").replaceAll("\\s+", "");
+        if (texte.endsWith(".")) {
+            texte = texte.substring(0, texte.length() - 1);
+        }
+        String[] parties = texte.split(":");
+        if (!parties[0].equals("W") && !parties[0].equals("B")) {
+            throw new IllegalArgumentException("FEN invalide : " + fen);
+        }
+        long[] masques = new long[2];
+        long dames = 0;
+        for (int i = 1; i < parties.length; i++) {
+            String partie = parties[i];
+            if (partie.isEmpty() || partie.charAt(0) != 'W' && partie.charAt(0) != 'B') {
+                throw new IllegalArgumentException("FEN invalide : " + fen);
+            }
+            int couleur = partie.charAt(0) == 'W' ? 0 : 1;
+            for (String element : partie.substring(1).split(",")) {
+                if (element.isEmpty()) {
+                    continue;
+                }
+                boolean dame = element.charAt(0) == 'K';
+                String cases = dame ? element.substring(1) : element;
+                int tiret = cases.indexOf('-');
+                int debut;
+                int fin;
+                try {
+                    debut = Integer.parseInt(tiret < 0 ? cases : cases.substring(0, tiret));
+                    fin = tiret < 0 ? debut : Integer.parseInt(cases.substring(tiret + 1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("FEN invalide : " + fen, e);
+                }
+                if (debut < 1 || fin > geometrie.getNbCases() || debut > fin) {
+                    throw new IllegalArgumentException("FEN invalide : " + fen);
+                }
+                for (int c = debut; c <= fin; c++) {
+                    masques[couleur] |= 1L << (c - 1);
+                    if (dame) {
+                        dames |= 1L << (c - 1);
+                    }
+                }
+            }
+        }
+        Pion.Couleur trait = parties[0].equals("W") ? Pion.Couleur.Blanc : Pion.Couleur.Noir;
+        return depuisMasques(geometrie, masques[0], masques[1], dames, trait);
+    }
+
+    /**
+     * Écrit la position en notation FEN du format PDN, case par case.
+     *
+     * @return la notation, par exemple {@code B:W31,32,K45:B1,2}
+     */
+    public String versFen() {
+        StringBuilder fen = new StringBuilder(trait == Pion.Couleur.Blanc ? "W" : "B");
+        ajouterFen(fen, 'W', blancs);
+        ajouterFen(fen, 'B', noirs);
+        return fen.toString();
+    }
+
+    /**
+     * Ajoute à une notation FEN les cases d’une couleur.
+     *
+     * @param fen     la notation en cours
+     * @param couleur {@code W} ou {@code B}
+     * @param masque  les cases de la couleur
+     */
+    private void ajouterFen(StringBuilder fen, char couleur, long masque) {
+        fen.append(':').append(couleur);
+        boolean premiere = true;
+        while (masque != 0) {
+            int bit = Long.numberOfTrailingZeros(masque);
+            masque &= masque - 1;
+            if (!premiere) {
+                fen.append(',');
+            }
+            premiere = false;
+            if ((dames >>> bit & 1L) != 0) {
+                fen.append('K');
+            }
+            fen.append(bit + 1);
+        }
+    }
+
+    /**
+     * Crée un nouveau damier dans l’état de cette position.
+     *
+     * @return le damier équivalent
+     */
+    public Damier versDamier() {
+        Damier damier = new Damier(geometrie);
+        copierDans(damier);
+        return damier;
+    }
+
+    /**
+     * Remplace le contenu d’un damier existant par cette position.
+     *
+     * @param damier le damier à modifier, de même géométrie que cette position
+     */
+    public void copierDans(Damier damier) {
+        for (int position = 1; position <= geometrie.getNbCases(); position++) {
+            damier.ajouterPion(position, Coup.creerPiece(piece(position)));
+        }
+        damier.setJoueurCourant(trait);
+    }
+
+    /**
+     * Retourne la position obtenue en appliquant un coup, sans vérifier sa légalité.
+     *
+     * <p>
+     * La pièce de la case de départ est déplacée vers la case d’arrivée,
+     * la case prise (s’il y en a une) est vidée, la pièce est promue si le coup
+     * l’indique et le trait passe à l’adversaire. L’opération est en temps et en espace constants.
+     * </p>
+     *
+     * @param coup le coup codé selon {@link Coup}
+     * @return la nouvelle position
+     */
+    public Position appliquer(int coup) {
+        int depart = Coup.depart(coup);
+        int arrivee = Coup.arrivee(coup);
+        int prise = Coup.prise(coup);
+        long bitDepart = 1L << (depart - 1);
+        long bitArrivee = 1L << (arrivee - 1);
+        long b = blancs;
+        long n = noirs;
+        long d = dames;
+        long h = hachage ^ Zobrist.TRAIT_NOIR;
+
+        if (prise != 0) {
+            long bitPrise = ~(1L << (prise - 1));
+            h ^= Zobrist.cle(prise, piece(prise));
+            b &= bitPrise;
+            n &= bitPrise;
+            d &= bitPrise;
+        }
+
+        int piece = piece(depart);
+        boolean blanc = (b & bitDepart) != 0;
+        boolean dame = (d & bitDepart) != 0 || Coup.estPromotion(coup);
+        b &= ~bitDepart;
+        n &= ~bitDepart;
+        d &= ~bitDepart;
+        if (blanc) {
+            b |= bitArrivee;
+        } else {
+            n |= bitArrivee;
+        }
+        if (dame) {
+            d |= bitArrivee;
+        }
+        h ^= Zobrist.cle(depart, piece);
+        h ^= Zobrist.cle(arrivee, dame ? (blanc ? Coup.PIECE_DAME_BLANCHE : Coup.PIECE_DAME_NOIRE) : piece);
+
+        Pion.Couleur suivant = trait == Pion.Couleur.Blanc ? Pion.Couleur.Noir : Pion.Couleur.Blanc;
+        return new Position(geometrie, b, n, d, suivant, h);
+    }
+
+    /**
+     * Retourne le code de la pièce présente sur une case.
+     *
+     * @param position la case
+     * @return le code de la pièce, selon {@link Coup}
+     */
+    public int piece(int position) {
+        int bit = position - 1;
+        if (((blancs | noirs) >>> bit & 1L) == 0) {
+            return Coup.PIECE_AUCUNE;
+        }
+        return codePiece(blancs, dames, bit);
+    }
+
+    /**
+     * Retourne le code d’une pièce présente sur un bit donné.
+     *
+     * @param blancs cases des pièces blanches
+     * @param dames  cases des dames
+     * @param bit    le bit (case - 1), supposé occupé
+     * @return le code de la pièce
+     */
+    private static int codePiece(long blancs, long dames, int bit) {
+        boolean dame = (dames >>> bit & 1L) != 0;
+        if ((blancs >>> bit & 1L) != 0) {
+            return dame ? Coup.PIECE_DAME_BLANCHE : Coup.PIECE_PION_BLANC;
+        }
+        return dame ? Coup.PIECE_DAME_NOIRE : Coup.PIECE_PION_NOIR;
+    }
+
+    /**
+     * Retourne la géométrie du damier.
+     *
+     * @return la géométrie
+     */
+    public Geometrie getGeometrie() {
+        return geometrie;
+    }
+
+    /**
+     * Retourne le masque des pièces blanches.
+     *
+     * @return le masque des cases blanches
+     */
+    public long getBlancs() {
+        return blancs;
+    }
+
+    /**
+     * Retourne le masque des pièces noires.
+     *
+     * @return le masque des cases noires
+     */
+    public long getNoirs() {
+        return noirs;
+    }
+
+    /**
+     * Retourne le masque des dames.
+     *
+     * @return le masque des cases occupées par une dame
+     */
+    public long getDames() {
+        return dames;
+    }
+
+    /**
+     * Retourne le joueur qui a le trait.
+     *
+     * @return la couleur du joueur qui doit jouer
+     */
+    public Pion.Couleur getTrait() {
+        return trait;
+    }
+
+    /**
+     * Retourne le hachage de Zobrist de la position.
+     *
+     * @return le hachage sur 64 bits
+     */
+    public long getHachage() {
+        return hachage;
+    }
+
+    /**
+     * Retourne la position jumelle : damier tourné d’un demi-tour, couleurs et trait échangés.
+     * Les deux positions ont la même valeur pour le joueur qui a le trait.
+     *
+     * @return la position symétrique
+     */
+    public Position symetrique() {
+        int nbCases = geometrie.getNbCases();
+        return depuisMasques(geometrie, miroir(noirs, nbCases), miroir(blancs, nbCases), miroir(dames, nbCases),
+                trait == Pion.Couleur.Blanc ? Pion.Couleur.Noir : Pion.Couleur.Blanc);
+    }
+
+    /**
+     * Indique si la position est dans son orientation canonique : celle où les blancs ont le trait.
+     *
+     * @return vrai si les blancs ont le trait
+     */
+    public boolean estCanonique() {
+        return trait == Pion.Couleur.Blanc;
+    }
+
+    /**
+     * Retourne le représentant canonique de la classe {position, jumelle} : celui où les blancs
+     * ont le trait. Deux positions symétriques ont le même représentant.
+     *
+     * @return cette position ou sa jumelle
+     */
+    public Position canonique() {
+        return estCanonique() ? this : symetrique();
+    }
+
+    /**
+     * Retourne le hachage du représentant canonique, identique pour une position et sa jumelle.
+     *
+     * @return le hachage canonique
+     */
+    public long getHachageCanonique() {
+        return canonique().hachage;
+    }
+
+    /**
+     * Retourne le masque miroir : la case {@code s} devient la case {@code nbCases + 1 - s}
+     * (voir {@link Geometrie#symetrique(int)}).
+     *
+     * @param masque  le masque
+     * @param nbCases le nombre de cases du damier
+     * @return le masque tourné d’un demi-tour
+     */
+    static long miroir(long masque, int nbCases) {
+        return Long.reverse(masque) >>> (Long.SIZE - nbCases);
+    }
+
+    /**
+     * Retourne le nombre de pièces sur le damier.
+     *
+     * @return le nombre de cases occupées
+     */
+    public int grandeur() {
+        return Long.bitCount(blancs | noirs);
+    }
+
+    @Override
+    public boolean equals(Object autre) {
+        if (this == autre) {
+            return true;
+        }
+        if (!(autre instanceof Position p)) {
+            return false;
+        }
+        return geometrie == p.geometrie && blancs == p.blancs && noirs == p.noirs && dames == p.dames
+                && trait == p.trait;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hachage);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder(trait.name()).append(' ');
+        for (int position = 1; position <= geometrie.getNbCases(); position++) {
+            texte.append(REPRESENTATIONS.charAt(piece(position)));
+        }
+        return texte.toString();
+    }
+}
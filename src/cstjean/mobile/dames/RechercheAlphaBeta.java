@@ -0,0 +1,460 @@
+package cstjean.mobile.dames;
+
+import java.util.Arrays;
+
+/**
+ * Recherche alpha-bêta (négamax) à profondeur fixe, avec approfondissement itératif.
+ *
+ * <p>
+ * Les feuilles sont notées par une {@link Evaluation} ; un joueur sans coup a perdu,
+ * avec un score d’autant plus grand que la défaite est proche. Les prises et les promotions
+ * sont essayées en premier, puis le meilleur coup de l’itération précédente à la racine.
+ * </p>
+ *
+ * <p>
+ * La recherche peut être interrompue depuis un autre fil par {@link #arreter()}, ou d’elle-même
+ * à une échéance ou après un nombre de nœuds : elle rend alors le résultat de la dernière itération
+ * complète. Une instance n’effectue qu’une recherche à la fois ; plusieurs instances peuvent partager
+ * une {@link TableTransposition}.
+ * </p>
+ */
+public class RechercheAlphaBeta {
+
+    /** Score d’une victoire immédiate ; une victoire en {@code n} demi-coups vaut {@code VICTOIRE - n}. */
+    public static final int VICTOIRE = 30000;
+
+    /** Profondeur maximale de recherche. */
+    public static final int PROFONDEUR_MAX = 64;
+
+    /** L’échéance n’est lue qu’une fois tous les {@code MASQUE_HORLOGE + 1} nœuds. */
+    private static final long MASQUE_HORLOGE = 1023;
+
+    /**
+     * Suivi des itérations d’une recherche.
+     */
+    @FunctionalInterface
+    public interface Suivi {
+
+        /**
+         * Appelé, dans le fil de la recherche, à la fin de chaque itération complète.
+         *
+         * @param profondeur la profondeur de l’itération
+         * @param score      le score, du point de vue du joueur qui a le trait
+         * @param noeuds     le nombre de nœuds visités depuis le début de la recherche
+         */
+        void iterationTerminee(int profondeur, int score, long noeuds);
+    }
+
+    /** L’évaluation des feuilles. */
+    private final Evaluation evaluation;
+
+    /** Un tampon de coups par niveau de profondeur. */
+    private final int[][] coups;
+
+    /** Demande d’arrêt, posée par un autre fil. */
+    private volatile boolean arret;
+
+    /** Nombre de nœuds visités par la dernière recherche. */
+    private long noeuds;
+
+    /** Meilleur coup de la dernière itération complète. */
+    private int meilleurCoup;
+
+    /** Profondeur de la dernière itération complète. */
+    private int profondeurAtteinte;
+
+    /** Instant ({@link System#nanoTime()}) auquel la recherche s’arrête d’elle-même. */
+    private volatile long echeance = Long.MAX_VALUE;
+
+    /** Nombre de nœuds après lequel la recherche s’arrête d’elle-même. */
+    private long noeudsMax = Long.MAX_VALUE;
+
+    /** Le suivi des itérations, ou {@code null}. */
+    private Suivi suivi;
+
+    /** Variantes principales en construction, indexées par distance à la racine. */
+    private final int[][] variantes;
+
+    /** Longueur (indice de fin) de chaque variante en construction. */
+    private final int[] longueurs;
+
+    /** Variante principale de la dernière itération complète. */
+    private int[] variante = new int[0];
+
+    /** La table de transposition, ou {@code null}. */
+    private TableTransposition table;
+
+    /**
+     * Construit une recherche.
+     *
+     * @param evaluation l’évaluation des feuilles
+     */
+    public RechercheAlphaBeta(Evaluation evaluation) {
+        this.evaluation = evaluation;
+        this.coups = new int[PROFONDEUR_MAX + 1][GenerateurCoups.COUPS_MAX];
+        this.variantes = new int[PROFONDEUR_MAX + 2][PROFONDEUR_MAX + 2];
+        this.longueurs = new int[PROFONDEUR_MAX + 2];
+    }
+
+    /**
+     * Cherche le meilleur coup jusqu’à une profondeur donnée.
+     *
+     * @param position   la position
+     * @param profondeur la profondeur, en demi-coups (1 à {@link #PROFONDEUR_MAX})
+     * @return le score du point de vue du joueur qui a le trait
+     */
+    public int chercher(Position position, int profondeur) {
+        arret = false;
+        noeuds = 0;
+        meilleurCoup = 0;
+        profondeurAtteinte = 0;
+        variante = new int[0];
+        int score = evaluation.evaluer(position);
+        int limite = Math.min(profondeur, PROFONDEUR_MAX);
+        for (int p = 1; p <= limite; p++) {
+            int[] resultat = racine(position, p);
+            if (arret) {
+                break;
+            }
+            score = resultat[0];
+            meilleurCoup = resultat[1];
+            profondeurAtteinte = p;
+            variante = Arrays.copyOf(variantes[0], longueurs[0]);
+            if (suivi != null) {
+                suivi.iterationTerminee(p, score, noeuds);
+            }
+            if (Math.abs(score) >= VICTOIRE - PROFONDEUR_MAX) {
+                break;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Demande l’arrêt de la recherche en cours.
+     */
+    public void arreter() {
+        arret = true;
+    }
+
+    /**
+     * Fixe l’instant auquel la recherche en cours ou la suivante s’arrête d’elle-même.
+     * Peut être appelée depuis un autre fil.
+     *
+     * @param echeance l’instant selon {@link System#nanoTime()}, ou {@link Long#MAX_VALUE} pour aucune
+     */
+    public void setEcheance(long echeance) {
+        this.echeance = echeance;
+    }
+
+    /**
+     * Fixe le nombre de nœuds après lequel les recherches s’arrêtent d’elles-mêmes.
+     *
+     * @param noeudsMax le budget de nœuds, ou {@link Long#MAX_VALUE} pour aucun
+     */
+    public void setNoeudsMax(long noeudsMax) {
+        this.noeudsMax = noeudsMax;
+    }
+
+    /**
+     * Fixe le suivi appelé à la fin de chaque itération.
+     *
+     * @param suivi le suivi, ou {@code null}
+     */
+    public void setSuivi(Suivi suivi) {
+        this.suivi = suivi;
+    }
+
+    /**
+     * Fixe la table de transposition consultée et enrichie par les recherches.
+     *
+     * @param table la table, éventuellement partagée avec d’autres recherches, ou {@code null}
+     */
+    public void setTable(TableTransposition table) {
+        this.table = table;
+    }
+
+    /**
+     * Cherche les meilleurs coups et leur score exact, jusqu’à une profondeur donnée.
+     *
+     * <p>
+     * À chaque itération, chaque coup de la racine est cherché avec pour borne inférieure
+     * le score du dernier des meilleurs coups déjà trouvés : un coup qui ne la dépasse pas
+     * ne peut entrer dans le classement, et sa recherche est coupée d’autant.
+     * </p>
+     *
+     * @param position   la position
+     * @param profondeur la profondeur, en demi-coups (1 à {@link #PROFONDEUR_MAX})
+     * @param meilleurs  reçoit les meilleurs coups, du meilleur au moins bon ; sa longueur fixe leur nombre
+     * @param scores     reçoit le score de chaque coup, du point de vue du joueur qui a le trait
+     * @return le nombre de coups classés, au plus la longueur de {@code meilleurs}
+     */
+    public int chercherMeilleurs(Position position, int profondeur, int[] meilleurs, int[] scores) {
+        arret = false;
+        noeuds = 0;
+        profondeurAtteinte = 0;
+        int[] liste = coups[0];
+        int nombre = GenerateurCoups.generer(position, liste);
+        int k = Math.min(meilleurs.length, nombre);
+        int[] racines = Arrays.copyOf(liste, nombre);
+        int[] valeurs = new int[nombre];
+        int[] classes = new int[k];
+        int[] notes = new int[k];
+        int limite = Math.min(profondeur, PROFONDEUR_MAX);
+        int retenus = 0;
+        for (int p = 1; p <= limite && k > 0; p++) {
+            int trouves = 0;
+            for (int i = 0; i < nombre && !arret; i++) {
+                int alpha = trouves < k ? -VICTOIRE - 1 : notes[k - 1];
+                int score = -negamax(position.appliquer(racines[i]), p - 1, 1, -VICTOIRE - 1, -alpha);
+                valeurs[i] = score;
+                if (score > alpha) {
+                    // Insertion dans le classement, qui garde les k meilleurs.
+                    int j = Math.min(trouves, k - 1);
+                    while (j > 0 && notes[j - 1] < score) {
+                        notes[j] = notes[j - 1];
+                        classes[j] = classes[j - 1];
+                        j--;
+                    }
+                    notes[j] = score;
+                    classes[j] = racines[i];
+                    trouves = Math.min(trouves + 1, k);
+                }
+            }
+            if (arret) {
+                break;
+            }
+            System.arraycopy(classes, 0, meilleurs, 0, trouves);
+            System.arraycopy(notes, 0, scores, 0, trouves);
+            retenus = trouves;
+            profondeurAtteinte = p;
+            meilleurCoup = classes[0];
+            trierRacines(racines, valeurs, nombre);
+        }
+        return retenus;
+    }
+
+    /**
+     * Trie les coups de la racine par score décroissant de l’itération précédente.
+     *
+     * @param racines les coups
+     * @param valeurs leurs scores, éventuellement des bornes
+     * @param nombre  le nombre de coups
+     */
+    private static void trierRacines(int[] racines, int[] valeurs, int nombre) {
+        for (int i = 1; i < nombre; i++) {
+            int coup = racines[i];
+            int valeur = valeurs[i];
+            int j = i;
+            while (j > 0 && valeurs[j - 1] < valeur) {
+                racines[j] = racines[j - 1];
+                valeurs[j] = valeurs[j - 1];
+                j--;
+            }
+            racines[j] = coup;
+            valeurs[j] = valeur;
+        }
+    }
+
+    /**
+     * Retourne la variante principale de la dernière itération complète.
+     *
+     * @return les coups de la variante, codés selon {@link Coup} (copie)
+     */
+    public int[] getVariante() {
+        return variante.clone();
+    }
+
+    /**
+     * Retourne le meilleur coup de la dernière itération complète.
+     *
+     * @return le coup codé selon {@link Coup}, ou {@code 0} si aucun
+     */
+    public int getMeilleurCoup() {
+        return meilleurCoup;
+    }
+
+    /**
+     * Retourne la profondeur de la dernière itération complète.
+     *
+     * @return la profondeur atteinte
+     */
+    public int getProfondeurAtteinte() {
+        return profondeurAtteinte;
+    }
+
+    /**
+     * Retourne le nombre de nœuds visités par la dernière recherche.
+     *
+     * @return le nombre de nœuds
+     */
+    public long getNoeuds() {
+        return noeuds;
+    }
+
+    /**
+     * Effectue une itération à la racine.
+     *
+     * @param position   la position
+     * @param profondeur la profondeur de l’itération
+     * @return le score et le meilleur coup
+     */
+    private int[] racine(Position position, int profondeur) {
+        int[] liste = coups[0];
+        int nombre = GenerateurCoups.generer(position, liste);
+        if (nombre == 0) {
+            return new int[] {-VICTOIRE, 0};
+        }
+        ordonner(liste, nombre, meilleurCoup);
+        int alpha = -VICTOIRE - 1;
+        int meilleur = liste[0];
+        longueurs[0] = 0;
+        for (int i = 0; i < nombre && !arret; i++) {
+            int score = -negamax(position.appliquer(liste[i]), profondeur - 1, 1, -VICTOIRE - 1, -alpha);
+            if (score > alpha) {
+                alpha = score;
+                meilleur = liste[i];
+                prolonger(0, liste[i]);
+            }
+        }
+        return new int[] {alpha, meilleur};
+    }
+
+    /**
+     * Recherche négamax avec élagage alpha-bêta.
+     *
+     * @param position   la position
+     * @param profondeur la profondeur restante
+     * @param ply        la distance à la racine
+     * @param alpha      la borne inférieure
+     * @param beta       la borne supérieure
+     * @return le score du point de vue du joueur qui a le trait
+     */
+    private int negamax(Position position, int profondeur, int ply, int alpha, int beta) {
+        noeuds++;
+        longueurs[ply] = ply;
+        if (noeuds >= noeudsMax || ((noeuds & MASQUE_HORLOGE) == 0 && System.nanoTime() >= echeance)) {
+            arret = true;
+        }
+        int[] liste = coups[ply];
+        int nombre = GenerateurCoups.generer(position, liste);
+        if (nombre == 0) {
+            return -VICTOIRE + ply;
+        }
+        if (profondeur <= 0 || ply >= PROFONDEUR_MAX) {
+            return evaluation.evaluer(position);
+        }
+        int privilegie = 0;
+        if (table != null) {
+            long entree = table.sonder(position.getHachage());
+            if (entree != TableTransposition.ABSENTE) {
+                privilegie = TableTransposition.coup(entree);
+                if (TableTransposition.profondeur(entree) >= profondeur) {
+                    int score = depuisTable(TableTransposition.score(entree), ply);
+                    int borne = TableTransposition.borne(entree);
+                    if (borne == TableTransposition.EXACTE
+                            || borne == TableTransposition.INFERIEURE && score >= beta
+                            || borne == TableTransposition.SUPERIEURE && score <= alpha) {
+                        return score;
+                    }
+                }
+            }
+        }
+        ordonner(liste, nombre, privilegie);
+        int alphaInitial = alpha;
+        int meilleur = 0;
+        for (int i = 0; i < nombre; i++) {
+            int score = -negamax(position.appliquer(liste[i]), profondeur - 1, ply + 1, -beta, -alpha);
+            if (score >= beta) {
+                if (table != null && !arret) {
+                    table.stocker(position.getHachage(), versTable(score, ply), TableTransposition.INFERIEURE,
+                            profondeur, liste[i]);
+                }
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                meilleur = liste[i];
+                prolonger(ply, liste[i]);
+            }
+            if (arret) {
+                return alpha;
+            }
+        }
+        if (table != null) {
+            int borne = alpha > alphaInitial ? TableTransposition.EXACTE : TableTransposition.SUPERIEURE;
+            table.stocker(position.getHachage(), versTable(alpha, ply), borne, profondeur, meilleur);
+        }
+        return alpha;
+    }
+
+    /**
+     * Rend un score indépendant de la distance à la racine avant de le stocker :
+     * une victoire y est comptée depuis la position, et non depuis la racine.
+     *
+     * @param score le score
+     * @param ply   la distance à la racine
+     * @return le score à stocker
+     */
+    private static int versTable(int score, int ply) {
+        if (score >= VICTOIRE - PROFONDEUR_MAX) {
+            return score + ply;
+        } else if (score <= -VICTOIRE + PROFONDEUR_MAX) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Inverse de {@link #versTable(int, int)}.
+     *
+     * @param score le score stocké
+     * @param ply   la distance à la racine
+     * @return le score vu de la racine
+     */
+    private static int depuisTable(int score, int ply) {
+        if (score >= VICTOIRE - PROFONDEUR_MAX) {
+            return score - ply;
+        } else if (score <= -VICTOIRE + PROFONDEUR_MAX) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Fait d’un coup la tête de la variante d’un niveau, suivie de la variante du niveau suivant.
+     *
+     * @param ply  la distance à la racine
+     * @param coup le coup qui améliore le score à ce niveau
+     */
+    private void prolonger(int ply, int coup) {
+        int[] cible = variantes[ply];
+        cible[ply] = coup;
+        int fin = longueurs[ply + 1];
+        System.arraycopy(variantes[ply + 1], ply + 1, cible, ply + 1, fin - ply - 1);
+        longueurs[ply] = fin;
+    }
+
+    /**
+     * Place en tête le coup privilégié, puis les prises et les promotions.
+     *
+     * @param liste      les coups
+     * @param nombre     le nombre de coups
+     * @param privilegie le coup à essayer en premier, ou {@code 0}
+     */
+    private static void ordonner(int[] liste, int nombre, int privilegie) {
+        int tete = 0;
+        for (int i = 0; i < nombre; i++) {
+            int coup = liste[i];
+            if (coup == privilegie || Coup.piecePrise(coup) != Coup.PIECE_AUCUNE || Coup.estPromotion(coup)) {
+                liste[i] = liste[tete];
+                liste[tete] = coup;
+                if (coup == privilegie && tete > 0) {
+                    liste[tete] = liste[0];
+                    liste[0] = coup;
+                }
+                tete++;
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Moteur de rendu incrémental d’un {@link Damier}.
+ *
+ * <p>
+ * Contrairement à {@link DamierAfficher#afficher(Damier)}, qui reconstruit
+ * une chaîne complète à chaque appel, cette classe conserve un cadre
+ * préformaté ({@code char[]}) et ne corrige que les cases modifiées.
+ * L’écriture se fait directement dans un {@link Appendable} fourni par l’appelant,
+ * sans allocation par image.
+ * </p>
+ *
+ * <p>
+ * Trois styles sont offerts :
+ * </p>
+ * <ul>
+ *     <li>{@link Style#Texte} → même rendu que {@link DamierAfficher},</li>
+ *     <li>{@link Style#Ansi} → cases et pièces colorées par séquences ANSI,</li>
+ *     <li>{@link Style#Unicode} → pièces dessinées avec les glyphes ⛀ ⛁ ⛂ ⛃.</li>
+ * </ul>
+ */
+public class RenduDamier {
+
+    /**
+     * Styles de rendu disponibles.
+     */
+    public enum Style {
+        /** Caractères {@code 'P'}, {@code 'p'}, {@code 'D'}, {@code 'd'} et {@code '-'}. */
+        Texte,
+        /** Caractères du style texte, colorés par séquences d’échappement ANSI. */
+        Ansi,
+        /** Glyphes Unicode des pièces de dames. */
+        Unicode
+    }
+
+    /** Caractère d’une case vide ou non jouable. */
+    private static final char VIDE = '-';
+
+    /** Séquence ANSI de fin de ligne (réinitialisation des couleurs). */
+    private static final String ANSI_FIN = "\u001b[0m";
+
+    /** Couleur de fond ANSI des cases pâles. */
+    private static final char ANSI_FOND_PALE = '3';
+
+    /** Couleur de fond ANSI des cases foncées. */
+    private static final char ANSI_FOND_FONCE = '2';
+
+    /** Couleur de texte ANSI des pièces noires. */
+    private static final char ANSI_NOIR = '0';
+
+    /** Couleur de texte ANSI des pièces blanches. */
+    private static final char ANSI_BLANC = '7';
+
+    /**
+     * Indice du glyphe dans le gabarit d’une case ANSI : {@code ESC[4b;3fm g }.
+     * Le fond est à l’indice 3, la couleur du texte à l’indice 6 et le glyphe à l’indice 9.
+     */
+    private static final int ANSI_DECALAGE_GLYPHE = 9;
+
+    /** Le style utilisé pour ce rendu. */
+    private final Style style;
+
+    /** La géométrie du damier représenté. */
+    private final Geometrie geometrie;
+
+    /** Le cadre préformaté, réutilisé d’une image à l’autre. */
+    private final char[] cadre;
+
+    /** Vue {@link CharSequence} du cadre, créée une seule fois. */
+    private final CharBuffer vue;
+
+    /** Indice, dans le cadre, du glyphe de chaque case jouable. */
+    private final int[] decalages;
+
+    /**
+     * Construit un rendu dans le style donné, représentant un damier 10 × 10 vide.
+     *
+     * @param style le style de rendu
+     */
+    public RenduDamier(Style style) {
+        this(style, Geometrie.DIX);
+    }
+
+    /**
+     * Construit un rendu dans le style donné, représentant un damier vide de la géométrie donnée.
+     *
+     * @param style     le style de rendu
+     * @param geometrie la géométrie du damier représenté
+     */
+    public RenduDamier(Style style, Geometrie geometrie) {
+        this.style = style;
+        this.geometrie = geometrie;
+        this.decalages = new int[geometrie.getNbCases()];
+        int taille = geometrie.getTaille();
+        int decalageGlyphe = style == Style.Ansi ? ANSI_DECALAGE_GLYPHE : 0;
+        StringBuilder gabarit = new StringBuilder();
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                boolean jouable = geometrie.estCoordValide(i, j);
+                if (jouable) {
+                    decalages[geometrie.position(i, j) - 1] = gabarit.length() + decalageGlyphe;
+                }
+                if (style == Style.Ansi) {
+                    gabarit.append("\u001b[4").append(jouable ? ANSI_FOND_FONCE : ANSI_FOND_PALE)
+                            .append(";3").append(ANSI_BLANC).append("m ").append(VIDE).append(' ');
+                } else {
+                    gabarit.append(VIDE);
+                }
+            }
+            if (style == Style.Ansi) {
+                gabarit.append(ANSI_FIN);
+            }
+            gabarit.append('\n');
+        }
+        this.cadre = gabarit.toString().toCharArray();
+        this.vue = CharBuffer.wrap(cadre);
+    }
+
+    /**
+     * Retourne le style de ce rendu.
+     *
+     * @return le style de rendu
+     */
+    public Style getStyle() {
+        return style;
+    }
+
+    /**
+     * Met à jour toutes les cases du cadre à partir du damier.
+     *
+     * @param damier le damier à représenter
+     */
+    public void synchroniser(Damier damier) {
+        for (int position = 1; position <= geometrie.getNbCases(); position++) {
+            mettreAJourCase(damier, position);
+        }
+    }
+
+    /**
+     * Met à jour une seule case du cadre à partir du damier.
+     *
+     * @param damier   le damier à représenter
+     * @param position la position à corriger
+     */
+    public void mettreAJourCase(Damier damier, int position) {
+        Pion pion = damier.recupererPion(position);
+        int decalage = decalages[position - 1];
+        cadre[decalage] = glyphe(pion);
+        if (style == Style.Ansi) {
+            cadre[decalage - 3] = pion != null && pion.getCouleur() == Pion.Couleur.Noir ? ANSI_NOIR : ANSI_BLANC;
+        }
+    }
+
+    /**
+     * Corrige uniquement les cases touchées par un déplacement déjà appliqué au damier.
+     *
+     * <p>
+     * Les cases corrigées sont la case de départ, la case d’arrivée et,
+     * pour un déplacement de plus d’une case, la case voisine de l’arrivée
+     * du côté du départ (celle que {@link Damier#deplacer(int, int)} vide lors d’une prise).
+     * </p>
+     *
+     * @param damier  le damier après le déplacement
+     * @param depart  la position de départ
+     * @param arrivee la position d’arrivée
+     */
+    public void appliquerDeplacement(Damier damier, int depart, int arrivee) {
+        mettreAJourCase(damier, depart);
+        mettreAJourCase(damier, arrivee);
+        int ligneDepart = geometrie.ligne(depart);
+        int colDepart = geometrie.colonne(depart);
+        int ligneArrivee = geometrie.ligne(arrivee);
+        int colArrivee = geometrie.colonne(arrivee);
+        if (Math.abs(ligneArrivee - ligneDepart) > 1) {
+            int prise = geometrie.position(ligneArrivee + Integer.signum(ligneDepart - ligneArrivee),
+                    colArrivee + Integer.signum(colDepart - colArrivee));
+            if (prise > 0) {
+                mettreAJourCase(damier, prise);
+            }
+        }
+    }
+
+    /**
+     * Écrit le cadre courant dans la sortie donnée, sans allocation.
+     *
+     * <p>
+     * Si la sortie est un {@link Writer}, le tableau de caractères lui est passé directement ;
+     * sinon, une vue {@link CharSequence} préalablement créée est utilisée.
+     * </p>
+     *
+     * @param sortie la destination du rendu
+     * @throws IOException si la sortie échoue
+     */
+    public void ecrire(Appendable sortie) throws IOException {
+        if (sortie instanceof Writer writer) {
+            writer.write(cadre, 0, cadre.length);
+        } else {
+            vue.clear();
+            sortie.append(vue);
+        }
+    }
+
+    /**
+     * Retourne le cadre courant sous forme de chaîne.
+     *
+     * @return la représentation du damier
+     */
+    @Override
+    public String toString() {
+        return new String(cadre);
+    }
+
+    /**
+     * Retourne le caractère à afficher pour une pièce selon le style.
+     *
+     * @param pion la pièce, ou {@code null} pour une case vide
+     * @return le caractère correspondant
+     */
+    private char glyphe(Pion pion) {
+        if (pion == null) {
+            return VIDE;
+        }
+        if (style != Style.Unicode) {
+            return pion.getRepresentation();
+        }
+        boolean dame = pion instanceof Dame;
+        if (pion.getCouleur() == Pion.Couleur.Blanc) {
+            return dame ? '⛁' : '⛀';
+        }
+        return dame ? '⛃' : '⛂';
+    }
+}
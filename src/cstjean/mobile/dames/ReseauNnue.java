@@ -0,0 +1,288 @@
+package cstjean.mobile.dames;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Poids quantifiés d’un réseau d’évaluation de type NNUE.
+ *
+ * <p>
+ * Les entrées sont les couples (type de pièce, case) : {@code 4 × nbCases} caractéristiques,
+ * dont le type suit les codes de {@link Coup}. La première couche produit, pour chaque
+ * perspective (blancs et noirs), un accumulateur de {@code taille} entiers de 16 bits ;
+ * la perspective noire voit le damier retourné et les couleurs échangées.
+ * La couche de sortie combine les deux accumulateurs écrêtés entre 0 et {@link #ACTIVATION_MAX}.
+ * </p>
+ *
+ * <p>
+ * Le fichier de poids est binaire, petit-boutiste :
+ * </p>
+ * <ul>
+ *     <li>en-tête : {@link #MAGIQUE}, {@link #VERSION}, {@code nbCases}, {@code taille}
+ *     et {@code echelle} (entiers de 32 bits) ;</li>
+ *     <li>{@code taille} biais puis {@code 4 × nbCases × taille} poids de la première couche (16 bits) ;</li>
+ *     <li>{@code 2 × taille} poids de sortie (16 bits) puis le biais de sortie (32 bits).</li>
+ * </ul>
+ */
+public final class ReseauNnue {
+
+    /** Signature du fichier de poids ({@code "DNNU"}). */
+    public static final int MAGIQUE = 0x554E4E44;
+
+    /** Version du format de fichier. */
+    public static final int VERSION = 1;
+
+    /** Borne supérieure de l’activation écrêtée des accumulateurs. */
+    public static final int ACTIVATION_MAX = 127;
+
+    /** Nombre de types de pièces en entrée. */
+    public static final int NB_TYPES = 4;
+
+    /** Multiple imposé à la taille de la couche cachée, pour remplir les voies SIMD. */
+    public static final int MULTIPLE_TAILLE = 32;
+
+    /** Taille de l’en-tête, en octets. */
+    private static final int TAILLE_ENTETE = 5 * Integer.BYTES;
+
+    /** Nombre de cases du damier. */
+    private final int nbCases;
+
+    /** Taille de chaque accumulateur. */
+    private final int taille;
+
+    /** Diviseur de la sortie brute, qui la ramène en centièmes de pion. */
+    private final int echelle;
+
+    /** Biais de la première couche. */
+    private final short[] biais;
+
+    /** Poids de la première couche, une rangée de {@code taille} par caractéristique. */
+    private final short[] poids;
+
+    /** Poids de sortie : perspective du trait puis perspective adverse. */
+    private final short[] sortie;
+
+    /** Biais de sortie. */
+    private final int biaisSortie;
+
+    /**
+     * Construit un réseau à partir de ses poids (non copiés).
+     *
+     * @param nbCases     le nombre de cases du damier
+     * @param taille      la taille de chaque accumulateur
+     * @param echelle     le diviseur de la sortie
+     * @param biais       les biais de la première couche
+     * @param poids       les poids de la première couche
+     * @param sortie      les poids de sortie
+     * @param biaisSortie le biais de sortie
+     */
+    private ReseauNnue(int nbCases, int taille, int echelle, short[] biais, short[] poids, short[] sortie,
+                       int biaisSortie) {
+        this.nbCases = nbCases;
+        this.taille = taille;
+        this.echelle = echelle;
+        this.biais = biais;
+        this.poids = poids;
+        this.sortie = sortie;
+        this.biaisSortie = biaisSortie;
+    }
+
+    /**
+     * Crée un réseau de poids pseudo-aléatoires, petits pour qu’aucun accumulateur ne déborde.
+     *
+     * @param geometrie la géométrie du damier
+     * @param taille    la taille de chaque accumulateur (multiple de {@link #MULTIPLE_TAILLE})
+     * @param graine    la graine du générateur
+     * @return le réseau
+     */
+    public static ReseauNnue aleatoire(Geometrie geometrie, int taille, long graine) {
+        verifier(geometrie.getNbCases(), taille, 1);
+        Xorshift hasard = new Xorshift(graine);
+        short[] biais = new short[taille];
+        short[] poids = new short[NB_TYPES * geometrie.getNbCases() * taille];
+        short[] sortie = new short[2 * taille];
+        for (int i = 0; i < biais.length; i++) {
+            biais[i] = (short) (hasard.suivant(64) - 16);
+        }
+        for (int i = 0; i < poids.length; i++) {
+            poids[i] = (short) (hasard.suivant(33) - 16);
+        }
+        for (int i = 0; i < sortie.length; i++) {
+            sortie[i] = (short) (hasard.suivant(129) - 64);
+        }
+        return new ReseauNnue(geometrie.getNbCases(), taille, ACTIVATION_MAX, biais, poids, sortie, 0);
+    }
+
+    /**
+     * Charge un réseau depuis un fichier de poids.
+     *
+     * @param fichier le fichier
+     * @return le réseau
+     * @throws IOException si la lecture échoue ou si le fichier n’est pas un réseau valide
+     */
+    public static ReseauNnue charger(Path fichier) throws IOException {
+        ByteBuffer tampon = ByteBuffer.wrap(Files.readAllBytes(fichier)).order(ByteOrder.LITTLE_ENDIAN);
+        if (tampon.remaining() < TAILLE_ENTETE || tampon.getInt() != MAGIQUE || tampon.getInt() != VERSION) {
+            throw new IOException("Fichier de poids invalide : " + fichier);
+        }
+        int nbCases = tampon.getInt();
+        int taille = tampon.getInt();
+        int echelle = tampon.getInt();
+        try {
+            verifier(nbCases, taille, echelle);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        long attendu = TAILLE_ENTETE + 2L * (taille + (long) NB_TYPES * nbCases * taille + 2L * taille)
+                + Integer.BYTES;
+        if (tampon.capacity() != attendu) {
+            throw new IOException("Taille de fichier incorrecte : " + tampon.capacity() + " au lieu de " + attendu);
+        }
+        short[] biais = new short[taille];
+        short[] poids = new short[NB_TYPES * nbCases * taille];
+        short[] sortie = new short[2 * taille];
+        tampon.asShortBuffer().get(biais).get(poids).get(sortie);
+        tampon.position(tampon.capacity() - Integer.BYTES);
+        return new ReseauNnue(nbCases, taille, echelle, biais, poids, sortie, tampon.getInt());
+    }
+
+    /**
+     * Écrit le réseau dans un fichier de poids.
+     *
+     * @param fichier le fichier (remplacé s’il existe)
+     * @throws IOException si l’écriture échoue
+     */
+    public void ecrire(Path fichier) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(TAILLE_ENTETE + 2 * (biais.length + poids.length + sortie.length)
+                + Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        tampon.putInt(MAGIQUE).putInt(VERSION).putInt(nbCases).putInt(taille).putInt(echelle);
+        tampon.asShortBuffer().put(biais).put(poids).put(sortie);
+        tampon.position(tampon.capacity() - Integer.BYTES);
+        tampon.putInt(biaisSortie).flip();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+        }
+    }
+
+    /**
+     * Vérifie les dimensions d’un réseau.
+     *
+     * @param nbCases le nombre de cases
+     * @param taille  la taille des accumulateurs
+     * @param echelle le diviseur de sortie
+     * @throws IllegalArgumentException si une dimension est invalide
+     */
+    private static void verifier(int nbCases, int taille, int echelle) {
+        if (nbCases <= 0 || nbCases > Zobrist.CASES_MAX) {
+            throw new IllegalArgumentException("Nombre de cases invalide : " + nbCases);
+        }
+        if (taille <= 0 || taille % MULTIPLE_TAILLE != 0) {
+            throw new IllegalArgumentException("Taille d’accumulateur invalide : " + taille);
+        }
+        if (echelle <= 0) {
+            throw new IllegalArgumentException("Échelle invalide : " + echelle);
+        }
+    }
+
+    /**
+     * Retourne le décalage, dans {@link #getPoids()}, de la rangée d’une caractéristique.
+     *
+     * @param codePiece   le code de la pièce, selon {@link Coup}
+     * @param position    la case
+     * @param perspective vrai pour la perspective blanche
+     * @return le décalage de la rangée de poids
+     */
+    int rangee(int codePiece, int position, boolean perspective) {
+        int type = codePiece - 1;
+        int caseVue = position;
+        if (!perspective) {
+            type = (type + 2) % NB_TYPES;
+            caseVue = nbCases + 1 - position;
+        }
+        return (type * nbCases + caseVue - 1) * taille;
+    }
+
+    /**
+     * Retourne le nombre de cases du damier.
+     *
+     * @return le nombre de cases
+     */
+    public int getNbCases() {
+        return nbCases;
+    }
+
+    /**
+     * Retourne la taille de chaque accumulateur.
+     *
+     * @return la taille de la couche cachée
+     */
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * Retourne le diviseur de la sortie.
+     *
+     * @return l’échelle
+     */
+    int getEchelle() {
+        return echelle;
+    }
+
+    /**
+     * Retourne les biais de la première couche (tableau partagé).
+     *
+     * @return les biais
+     */
+    short[] getBiais() {
+        return biais;
+    }
+
+    /**
+     * Retourne les poids de la première couche (tableau partagé).
+     *
+     * @return les poids
+     */
+    short[] getPoids() {
+        return poids;
+    }
+
+    /**
+     * Retourne les poids de sortie (tableau partagé).
+     *
+     * @return les poids de sortie
+     */
+    short[] getSortie() {
+        return sortie;
+    }
+
+    /**
+     * Retourne le biais de sortie.
+     *
+     * @return le biais de sortie
+     */
+    int getBiaisSortie() {
+        return biaisSortie;
+    }
+
+    @Override
+    public boolean equals(Object autre) {
+        return autre instanceof ReseauNnue r && nbCases == r.nbCases && taille == r.taille && echelle == r.echelle
+                && biaisSortie == r.biaisSortie && Arrays.equals(biais, r.biais) && Arrays.equals(poids, r.poids)
+                && Arrays.equals(sortie, r.sortie);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(poids) * 31 + Arrays.hashCode(sortie);
+    }
+}
@@ -0,0 +1,69 @@
+package cstjean.mobile.dames;
+
+/**
+ * Codage compact, dans un {@code int}, du résultat de {@link Damier#jouer(int, int)}.
+ *
+ * <p>
+ * Les bits 0 à 24 portent le coup joué, codé selon {@link Coup} (nul si le coup est refusé),
+ * et les bits 25 à 28 le rang du {@link StatutCoup}. Aucun objet n’est créé pour
+ * représenter un résultat.
+ * </p>
+ */
+public final class ResultatCoup {
+
+    /** Décalage du statut. */
+    private static final int DECALAGE_STATUT = 25;
+
+    /** Masque du coup. */
+    private static final int MASQUE_COUP = (1 << DECALAGE_STATUT) - 1;
+
+    /** Statuts indexés par rang, partagés pour éviter la copie de {@code values()}. */
+    private static final StatutCoup[] STATUTS = StatutCoup.values();
+
+    /**
+     * Classe utilitaire : aucune instance.
+     */
+    private ResultatCoup() {
+    }
+
+    /**
+     * Code un résultat.
+     *
+     * @param statut le statut
+     * @param coup   le coup joué, ou {@code 0}
+     * @return le résultat codé
+     */
+    public static int encoder(StatutCoup statut, int coup) {
+        return statut.ordinal() << DECALAGE_STATUT | coup;
+    }
+
+    /**
+     * Retourne le statut d’un résultat.
+     *
+     * @param resultat le résultat codé
+     * @return le statut
+     */
+    public static StatutCoup statut(int resultat) {
+        return STATUTS[resultat >>> DECALAGE_STATUT];
+    }
+
+    /**
+     * Retourne le coup joué d’un résultat.
+     *
+     * @param resultat le résultat codé
+     * @return le coup codé selon {@link Coup}, ou {@code 0} si le coup a été refusé
+     */
+    public static int coup(int resultat) {
+        return resultat & MASQUE_COUP;
+    }
+
+    /**
+     * Indique si le coup a été joué.
+     *
+     * @param resultat le résultat codé
+     * @return vrai si le statut est {@link StatutCoup#Accepte}
+     */
+    public static boolean estAccepte(int resultat) {
+        return resultat >>> DECALAGE_STATUT == 0;
+    }
+}
@@ -0,0 +1,175 @@
+package cstjean.mobile.dames;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Couche de jeu en mémoire : les parties en cours de nombreux joueurs, chacune sur son {@link Damier}.
+ *
+ * <p>
+ * Les parties sont rangées dans une table concurrente ; chaque opération ne prend que le verrou privé
+ * de sa partie, si bien que des joueurs de parties différentes ne s’attendent jamais. C’est le chemin
+ * que suit un coup reçu d’un client : retrouver la partie, valider et jouer le coup, puis en informer
+ * les observateurs du damier.
+ * </p>
+ */
+public class SalleParties {
+
+    /** Les parties en cours, par identifiant. */
+    private final Map<Long, Partie> parties = new ConcurrentHashMap<>();
+
+    /** Identifiant de la prochaine partie. */
+    private final AtomicLong prochainId = new AtomicLong(1);
+
+    /** La géométrie des nouvelles parties. */
+    private final Geometrie geometrie;
+
+    /**
+     * Construit une salle de parties 10 × 10.
+     */
+    public SalleParties() {
+        this(Geometrie.DIX);
+    }
+
+    /**
+     * Construit une salle.
+     *
+     * @param geometrie la géométrie des nouvelles parties
+     */
+    public SalleParties(Geometrie geometrie) {
+        this.geometrie = geometrie;
+    }
+
+    /**
+     * Ouvre une partie en position initiale.
+     *
+     * @return l’identifiant de la partie
+     */
+    public long creer() {
+        long id = prochainId.getAndIncrement();
+        Damier damier = new Damier(geometrie);
+        Position.initiale(geometrie).copierDans(damier);
+        parties.put(id, new Partie(damier));
+        return id;
+    }
+
+    /**
+     * Joue un coup dans une partie.
+     *
+     * @param id      l’identifiant de la partie
+     * @param depart  la case de départ
+     * @param arrivee la case d’arrivée
+     * @return le résultat codé selon {@link ResultatCoup}
+     * @throws IllegalArgumentException si la partie n’existe pas
+     */
+    public int jouer(long id, int depart, int arrivee) {
+        Partie partie = partie(id);
+        partie.verrou.lock();
+        try {
+            return partie.damier.jouer(depart, arrivee);
+        } finally {
+            partie.verrou.unlock();
+        }
+    }
+
+    /**
+     * Retourne les coups légaux du joueur qui a le trait.
+     *
+     * @param id    l’identifiant de la partie
+     * @param coups reçoit les coups, codés selon {@link Coup}
+     * @return le nombre de coups ; zéro si la partie est terminée
+     * @throws IllegalArgumentException si la partie n’existe pas
+     */
+    public int coupsLegaux(long id, int[] coups) {
+        Partie partie = partie(id);
+        Position position;
+        partie.verrou.lock();
+        try {
+            if (partie.damier.estPartieTerminee()) {
+                return 0;
+            }
+            position = Position.depuis(partie.damier);
+        } finally {
+            partie.verrou.unlock();
+        }
+        return GenerateurCoups.generer(position, coups);
+    }
+
+    /**
+     * Retourne l’état d’une partie.
+     *
+     * @param id l’identifiant de la partie
+     * @return la position actuelle
+     * @throws IllegalArgumentException si la partie n’existe pas
+     */
+    public Position consulter(long id) {
+        Partie partie = partie(id);
+        partie.verrou.lock();
+        try {
+            return Position.depuis(partie.damier);
+        } finally {
+            partie.verrou.unlock();
+        }
+    }
+
+    /**
+     * Ferme une partie.
+     *
+     * @param id l’identifiant de la partie
+     * @return vrai si la partie existait
+     */
+    public boolean fermer(long id) {
+        return parties.remove(id) != null;
+    }
+
+    /**
+     * Retourne le nombre de parties ouvertes.
+     *
+     * @return le nombre de parties
+     */
+    public int getNombreParties() {
+        return parties.size();
+    }
+
+    /**
+     * Retrouve une partie.
+     *
+     * @param id l’identifiant de la partie
+     * @return la partie
+     * @throws IllegalArgumentException si la partie n’existe pas
+     */
+    private Partie partie(long id) {
+        Partie partie = parties.get(id);
+        if (partie == null) {
+            throw new IllegalArgumentException("Partie inconnue : " + id);
+        }
+        return partie;
+    }
+
+    /**
+     * Une partie en cours : son damier et le verrou qui le protège.
+     *
+     * <p>
+     * Le verrou n’est pas le moniteur du damier, que d’autres codes ayant la référence pourraient prendre.
+     * </p>
+     */
+    private static final class Partie {
+
+        /** Le damier de la partie. */
+        private final Damier damier;
+
+        /** Sérialise les opérations sur le damier. */
+        private final ReentrantLock verrou = new ReentrantLock();
+
+        /**
+         * Construit une partie.
+         *
+         * @param damier le damier de la partie
+         */
+        Partie(Damier damier) {
+            this.damier = damier;
+        }
+    }
+}
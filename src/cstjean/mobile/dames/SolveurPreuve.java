@@ -0,0 +1,496 @@
+package cstjean.mobile.dames;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solveur par nombres de preuve en profondeur d’abord (df-pn) pour les problèmes de gain forcé.
+ *
+ * <p>
+ * Le camp qui a le trait dans la position de départ est l’attaquant : il gagne si, quoi que
+ * réponde le défenseur, celui-ci se retrouve sans coup dans la limite de demi-coups fixée.
+ * Atteindre cette limite compte comme un échec de l’attaquant.
+ * </p>
+ *
+ * <p>
+ * Les nombres de preuve et de réfutation sont conservés dans une table de hachage de taille
+ * bornée, dimensionnée par un budget de mémoire ; une entrée n’y remplace une autre que si elle
+ * a demandé au moins autant de travail. La recherche s’arrête aussi après un budget de nœuds.
+ * Un problème prouvé est rendu avec son arbre de solution complet : un coup de l’attaquant
+ * à chacun de ses tours et toutes les défenses à chaque tour adverse. Les enfants évincés de la table
+ * sont reprouvés sous un nouveau budget de nœuds ; si celui-ci ne suffit pas, le verdict devient
+ * {@link Verdict#Inconnu} plutôt que de rendre un arbre incomplet.
+ * </p>
+ *
+ * <p>
+ * Une instance résout un problème à la fois ; {@link #resoudreTous(List, int, long, long, int)}
+ * répartit une liste de problèmes sur plusieurs fils, avec un solveur par fil.
+ * </p>
+ */
+public class SolveurPreuve {
+
+    /**
+     * Issue d’une tentative de preuve.
+     */
+    public enum Verdict {
+        /** L’attaquant gagne par force. */
+        Prouve,
+        /** L’attaquant ne peut pas forcer le gain dans la limite de demi-coups. */
+        Refute,
+        /** Le budget de nœuds a été épuisé avant la conclusion. */
+        Inconnu
+    }
+
+    /** Valeur infinie des nombres de preuve et de réfutation, réservée aux nœuds résolus. */
+    static final int INFINI = Integer.MAX_VALUE / 4;
+
+    /** Plus grand nombre fini : une somme qui le dépasse y reste, sans jamais devenir {@link #INFINI}. */
+    static final int FINI_MAX = INFINI - 1;
+
+    /** Taille d’une entrée de la table, en octets (clé, preuve, réfutation, travail). */
+    private static final int OCTETS_PAR_ENTREE = Long.BYTES + 3 * Integer.BYTES;
+
+    /** Constante mélangée à la clé selon la profondeur restante. */
+    private static final long SEL_PROFONDEUR = 0x9E3779B97F4A7C15L;
+
+    /** Limite de demi-coups de la preuve. */
+    private final int profondeurMax;
+
+    /** Budget de nœuds d’une résolution. */
+    private final long noeudsMax;
+
+    /** Clés de la table. */
+    private final long[] cles;
+
+    /** Nombres de preuve de la table. */
+    private final int[] preuves;
+
+    /** Nombres de réfutation de la table. */
+    private final int[] refutations;
+
+    /** Travail (nœuds visités) ayant produit chaque entrée. */
+    private final int[] travaux;
+
+    /** Tampons de coups par profondeur. */
+    private final int[][] coups;
+
+    /** Nœuds visités par la résolution en cours. */
+    private long noeuds;
+
+    /** Nombre de preuve du dernier nœud rendu par {@link #mid(Position, int, int, int)}. */
+    private int dernierPn;
+
+    /** Nombre de réfutation du dernier nœud rendu par {@link #mid(Position, int, int, int)}. */
+    private int dernierDn;
+
+    /**
+     * Construit un solveur.
+     *
+     * @param profondeurMax la limite de demi-coups de la preuve
+     * @param noeudsMax     le budget de nœuds d’une résolution
+     * @param octetsTable   le budget de mémoire de la table de hachage, en octets
+     */
+    public SolveurPreuve(int profondeurMax, long noeudsMax, long octetsTable) {
+        this.profondeurMax = profondeurMax;
+        this.noeudsMax = noeudsMax;
+        int entrees = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(2, octetsTable / OCTETS_PAR_ENTREE)));
+        this.cles = new long[entrees];
+        this.preuves = new int[entrees];
+        this.refutations = new int[entrees];
+        this.travaux = new int[entrees];
+        this.coups = new int[profondeurMax + 1][GenerateurCoups.COUPS_MAX];
+    }
+
+    /**
+     * Cherche à prouver le gain forcé du joueur qui a le trait sur un damier.
+     *
+     * @param damier le damier
+     * @return le résultat
+     */
+    public ResultatPreuve resoudre(Damier damier) {
+        return resoudre(Position.depuis(damier));
+    }
+
+    /**
+     * Cherche à prouver le gain forcé du joueur qui a le trait.
+     *
+     * @param position la position
+     * @return le résultat
+     */
+    public ResultatPreuve resoudre(Position position) {
+        Arrays.fill(cles, 0L);
+        Arrays.fill(travaux, 0);
+        noeuds = 0;
+        mid(position, 0, INFINI, INFINI);
+        int pn = dernierPn;
+        int dn = dernierDn;
+        Verdict verdict = pn == 0 ? Verdict.Prouve : dn == 0 ? Verdict.Refute : Verdict.Inconnu;
+        long total = noeuds;
+        NoeudSolution arbre = null;
+        if (verdict == Verdict.Prouve) {
+            // L’extraction dispose de son propre budget pour reprouver les enfants évincés.
+            noeuds = 0;
+            arbre = extraire(position, 0, 0);
+            total += noeuds;
+            if (arbre == null) {
+                verdict = Verdict.Inconnu;
+            }
+        }
+        return new ResultatPreuve(verdict, total, arbre);
+    }
+
+    /**
+     * Résout une liste de problèmes en parallèle.
+     *
+     * @param positions     les problèmes
+     * @param profondeurMax la limite de demi-coups de chaque preuve
+     * @param noeudsMax     le budget de nœuds de chaque problème
+     * @param octetsTable   le budget de mémoire de la table de chaque fil
+     * @param nbFils        le nombre de fils
+     * @return les résultats, dans l’ordre des problèmes
+     * @throws InterruptedException si l’attente est interrompue
+     */
+    public static List<ResultatPreuve> resoudreTous(List<Position> positions, int profondeurMax, long noeudsMax,
+                                                    long octetsTable, int nbFils) throws InterruptedException {
+        ThreadLocal<SolveurPreuve> solveurs =
+                ThreadLocal.withInitial(() -> new SolveurPreuve(profondeurMax, noeudsMax, octetsTable));
+        ExecutorService executeur = Executors.newFixedThreadPool(nbFils);
+        try {
+            List<Future<ResultatPreuve>> futurs = new ArrayList<>(positions.size());
+            for (Position position : positions) {
+                futurs.add(executeur.submit(() -> solveurs.get().resoudre(position)));
+            }
+            List<ResultatPreuve> resultats = new ArrayList<>(positions.size());
+            for (Future<ResultatPreuve> futur : futurs) {
+                resultats.add(futur.get());
+            }
+            return Collections.unmodifiableList(resultats);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executeur.shutdownNow();
+        }
+    }
+
+    /**
+     * Développe un nœud jusqu’à ce que ses nombres atteignent les seuils donnés.
+     * Les nombres obtenus sont stockés dans la table et laissés dans {@link #dernierPn}
+     * et {@link #dernierDn} ; le parent les garde ainsi même si la table les évince.
+     *
+     * @param position la position du nœud
+     * @param ply      la distance à la racine (pair : l’attaquant a le trait)
+     * @param seuilPn  le seuil du nombre de preuve
+     * @param seuilDn  le seuil du nombre de réfutation
+     */
+    private void mid(Position position, int ply, int seuilPn, int seuilDn) {
+        noeuds++;
+        long debut = noeuds;
+        boolean attaquant = (ply & 1) == 0;
+        int[] liste = coups[ply];
+        int nombre = GenerateurCoups.generer(position, liste);
+        if (nombre == 0 || ply >= profondeurMax) {
+            // Sans coup, le joueur au trait perd ; à la limite, l’attaquant a échoué.
+            boolean gainAttaquant = nombre == 0 && !attaquant;
+            stocker(position, ply, gainAttaquant ? 0 : INFINI, gainAttaquant ? INFINI : 0, 1);
+            return;
+        }
+        Position[] enfants = new Position[nombre];
+        int[] pnEnfants = new int[nombre];
+        int[] dnEnfants = new int[nombre];
+        for (int i = 0; i < nombre; i++) {
+            enfants[i] = position.appliquer(liste[i]);
+            int entree = chercher(enfants[i], ply + 1);
+            pnEnfants[i] = entree >= 0 ? preuves[entree] : 1;
+            dnEnfants[i] = entree >= 0 ? refutations[entree] : 1;
+        }
+        while (true) {
+            int pn = attaquant ? INFINI : 0;
+            int dn = attaquant ? 0 : INFINI;
+            int meilleur = -1;
+            int meilleureValeur = INFINI + 1;
+            int deuxieme = INFINI;
+            int pnMeilleur = 0;
+            int dnMeilleur = 0;
+            for (int i = 0; i < nombre; i++) {
+                int pnEnfant = pnEnfants[i];
+                int dnEnfant = dnEnfants[i];
+                int valeur = attaquant ? pnEnfant : dnEnfant;
+                if (attaquant) {
+                    pn = Math.min(pn, pnEnfant);
+                    dn = somme(dn, dnEnfant);
+                } else {
+                    pn = somme(pn, pnEnfant);
+                    dn = Math.min(dn, dnEnfant);
+                }
+                if (valeur < meilleureValeur) {
+                    deuxieme = meilleureValeur;
+                    meilleureValeur = valeur;
+                    meilleur = i;
+                    pnMeilleur = pnEnfant;
+                    dnMeilleur = dnEnfant;
+                } else if (valeur < deuxieme) {
+                    deuxieme = valeur;
+                }
+            }
+            if (pn >= seuilPn || dn >= seuilDn || noeuds >= noeudsMax) {
+                stocker(position, ply, pn, dn, noeuds - debut + 1);
+                return;
+            }
+            if (attaquant) {
+                mid(enfants[meilleur], ply + 1, Math.min(seuilPn, somme(deuxieme, 1)),
+                        seuilDn - dn + dnMeilleur);
+            } else {
+                mid(enfants[meilleur], ply + 1, seuilPn - pn + pnMeilleur,
+                        Math.min(seuilDn, somme(deuxieme, 1)));
+            }
+            pnEnfants[meilleur] = dernierPn;
+            dnEnfants[meilleur] = dernierDn;
+        }
+    }
+
+    /**
+     * Construit l’arbre de solution d’un nœud prouvé, en relançant la preuve des enfants évincés de la table.
+     *
+     * @param position la position du nœud
+     * @param ply      la distance à la racine
+     * @param coup     le coup menant à ce nœud, ou {@code 0} à la racine
+     * @return l’arbre de solution, ou {@code null} si le budget n’a pas suffi à reprouver une défense
+     *         ou un coup gagnant
+     */
+    private NoeudSolution extraire(Position position, int ply, int coup) {
+        boolean attaquant = (ply & 1) == 0;
+        List<NoeudSolution> suites = new ArrayList<>();
+        int[] liste = coups[ply].clone();
+        int nombre = GenerateurCoups.generer(position, liste);
+        if (nombre == 0 || ply >= profondeurMax) {
+            // Seul un défenseur sans coup est une feuille gagnante
+            return nombre == 0 && !attaquant ? new NoeudSolution(coup, suites) : null;
+        }
+        for (int i = 0; i < nombre; i++) {
+            Position enfant = position.appliquer(liste[i]);
+            int entree = chercher(enfant, ply + 1);
+            int pn = entree >= 0 ? preuves[entree] : 1;
+            if (entree < 0 || (pn != 0 && refutations[entree] != 0)) {
+                mid(enfant, ply + 1, INFINI, INFINI);
+                pn = dernierPn;
+            }
+            if (pn == 0) {
+                NoeudSolution suite = extraire(enfant, ply + 1, liste[i]);
+                if (suite != null) {
+                    suites.add(suite);
+                    if (attaquant) {
+                        break;
+                    }
+                    continue;
+                }
+            }
+            if (!attaquant) {
+                // Une défense non reprouvée : l’arbre serait incomplet
+                return null;
+            }
+        }
+        return attaquant && suites.isEmpty() ? null : new NoeudSolution(coup, suites);
+    }
+
+    /**
+     * Cherche l’entrée d’une position dans la table.
+     *
+     * @param position la position
+     * @param ply      la distance à la racine
+     * @return l’indice de l’entrée, ou {@code -1} si elle est absente
+     */
+    private int chercher(Position position, int ply) {
+        long cle = cle(position, ply);
+        int indice = (int) (cle >>> 1) & (cles.length - 1);
+        return cles[indice] == cle ? indice : -1;
+    }
+
+    /**
+     * Rend les nombres d’un nœud et les enregistre, si l’entrée occupée a coûté moins de travail.
+     *
+     * @param position la position
+     * @param ply      la distance à la racine
+     * @param pn       le nombre de preuve
+     * @param dn       le nombre de réfutation
+     * @param travail  le nombre de nœuds visités pour l’obtenir
+     */
+    private void stocker(Position position, int ply, int pn, int dn, long travail) {
+        dernierPn = pn;
+        dernierDn = dn;
+        long cle = cle(position, ply);
+        int indice = (int) (cle >>> 1) & (cles.length - 1);
+        int effort = (int) Math.min(Integer.MAX_VALUE, travail);
+        boolean resolu = pn == 0 || dn == 0;
+        if (cles[indice] != cle && travaux[indice] > effort && !resolu) {
+            return;
+        }
+        cles[indice] = cle;
+        preuves[indice] = pn;
+        refutations[indice] = dn;
+        travaux[indice] = effort;
+    }
+
+    /**
+     * Retourne la clé d’une position à une distance donnée de la racine ; la clé nulle est réservée.
+     *
+     * @param position la position
+     * @param ply      la distance à la racine
+     * @return la clé
+     */
+    private static long cle(Position position, int ply) {
+        long cle = position.getHachage() ^ (ply + 1) * SEL_PROFONDEUR;
+        return cle == 0 ? 1 : cle;
+    }
+
+    /**
+     * Additionne deux nombres : la somme est infinie si l’un d’eux l’est, et sature sinon
+     * à {@link #FINI_MAX}, de sorte qu’un très grand nombre fini ne passe jamais pour une réfutation.
+     *
+     * @param a le premier nombre
+     * @param b le second nombre
+     * @return la somme bornée
+     */
+    private static int somme(int a, int b) {
+        if (a == INFINI || b == INFINI) {
+            return INFINI;
+        }
+        return (int) Math.min(FINI_MAX, (long) a + b);
+    }
+
+    /**
+     * Nœud d’un arbre de solution : le coup qui y mène et ses suites prouvées.
+     */
+    public static final class NoeudSolution {
+
+        /** Le coup menant au nœud, ou {@code 0} à la racine. */
+        private final int coup;
+
+        /** Les suites : un coup gagnant, ou toutes les défenses. */
+        private final List<NoeudSolution> suites;
+
+        /**
+         * Construit un nœud.
+         *
+         * @param coup   le coup menant au nœud
+         * @param suites les suites
+         */
+        NoeudSolution(int coup, List<NoeudSolution> suites) {
+            this.coup = coup;
+            this.suites = Collections.unmodifiableList(suites);
+        }
+
+        /**
+         * Retourne le coup menant au nœud.
+         *
+         * @return le coup codé selon {@link Coup}, ou {@code 0} à la racine
+         */
+        public int getCoup() {
+            return coup;
+        }
+
+        /**
+         * Retourne les suites du nœud.
+         *
+         * @return les nœuds enfants
+         */
+        public List<NoeudSolution> getSuites() {
+            return suites;
+        }
+
+        /**
+         * Retourne le nombre de nœuds de l’arbre.
+         *
+         * @return la taille de l’arbre
+         */
+        public int taille() {
+            int taille = 1;
+            for (NoeudSolution suite : suites) {
+                taille += suite.taille();
+            }
+            return taille;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texte = new StringBuilder();
+            ecrire(texte, 0);
+            return texte.toString();
+        }
+
+        /**
+         * Écrit l’arbre, un coup par ligne, indenté selon la profondeur.
+         *
+         * @param texte       la destination
+         * @param indentation la profondeur du nœud
+         */
+        private void ecrire(StringBuilder texte, int indentation) {
+            if (coup != 0) {
+                texte.append("  ".repeat(indentation - 1)).append(Coup.notation(coup)).append('\n');
+            }
+            for (NoeudSolution suite : suites) {
+                suite.ecrire(texte, indentation + 1);
+            }
+        }
+    }
+
+    /**
+     * Résultat d’une tentative de preuve.
+     */
+    public static final class ResultatPreuve {
+
+        /** Le verdict. */
+        private final Verdict verdict;
+
+        /** Le nombre de nœuds visités. */
+        private final long noeuds;
+
+        /** L’arbre de solution, ou {@code null} si le gain n’est pas prouvé. */
+        private final NoeudSolution solution;
+
+        /**
+         * Construit un résultat.
+         *
+         * @param verdict  le verdict
+         * @param noeuds   le nombre de nœuds visités
+         * @param solution l’arbre de solution, ou {@code null}
+         */
+        ResultatPreuve(Verdict verdict, long noeuds, NoeudSolution solution) {
+            this.verdict = verdict;
+            this.noeuds = noeuds;
+            this.solution = solution;
+        }
+
+        /**
+         * Retourne le verdict.
+         *
+         * @return le verdict
+         */
+        public Verdict getVerdict() {
+            return verdict;
+        }
+
+        /**
+         * Retourne le nombre de nœuds visités.
+         *
+         * @return le nombre de nœuds
+         */
+        public long getNoeuds() {
+            return noeuds;
+        }
+
+        /**
+         * Retourne l’arbre de solution.
+         *
+         * @return la racine de l’arbre, ou {@code null} si le gain n’est pas prouvé
+         */
+        public NoeudSolution getSolution() {
+            return solution;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package cstjean.mobile.dames;
+
+/**
+ * Issue d’une demande de coup faite à {@link Damier#jouer(int, int)}.
+ */
+public enum StatutCoup {
+    /** Le coup a été joué. */
+    Accepte,
+    /** La case de départ n’existe pas ou est vide. */
+    AucunePiece,
+    /** La pièce de départ n’appartient pas au joueur qui a le trait. */
+    MauvaisCamp,
+    /** La case d’arrivée n’est pas atteignable par cette pièce. */
+    DestinationIllegale,
+    /** Une prise est possible et la prise est obligatoire, mais le coup n’en est pas une. */
+    PriseObligatoire,
+    /** La partie est terminée : joueur au trait sans coup, ou partie nulle. */
+    PartieTerminee
+}
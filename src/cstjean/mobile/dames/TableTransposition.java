@@ -0,0 +1,157 @@
+package cstjean.mobile.dames;
+
+import java.util.Arrays;
+
+/**
+ * Table de transposition partagée, sans verrou, entre plusieurs recherches concurrentes.
+ *
+ * <p>
+ * Chaque entrée occupe deux {@code long} consécutifs : les données (score, borne, profondeur et coup)
+ * et la clé combinée aux données par ou exclusif. Une lecture n’est acceptée que si la clé
+ * ainsi retrouvée est celle de la position : une entrée à moitié écrite par un autre fil, ou
+ * écrasée entre les deux lectures, est simplement ignorée. Aucune synchronisation n’est donc
+ * nécessaire, et la table n’est qu’un accélérateur : perdre une entrée ne change jamais un résultat
+ * exact, seulement le temps pour l’obtenir.
+ * </p>
+ */
+public final class TableTransposition {
+
+    /** Le score stocké est exact. */
+    public static final int EXACTE = 1;
+
+    /** Le score stocké est une borne inférieure (coupure bêta). */
+    public static final int INFERIEURE = 2;
+
+    /** Le score stocké est une borne supérieure (aucun coup n’a dépassé alpha). */
+    public static final int SUPERIEURE = 3;
+
+    /** Résultat d’une sonde infructueuse. */
+    public static final long ABSENTE = 0L;
+
+    /** Taille d’une entrée, en octets. */
+    private static final int OCTETS_PAR_ENTREE = 2 * Long.BYTES;
+
+    /** Nombre de bits du coup dans les données. */
+    private static final int BITS_COUP = 25;
+
+    /** Décalage de la profondeur dans les données. */
+    private static final int DECALAGE_PROFONDEUR = BITS_COUP;
+
+    /** Décalage de la borne dans les données. */
+    private static final int DECALAGE_BORNE = DECALAGE_PROFONDEUR + 7;
+
+    /** Décalage du score dans les données. */
+    private static final int DECALAGE_SCORE = DECALAGE_BORNE + 2;
+
+    /** Biais qui rend le score positif sur 16 bits. */
+    private static final int BIAIS_SCORE = 1 << 15;
+
+    /** Clés combinées aux données, puis données, deux par entrée. */
+    private final long[] entrees;
+
+    /** Masque de l’indice d’une entrée. */
+    private final int masque;
+
+    /**
+     * Construit une table.
+     *
+     * @param octets le budget de mémoire, en octets
+     */
+    public TableTransposition(long octets) {
+        int nombre = Integer.highestOneBit((int) Math.min(1 << 28, Math.max(2, octets / OCTETS_PAR_ENTREE)));
+        this.entrees = new long[2 * nombre];
+        this.masque = nombre - 1;
+    }
+
+    /**
+     * Cherche l’entrée d’une position.
+     *
+     * @param hachage le hachage de Zobrist de la position
+     * @return les données de l’entrée, ou {@link #ABSENTE}
+     */
+    public long sonder(long hachage) {
+        int i = 2 * ((int) hachage & masque);
+        long donnees = entrees[i + 1];
+        return (entrees[i] ^ donnees) == hachage ? donnees : ABSENTE;
+    }
+
+    /**
+     * Stocke le résultat d’une recherche. Une entrée d’une autre position est remplacée ;
+     * celle de la même position ne l’est que par une recherche au moins aussi profonde.
+     *
+     * @param hachage    le hachage de Zobrist de la position
+     * @param score      le score, entre {@code -RechercheAlphaBeta.VICTOIRE} et {@code VICTOIRE}
+     * @param borne      {@link #EXACTE}, {@link #INFERIEURE} ou {@link #SUPERIEURE}
+     * @param profondeur la profondeur restante de la recherche (0 à 127)
+     * @param coup       le meilleur coup, ou {@code 0}
+     */
+    public void stocker(long hachage, int score, int borne, int profondeur, int coup) {
+        int i = 2 * ((int) hachage & masque);
+        long actuelles = entrees[i + 1];
+        if ((entrees[i] ^ actuelles) == hachage && profondeur(actuelles) > profondeur) {
+            return;
+        }
+        long donnees = coup
+                | (long) profondeur << DECALAGE_PROFONDEUR
+                | (long) borne << DECALAGE_BORNE
+                | (long) (score + BIAIS_SCORE) << DECALAGE_SCORE;
+        entrees[i] = hachage ^ donnees;
+        entrees[i + 1] = donnees;
+    }
+
+    /**
+     * Vide la table.
+     */
+    public void vider() {
+        Arrays.fill(entrees, 0L);
+    }
+
+    /**
+     * Retourne le nombre d’entrées de la table.
+     *
+     * @return le nombre d’entrées
+     */
+    public int getCapacite() {
+        return masque + 1;
+    }
+
+    /**
+     * Extrait le coup de données sondées.
+     *
+     * @param donnees les données
+     * @return le coup, ou {@code 0}
+     */
+    public static int coup(long donnees) {
+        return (int) (donnees & ((1L << BITS_COUP) - 1));
+    }
+
+    /**
+     * Extrait la profondeur de données sondées.
+     *
+     * @param donnees les données
+     * @return la profondeur restante
+     */
+    public static int profondeur(long donnees) {
+        return (int) (donnees >>> DECALAGE_PROFONDEUR) & 0x7F;
+    }
+
+    /**
+     * Extrait la borne de données sondées.
+     *
+     * @param donnees les données
+     * @return {@link #EXACTE}, {@link #INFERIEURE} ou {@link #SUPERIEURE}
+     */
+    public static int borne(long donnees) {
+        return (int) (donnees >>> DECALAGE_BORNE) & 0x3;
+    }
+
+    /**
+     * Extrait le score de données sondées.
+     *
+     * @param donnees les données
+     * @return le score
+     */
+    public static int score(long donnees) {
+        return (int) (donnees >>> DECALAGE_SCORE & 0xFFFF) - BIAIS_SCORE;
+    }
+}
@@ -0,0 +1,50 @@
+package cstjean.mobile.dames;
+
+/**
+ * Générateur pseudo-aléatoire xorshift64* : rapide, sans allocation et sans synchronisation.
+ *
+ * <p>
+ * Chaque fil d’exécution doit posséder sa propre instance.
+ * La qualité statistique suffit aux simulations de parties, pas à la cryptographie.
+ * </p>
+ */
+public final class Xorshift {
+
+    /** L’état interne, jamais nul. */
+    private long etat;
+
+    /**
+     * Construit un générateur à partir d’une graine.
+     *
+     * @param graine la graine (toute valeur, y compris 0)
+     */
+    public Xorshift(long graine) {
+        long melange = Zobrist.melanger(graine + 0x9E3779B97F4A7C15L);
+        this.etat = melange == 0 ? 0x9E3779B97F4A7C15L : melange;
+    }
+
+    /**
+     * Retourne le prochain entier de 64 bits.
+     *
+     * @return une valeur pseudo-aléatoire
+     */
+    public long suivant() {
+        long x = etat;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        etat = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Retourne un entier uniforme entre {@code 0} inclus et {@code borne} exclue,
+     * par multiplication plutôt que par division.
+     *
+     * @param borne la borne supérieure exclue (strictement positive)
+     * @return une valeur entre {@code 0} et {@code borne - 1}
+     */
+    public int suivant(int borne) {
+        return (int) (((suivant() >>> 32) * borne) >>> 32);
+    }
+}
@@ -0,0 +1,66 @@
+package cstjean.mobile.dames;
+
+/**
+ * Clés de hachage de Zobrist pour les positions de dames.
+ *
+ * <p>
+ * Le hachage d’une position est le ou exclusif des clés de chaque pièce présente
+ * (une clé par case et par type de pièce) et, si les noirs ont le trait,
+ * de {@link #TRAIT_NOIR}. Il se met donc à jour en temps constant à chaque coup.
+ * Les clés sont générées par SplitMix64 à partir d’une graine fixe,
+ * ce qui les rend identiques d’une exécution à l’autre.
+ * </p>
+ */
+public final class Zobrist {
+
+    /** Nombre maximal de cases couvertes par les clés. */
+    public static final int CASES_MAX = 128;
+
+    /** Clé ajoutée lorsque les noirs ont le trait. */
+    public static final long TRAIT_NOIR;
+
+    /** Clés des pièces, indexées par {@code case * 5 + codePiece} (voir {@link Coup}). */
+    private static final long[] CLES = new long[CASES_MAX * 5];
+
+    static {
+        long graine = 0x44414D4553L;
+        for (int i = 0; i < CLES.length; i++) {
+            graine += 0x9E3779B97F4A7C15L;
+            CLES[i] = melanger(graine);
+        }
+        graine += 0x9E3779B97F4A7C15L;
+        TRAIT_NOIR = melanger(graine);
+        for (int position = 0; position < CASES_MAX; position++) {
+            CLES[position * 5 + Coup.PIECE_AUCUNE] = 0L;
+        }
+    }
+
+    /**
+     * Classe utilitaire : aucune instance.
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * Retourne la clé d’une pièce sur une case.
+     *
+     * @param position la case (1 à {@link #CASES_MAX} - 1)
+     * @param piece    le code de la pièce (voir {@link Coup}) ; {@link Coup#PIECE_AUCUNE} donne {@code 0}
+     * @return la clé de Zobrist
+     */
+    public static long cle(int position, int piece) {
+        return CLES[position * 5 + piece];
+    }
+
+    /**
+     * Fonction de mélange de SplitMix64.
+     *
+     * @param z la valeur à mélanger
+     * @return la valeur mélangée
+     */
+    static long melanger(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}